@@ -0,0 +1,56 @@
+/*
+ * AssetBenchmark.java
+ *
+ * Measures JsonAssetManager.getEntry(), which the models call when they are
+ * initialized and some of them call again every frame to swap animations.
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import edu.cornell.gdiac.util.FilmStrip;
+import edu.cornell.gdiac.util.JsonAssetManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups in the asset directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetBenchmark {
+	/** The asset manager under test */
+	private JsonAssetManager manager;
+
+	@Setup
+	public void setup() {
+		BenchAssets.load();
+		manager = JsonAssetManager.getInstance();
+	}
+
+	@Benchmark
+	public TextureRegion texture() {
+		return manager.getEntry("both_capsule", TextureRegion.class);
+	}
+
+	@Benchmark
+	public FilmStrip filmstrip() {
+		return manager.getEntry("turret_shooting_present", FilmStrip.class);
+	}
+
+	@Benchmark
+	public Sound sound() {
+		return manager.getEntry("jump", Sound.class);
+	}
+
+	/** A key that is not in the directory, which returns null */
+	@Benchmark
+	public Object missing() {
+		return manager.getEntry("not_an_asset", TextureRegion.class);
+	}
+}
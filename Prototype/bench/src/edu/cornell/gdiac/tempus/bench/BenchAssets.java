@@ -0,0 +1,54 @@
+/*
+ * BenchAssets.java
+ *
+ * Every benchmark runs in a forked JVM with no window, so this boots a
+ * headless application (for Gdx.files and Gdx.app) and loads the model assets
+ * the first time that they are needed.  The JVM must be started from the
+ * assets directory, which is what the bench:jmh task does.
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.tempus.headless.HeadlessAssets;
+
+/**
+ * Lazily boots libGDX and the game assets, once per JVM.
+ */
+public class BenchAssets {
+	/** Whether the headless application has been created */
+	private static boolean booted;
+	/** The parsed asset directory, once the assets are loaded */
+	private static JsonValue assets;
+
+	/**
+	 * Creates the headless application if it does not already exist.
+	 *
+	 * The application has no render loop; it is only needed so that the Gdx
+	 * statics and the native libraries are set up.
+	 */
+	public static synchronized void boot() {
+		if (booted) {
+			return;
+		}
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.renderInterval = -1;
+		new HeadlessApplication(new ApplicationAdapter() {}, config);
+		booted = true;
+	}
+
+	/**
+	 * Returns the asset directory, loading the model assets if necessary.
+	 *
+	 * @return the parsed asset directory
+	 */
+	public static synchronized JsonValue load() {
+		if (assets == null) {
+			boot();
+			assets = HeadlessAssets.load();
+		}
+		return assets;
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * CollisionBenchmark.java
+ *
+ * Measures CollisionController.beginContact() on the contacts of a real room.
+ * The room is stepped until the avatar and the enemies have landed, and the
+ * contacts that exist at that point are replayed through the listener, and
+ * the recorded events are handled as they would be after a step.  The world
+ * is never stepped again, so the same contacts are used every time.
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.tempus.headless.RoomSimulation;
+import edu.cornell.gdiac.tempus.tempus.CollisionController;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contact dispatch through the CollisionController.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+	/** The number of frames to step before capturing the contacts */
+	private static final int SETTLE_FRAMES = 120;
+
+	/** The room to take the contacts from */
+	@Param({"jsons/rooms/1-4.json", "jsons/rooms/1-13.json", "jsons/rooms/3-10.json"})
+	public String room;
+
+	/** The room that owns the contacts */
+	private RoomSimulation sim;
+	/** The listener under test */
+	private CollisionController controller;
+	/** The contacts captured after the room settled */
+	private Contact[] contacts;
+
+	@Setup
+	public void setup() {
+		JsonValue assets = BenchAssets.load();
+		sim = new RoomSimulation(room);
+		sim.build(assets);
+		for (int ii = 0; ii < SETTLE_FRAMES; ii++) {
+			sim.stepFrame();
+		}
+		controller = sim.getCollisionController();
+		Array<Contact> list = sim.getWorld().getContactList();
+		if (list.size == 0) {
+			throw new IllegalStateException(room + " has no contacts after " + SETTLE_FRAMES + " frames");
+		}
+		contacts = list.toArray(Contact.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		sim.dispose();
+	}
+
+	/** Dispatches every captured contact to beginContact() and handles them */
+	@Benchmark
+	public int beginContact() {
+		for (Contact contact : contacts) {
+			controller.beginContact(contact);
+		}
+		controller.processEvents();
+		return contacts.length;
+	}
+}
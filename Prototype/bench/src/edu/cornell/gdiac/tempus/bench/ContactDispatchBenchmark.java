@@ -0,0 +1,126 @@
+/*
+ * ContactDispatchBenchmark.java
+ *
+ * Measures the cost of one contact callback as the room fills up.  Room 1-4 is
+ * padded with copies of its first enemy, dropped in a grid over the room, and
+ * stepped until they have landed on the platforms and on each other.  The
+ * contacts that exist at that point are replayed through the listener, so the
+ * number of contacts (and the mix of pairs) grows with the number of bodies.
+ *
+ * Each invocation replays a fixed number of contacts, cycling through the
+ * captured list, so the scores are the time per contact.
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import edu.cornell.gdiac.tempus.headless.RoomSimulation;
+import edu.cornell.gdiac.tempus.tempus.CollisionController;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CollisionController callbacks per contact, with 10 to 500 extra bodies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactDispatchBenchmark {
+	/** The room that the crowded rooms are built from */
+	private static final String BASE_ROOM = "jsons/rooms/1-4.json";
+	/** The number of frames to step before capturing the contacts */
+	private static final int SETTLE_FRAMES = 120;
+	/** The number of contacts replayed by each invocation */
+	private static final int REPLAYS = 1024;
+	/** The number of enemies in each row of the grid */
+	private static final int ROW_LENGTH = 25;
+	/** The horizontal distance between enemies */
+	private static final float COLUMN_SPACING = 1.2f;
+	/** The vertical distance between rows of enemies */
+	private static final float ROW_SPACING = 0.8f;
+	/** The number of rows before the layout wraps (enemies may then overlap) */
+	private static final int ROW_COUNT = 20;
+
+	/** The number of enemies added to the base room */
+	@Param({"10", "50", "100", "500"})
+	public int bodies;
+
+	/** The crowded room */
+	private RoomSimulation sim;
+	/** The listener under test */
+	private CollisionController controller;
+	/** The contacts captured after the room settled */
+	private Contact[] contacts;
+
+	@Setup
+	public void setup() {
+		JsonValue assets = BenchAssets.load();
+		JsonValue level = new JsonReader().parse(Gdx.files.internal(BASE_ROOM));
+		addEnemies(level, bodies);
+
+		sim = new RoomSimulation(BASE_ROOM);
+		sim.build(assets, level);
+		for (int ii = 0; ii < SETTLE_FRAMES; ii++) {
+			sim.stepFrame();
+		}
+		controller = sim.getCollisionController();
+		Array<Contact> list = sim.getWorld().getContactList();
+		if (list.size == 0) {
+			throw new IllegalStateException(BASE_ROOM + " has no contacts after " + SETTLE_FRAMES + " frames");
+		}
+		contacts = list.toArray(Contact.class);
+	}
+
+	/**
+	 * Copies the first enemy of the level to fill out a grid of enemies.
+	 *
+	 * @param level	The parsed room JSON
+	 * @param count	The number of enemies to add
+	 */
+	private static void addEnemies(JsonValue level, int count) {
+		JsonValue enemies = level.get("enemies");
+		String template = enemies.child().toJson(JsonWriter.OutputType.json);
+		JsonReader reader = new JsonReader();
+		for (int ii = 0; ii < count; ii++) {
+			JsonValue enemy = reader.parse(template);
+			JsonValue pos = enemy.get("pos");
+			pos.child().set(1.5f + (ii % ROW_LENGTH) * COLUMN_SPACING, null);
+			pos.child().next().set(2.0f + ((ii / ROW_LENGTH) % ROW_COUNT) * ROW_SPACING, null);
+			enemies.addChild("benchenemy" + ii, enemy);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		sim.dispose();
+	}
+
+	/** Dispatches captured contacts to beginContact() and handles them */
+	@Benchmark
+	@OperationsPerInvocation(REPLAYS)
+	public int beginContact() {
+		for (int ii = 0; ii < REPLAYS; ii++) {
+			controller.beginContact(contacts[ii % contacts.length]);
+		}
+		controller.processEvents();
+		return contacts.length;
+	}
+
+	/** Dispatches captured contacts to preSolve(), which runs every step */
+	@Benchmark
+	@OperationsPerInvocation(REPLAYS)
+	public int preSolve() {
+		for (int ii = 0; ii < REPLAYS; ii++) {
+			controller.preSolve(contacts[ii % contacts.length], null);
+		}
+		return contacts.length;
+	}
+}
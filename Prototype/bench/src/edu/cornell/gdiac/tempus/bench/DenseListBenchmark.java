@@ -0,0 +1,103 @@
+/*
+ * DenseListBenchmark.java
+ *
+ * DenseList replaced PooledList for the object and enemy lists of a room.  These
+ * are the cases of PooledListBenchmark, with the same names and sizes, so the
+ * two can be compared directly.  Indexed access and removal are O(1) here, and
+ * iteration walks one array instead of chasing links.
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import edu.cornell.gdiac.util.DenseList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iteration, indexed access and removal on a DenseList.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DenseListBenchmark {
+	/** The elements removed by sweep() are the multiples of this plus one */
+	private static final int SWEEP_MASK = 7;
+
+	/** The number of elements in the list */
+	@Param({"10", "100", "500"})
+	public int size;
+
+	/** The list under test */
+	private DenseList<Integer> list;
+	/** The element in the middle of the list when it was made */
+	private Integer middle;
+
+	@Setup
+	public void setup() {
+		list = new DenseList<Integer>();
+		for (int ii = 0; ii < size; ii++) {
+			list.add(ii);
+		}
+		middle = list.get(size / 2);
+	}
+
+	/** Walks the list with the standard (pooled) iterator */
+	@Benchmark
+	public int iterate() {
+		int sum = 0;
+		for (Integer value : list) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	/** Walks the list with get(i), as findPlatform() does */
+	@Benchmark
+	public int indexed() {
+		int sum = 0;
+		for (int ii = 0; ii < list.size(); ii++) {
+			sum += list.get(ii);
+		}
+		return sum;
+	}
+
+	/** Moves the middle element to the end, as findPlatform() does after a teleport */
+	@Benchmark
+	public Integer removeAndAppend() {
+		Integer value = list.removeIndex(size / 2);
+		list.add(value);
+		return value;
+	}
+
+	/** Removes an element by value and adds it back, as SceneRegistry.remove() does */
+	@Benchmark
+	public Integer removeObject() {
+		list.remove(middle);
+		list.add(middle);
+		return middle;
+	}
+
+	/**
+	 * Deletes every eighth element in place and adds them back, as the garbage
+	 * collection in WorldController.postUpdate() does
+	 */
+	@Benchmark
+	public int sweep() {
+		int removed = 0;
+		Iterator<Integer> iterator = list.iterator();
+		while (iterator.hasNext()) {
+			if ((iterator.next() & SWEEP_MASK) == 0) {
+				iterator.remove();
+				removed++;
+			}
+		}
+		for (int ii = 0; ii < removed; ii++) {
+			list.add(ii * (SWEEP_MASK + 1));
+		}
+		return removed;
+	}
+}
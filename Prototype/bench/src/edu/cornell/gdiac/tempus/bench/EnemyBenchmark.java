@@ -0,0 +1,124 @@
+/*
+ * EnemyBenchmark.java
+ *
+ * Measures the enemy AI against rooms with many platforms.  A teleporting
+ * enemy scans every platform in the room (with a ray cast for each) whenever
+ * it looks for somewhere to go, so this is the part of the AI that grows with
+ * the size of the room.
+ *
+ * The rooms are synthetic: room 2-6 (which has a single teleporting enemy) is
+ * loaded and then padded with extra capsules in the present, past and both
+ * eras.  The enemy is moved to the present so that it acts without a shift.
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import edu.cornell.gdiac.tempus.headless.RoomSimulation;
+import edu.cornell.gdiac.tempus.tempus.EnemyController;
+import edu.cornell.gdiac.tempus.tempus.models.Enemy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EnemyController.processAction() and findPlatform() with 10 to 500 platforms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnemyBenchmark {
+	/** The room that the synthetic rooms are built from */
+	private static final String BASE_ROOM = "jsons/rooms/2-6.json";
+	/** The number of capsules in each row of the synthetic room */
+	private static final int ROW_LENGTH = 10;
+	/** The horizontal distance between capsules */
+	private static final float COLUMN_SPACING = 3.0f;
+	/** The vertical distance between rows of capsules */
+	private static final float ROW_SPACING = 1.4f;
+	/** The number of rows before the layout wraps (capsules may then overlap) */
+	private static final int ROW_COUNT = 12;
+
+	/** The number of capsules added to the base room */
+	@Param({"10", "50", "100", "500"})
+	public int platforms;
+
+	/** The synthetic room */
+	private RoomSimulation sim;
+	/** The enemy controller of the room */
+	private EnemyController controller;
+	/** The teleporting enemy */
+	private Enemy teleporter;
+
+	@Setup
+	public void setup() {
+		JsonValue assets = BenchAssets.load();
+		JsonValue level = new JsonReader().parse(Gdx.files.internal(BASE_ROOM));
+		addCapsules(level, platforms);
+		for (JsonValue enemy = level.get("enemies").child(); enemy != null; enemy = enemy.next()) {
+			enemy.get("entitytype").set("present");
+			enemy.get("texture").set("enemypresent");
+		}
+
+		sim = new RoomSimulation(BASE_ROOM);
+		sim.build(assets, level);
+		controller = sim.getEnemyController();
+		for (Enemy e : sim.getEnemies()) {
+			if (e.getAi() == Enemy.EnemyType.TELEPORT) {
+				teleporter = e;
+			}
+		}
+		if (teleporter == null) {
+			throw new IllegalStateException(BASE_ROOM + " has no teleporting enemy");
+		}
+	}
+
+	/**
+	 * Copies the first capsule of the level to fill out a grid of capsules.
+	 *
+	 * @param level	The parsed room JSON
+	 * @param count	The number of capsules to add
+	 */
+	private static void addCapsules(JsonValue level, int count) {
+		JsonValue capsules = level.get("capsules");
+		String template = capsules.child().toJson(JsonWriter.OutputType.json);
+		JsonReader reader = new JsonReader();
+		for (int ii = 0; ii < count; ii++) {
+			JsonValue capsule = reader.parse(template);
+			JsonValue pos = capsule.get("pos");
+			pos.child().set(1.0f + (ii % ROW_LENGTH) * COLUMN_SPACING, null);
+			pos.child().next().set(1.0f + ((ii / ROW_LENGTH) % ROW_COUNT) * ROW_SPACING, null);
+			capsule.get("space").set(1 + ii % 3, null);
+			capsules.addChild("benchcapsule" + ii, capsule);
+		}
+	}
+
+	/** Drains the bullets queued by the enemy so they do not pile up */
+	@TearDown(Level.Iteration)
+	public void drain() {
+		sim.stepFrame();
+	}
+
+	@TearDown
+	public void tearDown() {
+		sim.dispose();
+	}
+
+	/** Runs one frame of AI for every enemy */
+	@Benchmark
+	public void processAction() {
+		controller.processAction();
+	}
+
+	/** Searches for a platform for the teleporting enemy */
+	@Benchmark
+	public Enemy findPlatform() {
+		controller.findPlatform(teleporter);
+		return teleporter;
+	}
+}
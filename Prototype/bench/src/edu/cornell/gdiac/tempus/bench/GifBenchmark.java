@@ -0,0 +1,52 @@
+/*
+ * GifBenchmark.java
+ *
+ * Measures GifDecoder.read() on the animated logo shown while the game loads.
+ * The file is read into memory once, so only the decoding is timed.
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import edu.cornell.gdiac.util.GifDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the GIF animations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GifBenchmark {
+	/** The GIF to decode */
+	@Param({"textures/gui/tempus_logo_stationary.gif"})
+	public String file;
+
+	/** The encoded GIF */
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		BenchAssets.boot();
+		bytes = Gdx.files.internal(file).readBytes();
+	}
+
+	/** Decodes every frame of the GIF and frees the pixmaps */
+	@Benchmark
+	public int read() {
+		GifDecoder decoder = new GifDecoder();
+		decoder.read(new ByteArrayInputStream(bytes));
+		int frames = decoder.getFrameCount();
+		for (int ii = 0; ii < frames; ii++) {
+			Pixmap frame = decoder.getFrame(ii);
+			frame.dispose();
+		}
+		return frames;
+	}
+}
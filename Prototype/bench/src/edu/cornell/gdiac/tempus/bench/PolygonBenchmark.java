@@ -0,0 +1,70 @@
+/*
+ * PolygonBenchmark.java
+ *
+ * Measures the construction of a PolygonObstacle, which triangulates the
+ * outline and allocates a Box2D shape for every triangle.  Every platform in
+ * a room is built this way when the room is loaded or reset.  The outlines
+ * are the ones used by LevelController.populateWorld().
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import com.badlogic.gdx.physics.box2d.Box2D;
+import edu.cornell.gdiac.tempus.obstacle.PolygonObstacle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Triangulation of the platform outlines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolygonBenchmark {
+	/** A polygon that frees its Box2D shapes, since it is never added to a world */
+	private static class DisposablePolygon extends PolygonObstacle {
+		public DisposablePolygon(float[] points) {
+			super(points);
+		}
+
+		public int dispose() {
+			for (int ii = 0; ii < shapes.length; ii++) {
+				shapes[ii].dispose();
+			}
+			return shapes.length;
+		}
+	}
+
+	/** The platform outline to triangulate */
+	@Param({"capsule", "longcapsule", "rounded", "diamond", "pillar"})
+	public String platform;
+
+	/** The outline vertices */
+	private float[] points;
+
+	@Setup
+	public void setup() {
+		Box2D.init();
+		if (platform.equals("capsule")) {
+			points = new float[] {0.5f, 1.1f, 0.6f, 1.1f, 2.4f, 1.1f, 2.6f, 1.1f, 2.6f, 0.6f, 2.0f, 0.3f, 1.1f, 0.3f, 0.5f, 0.6f};
+		} else if (platform.equals("longcapsule")) {
+			points = new float[] {0.5f, 1.1f, 0.6f, 1.1f, 4.7f, 1.1f, 4.9f, 1.1f, 4.9f, 0.6f, 4.3f, 0.3f, 3.4f, 0.3f,
+					2.7f, 0.5f, 2.0f, 0.3f, 1.1f, 0.3f, 0.5f, 0.6f};
+		} else if (platform.equals("rounded")) {
+			points = new float[] {0.4f, 1.4f, 0.7f, 1.7f, 0.8f, 1.7f, 2.1f, 1.7f, 2.2f, 1.7f, 2.4f, 1.4f, 2.3f, 0.8f, 1.7f, 0.3f, 1.1f, 0.3f};
+		} else if (platform.equals("diamond")) {
+			points = new float[] {0.4f, 1.8f, 0.5f, 1.8f, 2.0f, 1.8f, 2.2f, 1.8f, 1.4f, 0.1f};
+		} else {
+			points = new float[] {1.2f, 4.0f, 1.3f, 4.0f, 2.0f, 4.0f, 2.1f, 4.0f, 2.1f, 1.0f, 1.2f, 1.0f};
+		}
+	}
+
+	/** Builds (and frees) a polygon for the outline */
+	@Benchmark
+	public int triangulate() {
+		return new DisposablePolygon(points).dispose();
+	}
+}
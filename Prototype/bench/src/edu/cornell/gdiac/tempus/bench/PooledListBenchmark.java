@@ -0,0 +1,118 @@
+/*
+ * PooledListBenchmark.java
+ *
+ * PooledList holds every object and enemy in a room.  It is walked with an
+ * iterator by most of the controllers, but EnemyController.findPlatform()
+ * walks it with get(i) and then moves the chosen platform to the end with
+ * remove(i) and add().  On a linked list each of those is linear, so these
+ * measure the cost of both access patterns as the room grows.
+ *
+ * DenseListBenchmark runs the same cases on the array-backed replacement.
+ */
+package edu.cornell.gdiac.tempus.bench;
+
+import edu.cornell.gdiac.util.PooledList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iteration, indexed access and removal on a PooledList.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PooledListBenchmark {
+	/** The elements removed by sweep() are the multiples of this plus one */
+	private static final int SWEEP_MASK = 7;
+
+	/** The number of elements in the list */
+	@Param({"10", "100", "500"})
+	public int size;
+
+	/** The list under test */
+	private PooledList<Integer> list;
+	/** The element in the middle of the list when it was made */
+	private Integer middle;
+
+	@Setup
+	public void setup() {
+		list = new PooledList<Integer>();
+		for (int ii = 0; ii < size; ii++) {
+			list.add(ii);
+		}
+		middle = list.get(size / 2);
+	}
+
+	/** Walks the list with the standard iterator */
+	@Benchmark
+	public int iterate() {
+		int sum = 0;
+		for (Integer value : list) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	/** Walks the list with the entry iterator used for O(1) deletion */
+	@Benchmark
+	public int iterateEntries() {
+		int sum = 0;
+		Iterator<PooledList<Integer>.Entry> iterator = list.entryIterator();
+		while (iterator.hasNext()) {
+			sum += iterator.next().getValue();
+		}
+		return sum;
+	}
+
+	/** Walks the list with get(i), as findPlatform() does */
+	@Benchmark
+	public int indexed() {
+		int sum = 0;
+		for (int ii = 0; ii < list.size(); ii++) {
+			sum += list.get(ii);
+		}
+		return sum;
+	}
+
+	/** Moves the middle element to the end, as findPlatform() does after a teleport */
+	@Benchmark
+	public Integer removeAndAppend() {
+		Integer value = list.remove(size / 2);
+		list.add(value);
+		return value;
+	}
+
+	/** Removes an element by value and adds it back, as SceneRegistry.remove() does */
+	@Benchmark
+	public Integer removeObject() {
+		list.remove(middle);
+		list.add(middle);
+		return middle;
+	}
+
+	/**
+	 * Deletes every eighth element in place and adds them back, as the garbage
+	 * collection in WorldController.postUpdate() does
+	 */
+	@Benchmark
+	public int sweep() {
+		int removed = 0;
+		Iterator<PooledList<Integer>.Entry> iterator = list.entryIterator();
+		while (iterator.hasNext()) {
+			PooledList<Integer>.Entry entry = iterator.next();
+			if ((entry.getValue() & SWEEP_MASK) == 0) {
+				entry.remove();
+				removed++;
+			}
+		}
+		for (int ii = 0; ii < removed; ii++) {
+			list.add(ii * (SWEEP_MASK + 1));
+		}
+		return removed;
+	}
+}
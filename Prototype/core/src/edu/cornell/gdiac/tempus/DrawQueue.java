@@ -0,0 +1,401 @@
+/*
+ * DrawQueue.java
+ *
+ * The sprite batch flushes whenever it is handed a different texture or blend
+ * function from the last draw.  Drawing the objects of a room in the order that
+ * they were added switches between the platforms, the enemies, the projectiles
+ * and the indicators many times a frame, even with the atlases.  This class
+ * records the draws of a pass instead, with their batch vertices computed up
+ * front, and hands them to the batch sorted by layer, then blend state, then
+ * texture.
+ *
+ * Draws in the same layer may be reordered, so anything that must appear above
+ * something else belongs in a higher layer.  Blend states and textures are
+ * ranked in the order that they are first used in a pass, so the draws of a
+ * layer only change order when a texture is used, then another, then the first
+ * one again.
+ */
+package edu.cornell.gdiac.tempus;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PolygonRegion;
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.util.Arrays;
+
+/**
+ * A command buffer of sprite draws, sorted before they are submitted.
+ *
+ * Each draw keeps its own copy of the batch vertices (position, packed color and
+ * texture coordinates), so the regions and transforms passed in may be changed
+ * as soon as the draw is recorded.
+ */
+class DrawQueue {
+	/** The floats of a batch vertex (position, packed color, texture coordinates) */
+	static final int VERTEX_SIZE = 5;
+	/** The lowest layer supported */
+	static final int MIN_LAYER = Short.MIN_VALUE;
+	/** The highest layer supported */
+	static final int MAX_LAYER = Short.MAX_VALUE;
+	/** The number of texture ranks; later textures share the last rank */
+	private static final int TEXTURE_RANKS = 1 << 12;
+	/** The position of the layer in a sort key */
+	private static final int LAYER_SHIFT = 47;
+	/** The position of the blend rank in a sort key */
+	private static final int BLEND_SHIFT = 44;
+	/** The position of the texture rank in a sort key */
+	private static final int TEXTURE_SHIFT = 32;
+	/** The mask for the draw index in a sort key */
+	private static final long INDEX_MASK = 0xFFFFFFFFL;
+	/** The triangles of a quad, from its corners in batch order */
+	private static final short[] QUAD_TRIANGLES = {0, 1, 2, 2, 3, 0};
+	/** The default number of draws before the arrays must grow */
+	private static final int DEFAULT_CAPACITY = 128;
+
+	/** The sort key of each draw (the index of the draw is in the low bits) */
+	private long[] keys;
+	/** The texture of each draw */
+	private Texture[] textures;
+	/** The blend state of each draw */
+	private GameCanvas.BlendState[] blends;
+	/** The offset of the vertices of each draw */
+	private int[] vertexStart;
+	/** The number of vertex floats of each draw */
+	private int[] vertexCount;
+	/** The offset of the triangles of each draw */
+	private int[] triangleStart;
+	/** The number of triangle indices of each draw */
+	private int[] triangleCount;
+	/** The number of draws recorded */
+	private int size;
+
+	/** The vertices of every draw, packed together */
+	private float[] vertices;
+	/** The number of vertex floats in use */
+	private int vertexSize;
+	/** The triangles of every draw, relative to the first vertex of the draw */
+	private short[] triangles;
+	/** The number of triangle indices in use */
+	private int triangleSize;
+
+	/** The rank of each texture used since the last clear */
+	private ObjectIntMap<Texture> textureRanks;
+	/** The rank of each blend state (by ordinal), or -1 if it is unused */
+	private int[] blendRanks;
+	/** The number of blend states used since the last clear */
+	private int blendCount;
+	/** Whether the keys are sorted */
+	private boolean sorted;
+
+	/**
+	 * Creates an empty queue
+	 */
+	public DrawQueue() {
+		keys = new long[DEFAULT_CAPACITY];
+		textures = new Texture[DEFAULT_CAPACITY];
+		blends = new GameCanvas.BlendState[DEFAULT_CAPACITY];
+		vertexStart = new int[DEFAULT_CAPACITY];
+		vertexCount = new int[DEFAULT_CAPACITY];
+		triangleStart = new int[DEFAULT_CAPACITY];
+		triangleCount = new int[DEFAULT_CAPACITY];
+		vertices = new float[DEFAULT_CAPACITY * 4 * VERTEX_SIZE];
+		triangles = new short[DEFAULT_CAPACITY * QUAD_TRIANGLES.length];
+		textureRanks = new ObjectIntMap<Texture>();
+		blendRanks = new int[GameCanvas.BlendState.values().length];
+		clear();
+	}
+
+	/**
+	 * Returns the number of draws recorded
+	 *
+	 * @return the number of draws recorded
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes every draw, and forgets the ranks of the textures and blend states.
+	 */
+	public void clear() {
+		Arrays.fill(textures, 0, size, null);
+		Arrays.fill(blends, 0, size, null);
+		size = 0;
+		vertexSize = 0;
+		triangleSize = 0;
+		textureRanks.clear();
+		Arrays.fill(blendRanks, -1);
+		blendCount = 0;
+		sorted = true;
+	}
+
+	/**
+	 * Records a texture region drawn with an affine transform.
+	 *
+	 * The transform takes the rectangle (0,0)-(width,height) to the screen, like
+	 * the Affine2 draw method of the sprite batch.
+	 *
+	 * @param region	The region to draw
+	 * @param tint		The color tint
+	 * @param blend		The blend state of the draw
+	 * @param layer		The layer of the draw
+	 * @param transform	The transform of the region
+	 * @param width		The width of the region before the transform
+	 * @param height	The height of the region before the transform
+	 */
+	public void addRegion(TextureRegion region, Color tint, GameCanvas.BlendState blend, int layer,
+						  Affine2 transform, float width, float height) {
+		int start = vertexSize;
+		reserve(4 * VERTEX_SIZE, QUAD_TRIANGLES.length);
+		float color = tint.toFloatBits();
+		float u = region.getU();
+		float v = region.getV();
+		float u2 = region.getU2();
+		float v2 = region.getV2();
+		float wx = transform.m00 * width;
+		float wy = transform.m10 * width;
+		float hx = transform.m01 * height;
+		float hy = transform.m11 * height;
+		putVertex(transform.m02, transform.m12, color, u, v2);
+		putVertex(transform.m02 + hx, transform.m12 + hy, color, u, v);
+		putVertex(transform.m02 + wx + hx, transform.m12 + wy + hy, color, u2, v);
+		putVertex(transform.m02 + wx, transform.m12 + wy, color, u2, v2);
+		System.arraycopy(QUAD_TRIANGLES, 0, triangles, triangleSize, QUAD_TRIANGLES.length);
+		triangleSize += QUAD_TRIANGLES.length;
+		record(region.getTexture(), blend, layer, start, QUAD_TRIANGLES.length);
+	}
+
+	/**
+	 * Records a polygon region drawn with an affine transform.
+	 *
+	 * The transform takes the vertices of the polygon to the screen.
+	 *
+	 * @param region	The polygon to draw
+	 * @param tint		The color tint
+	 * @param blend		The blend state of the draw
+	 * @param layer		The layer of the draw
+	 * @param transform	The transform of the polygon vertices
+	 */
+	public void addPolygon(PolygonRegion region, Color tint, GameCanvas.BlendState blend, int layer,
+						   Affine2 transform) {
+		float[] points = region.getVertices();
+		float[] coords = region.getTextureCoords();
+		short[] tris = region.getTriangles();
+		int start = vertexSize;
+		reserve(points.length / 2 * VERTEX_SIZE, tris.length);
+		float color = tint.toFloatBits();
+		for (int ii = 0; ii < points.length; ii += 2) {
+			float x = points[ii];
+			float y = points[ii + 1];
+			putVertex(transform.m00 * x + transform.m01 * y + transform.m02,
+					  transform.m10 * x + transform.m11 * y + transform.m12,
+					  color, coords[ii], coords[ii + 1]);
+		}
+		System.arraycopy(tris, 0, triangles, triangleSize, tris.length);
+		triangleSize += tris.length;
+		record(region.getRegion().getTexture(), blend, layer, start, tris.length);
+	}
+
+	/**
+	 * Records prepared batch vertices, such as those of a baked mesh.
+	 *
+	 * The vertices are copied, and the triangles are relative to the first one.
+	 *
+	 * @param texture	The texture of the vertices
+	 * @param blend		The blend state of the draw
+	 * @param layer		The layer of the draw
+	 * @param verts		The batch vertices (position, packed color, texture coordinates)
+	 * @param count		The number of vertex floats to draw
+	 * @param tris		The triangles of the vertices
+	 * @param tricount	The number of triangle indices to draw
+	 */
+	public void addVertices(Texture texture, GameCanvas.BlendState blend, int layer,
+							float[] verts, int count, short[] tris, int tricount) {
+		int start = vertexSize;
+		reserve(count, tricount);
+		System.arraycopy(verts, 0, vertices, vertexSize, count);
+		vertexSize += count;
+		System.arraycopy(tris, 0, triangles, triangleSize, tricount);
+		triangleSize += tricount;
+		record(texture, blend, layer, start, tricount);
+	}
+
+	/**
+	 * Sorts the draws by layer, then blend state, then texture.
+	 *
+	 * Draws with the same key stay in the order that they were recorded.
+	 */
+	public void sort() {
+		if (!sorted) {
+			Arrays.sort(keys, 0, size);
+			sorted = true;
+		}
+	}
+
+	/**
+	 * Returns the blend state of a draw, in sorted order
+	 *
+	 * @param index	The position of the draw after sorting
+	 *
+	 * @return the blend state of a draw, in sorted order
+	 */
+	public GameCanvas.BlendState getBlend(int index) {
+		return blends[(int)(keys[index] & INDEX_MASK)];
+	}
+
+	/**
+	 * Returns the texture of a draw, in sorted order
+	 *
+	 * @param index	The position of the draw after sorting
+	 *
+	 * @return the texture of a draw, in sorted order
+	 */
+	public Texture getTexture(int index) {
+		return textures[(int)(keys[index] & INDEX_MASK)];
+	}
+
+	/**
+	 * Returns the number of vertex floats of a draw, in sorted order
+	 *
+	 * @param index	The position of the draw after sorting
+	 *
+	 * @return the number of vertex floats of a draw, in sorted order
+	 */
+	public int getVertexCount(int index) {
+		return vertexCount[(int)(keys[index] & INDEX_MASK)];
+	}
+
+	/**
+	 * Returns the number of triangle indices of a draw, in sorted order
+	 *
+	 * @param index	The position of the draw after sorting
+	 *
+	 * @return the number of triangle indices of a draw, in sorted order
+	 */
+	public int getTriangleCount(int index) {
+		return triangleCount[(int)(keys[index] & INDEX_MASK)];
+	}
+
+	/**
+	 * Copies the vertices and triangles of a draw, in sorted order
+	 *
+	 * The triangles are shifted by the given base, so that draws can be packed
+	 * together into one buffer.
+	 *
+	 * @param index		The position of the draw after sorting
+	 * @param verts		The array to copy the vertex floats to
+	 * @param vertoff	The offset of the vertex floats in verts
+	 * @param tris		The array to copy the triangle indices to
+	 * @param trioff	The offset of the triangle indices in tris
+	 * @param base		The vertex (not float) index of the first vertex in verts
+	 */
+	public void copy(int index, float[] verts, int vertoff, short[] tris, int trioff, int base) {
+		int draw = (int)(keys[index] & INDEX_MASK);
+		System.arraycopy(vertices, vertexStart[draw], verts, vertoff, vertexCount[draw]);
+		int start = triangleStart[draw];
+		for (int ii = 0; ii < triangleCount[draw]; ii++) {
+			tris[trioff + ii] = (short)(triangles[start + ii] + base);
+		}
+	}
+
+	/**
+	 * Hands a draw to the sprite batch, in sorted order
+	 *
+	 * The blend function of the batch is not changed; see getBlend().
+	 *
+	 * @param index	The position of the draw after sorting
+	 * @param batch	The sprite batch to draw with
+	 */
+	public void submit(int index, PolygonSpriteBatch batch) {
+		int draw = (int)(keys[index] & INDEX_MASK);
+		batch.draw(textures[draw], vertices, vertexStart[draw], vertexCount[draw],
+				   triangles, triangleStart[draw], triangleCount[draw]);
+	}
+
+	/**
+	 * Records a draw whose vertices and triangles have been added
+	 *
+	 * @param texture	The texture of the draw
+	 * @param blend		The blend state of the draw
+	 * @param layer		The layer of the draw
+	 * @param start		The offset of the first vertex of the draw
+	 * @param tris		The number of triangle indices of the draw
+	 */
+	private void record(Texture texture, GameCanvas.BlendState blend, int layer, int start, int tris) {
+		int texRank = textureRanks.get(texture, -1);
+		if (texRank < 0) {
+			texRank = Math.min(textureRanks.size, TEXTURE_RANKS - 1);
+			textureRanks.put(texture, texRank);
+		}
+		int blendRank = blendRanks[blend.ordinal()];
+		if (blendRank < 0) {
+			blendRank = blendCount++;
+			blendRanks[blend.ordinal()] = blendRank;
+		}
+
+		textures[size] = texture;
+		blends[size] = blend;
+		vertexStart[size] = start;
+		vertexCount[size] = vertexSize - start;
+		triangleStart[size] = triangleSize - tris;
+		triangleCount[size] = tris;
+		keys[size] = ((long)(layer - MIN_LAYER) << LAYER_SHIFT) | ((long)blendRank << BLEND_SHIFT) |
+					 ((long)texRank << TEXTURE_SHIFT) | size;
+		sorted = sorted && (size == 0 || keys[size - 1] < keys[size]);
+		size++;
+		if (size == keys.length) {
+			resize(2 * keys.length);
+		}
+	}
+
+	/**
+	 * Adds a vertex to the vertex buffer (which must have room for it)
+	 *
+	 * @param x		The x-coordinate of the vertex
+	 * @param y		The y-coordinate of the vertex
+	 * @param color	The packed color of the vertex
+	 * @param u		The texture u-coordinate of the vertex
+	 * @param v		The texture v-coordinate of the vertex
+	 */
+	private void putVertex(float x, float y, float color, float u, float v) {
+		vertices[vertexSize++] = x;
+		vertices[vertexSize++] = y;
+		vertices[vertexSize++] = color;
+		vertices[vertexSize++] = u;
+		vertices[vertexSize++] = v;
+	}
+
+	/**
+	 * Makes room in the buffers for the vertices and triangles of a draw
+	 *
+	 * @param floats	The number of vertex floats needed
+	 * @param indices	The number of triangle indices needed
+	 */
+	private void reserve(int floats, int indices) {
+		if (vertexSize + floats > vertices.length) {
+			vertices = Arrays.copyOf(vertices, Math.max(2 * vertices.length, vertexSize + floats));
+		}
+		if (triangleSize + indices > triangles.length) {
+			triangles = Arrays.copyOf(triangles, Math.max(2 * triangles.length, triangleSize + indices));
+		}
+	}
+
+	/**
+	 * Grows the draw arrays to a new capacity
+	 *
+	 * @param capacity	The new capacity
+	 */
+	private void resize(int capacity) {
+		keys = Arrays.copyOf(keys, capacity);
+		textures = Arrays.copyOf(textures, capacity);
+		blends = Arrays.copyOf(blends, capacity);
+		vertexStart = Arrays.copyOf(vertexStart, capacity);
+		vertexCount = Arrays.copyOf(vertexCount, capacity);
+		triangleStart = Arrays.copyOf(triangleStart, capacity);
+		triangleCount = Arrays.copyOf(triangleCount, capacity);
+	}
+}
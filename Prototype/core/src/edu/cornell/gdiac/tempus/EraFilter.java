@@ -0,0 +1,128 @@
+/*
+ * EraFilter.java
+ *
+ * Keeps the two eras apart with Box2D collision filtering.  Every object is
+ * given a category by its era (and whether it is a hazard), and a mask that
+ * leaves out the categories of the other era.  Box2D then never creates a
+ * contact between the objects of different eras, so they no longer need to be
+ * turned into sensors on every time shift.
+ *
+ * The avatar is the only object that lives in both eras but collides with only
+ * one of them, so its mask is the only one that changes on a shift.  It still
+ * collides with the hazards (spikes and enemies) of the other era, so that it
+ * can be hurt by shifting into them; CollisionController makes those contacts
+ * non-solid.
+ */
+package edu.cornell.gdiac.tempus;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import edu.cornell.gdiac.tempus.obstacle.Obstacle;
+import edu.cornell.gdiac.tempus.tempus.models.Avatar;
+import edu.cornell.gdiac.tempus.tempus.models.Enemy;
+import edu.cornell.gdiac.tempus.tempus.models.Spikes;
+
+/**
+ * Static helpers to assign collision categories and masks by era.
+ */
+public class EraFilter {
+	/** The category of fixtures that were never given an era */
+	public static final short CATEGORY_DEFAULT = 0x0001;
+	/** The category of the avatar */
+	public static final short CATEGORY_AVATAR = 0x0002;
+	/** The category of objects in both eras */
+	public static final short CATEGORY_BOTH = 0x0004;
+	/** The category of platforms and projectiles in the present */
+	public static final short CATEGORY_PRESENT = 0x0008;
+	/** The category of platforms and projectiles in the past */
+	public static final short CATEGORY_PAST = 0x0010;
+	/** The category of spikes and enemies in the present */
+	public static final short CATEGORY_PRESENT_HAZARD = 0x0020;
+	/** The category of spikes and enemies in the past */
+	public static final short CATEGORY_PAST_HAZARD = 0x0040;
+
+	/** The solid categories, indexed by SceneRegistry era (PRESENT or PAST) */
+	private static final short[] SOLID = { CATEGORY_PRESENT, CATEGORY_PAST };
+	/** The hazard categories, indexed by SceneRegistry era (PRESENT or PAST) */
+	private static final short[] HAZARD = { CATEGORY_PRESENT_HAZARD, CATEGORY_PAST_HAZARD };
+
+	/**
+	 * Returns the collision category for an object
+	 *
+	 * @param obj The object to classify
+	 *
+	 * @return the collision category for an object
+	 */
+	public static short categoryOf(Obstacle obj) {
+		if (obj instanceof Avatar) {
+			return CATEGORY_AVATAR;
+		}
+		int era = SceneRegistry.eraOf(obj);
+		if (era == SceneRegistry.BOTH) {
+			return CATEGORY_BOTH;
+		} else if (obj instanceof Spikes || obj instanceof Enemy) {
+			return HAZARD[era];
+		}
+		return SOLID[era];
+	}
+
+	/**
+	 * Returns the collision mask for an object
+	 *
+	 * Only the avatar depends on the active era.  Every other object collides with
+	 * everything except the objects of the other era.
+	 *
+	 * @param obj		The object to classify
+	 * @param shifted	Whether the past is the active era
+	 *
+	 * @return the collision mask for an object
+	 */
+	public static short maskOf(Obstacle obj, boolean shifted) {
+		if (obj instanceof Avatar) {
+			int active = shifted ? SceneRegistry.PAST : SceneRegistry.PRESENT;
+			return (short) (CATEGORY_DEFAULT | CATEGORY_BOTH | SOLID[active] |
+					CATEGORY_PRESENT_HAZARD | CATEGORY_PAST_HAZARD);
+		}
+		int era = SceneRegistry.eraOf(obj);
+		if (era == SceneRegistry.BOTH) {
+			return -1;
+		}
+		int other = era == SceneRegistry.PRESENT ? SceneRegistry.PAST : SceneRegistry.PRESENT;
+		return (short) ~(SOLID[other] | HAZARD[other]);
+	}
+
+	/**
+	 * Sets the category and mask of an object (and all of its fixtures).
+	 *
+	 * The group index of each fixture is left alone, as it is used to keep
+	 * sensors and enemy bullets apart.  The filter of the object is also
+	 * updated, so any fixtures it creates later get the same bits.  Fixtures
+	 * that already have the right bits are not touched, as changing a filter
+	 * makes Box2D re-check every contact of that fixture.
+	 *
+	 * @param obj		The object to update
+	 * @param shifted	Whether the past is the active era
+	 */
+	public static void apply(Obstacle obj, boolean shifted) {
+		short category = categoryOf(obj);
+		short mask = maskOf(obj, shifted);
+
+		Filter filter = obj.getFilterData();
+		filter.categoryBits = category;
+		filter.maskBits = mask;
+
+		Body body = obj.getBody();
+		if (body == null) {
+			return;
+		}
+		for (Fixture fix : body.getFixtureList()) {
+			Filter data = fix.getFilterData();
+			if (data.categoryBits != category || data.maskBits != mask) {
+				data.categoryBits = category;
+				data.maskBits = mask;
+				fix.setFilterData(data);
+			}
+		}
+	}
+}
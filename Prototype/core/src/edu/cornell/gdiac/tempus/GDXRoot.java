@@ -16,6 +16,7 @@ package edu.cornell.gdiac.tempus;
 import com.badlogic.gdx.*;
 import com.badlogic.gdx.assets.*;
 
+import edu.cornell.gdiac.tempus.obstacle.PolygonTemplate;
 import edu.cornell.gdiac.tempus.tempus.*;
 import edu.cornell.gdiac.tempus.tempus.models.ScreenExitCodes;
 import edu.cornell.gdiac.util.*;
@@ -129,6 +130,9 @@ public class GDXRoot extends Game implements ScreenListener {
 
 		canvas.dispose();
 		canvas = null;
+		ShaderCache.getInstance().dispose();
+		PolygonTemplate.disposeAll();
+		RoomHud.dispose();
 
 		super.dispose();
 	}
@@ -166,6 +170,7 @@ public class GDXRoot extends Game implements ScreenListener {
 					gameManager.updateGameState();
 					gameManager.resetEndGame();
 					gameManager.getEndGame().reset();
+					gameManager.releaseLevelAssets();
 					MusicController.getInstance().stopAll();
 					setScreen(gameManager.getEndGame());
 				} else {
@@ -177,6 +182,7 @@ public class GDXRoot extends Game implements ScreenListener {
 				}
 			}else if (exitCode == ScreenExitCodes.EXIT_PREV.ordinal()) {
 				MusicController.getInstance().stopAll();
+				gameManager.releaseLevelAssets();
 				levelselect.setScreenListener(this);
 				levelselect.setCanvas(canvas);
 				levelselect.createMode();
@@ -184,6 +190,7 @@ public class GDXRoot extends Game implements ScreenListener {
 			}
 		}else if(screen == roomSelectMode){
 			if(exitCode == ScreenExitCodes.EXIT_PREV.ordinal()){
+				gameManager.releaseLevelAssets();
 				levelselect.setScreenListener(this);
 				levelselect.setCanvas(canvas);
 				levelselect.createMode();
@@ -277,6 +284,7 @@ public class GDXRoot extends Game implements ScreenListener {
 		 else if (exitCode == ScreenExitCodes.EXIT_PREV.ordinal()) {
 			gameManager.updateGameState();
 			MusicController.getInstance().stopAll();
+			gameManager.releaseLevelAssets();
 			levelselect.setScreenListener(this);
 			levelselect.setCanvas(canvas);
 			levelselect.createMode();
@@ -99,6 +99,34 @@ public class GameCanvas {
 	/** Fit Viewport for maintaining aspect ratio */
 	private FitViewport viewport;
 
+	// DEFERRED DRAWING
+	/** Whether draws are queued, then sorted and drawn at the end of the pass */
+	private boolean deferred;
+	/** The layer of the draws queued from now on */
+	private int layer;
+	/** The draws queued since the queue was last drawn */
+	private DrawQueue queue;
+
+	// BAKING
+	/** The mesh being baked (or null if none is) */
+	private StaticMesh baking;
+	/** The queue not in use: the draws to bake while baking, the pass queue otherwise */
+	private DrawQueue spare;
+	/** The drawing pass when baking began */
+	private DrawPass bakeActive;
+	/** Whether the canvas was deferred when baking began */
+	private boolean bakeDeferred;
+	/** The layer when baking began */
+	private int bakeLayer;
+	/** The draw count when baking began */
+	private int bakeDraws;
+
+	// STATISTICS
+	/** The batch flushes (each a render call) since the last clear */
+	private int flushCount;
+	/** The sprites drawn or queued since the last clear */
+	private int drawCount;
+
 	int sw = 1920/2;
 	int sh = 1080/2;
 
@@ -114,6 +142,9 @@ public class GameCanvas {
 		active = DrawPass.INACTIVE;
 		spriteBatch = new PolygonSpriteBatch();
 		debugRender = new ShapeRenderer();
+		blend = BlendState.NO_PREMULT; // The default of the sprite batch
+		queue = new DrawQueue();
+		spare = new DrawQueue();
 
 		camera = new OrthographicCamera(sw, sh);
 		viewport = new FitViewport(sw,sh, camera);
@@ -135,7 +166,19 @@ public class GameCanvas {
 
 	}
 
+	/**
+	 * Returns the sprite batch of this canvas.
+	 *
+	 * In deferred mode, the draws queued so far are drawn first, so that anything
+	 * drawn with the batch directly (or any change to its projection) comes after
+	 * them.
+	 *
+	 * @return the sprite batch of this canvas
+	 */
 	public PolygonSpriteBatch getSpriteBatch(){
+		if (active == DrawPass.STANDARD && baking == null) {
+			drawQueue();
+		}
 		return spriteBatch;
 	}
 
@@ -151,6 +194,8 @@ public class GameCanvas {
 		}
 		spriteBatch.dispose();
     	spriteBatch = null;
+    	queue = null;
+    	spare = null;
     	local  = null;
     	global = null;
     	vertex = null;
@@ -370,12 +415,29 @@ public class GameCanvas {
 	 * perfectly safe to use this setter while  drawing is active (e.g. in-between 
 	 * a begin-end pair).  
 	 *
+	 * In deferred mode, the blend state is recorded with each draw, and the batch
+	 * only changes its blend function when the queue is drawn.
+	 *
 	 * @param state the color blending rule
 	 */
 	public void setBlendState(BlendState state) {
 		if (state == blend) {
 			return;
 		}
+		blend = state;
+		if (!deferred || active != DrawPass.STANDARD) {
+			applyBlendState(state);
+		}
+	}
+
+	/**
+	 * Sets the blend function of the sprite batch for a blend state
+	 *
+	 * The batch only flushes if its blend function actually changes.
+	 *
+	 * @param state the color blending rule
+	 */
+	private void applyBlendState(BlendState state) {
 		switch (state) {
 		case NO_PREMULT:
 			spriteBatch.setBlendFunction(GL20.GL_SRC_ALPHA,GL20.GL_ONE_MINUS_SRC_ALPHA);
@@ -390,16 +452,160 @@ public class GameCanvas {
 			spriteBatch.setBlendFunction(GL20.GL_ONE,GL20.GL_ZERO);
 			break;
 		}
-		blend = state;
 	}
-	
+
+	/**
+	 * Returns true if draws are queued and sorted before they are drawn.
+	 *
+	 * @return true if draws are queued and sorted before they are drawn
+	 */
+	public boolean isDeferred() {
+		return deferred;
+	}
+
+	/**
+	 * Sets whether draws are queued and sorted before they are drawn.
+	 *
+	 * In deferred mode, every draw of a begin-end pair is recorded with its layer,
+	 * blend state and texture.  The queue is sorted by those keys (in that order)
+	 * and drawn all at once by end(), so the batch only flushes when one of them
+	 * changes.  Draws in a lower layer always appear below draws in a higher one,
+	 * but the draws of a single layer may be reordered to group their textures.
+	 *
+	 * Text and anything drawn with the sprite batch directly cannot be queued, so
+	 * getSpriteBatch() and drawText() draw the queue first.  This may only be
+	 * changed while drawing is not active.
+	 *
+	 * @param value whether draws are queued and sorted before they are drawn
+	 */
+	public void setDeferred(boolean value) {
+		if (active != DrawPass.INACTIVE) {
+			Gdx.app.error("GameCanvas", "Cannot change deferred mode while drawing active", new IllegalStateException());
+			return;
+		}
+		deferred = value;
+	}
+
+	/**
+	 * Returns the layer of the draws queued from now on.
+	 *
+	 * @return the layer of the draws queued from now on
+	 */
+	public int getLayer() {
+		return layer;
+	}
+
+	/**
+	 * Sets the layer of the draws queued from now on.
+	 *
+	 * Layers only matter in deferred mode, where draws in a higher layer appear
+	 * on top of those in a lower one.  The layer is reset to 0 by begin().
+	 *
+	 * @param value the layer of the draws queued from now on
+	 */
+	public void setLayer(int value) {
+		if (value < DrawQueue.MIN_LAYER || value > DrawQueue.MAX_LAYER) {
+			throw new IllegalArgumentException("Layer "+value+" is outside ["+DrawQueue.MIN_LAYER+", "+DrawQueue.MAX_LAYER+"]");
+		}
+		layer = value;
+	}
+
+	/**
+	 * Returns the number of times the sprite batch flushed since the last clear.
+	 *
+	 * Every flush is a render call to the graphics card, so this is the number of
+	 * render calls made by this canvas in the current frame.  It is only updated
+	 * by end(), so it should be read after the last pass of the frame.
+	 *
+	 * @return the number of times the sprite batch flushed since the last clear
+	 */
+	public int getFlushCount() {
+		return flushCount;
+	}
+
+	/**
+	 * Returns the number of sprites drawn since the last clear.
+	 *
+	 * This counts every draw of a texture, region or polygon (but not text), so
+	 * that it can be compared with the flushes needed to draw them.
+	 *
+	 * @return the number of sprites drawn since the last clear
+	 */
+	public int getDrawCount() {
+		return drawCount;
+	}
+
+	/**
+	 * Returns true if the draws are being baked into a mesh.
+	 *
+	 * @return true if the draws are being baked into a mesh
+	 */
+	public boolean isBaking() {
+		return baking != null;
+	}
+
+	/**
+	 * Starts baking the draws into a static mesh.
+	 *
+	 * Until endBake() is called, the texture, region and polygon draws are not
+	 * drawn, but recorded with the current blend state.  Nothing else (text,
+	 * outlines or the sprite batch) may be used while baking.  This may be called
+	 * in the middle of a standard pass, which carries on as before once baking
+	 * ends, or while drawing is not active.
+	 *
+	 * @param mesh the mesh to bake the draws into
+	 */
+	public void beginBake(StaticMesh mesh) {
+		if (baking != null || active == DrawPass.DEBUG) {
+			Gdx.app.error("GameCanvas", "Cannot bake during a bake or a debug pass", new IllegalStateException());
+			return;
+		}
+		DrawQueue pass = queue;
+		queue = spare;
+		spare = pass;
+		baking = mesh;
+		bakeActive = active;
+		bakeDeferred = deferred;
+		bakeLayer = layer;
+		bakeDraws = drawCount;
+		active = DrawPass.STANDARD;
+		deferred = true;
+		layer = 0;
+	}
+
+	/**
+	 * Ends baking, replacing the contents of the mesh with the recorded draws.
+	 *
+	 * The draws are sorted and packed into one buffer per blend state and texture.
+	 */
+	public void endBake() {
+		if (baking == null) {
+			Gdx.app.error("GameCanvas", "Cannot end a bake without beginBake()", new IllegalStateException());
+			return;
+		}
+		baking.build(queue);
+		queue.clear();
+		DrawQueue pass = spare;
+		spare = queue;
+		queue = pass;
+		baking = null;
+		active = bakeActive;
+		deferred = bakeDeferred;
+		layer = bakeLayer;
+		drawCount = bakeDraws;
+	}
+
 	/**
 	 * Clear the screen so we can start a new animation frame
+	 *
+	 * This also resets the flush and draw counts.
 	 */
 	public void clear() {
     	// Clear the screen
 		Gdx.gl.glClearColor(0, 0, 0, 1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);		
+		flushCount = 0;
+		drawCount = 0;
 	}
 
 	/**
@@ -417,6 +623,7 @@ public class GameCanvas {
 		setBlendState(BlendState.NO_PREMULT);
 		spriteBatch.begin();
     	active = DrawPass.STANDARD;
+    	layer = 0;
     }
 
 	/**
@@ -435,6 +642,7 @@ public class GameCanvas {
 		
     	spriteBatch.begin();
     	active = DrawPass.STANDARD;
+    	layer = 0;
     }
     
 	/**
@@ -446,16 +654,37 @@ public class GameCanvas {
 		spriteBatch.setProjectionMatrix(viewport.getCamera().combined);
     	spriteBatch.begin();
     	active = DrawPass.STANDARD;
+    	layer = 0;
     }
 
 	/**
 	 * Ends a drawing sequence, flushing textures to the graphics card.
+	 *
+	 * In deferred mode, this sorts and draws the queue first.
 	 */
     public void end() {
+    	drawQueue();
     	spriteBatch.end();
+    	flushCount += spriteBatch.renderCalls;
     	active = DrawPass.INACTIVE;
+	}
 
-
+	/**
+	 * Sorts the queued draws and hands them to the sprite batch.
+	 *
+	 * The batch is left with the blend function of the current blend state.
+	 */
+	private void drawQueue() {
+		if (queue.size() == 0) {
+			return;
+		}
+		queue.sort();
+		for (int ii = 0; ii < queue.size(); ii++) {
+			applyBlendState(queue.getBlend(ii));
+			queue.submit(ii, spriteBatch);
+		}
+		queue.clear();
+		applyBlendState(blend);
 	}
 
 	/**
@@ -477,6 +706,13 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawCount++;
+		if (deferred) {
+			holder.setRegion(image);
+			local.setToTranslation(x, y);
+			queue.addRegion(holder, Color.WHITE, blend, layer, local, image.getWidth(), image.getHeight());
+			return;
+		}
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(Color.WHITE);
@@ -505,6 +741,13 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawCount++;
+		if (deferred) {
+			holder.setRegion(image);
+			local.setToTranslation(x, y);
+			queue.addRegion(holder, tint, blend, layer, local, width, height);
+			return;
+		}
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
@@ -629,6 +872,12 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawCount++;
+		if (deferred) {
+			local.setToTranslation(x, y);
+			queue.addRegion(region, Color.WHITE, blend, layer, local, region.getRegionWidth(), region.getRegionHeight());
+			return;
+		}
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(Color.WHITE);
@@ -657,6 +906,12 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawCount++;
+		if (deferred) {
+			local.setToTranslation(x, y);
+			queue.addRegion(region, tint, blend, layer, local, width, height);
+			return;
+		}
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
@@ -687,6 +942,12 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawCount++;
+		if (deferred) {
+			local.setToTranslation(x-ox, y-oy);
+			queue.addRegion(region, tint, blend, layer, local, width, height);
+			return;
+		}
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
@@ -730,6 +991,11 @@ public class GameCanvas {
 		// There is a workaround, but it will break if the bug is fixed.
 		// For now, it is better to set the affine transform directly.
 		computeTransform(ox,oy,x,y,angle,sx,sy);
+		drawCount++;
+		if (deferred) {
+			queue.addRegion(region, tint, blend, layer, local, region.getRegionWidth(), region.getRegionHeight());
+			return;
+		}
 		spriteBatch.setColor(tint);
 		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
 	}
@@ -761,6 +1027,11 @@ public class GameCanvas {
 
 		local.set(affine);
 		local.translate(-ox,-oy);				
+		drawCount++;
+		if (deferred) {
+			queue.addRegion(region, tint, blend, layer, local, region.getRegionWidth(), region.getRegionHeight());
+			return;
+		}
 		spriteBatch.setColor(tint);
 		spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
 	}
@@ -790,6 +1061,12 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawCount++;
+		if (deferred) {
+			local.setToTranslation(x, y);
+			queue.addPolygon(region, Color.WHITE, blend, layer, local);
+			return;
+		}
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(Color.WHITE);
@@ -824,6 +1101,14 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawCount++;
+		if (deferred) {
+			TextureRegion bounds = region.getRegion();
+			local.setToTranslation(x, y);
+			local.scale(width/bounds.getRegionWidth(), height/bounds.getRegionHeight());
+			queue.addPolygon(region, tint, blend, layer, local);
+			return;
+		}
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
@@ -860,6 +1145,14 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawCount++;
+		if (deferred) {
+			TextureRegion bounds = region.getRegion();
+			local.setToTranslation(x-ox, y-oy);
+			local.scale(width/bounds.getRegionWidth(), height/bounds.getRegionHeight());
+			queue.addPolygon(region, tint, blend, layer, local);
+			return;
+		}
 		
 		// Unlike Lab 1, we can shortcut without a master drawing method
     	spriteBatch.setColor(tint);
@@ -899,6 +1192,17 @@ public class GameCanvas {
 			return;
 		}
 		
+		drawCount++;
+		if (deferred) {
+			// The batch rotates and scales about (x+ox,y+oy)
+			local.setToTranslation(x+ox, y+oy);
+			local.rotate(180.0f*angle/(float)Math.PI);
+			local.scale(sx,sy);
+			local.translate(-ox,-oy);
+			queue.addPolygon(region, tint, blend, layer, local);
+			return;
+		}
+
 		TextureRegion bounds = region.getRegion();
 		spriteBatch.setColor(tint);
 		spriteBatch.draw(region, x, y, ox, oy, 
@@ -936,6 +1240,11 @@ public class GameCanvas {
 
 		local.set(affine);
 		local.translate(-ox,-oy);
+		drawCount++;
+		if (deferred) {
+			queue.addPolygon(region, tint, blend, layer, local);
+			return;
+		}
 		computeVertices(local,region.getVertices());
 
 		spriteBatch.setColor(tint);
@@ -946,6 +1255,36 @@ public class GameCanvas {
 		computeVertices(local,region.getVertices());
 	}
 	
+	/**
+	 * Draws a baked static mesh.
+	 *
+	 * The mesh is drawn as it was baked, with the blend states and tints of the
+	 * original draws.  Each buffer of the mesh (one per texture) is a single draw.
+	 *
+	 * @param mesh The mesh to draw
+	 */
+	public void draw(StaticMesh mesh) {
+		if (active != DrawPass.STANDARD) {
+			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
+			return;
+		}
+
+		drawCount += mesh.size();
+		for (int ii = 0; ii < mesh.size(); ii++) {
+			float[] verts = mesh.getVertices(ii);
+			short[] tris = mesh.getTriangles(ii);
+			if (deferred) {
+				queue.addVertices(mesh.getTexture(ii), mesh.getBlend(ii), layer, verts, verts.length, tris, tris.length);
+			} else {
+				applyBlendState(mesh.getBlend(ii));
+				spriteBatch.draw(mesh.getTexture(ii), verts, 0, verts.length, tris, 0, tris.length);
+			}
+		}
+		if (!deferred) {
+			applyBlendState(blend);
+		}
+	}
+
 	/**
 	 * Transform the given vertices by the affine transform
 	 */
@@ -971,6 +1310,7 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
+		drawQueue();
 		GlyphLayout layout = new GlyphLayout(font,text);
 		font.draw(spriteBatch, layout, x, y);
     }
@@ -987,7 +1327,8 @@ public class GameCanvas {
 			Gdx.app.error("GameCanvas", "Cannot draw without active begin()", new IllegalStateException());
 			return;
 		}
-		
+		drawQueue();
+
 		GlyphLayout layout = new GlyphLayout(font,text);
 		float x = (getWidth()  - layout.width) / 2.0f;
 		float y = (getHeight() + layout.height) / 2.0f;
@@ -239,10 +239,16 @@ public class MusicController {
     }
 
     public void playMenuMusic(){
-        jsonReader = new JsonReader();
-        assetDirectory = jsonReader.parse(Gdx.files.internal("jsons/assets.json"));
-        JsonAssetManager.getInstance().loadDirectory(assetDirectory);
-        JsonAssetManager.getInstance().allocateDirectory();
+        JsonAssetManager manager = JsonAssetManager.getInstance();
+        assetDirectory = manager.getDirectory();
+        if (assetDirectory == null) {
+            jsonReader = new JsonReader();
+            assetDirectory = jsonReader.parse(Gdx.files.internal("jsons/assets.json"));
+            manager.loadDirectory(assetDirectory);
+        }
+        if (!manager.isAllocated()) {
+            manager.allocateDirectory();
+        }
         play("menu", "music/present_track_4_25.mp3", true, 1.0f);
     }
 
@@ -0,0 +1,350 @@
+/*
+ * SceneRegistry.java
+ *
+ * Every object in a room belongs to the present (space 1), the past (space 2) or
+ * both (space 3).  Drawing and time shifting used to walk the whole object list
+ * and test each space every frame.  This registry keeps the same objects in
+ * smaller lists, indexed by era, by kind and by body type, and updates them as
+ * objects are added and removed.  A time shift only changes which era list is
+ * active.
+ *
+ * The registry does not own the objects; the WorldController object list is
+ * still the master list, and the registry must be kept in step with it.
+ */
+package edu.cornell.gdiac.tempus;
+
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import edu.cornell.gdiac.tempus.obstacle.Obstacle;
+import edu.cornell.gdiac.tempus.tempus.models.Avatar;
+import edu.cornell.gdiac.tempus.tempus.models.Door;
+import edu.cornell.gdiac.tempus.tempus.models.Enemy;
+import edu.cornell.gdiac.tempus.tempus.models.Platform;
+import edu.cornell.gdiac.tempus.tempus.models.Projectile;
+import edu.cornell.gdiac.tempus.tempus.models.Spikes;
+import edu.cornell.gdiac.util.DenseList;
+
+/**
+ * Live sub-lists of the objects in a world, indexed by era, kind and body type.
+ */
+public class SceneRegistry {
+	/** The kinds of object that are indexed */
+	public enum Kind {
+		/** A platform (of any shape) */
+		PLATFORM,
+		/** A set of spikes */
+		SPIKES,
+		/** A bullet, fired by an enemy or the avatar */
+		PROJECTILE,
+		/** The goal door */
+		DOOR,
+		/** An enemy or turret */
+		ENEMY,
+		/** The avatar */
+		AVATAR,
+		/** Anything else */
+		OTHER
+	}
+
+	/** The index of the objects only in the present (space 1) */
+	public static final int PRESENT = 0;
+	/** The index of the objects only in the past (space 2) */
+	public static final int PAST = 1;
+	/** The index of the objects in both eras (space 3) */
+	public static final int BOTH = 2;
+
+	/** The objects that exist in only one era, or both, indexed by era */
+	private DenseList<Obstacle>[] eras;
+	/** The objects seen in the present and in the past */
+	private DenseList<Obstacle>[] visible;
+	/** The objects of each kind */
+	private DenseList<Obstacle>[] kinds;
+	/** The objects that had a static body when they were added */
+	private DenseList<Obstacle> fixed;
+	/** The objects that had a non-static body when they were added */
+	private DenseList<Obstacle> moving;
+
+	/** The era that is currently active (PRESENT or PAST) */
+	private int active;
+	/** Whether the objects (or the era) changed since the last clean() */
+	private boolean dirty;
+	/** The number of times the static objects have changed */
+	private int staticRevision;
+
+	/**
+	 * Creates a new empty registry with the present active
+	 */
+	@SuppressWarnings("unchecked")
+	public SceneRegistry() {
+		eras = new DenseList[3];
+		for (int ii = 0; ii < eras.length; ii++) {
+			eras[ii] = new DenseList<Obstacle>();
+		}
+		visible = new DenseList[2];
+		for (int ii = 0; ii < visible.length; ii++) {
+			visible[ii] = new DenseList<Obstacle>();
+		}
+		kinds = new DenseList[Kind.values().length];
+		for (int ii = 0; ii < kinds.length; ii++) {
+			kinds[ii] = new DenseList<Obstacle>();
+		}
+		fixed  = new DenseList<Obstacle>();
+		moving = new DenseList<Obstacle>();
+		active = PRESENT;
+		dirty  = true;
+	}
+
+	/**
+	 * Returns the era index (PRESENT, PAST or BOTH) for an object
+	 *
+	 * @param obj The object to classify
+	 *
+	 * @return the era index for an object
+	 */
+	public static int eraOf(Obstacle obj) {
+		switch (obj.getSpace()) {
+		case 1:
+			return PRESENT;
+		case 2:
+			return PAST;
+		default:
+			return BOTH;
+		}
+	}
+
+	/**
+	 * Returns the kind of an object
+	 *
+	 * @param obj The object to classify
+	 *
+	 * @return the kind of an object
+	 */
+	public static Kind kindOf(Obstacle obj) {
+		if (obj instanceof Platform) {
+			return Kind.PLATFORM;
+		} else if (obj instanceof Projectile) {
+			return Kind.PROJECTILE;
+		} else if (obj instanceof Spikes) {
+			return Kind.SPIKES;
+		} else if (obj instanceof Door) {
+			return Kind.DOOR;
+		} else if (obj instanceof Enemy) {
+			return Kind.ENEMY;
+		} else if (obj instanceof Avatar) {
+			return Kind.AVATAR;
+		}
+		return Kind.OTHER;
+	}
+
+	/**
+	 * Adds an object to the registry.
+	 *
+	 * The era and body type are read now, so they must be set before the object
+	 * is added.  Enemies are only indexed by kind, as the EnemyController draws
+	 * and updates them separately from the other objects.  Adding an object marks
+	 * the registry dirty, as its body must still be put in the active era.
+	 *
+	 * @param obj The object to add
+	 */
+	public void add(Obstacle obj) {
+		Kind kind = obj.getKind();
+		kinds[kind.ordinal()].add(obj);
+		dirty = true;
+		if (kind == Kind.ENEMY) {
+			return;
+		}
+
+		int era = eraOf(obj);
+		eras[era].add(obj);
+		if (era != PAST) {
+			visible[PRESENT].add(obj);
+		}
+		if (era != PRESENT) {
+			visible[PAST].add(obj);
+		}
+		if (obj.getBodyType() == BodyDef.BodyType.StaticBody) {
+			fixed.add(obj);
+			staticRevision++;
+		} else {
+			moving.add(obj);
+		}
+	}
+
+	/**
+	 * Removes an object from the registry.
+	 *
+	 * This is O(1), as each list knows where the object is.  The object must not
+	 * have changed era since it was added.
+	 *
+	 * @param obj The object to remove
+	 */
+	public void remove(Obstacle obj) {
+		Kind kind = obj.getKind();
+		kinds[kind.ordinal()].remove(obj);
+		if (kind == Kind.ENEMY) {
+			return;
+		}
+
+		int era = eraOf(obj);
+		eras[era].remove(obj);
+		if (era != PAST) {
+			visible[PRESENT].remove(obj);
+		}
+		if (era != PRESENT) {
+			visible[PAST].remove(obj);
+		}
+		if (fixed.remove(obj)) {
+			staticRevision++;
+		} else {
+			moving.remove(obj);
+		}
+	}
+
+	/**
+	 * Removes every object of the given kind from the registry.
+	 *
+	 * @param kind The kind of object to remove
+	 */
+	public void removeAll(Kind kind) {
+		DenseList<Obstacle> list = kinds[kind.ordinal()];
+		while (!list.isEmpty()) {
+			remove(list.get(list.size()-1));
+		}
+	}
+
+	/**
+	 * Removes every object from the registry, keeping the active era.
+	 */
+	public void clear() {
+		for (DenseList<Obstacle> list : eras) {
+			list.clear();
+		}
+		for (DenseList<Obstacle> list : visible) {
+			list.clear();
+		}
+		for (DenseList<Obstacle> list : kinds) {
+			list.clear();
+		}
+		fixed.clear();
+		moving.clear();
+		staticRevision++;
+		dirty = true;
+	}
+
+	/**
+	 * Sets whether the past (rather than the present) is the active era.
+	 *
+	 * This is O(1); it only changes which list getActive() returns.
+	 *
+	 * @param shifted whether the past is the active era
+	 */
+	public void setShifted(boolean shifted) {
+		int era = shifted ? PAST : PRESENT;
+		if (era != active) {
+			active = era;
+			dirty = true;
+		}
+	}
+
+	/**
+	 * Returns true if the past is the active era
+	 *
+	 * @return true if the past is the active era
+	 */
+	public boolean isShifted() {
+		return active == PAST;
+	}
+
+	/**
+	 * Returns the objects seen in the active era (its own and those in both).
+	 *
+	 * The objects are in the order they were added, except that removing an
+	 * object moves the last object into its place (see DenseList).  Only
+	 * projectiles are removed during play, so this only reorders projectiles.
+	 *
+	 * @return the objects seen in the active era
+	 */
+	public DenseList<Obstacle> getActive() {
+		return visible[active];
+	}
+
+	/**
+	 * Returns the objects that exist only in the given era (or in both).
+	 *
+	 * @param era The era index (PRESENT, PAST or BOTH)
+	 *
+	 * @return the objects that exist only in the given era
+	 */
+	public DenseList<Obstacle> getEra(int era) {
+		return eras[era];
+	}
+
+	/**
+	 * Returns the objects of the given kind
+	 *
+	 * @param kind The kind of object
+	 *
+	 * @return the objects of the given kind
+	 */
+	public DenseList<Obstacle> getKind(Kind kind) {
+		return kinds[kind.ordinal()];
+	}
+
+	/**
+	 * Returns the objects that had a static body when they were added
+	 *
+	 * @return the objects that had a static body when they were added
+	 */
+	public DenseList<Obstacle> getStatic() {
+		return fixed;
+	}
+
+	/**
+	 * Returns the objects that had a non-static body when they were added
+	 *
+	 * @return the objects that had a non-static body when they were added
+	 */
+	public DenseList<Obstacle> getDynamic() {
+		return moving;
+	}
+
+	/**
+	 * Returns the number of times the static objects have changed.
+	 *
+	 * Unlike isDirty(), this is not reset by clean(), so any number of caches of
+	 * the static objects can each remember the revision they were built from.
+	 *
+	 * @return the number of times the static objects have changed
+	 */
+	public int getStaticRevision() {
+		return staticRevision;
+	}
+
+	/**
+	 * Returns true if the objects or the active era changed since the last clean()
+	 *
+	 * The bodies only need to be put in the active era again after a time shift,
+	 * after an object is added, or after markDirty(), so work that depends only
+	 * on the era can be skipped until this is true.  Rebuilding the fixtures of
+	 * an object does not make it dirty, as the new fixtures are made from the
+	 * fixture definition (which keeps the sensor flag and filter).
+	 *
+	 * @return true if the objects or the active era changed
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * Marks the registry as changed, such as when the objects are restored
+	 */
+	public void markDirty() {
+		dirty = true;
+	}
+
+	/**
+	 * Marks the objects and the active era as processed
+	 */
+	public void clean() {
+		dirty = false;
+	}
+}
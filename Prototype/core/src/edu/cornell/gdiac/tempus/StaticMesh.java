@@ -0,0 +1,202 @@
+/*
+ * StaticMesh.java
+ *
+ * The platforms and spikes of a room never move, yet each one used to be drawn
+ * every frame as its own sprite, with its corners transformed all over again.
+ * This class holds the draws of such objects once they have been baked: the
+ * canvas records them like a deferred pass, and they are merged into one vertex
+ * buffer per texture (and blend state).  Drawing the mesh is then one draw call
+ * per texture, whatever the number of objects.
+ *
+ * A mesh is a snapshot.  If the baked objects move, change texture or are
+ * removed, the mesh must be baked again.
+ */
+package edu.cornell.gdiac.tempus;
+
+import com.badlogic.gdx.graphics.Texture;
+
+/**
+ * Batch vertices of static draws, packed together by texture.
+ *
+ * To bake a mesh, call GameCanvas.beginBake(), draw the objects as usual, and
+ * call GameCanvas.endBake().  GameCanvas.draw(StaticMesh) draws it.
+ */
+public class StaticMesh {
+	/**
+	 * The most vertices in one buffer.
+	 *
+	 * A buffer is drawn in a single call to the sprite batch, so it must fit in
+	 * the batch (2000 vertices by default).  Larger groups are split.
+	 */
+	private static final int MAX_VERTICES = 1000;
+
+	/** The texture of each buffer */
+	private Texture[] textures;
+	/** The blend state of each buffer */
+	private GameCanvas.BlendState[] blends;
+	/** The batch vertices of each buffer */
+	private float[][] vertices;
+	/** The triangles of each buffer */
+	private short[][] triangles;
+	/** The number of draws baked into this mesh */
+	private int baked;
+
+	/**
+	 * Creates an empty mesh
+	 */
+	public StaticMesh() {
+		clear();
+	}
+
+	/**
+	 * Returns the number of buffers (each one texture and blend state)
+	 *
+	 * @return the number of buffers (each one texture and blend state)
+	 */
+	public int size() {
+		return textures.length;
+	}
+
+	/**
+	 * Returns the number of draws baked into this mesh
+	 *
+	 * @return the number of draws baked into this mesh
+	 */
+	public int getBakedCount() {
+		return baked;
+	}
+
+	/**
+	 * Removes every buffer from this mesh
+	 */
+	public void clear() {
+		textures = new Texture[0];
+		blends = new GameCanvas.BlendState[0];
+		vertices = new float[0][];
+		triangles = new short[0][];
+		baked = 0;
+	}
+
+	/**
+	 * Returns the texture of a buffer
+	 *
+	 * @param index	The buffer index
+	 *
+	 * @return the texture of a buffer
+	 */
+	public Texture getTexture(int index) {
+		return textures[index];
+	}
+
+	/**
+	 * Returns the blend state of a buffer
+	 *
+	 * @param index	The buffer index
+	 *
+	 * @return the blend state of a buffer
+	 */
+	public GameCanvas.BlendState getBlend(int index) {
+		return blends[index];
+	}
+
+	/**
+	 * Returns the batch vertices of a buffer
+	 *
+	 * @param index	The buffer index
+	 *
+	 * @return the batch vertices of a buffer
+	 */
+	public float[] getVertices(int index) {
+		return vertices[index];
+	}
+
+	/**
+	 * Returns the triangles of a buffer
+	 *
+	 * @param index	The buffer index
+	 *
+	 * @return the triangles of a buffer
+	 */
+	public short[] getTriangles(int index) {
+		return triangles[index];
+	}
+
+	/**
+	 * Replaces the buffers of this mesh with the draws of a queue.
+	 *
+	 * The queue is sorted, and each run of draws with the same blend state and
+	 * texture is packed into one buffer.
+	 *
+	 * @param queue	The recorded draws
+	 */
+	void build(DrawQueue queue) {
+		queue.sort();
+		int count = 0;
+		int floats = 0;
+		for (int ii = 0; ii < queue.size(); ii++) {
+			if (startsBuffer(queue, ii, floats)) {
+				count++;
+				floats = 0;
+			}
+			floats += queue.getVertexCount(ii);
+		}
+
+		textures = new Texture[count];
+		blends = new GameCanvas.BlendState[count];
+		vertices = new float[count][];
+		triangles = new short[count][];
+		baked = queue.size();
+
+		// Size each buffer, then fill it
+		int buffer = -1;
+		int[] sizes = new int[2 * count];
+		floats = 0;
+		for (int ii = 0; ii < queue.size(); ii++) {
+			if (startsBuffer(queue, ii, floats)) {
+				buffer++;
+				floats = 0;
+				textures[buffer] = queue.getTexture(ii);
+				blends[buffer] = queue.getBlend(ii);
+			}
+			floats += queue.getVertexCount(ii);
+			sizes[2 * buffer] += queue.getVertexCount(ii);
+			sizes[2 * buffer + 1] += queue.getTriangleCount(ii);
+		}
+		for (int ii = 0; ii < count; ii++) {
+			vertices[ii] = new float[sizes[2 * ii]];
+			triangles[ii] = new short[sizes[2 * ii + 1]];
+		}
+
+		buffer = -1;
+		floats = 0;
+		int indices = 0;
+		for (int ii = 0; ii < queue.size(); ii++) {
+			if (startsBuffer(queue, ii, floats)) {
+				buffer++;
+				floats = 0;
+				indices = 0;
+			}
+			queue.copy(ii, vertices[buffer], floats, triangles[buffer], indices, floats / DrawQueue.VERTEX_SIZE);
+			floats += queue.getVertexCount(ii);
+			indices += queue.getTriangleCount(ii);
+		}
+	}
+
+	/**
+	 * Returns true if a draw cannot join the buffer of the draw before it
+	 *
+	 * @param queue		The sorted draws
+	 * @param index		The position of the draw
+	 * @param floats	The vertex floats in the buffer of the draw before it
+	 *
+	 * @return true if a draw cannot join the buffer of the draw before it
+	 */
+	private static boolean startsBuffer(DrawQueue queue, int index, int floats) {
+		if (index == 0) {
+			return true;
+		}
+		return queue.getTexture(index) != queue.getTexture(index - 1) ||
+			   queue.getBlend(index) != queue.getBlend(index - 1) ||
+			   floats + queue.getVertexCount(index) > MAX_VERTICES * DrawQueue.VERTEX_SIZE;
+	}
+}
@@ -0,0 +1,384 @@
+/*
+ * ViewCuller.java
+ *
+ * Every object in a room used to be drawn every frame, whether or not it was
+ * on screen.  That is wasteful in the long rooms, where the camera scrolls over
+ * a room several screens tall.  This class keeps the static objects in a
+ * uniform grid, built from their fixtures whenever the static objects of the
+ * registry change, so that the ones near the view are found without testing
+ * all of them.  The moving objects are tested against the view each frame with
+ * a bounding circle about the position they are drawn at, as their cells would
+ * change every frame.
+ *
+ * Sprites overhang their bodies (the avatar and enemy filmstrips are much larger
+ * than their capsules), so the view is grown by a margin before it is tested.
+ */
+package edu.cornell.gdiac.tempus;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.Transform;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import edu.cornell.gdiac.tempus.obstacle.Obstacle;
+
+import java.util.Arrays;
+
+/**
+ * Decides which objects of a registry can be seen by a camera.
+ *
+ * Call setView() once a frame, before the objects are drawn, and then ask
+ * isVisible() for each object about to be drawn.  The answers are counted, so
+ * the culled and drawn counts of a frame can be read for profiling.
+ */
+public class ViewCuller {
+	/** The side of a grid cell, in physics units */
+	private static final float CELL_SIZE = 4.0f;
+	/** How far a sprite may overhang its body, in physics units */
+	private static final float MARGIN = 2.0f;
+
+	/** The registry whose objects are culled */
+	private SceneRegistry scene;
+	/** The static revision of the registry when the grid was built (-1 if never) */
+	private int revision;
+	/** Whether culling is on (if not, every object is visible) */
+	private boolean enabled;
+
+	/** The static objects in the grid */
+	private Array<Obstacle> statics;
+	/** The index of each static object in statics */
+	private ObjectIntMap<Obstacle> staticIndex;
+	/** The bounds of each static object, as minX, minY, maxX, maxY */
+	private float[] staticBounds;
+	/** Whether each static object has a shape that cannot be bounded (and is never culled) */
+	private boolean[] unbounded;
+	/** The view stamp of each static object when it was last found in view */
+	private int[] seen;
+
+	/** The x-coordinate of the left edge of the grid */
+	private float gridX;
+	/** The y-coordinate of the bottom edge of the grid */
+	private float gridY;
+	/** The number of columns of the grid */
+	private int columns;
+	/** The number of rows of the grid */
+	private int rows;
+	/** The start of the entries of each cell (and the end of the last cell) */
+	private int[] cellStart;
+	/** The static objects overlapping each cell (as indices into statics), packed by cell */
+	private int[] cellEntries;
+
+	/** The left edge of the view (grown by the margin), in physics units */
+	private float viewLeft;
+	/** The bottom edge of the view (grown by the margin), in physics units */
+	private float viewBottom;
+	/** The right edge of the view (grown by the margin), in physics units */
+	private float viewRight;
+	/** The top edge of the view (grown by the margin), in physics units */
+	private float viewTop;
+	/** The stamp of the current view */
+	private int stamp;
+
+	/** The objects culled since the last setView() */
+	private int culled;
+	/** The objects found visible since the last setView() */
+	private int drawn;
+
+	/** Cache for the vertex transforms */
+	private Vector2 vertexCache = new Vector2();
+
+	/**
+	 * Creates a culler for the objects of a registry
+	 *
+	 * The grid is built the first time a view is set.
+	 *
+	 * @param scene The registry whose objects are culled
+	 */
+	public ViewCuller(SceneRegistry scene) {
+		this.scene = scene;
+		revision = -1;
+		enabled = true;
+		statics = new Array<Obstacle>();
+		staticIndex = new ObjectIntMap<Obstacle>();
+		staticBounds = new float[0];
+		unbounded = new boolean[0];
+		seen = new int[0];
+		cellStart = new int[1];
+		cellEntries = new int[0];
+	}
+
+	/**
+	 * Returns true if objects outside of the view are culled
+	 *
+	 * @return true if objects outside of the view are culled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether objects outside of the view are culled
+	 *
+	 * @param value whether objects outside of the view are culled
+	 */
+	public void setEnabled(boolean value) {
+		enabled = value;
+	}
+
+	/**
+	 * Returns the objects culled since the last call to setView()
+	 *
+	 * @return the objects culled since the last call to setView()
+	 */
+	public int getCulledCount() {
+		return culled;
+	}
+
+	/**
+	 * Returns the objects found visible since the last call to setView()
+	 *
+	 * @return the objects found visible since the last call to setView()
+	 */
+	public int getDrawnCount() {
+		return drawn;
+	}
+
+	/**
+	 * Sets the view of the camera for this frame, and finds the static objects in it.
+	 *
+	 * The grid is rebuilt first if the static objects of the registry changed.
+	 * This resets the culled and drawn counts.
+	 *
+	 * @param camera	The camera drawing the world
+	 * @param scale		The draw scale (pixels per physics unit)
+	 */
+	public void setView(OrthographicCamera camera, Vector2 scale) {
+		culled = 0;
+		drawn = 0;
+		if (!enabled) {
+			return;
+		}
+		if (revision != scene.getStaticRevision()) {
+			build();
+		}
+
+		float halfWidth  = camera.viewportWidth  * camera.zoom / 2.0f;
+		float halfHeight = camera.viewportHeight * camera.zoom / 2.0f;
+		viewLeft   = (camera.position.x - halfWidth)  / scale.x - MARGIN;
+		viewRight  = (camera.position.x + halfWidth)  / scale.x + MARGIN;
+		viewBottom = (camera.position.y - halfHeight) / scale.y - MARGIN;
+		viewTop    = (camera.position.y + halfHeight) / scale.y + MARGIN;
+		stamp++;
+
+		int col0 = Math.max(0, column(viewLeft));
+		int col1 = Math.min(columns - 1, column(viewRight));
+		int row0 = Math.max(0, row(viewBottom));
+		int row1 = Math.min(rows - 1, row(viewTop));
+		for (int row = row0; row <= row1; row++) {
+			for (int col = col0; col <= col1; col++) {
+				int cell = row * columns + col;
+				for (int ii = cellStart[cell]; ii < cellStart[cell + 1]; ii++) {
+					int index = cellEntries[ii];
+					if (seen[index] != stamp && overlaps(index)) {
+						seen[index] = stamp;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns true if an object may be seen in the current view.
+	 *
+	 * Static objects are looked up in the results of setView().  Moving objects
+	 * (and enemies, which are never static in the registry) are tested with the
+	 * bounding circle of their current size, about the (interpolated) position
+	 * they are drawn at.
+	 *
+	 * @param obj The object to test
+	 *
+	 * @return true if an object may be seen in the current view
+	 */
+	public boolean isVisible(Obstacle obj) {
+		boolean visible;
+		if (!enabled) {
+			visible = true;
+		} else {
+			int index = staticIndex.get(obj, -1);
+			if (index >= 0) {
+				visible = unbounded[index] || seen[index] == stamp;
+			} else {
+				float radius = obj.getBoundingRadius();
+				float x = obj.getDrawX();
+				float y = obj.getDrawY();
+				visible = x + radius >= viewLeft && x - radius <= viewRight &&
+						  y + radius >= viewBottom && y - radius <= viewTop;
+			}
+		}
+		if (visible) {
+			drawn++;
+		} else {
+			culled++;
+		}
+		return visible;
+	}
+
+	/**
+	 * Rebuilds the grid from the static objects of the registry
+	 */
+	private void build() {
+		revision = scene.getStaticRevision();
+		statics.clear();
+		staticIndex.clear();
+		for (Obstacle obj : scene.getStatic()) {
+			staticIndex.put(obj, statics.size);
+			statics.add(obj);
+		}
+
+		int count = statics.size;
+		if (staticBounds.length < 4 * count) {
+			staticBounds = new float[4 * count];
+			unbounded = new boolean[count];
+			seen = new int[count];
+		}
+		float minX = Float.MAX_VALUE;
+		float minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+		float maxY = -Float.MAX_VALUE;
+		for (int ii = 0; ii < count; ii++) {
+			unbounded[ii] = !computeBounds(statics.get(ii).getBody(), 4 * ii);
+			if (!unbounded[ii]) {
+				minX = Math.min(minX, staticBounds[4 * ii]);
+				minY = Math.min(minY, staticBounds[4 * ii + 1]);
+				maxX = Math.max(maxX, staticBounds[4 * ii + 2]);
+				maxY = Math.max(maxY, staticBounds[4 * ii + 3]);
+			}
+		}
+		if (minX > maxX) {
+			minX = minY = maxX = maxY = 0;
+		}
+		gridX = minX;
+		gridY = minY;
+		columns = Math.max(1, (int)Math.ceil((maxX - minX) / CELL_SIZE));
+		rows = Math.max(1, (int)Math.ceil((maxY - minY) / CELL_SIZE));
+
+		// Count the entries of each cell, then pack them (a counting sort)
+		cellStart = new int[columns * rows + 1];
+		for (int pass = 0; pass < 2; pass++) {
+			int[] next = pass == 0 ? cellStart : Arrays.copyOf(cellStart, cellStart.length);
+			for (int ii = 0; ii < count; ii++) {
+				if (unbounded[ii]) {
+					continue;
+				}
+				int col0 = Math.max(0, column(staticBounds[4 * ii]));
+				int col1 = Math.min(columns - 1, column(staticBounds[4 * ii + 2]));
+				int row0 = Math.max(0, row(staticBounds[4 * ii + 1]));
+				int row1 = Math.min(rows - 1, row(staticBounds[4 * ii + 3]));
+				for (int row = row0; row <= row1; row++) {
+					for (int col = col0; col <= col1; col++) {
+						int cell = row * columns + col;
+						if (pass == 0) {
+							cellStart[cell + 1]++;
+						} else {
+							cellEntries[next[cell]++] = ii;
+						}
+					}
+				}
+			}
+			if (pass == 0) {
+				for (int cell = 0; cell < columns * rows; cell++) {
+					cellStart[cell + 1] += cellStart[cell];
+				}
+				cellEntries = new int[cellStart[columns * rows]];
+			}
+		}
+	}
+
+	/**
+	 * Computes the world bounds of the fixtures of a body
+	 *
+	 * @param body		The body to bound (may be null)
+	 * @param offset	The position of the bounds in staticBounds
+	 *
+	 * @return true if the body could be bounded
+	 */
+	private boolean computeBounds(Body body, int offset) {
+		if (body == null || body.getFixtureList().size == 0) {
+			return false;
+		}
+		float minX = Float.MAX_VALUE;
+		float minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+		float maxY = -Float.MAX_VALUE;
+		Transform xform = body.getTransform();
+		for (Fixture fix : body.getFixtureList()) {
+			Shape shape = fix.getShape();
+			if (shape.getType() == Shape.Type.Circle) {
+				vertexCache.set(((CircleShape)shape).getPosition());
+				xform.mul(vertexCache);
+				float radius = shape.getRadius();
+				minX = Math.min(minX, vertexCache.x - radius);
+				minY = Math.min(minY, vertexCache.y - radius);
+				maxX = Math.max(maxX, vertexCache.x + radius);
+				maxY = Math.max(maxY, vertexCache.y + radius);
+			} else if (shape.getType() == Shape.Type.Polygon) {
+				PolygonShape poly = (PolygonShape)shape;
+				for (int ii = 0; ii < poly.getVertexCount(); ii++) {
+					poly.getVertex(ii, vertexCache);
+					xform.mul(vertexCache);
+					minX = Math.min(minX, vertexCache.x);
+					minY = Math.min(minY, vertexCache.y);
+					maxX = Math.max(maxX, vertexCache.x);
+					maxY = Math.max(maxY, vertexCache.y);
+				}
+			} else {
+				return false;
+			}
+		}
+		staticBounds[offset] = minX;
+		staticBounds[offset + 1] = minY;
+		staticBounds[offset + 2] = maxX;
+		staticBounds[offset + 3] = maxY;
+		return true;
+	}
+
+	/**
+	 * Returns true if the bounds of a static object overlap the view
+	 *
+	 * @param index The index of the static object
+	 *
+	 * @return true if the bounds of a static object overlap the view
+	 */
+	private boolean overlaps(int index) {
+		int offset = 4 * index;
+		return staticBounds[offset] <= viewRight && staticBounds[offset + 2] >= viewLeft &&
+			   staticBounds[offset + 1] <= viewTop && staticBounds[offset + 3] >= viewBottom;
+	}
+
+	/**
+	 * Returns the grid column of an x-coordinate (which may be outside the grid)
+	 *
+	 * @param x The x-coordinate in physics units
+	 *
+	 * @return the grid column of an x-coordinate
+	 */
+	private int column(float x) {
+		return (int)Math.floor((x - gridX) / CELL_SIZE);
+	}
+
+	/**
+	 * Returns the grid row of a y-coordinate (which may be outside the grid)
+	 *
+	 * @param y The y-coordinate in physics units
+	 *
+	 * @return the grid row of a y-coordinate
+	 */
+	private int row(float y) {
+		return (int)Math.floor((y - gridY) / CELL_SIZE);
+	}
+}
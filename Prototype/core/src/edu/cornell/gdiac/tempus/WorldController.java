@@ -161,8 +161,8 @@ public abstract class WorldController implements Screen {
 	public static final int EXIT_NEXT = 1;
 	/** Exit code for jumping back to previous level */
 	public static final int EXIT_PREV = 2;
-    /** How many frames after winning/losing do we continue? */
-	public static int EXIT_COUNT = Gdx.graphics.getFramesPerSecond()/3;
+    /** How many steps after winning/losing do we continue? */
+	public static final int EXIT_COUNT = 20;
 
 	/** The amount of time for a physics engine step. */
 	public static final float WORLD_STEP = 1/60.0f;
@@ -170,6 +170,8 @@ public abstract class WorldController implements Screen {
 	public static final int WORLD_VELOC = 6;
 	/** Number of position iterations for the constrain solvers */
 	public static final int WORLD_POSIT = 2;
+	/** Maximum number of physics steps to take in a single frame */
+	public static final int MAX_SUBSTEPS = 5;
 	
 	/** Width of the game world in Box2d units */
 	protected static final float DEFAULT_WIDTH  = 32.0f;
@@ -181,16 +183,24 @@ public abstract class WorldController implements Screen {
 	/** Reference to the game canvas */
 	protected GameCanvas canvas;
 	/** All the objects in the world. */
-	protected PooledList<Obstacle> objects  = new PooledList<Obstacle>();
+	protected DenseList<Obstacle> objects  = new DenseList<Obstacle>();
 	/** All the objects in the world. */
-	protected PooledList<Enemy> enemies = new PooledList<Enemy>();
+	protected DenseList<Enemy> enemies = new DenseList<Enemy>();
 	/** Queue for adding objects */
-	protected PooledList<Obstacle> addQueue = new PooledList<Obstacle>();
+	protected DenseList<Obstacle> addQueue = new DenseList<Obstacle>();
+	/** The objects and enemies indexed by era, kind and body type */
+	protected SceneRegistry scene = new SceneRegistry();
+	/** The body positions, angles and velocities, copied once per frame */
+	protected TransformSnapshot transforms = new TransformSnapshot();
 	/** Listener that will update the player mode when we are done */
 	protected ScreenListener listener;
 
 	/** The Box2D world */
 	protected World world;
+	/** Simulated time owed to the physics world, carried across frames */
+	protected float accumulator;
+	/** Real time owed to the game logic, carried across frames */
+	protected float tickAccumulator;
 	/** The boundary of the world */
 	protected Rectangle bounds;
 	/** The world scale */
@@ -299,6 +309,15 @@ public abstract class WorldController implements Screen {
 	public GameCanvas getCanvas() {
 		return canvas;
 	}
+
+	/**
+	 * Returns the Box2D world for this controller
+	 *
+	 * @return the Box2D world for this controller
+	 */
+	public World getWorld() {
+		return world;
+	}
 	
 	/**
 	 * Sets the canvas associated with this controller
@@ -378,10 +397,14 @@ public abstract class WorldController implements Screen {
 		enemies.clear();
 		objects.clear();
 		addQueue.clear();
+		scene.clear();
+		transforms.clear();
 		world.dispose();
 		enemies = null;
 		objects = null;
 		addQueue = null;
+		scene = null;
+		transforms = null;
 		bounds = null;
 		scale  = null;
 		world  = null;
@@ -411,6 +434,9 @@ public abstract class WorldController implements Screen {
 		assert inBounds(obj) : "Object is not in bounds";
 		objects.add(obj);
 		obj.activatePhysics(world);
+		EraFilter.apply(obj, scene.isShifted());
+		scene.add(obj);
+		transforms.add(obj);
 	}
 
 	/**
@@ -422,6 +448,9 @@ public abstract class WorldController implements Screen {
 		assert inBounds(enemy) : "Object is not in bounds";
 		enemies.add(enemy);
 		enemy.activatePhysics(world);
+		EraFilter.apply(enemy, scene.isShifted());
+		scene.add(enemy);
+		transforms.add(enemy);
 	}
 
 	/**
@@ -459,7 +488,6 @@ public abstract class WorldController implements Screen {
 	 */
 	public boolean preUpdate(float dt) {
 		InputController input = InputController.getInstance();
-		EXIT_COUNT = Gdx.graphics.getFramesPerSecond()/3;
 		input.readInput(bounds, scale);
 		if (listener == null) {
 			return true;
@@ -513,33 +541,36 @@ public abstract class WorldController implements Screen {
 //			reset();
 //		}
 
-		while (!addQueue.isEmpty()) {
-			Obstacle b = addQueue.poll();
-			addObject(b);
+		for (int ii = 0; ii < addQueue.size(); ii++) {
+			addObject(addQueue.get(ii));
 		}
+		addQueue.clear();
 
 		// Garbage collect the deleted objects.
-		// Note how we use the linked list nodes to delete O(1) in place.
-		// This is O(n) without copying.
-		Iterator<PooledList<Obstacle>.Entry> iterator = objects.entryIterator();
+		// Note how the iterator deletes O(1) in place, by moving the last object
+		// into the hole.  This is O(n) without copying.
+		Iterator<Obstacle> iterator = objects.iterator();
 		while (iterator.hasNext()) {
-			PooledList<Obstacle>.Entry entry = iterator.next();
-			Obstacle obj = entry.getValue();
+			Obstacle obj = iterator.next();
 			if (obj.isRemoved()) {
-				obj.deactivatePhysics(world);
-				entry.remove();
+				scene.remove(obj);
+				transforms.remove(obj);
+				releaseObject(obj);
+				iterator.remove();
 			} else {
 				// Note that update is called last!
 				obj.update(dt);
 			}
 		}
-		Iterator<PooledList<Enemy>.Entry> iterator2 = enemies.entryIterator();
+		Iterator<Enemy> iterator2 = enemies.iterator();
 		while (iterator2.hasNext()) {
-			PooledList<Enemy>.Entry entry = iterator2.next();
-			Enemy e = entry.getValue();
+			Enemy e = iterator2.next();
 			if (e.isRemoved()) {
-				e.deactivatePhysics(world);
-				entry.remove();
+				scene.remove(e);
+				transforms.remove(e);
+				// Keep the body (inactive) so that a reset can bring the enemy back
+				e.setActive(false);
+				iterator2.remove();
 			} else {
 				// Note that update is called last!
 				e.update(dt);
@@ -548,13 +579,97 @@ public abstract class WorldController implements Screen {
 
 	}
 	
+	/**
+	 * Removes a garbage collected object from the physics world.
+	 *
+	 * This is called from postUpdate() for every object marked as removed, just
+	 * before it is taken off the object list.  Subclasses may override this to
+	 * recycle the object instead of destroying its body.
+	 *
+	 * @param obj The object to remove
+	 */
+	protected void releaseObject(Obstacle obj) {
+		obj.deactivatePhysics(world);
+	}
+
+	/**
+	 * Advances the game logic and the physics world by a fixed timestep as many
+	 * times as dt allows.
+	 *
+	 * Frame time is added to an accumulator and drained in steps of WORLD_STEP,
+	 * calling fixedUpdate() once per step, so the game logic runs at the same
+	 * speed at any frame rate.  The physics world has an accumulator of its own,
+	 * fed with the frame time scaled by timeScale, and is stepped along with the
+	 * game logic whenever it is owed a step.  Slowing time down thus slows the
+	 * bodies but not the counters of the game logic.
+	 *
+	 * A long frame is clamped to MAX_SUBSTEPS steps so that a hitch cannot send
+	 * us into a spiral of ever longer frames.  Forces applied in fixedUpdate()
+	 * act on the physics step that follows, and are then cleared.  Whatever
+	 * physics time is left over sets the render interpolation for all obstacles.
+	 *
+	 * Once the steps are done, the state of every moving body is copied into the
+	 * transform snapshot, which serves the obstacle getters until the next step.
+	 *
+	 * @param dt		Number of seconds since last animation frame
+	 * @param timeScale	How fast simulated time passes (1 is normal speed)
+	 *
+	 * @return the number of physics steps taken
+	 */
+	protected int stepWorld(float dt, float timeScale) {
+		dt = Math.min(dt, MAX_SUBSTEPS * WORLD_STEP);
+		tickAccumulator += dt;
+		accumulator += dt * timeScale;
+		world.setAutoClearForces(false);
+
+		int ticks = 0;
+		int steps = 0;
+		while (tickAccumulator >= WORLD_STEP && ticks < MAX_SUBSTEPS) {
+			// The logic may move bodies, so the getters must read them until the capture
+			transforms.invalidate();
+			fixedUpdate();
+			if (accumulator >= WORLD_STEP) {
+				for (Obstacle obj : objects) {
+					obj.storePhysicsState();
+				}
+				for (Enemy e : enemies) {
+					e.storePhysicsState();
+				}
+				world.step(WORLD_STEP, WORLD_VELOC, WORLD_POSIT);
+				accumulator -= WORLD_STEP;
+				steps++;
+			}
+			world.clearForces();
+			tickAccumulator -= WORLD_STEP;
+			ticks++;
+		}
+		if (ticks > 0) {
+			transforms.capture();
+		}
+
+		Obstacle.setInterpolation(Math.min(1, accumulator / WORLD_STEP));
+		return steps;
+	}
+
+	/**
+	 * Advances the game logic by one fixed step of WORLD_STEP seconds.
+	 *
+	 * This is called by stepWorld() just before each physics step, so counters
+	 * kept here count steps rather than frames.  Forces should be applied here
+	 * (not in update) so that they act on the step that follows.  By default
+	 * this does nothing.
+	 */
+	protected void fixedUpdate() {
+	}
+
 	/**
 	 * Draw the physics objects to the canvas
 	 *
 	 * For simple worlds, this method is enough by itself.  It will need
 	 * to be overriden if the world needs fancy backgrounds or the like.
 	 *
-	 * The method draws all objects in the order that they were added.
+	 * The method draws all objects in the order of the object list (removing an
+	 * object moves the last one into its place).
 	 *
 	 * @param delta The drawing context
 	 */
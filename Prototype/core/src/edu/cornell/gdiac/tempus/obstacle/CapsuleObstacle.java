@@ -135,6 +135,17 @@ public class CapsuleObstacle extends SimpleObstacle {
 	public float getHeight() {
 		return dimension.y;
 	}
+
+	/**
+	 * Returns the radius of a circle about the position of this object that holds its shape
+	 *
+	 * The shape is centered on the position, so this is half of its diagonal.
+	 *
+	 * @return the radius of a circle about the position that holds the shape
+	 */
+	public float getBoundingRadius() {
+		return 0.5f * (float)Math.sqrt(dimension.x * dimension.x + dimension.y * dimension.y);
+	}
 	
 	/**
 	 * Sets the box height
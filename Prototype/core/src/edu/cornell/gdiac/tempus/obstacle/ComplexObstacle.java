@@ -80,11 +80,23 @@ public abstract class ComplexObstacle extends Obstacle {
 	public void setBodyType(BodyType value) {
 		if (body != null) {
 			body.setType(value);
+			if (snapshot != null) {
+				snapshot.setType(snapshotSlot,value);
+			}
 		} else {
 			super.setBodyType(value);
 		}
 	}
 	
+	/**
+	 * Returns true if the state of the body can be read from the snapshot
+	 *
+	 * @return true if the state of the body can be read from the snapshot
+	 */
+	protected boolean isSnapshotValid() {
+		return body != null && snapshot != null && snapshot.isValid();
+	}
+
 	/**
 	 * Returns the current position for this physics body
 	 *
@@ -98,6 +110,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 * @return the current position for this physics body
 	 */
 	public Vector2 getPosition() {
+		if (isSnapshotValid()) {
+			return snapshotPosition.set(snapshot.getX(snapshotSlot),snapshot.getY(snapshotSlot));
+		}
 		return (body != null ? body.getPosition() : super.getPosition());
 	}
 	
@@ -113,10 +128,13 @@ public abstract class ComplexObstacle extends Obstacle {
 	 */
 	public void setPosition(Vector2 value) {
 		if (body != null) {
-			body.setTransform(value,body.getAngle());
+			float angle = getAngle();
+			body.setTransform(value,angle);
+			storeTransform(value.x,value.y,angle);
 		} else {
 			super.setPosition(value);
 		}
+		snapPhysicsState();
 	}
 
 	/**
@@ -132,11 +150,14 @@ public abstract class ComplexObstacle extends Obstacle {
 	 */
 	public void setPosition(float x, float y) {
 		if (body != null) {
+			float angle = getAngle();
 			positionCache.set(x,y);
-			body.setTransform(positionCache,body.getAngle());
+			body.setTransform(positionCache,angle);
+			storeTransform(x,y,angle);
 		} else {
 			super.setPosition(x,y);
 		}
+		snapPhysicsState();
 	}
 
 	/**
@@ -148,6 +169,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 * @return the x-coordinate for this physics body
 	 */
 	public float getX() {
+		if (isSnapshotValid()) {
+			return snapshot.getX(snapshotSlot);
+		}
 		return (body != null ? body.getPosition().x : super.getX());
 	}
 	
@@ -161,11 +185,14 @@ public abstract class ComplexObstacle extends Obstacle {
 	 */
 	public void setX(float value) {
 		if (body != null) {
-			positionCache.set(value,body.getPosition().y);
-			body.setTransform(positionCache,body.getAngle());
+			float angle = getAngle();
+			positionCache.set(value,getY());
+			body.setTransform(positionCache,angle);
+			storeTransform(positionCache.x,positionCache.y,angle);
 		} else {
 			super.setX(value);
 		}
+		snapPhysicsState();
 	}
 	
 	/**
@@ -177,6 +204,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 * @return the y-coordinate for this physics body
 	 */
 	public float getY() {
+		if (isSnapshotValid()) {
+			return snapshot.getY(snapshotSlot);
+		}
 		return (body != null ? body.getPosition().y : super.getY());
 	}
 	
@@ -190,11 +220,14 @@ public abstract class ComplexObstacle extends Obstacle {
 	 */
 	public void setY(float value) {
 		if (body != null) {
-			positionCache.set(body.getPosition().x,value);
-			body.setTransform(positionCache,body.getAngle());
+			float angle = getAngle();
+			positionCache.set(getX(),value);
+			body.setTransform(positionCache,angle);
+			storeTransform(positionCache.x,positionCache.y,angle);
 		} else {
 			super.setY(value);
 		}
+		snapPhysicsState();
 	}
 	
 	/**
@@ -208,6 +241,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 * @return the angle of rotation for this body
 	 */
 	public float getAngle() {
+		if (isSnapshotValid()) {
+			return snapshot.getAngle(snapshotSlot);
+		}
 		return (body != null ? body.getAngle() : super.getAngle());
 	}
 	
@@ -221,10 +257,13 @@ public abstract class ComplexObstacle extends Obstacle {
 	 */
 	public void setAngle(float value) {
 		if (body != null) {
-			body.setTransform(body.getPosition(),value);
+			Vector2 pos = getPosition();
+			body.setTransform(pos,value);
+			storeTransform(pos.x,pos.y,value);
 		} else {
 			super.setAngle(value);
 		}
+		snapPhysicsState();
 	}
 	
 	/**
@@ -240,6 +279,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 * @return the linear velocity for this physics body
 	 */
 	public Vector2 getLinearVelocity() {
+		if (isSnapshotValid()) {
+			return snapshotVelocity.set(snapshot.getVX(snapshotSlot),snapshot.getVY(snapshotSlot));
+		}
 		return (body != null ? body.getLinearVelocity() : super.getLinearVelocity());
 	}
 	
@@ -256,6 +298,7 @@ public abstract class ComplexObstacle extends Obstacle {
 	public void setLinearVelocity(Vector2 value) {
 		if (body != null) {
 			body.setLinearVelocity(value);
+			storeVelocity(value.x,value.y);
 		} else {
 			super.setLinearVelocity(value);
 		}
@@ -270,6 +313,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 * @return the x-velocity for this physics body
 	 */
 	public float getVX() {
+		if (isSnapshotValid()) {
+			return snapshot.getVX(snapshotSlot);
+		}
 		return (body != null ? body.getLinearVelocity().x : super.getVX());
 	}
 	
@@ -283,8 +329,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 */
 	public void setVX(float value) {
 		if (body != null) {
-			velocityCache.set(value,body.getLinearVelocity().y);
+			velocityCache.set(value,getVY());
 			body.setLinearVelocity(velocityCache);
+			storeVelocity(velocityCache.x,velocityCache.y);
 		} else {
 			super.setVX(value);
 		}
@@ -299,6 +346,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 * @return the y-velocity for this physics body
 	 */
 	public float getVY() {
+		if (isSnapshotValid()) {
+			return snapshot.getVY(snapshotSlot);
+		}
 		return (body != null ? body.getLinearVelocity().y : super.getVY());
 	}
 	
@@ -312,8 +362,9 @@ public abstract class ComplexObstacle extends Obstacle {
 	 */
 	public void setVY(float value) {
 		if (body != null) {
-			velocityCache.set(body.getLinearVelocity().x,value);
+			velocityCache.set(getVX(),value);
 			body.setLinearVelocity(velocityCache);
+			storeVelocity(velocityCache.x,velocityCache.y);
 		} else {
 			super.setVY(value);
 		}
@@ -420,6 +471,10 @@ public abstract class ComplexObstacle extends Obstacle {
 	public void setAwake(boolean value) {
 		if (body != null) {
 			body.setAwake(value);
+			if (!value) {
+				// Box2D clears the velocity of a body put to sleep
+				storeVelocity(0,0);
+			}
 		} else {
 			super.setAwake(value);
 		}
@@ -53,6 +53,8 @@ public abstract class Obstacle {
 	/** Whether or not the object belongs in the present, past, or both worlds.
 	 * 1 = present, 2 = past, 3 = both*/
 	protected int space = 3;
+	/** The kind of this object, classified once for collision dispatch */
+	private SceneRegistry.Kind kind;
 
 	/// Track garbage collection status
 	/** Whether the object should be removed from the world on next pass */
@@ -70,6 +72,26 @@ public abstract class Obstacle {
 	/** A cache value for when the user wants to access the drawing scale */
 	protected Vector2 scaleCache = new Vector2();
 
+	/// Render interpolation
+	/** Fraction of a physics step elapsed since the last step (shared by all objects) */
+	private static float interpolation = 1.0f;
+	/** The body position before the most recent physics step */
+	private Vector2 previousPosition = new Vector2();
+	/** The body angle before the most recent physics step */
+	private float previousAngle;
+	/** Whether a previous physics state has been recorded yet */
+	private boolean hasPrevious;
+
+	/// Transform snapshot
+	/** The snapshot holding a copy of the body state (or null if there is none) */
+	TransformSnapshot snapshot;
+	/** The slot of this object in its snapshot */
+	int snapshotSlot;
+	/** The position returned from the snapshot (apart from positionCache, like the body vector) */
+	protected Vector2 snapshotPosition = new Vector2();
+	/** The linear velocity returned from the snapshot (apart from velocityCache) */
+	protected Vector2 snapshotVelocity = new Vector2();
+
 	/// BodyDef Methods
 	/**
 	 * Returns the body type for Box2D physics
@@ -108,6 +130,33 @@ public abstract class Obstacle {
 	 * @param value
 	 */
 	public void setSpace(int value){space = value;}
+
+	/**
+	 * Returns the kind of this object (platform, enemy, avatar, and so on)
+	 *
+	 * The kind is worked out on the first call and cached, as the class of an
+	 * object never changes.  It is read for every contact in the world.
+	 *
+	 * @return the kind of this object
+	 */
+	public SceneRegistry.Kind getKind() {
+		if (kind == null) {
+			kind = SceneRegistry.kindOf(this);
+		}
+		return kind;
+	}
+
+	/**
+	 * Returns the radius of a circle about the position of this object that holds its shape
+	 *
+	 * This is worked out from the current size, so it follows any resizing.  An
+	 * object with no size of its own returns an infinite radius.
+	 *
+	 * @return the radius of a circle about the position that holds the shape
+	 */
+	public float getBoundingRadius() {
+		return Float.POSITIVE_INFINITY;
+	}
 	/**
 	 * Returns the current position for this physics body
 	 *
@@ -845,8 +894,100 @@ public abstract class Obstacle {
 		return null;
 	}
 	
+	/**
+	 * Records a new position and angle of the body in the snapshot, if any
+	 *
+	 * The setters call this after they change the body, so that the getters
+	 * see the change before the next capture.
+	 *
+	 * @param x      the new x-coordinate of the body
+	 * @param y      the new y-coordinate of the body
+	 * @param angle  the new angle of the body
+	 */
+	protected void storeTransform(float x, float y, float angle) {
+		if (snapshot != null) {
+			snapshot.setTransform(snapshotSlot,x,y,angle);
+		}
+	}
+
+	/**
+	 * Records a new linear velocity of the body in the snapshot, if any
+	 *
+	 * @param vx  the new x-velocity of the body
+	 * @param vy  the new y-velocity of the body
+	 */
+	protected void storeVelocity(float vx, float vy) {
+		if (snapshot != null) {
+			snapshot.setVelocity(snapshotSlot,vx,vy);
+		}
+	}
+
 	/// DRAWING METHODS
 	/**
+	 * Sets the fraction of a physics step elapsed since the last world step
+	 *
+	 * The drawing positions of every object blend between the state before the
+	 * last step (0) and the state after it (1).  The controller sets this once
+	 * per frame after it has finished stepping.
+	 *
+	 * @param alpha  the fraction of a physics step left in the accumulator
+	 */
+	public static void setInterpolation(float alpha) {
+		interpolation = Math.max(0.0f, Math.min(1.0f, alpha));
+	}
+
+	/**
+	 * Records the current physics state as the previous state.
+	 *
+	 * This should be called immediately before each world step.
+	 */
+	public void storePhysicsState() {
+		previousPosition.set(getX(), getY());
+		previousAngle = getAngle();
+		hasPrevious = true;
+	}
+
+	/**
+	 * Discards the previous physics state so the next draw does not interpolate.
+	 *
+	 * This is called whenever the object is moved explicitly (e.g. a teleport),
+	 * as blending across that jump would smear the object across the screen.
+	 */
+	public void snapPhysicsState() {
+		hasPrevious = false;
+	}
+
+	/**
+	 * Returns the x-coordinate to draw this body at
+	 *
+	 * @return the interpolated x-coordinate for this physics body
+	 */
+	public float getDrawX() {
+		float x = getX();
+		return hasPrevious ? previousPosition.x + (x - previousPosition.x) * interpolation : x;
+	}
+
+	/**
+	 * Returns the y-coordinate to draw this body at
+	 *
+	 * @return the interpolated y-coordinate for this physics body
+	 */
+	public float getDrawY() {
+		float y = getY();
+		return hasPrevious ? previousPosition.y + (y - previousPosition.y) * interpolation : y;
+	}
+
+	/**
+	 * Returns the angle to draw this body at (in radians)
+	 *
+	 * @return the interpolated angle for this physics body
+	 */
+	public float getDrawAngle() {
+		float a = getAngle();
+		return hasPrevious ? previousAngle + (a - previousAngle) * interpolation : a;
+	}
+
+	/**
      * Returns the drawing scale for this physics object
      *
      * The drawing scale is the number of pixels to draw before Box2D unit. Because
@@ -23,6 +23,8 @@ import com.badlogic.gdx.physics.box2d.*;
 
 import edu.cornell.gdiac.tempus.*;  // For GameCanvas
 
+import java.util.Arrays;
+
 
 /**
  * Arbitrary polygonal-shaped model to support collisions.
@@ -33,12 +35,20 @@ import edu.cornell.gdiac.tempus.*;  // For GameCanvas
  */
 public class PolygonObstacle extends SimpleObstacle {
 	/** An earclipping triangular to make sure we work with convex shapes */
-	private static final EarClippingTriangulator TRIANGULATOR = new EarClippingTriangulator();
+	private static final ThreadLocal<EarClippingTriangulator> TRIANGULATOR = new ThreadLocal<EarClippingTriangulator>() {
+		@Override
+		protected EarClippingTriangulator initialValue() {
+			// The triangulator reuses its buffers, so rooms built on different threads need their own
+			return new EarClippingTriangulator();
+		}
+	};
 	
 	/** Shape information for this physics object */
 	protected PolygonShape[] shapes;
 	/** Texture information for this object */
 	protected PolygonRegion region;
+	/** The asset key of the texture (null if the texture has none) */
+	private String textureKey;
 	
 	/** The polygon vertices, scaled for drawing */
 	private float[] scaled;
@@ -53,6 +63,8 @@ public class PolygonObstacle extends SimpleObstacle {
 	private Vector2 sizeCache;
 	/** Cache of the polygon vertices (for resizing) */
 	protected float[] vertices;
+	/** The template shared with polygons of the same outline (null if this has its own shapes) */
+	protected PolygonTemplate template;
 	
 	/** 
 	 * Returns the dimensions of this box
@@ -154,13 +166,67 @@ public class PolygonObstacle extends SimpleObstacle {
 	 * @param y  Initial y position of the polygon center
 	 */
 	public PolygonObstacle(float[] points, float x, float y) {
+		this(points, triangulate(points), x, y);
+	}
+
+	/**
+	 * Creates a (not necessarily convex) polygon from a known triangulation
+	 *
+	 * The triangles must be the ones that triangulate() computes for these
+	 * points.  This allows a triangulation to be computed once and shared (or
+	 * computed offline) rather than redone for every polygon.
+	 *
+	 * @param points    The polygon vertices
+	 * @param triangles The triangle indices into the vertices
+	 * @param x  Initial x position of the polygon center
+	 * @param y  Initial y position of the polygon center
+	 */
+	public PolygonObstacle(float[] points, short[] triangles, float x, float y) {
 		super(x, y);
 		assert points.length % 2 == 0;
+		assert triangles.length % 3 == 0;
 		// Compute the bounds.
-		initShapes(points);
+		initShapes(points, triangles);
 		initBounds();
 	}
 
+	/**
+	 * Creates a polygon that shares the shape of a template
+	 *
+	 * The polygon keeps no copy of the outline, its triangles or their Box2D
+	 * shapes; only its fixtures are its own.  If the polygon is ever resized, it
+	 * takes a private copy of the shape first.
+	 *
+	 * @param template  The shape of the polygon
+	 * @param x  Initial x position of the polygon center
+	 * @param y  Initial y position of the polygon center
+	 */
+	public PolygonObstacle(PolygonTemplate template, float x, float y) {
+		super(x, y);
+		this.template = template;
+		tridx = template.getTriangles();
+		vertices = template.getVertices();
+		shapes = template.getShapes();
+		geoms = new Fixture[shapes.length];
+		scaled = template.getScaled(drawScale.x, drawScale.y);
+		initBounds();
+	}
+
+	/**
+	 * Returns the triangle indices for a (not necessarily convex) polygon
+	 *
+	 * Any colinear triangles are moved to the end.
+	 *
+	 * @param points   The polygon vertices
+	 *
+	 * @return the triangle indices for a polygon
+	 */
+	public static short[] triangulate(float[] points) {
+		ShortArray array = TRIANGULATOR.get().computeTriangles(points);
+		trimColinear(points,array);
+		return array.toArray();
+	}
+
 	/**
 	 * Initializes the bounding box (and drawing scale) for this polygon
 	 */
@@ -193,25 +259,22 @@ public class PolygonObstacle extends SimpleObstacle {
 	 * for drawing.  However, the points in the polygon region may be rescaled 
 	 * later.
 	 *
-	 * @param points   The polygon vertices
+	 * @param points    The polygon vertices
+	 * @param triangles The triangle indices into the vertices
 	 */
-	private void initShapes(float[] points) {
-		// Triangulate
-		ShortArray array = TRIANGULATOR.computeTriangles(points);
-		trimColinear(points,array);
-		
-		tridx = new short[array.items.length];
-		System.arraycopy(array.items, 0, tridx, 0, tridx.length);
+	private void initShapes(float[] points, short[] triangles) {
+		tridx = new short[triangles.length];
+		System.arraycopy(triangles, 0, tridx, 0, tridx.length);
 		
 		// Allocate space for physics triangles.
-		int tris = array.items.length / 3;
+		int tris = triangles.length / 3;
 		vertices = new float[tris*6];
 		shapes = new PolygonShape[tris];
 		geoms  = new Fixture[tris];
 		for(int ii = 0; ii < tris; ii++) {
 			for(int jj = 0; jj < 3; jj++) {
-				vertices[6*ii+2*jj  ] = points[2*array.items[3*ii+jj]  ];
-				vertices[6*ii+2*jj+1] = points[2*array.items[3*ii+jj]+1];
+				vertices[6*ii+2*jj  ] = points[2*triangles[3*ii+jj]  ];
+				vertices[6*ii+2*jj+1] = points[2*triangles[3*ii+jj]+1];
 			}
 			shapes[ii] = new PolygonShape();
 			shapes[ii].set(vertices,6*ii,6);
@@ -239,7 +302,7 @@ public class PolygonObstacle extends SimpleObstacle {
 	 * @param points  The polygon vertices
 	 * @param indices The triangulation indices
 	 */
-	private void trimColinear(float[] points, ShortArray indices) {
+	private static void trimColinear(float[] points, ShortArray indices) {
 		int colinear = 0;
 		for(int ii = 0; ii < indices.size/3-colinear; ii++) {
 			float t1 = points[2*indices.items[3*ii  ]]*(points[2*indices.items[3*ii+1]+1]-points[2*indices.items[3*ii+2]+1]);
@@ -256,6 +319,21 @@ public class PolygonObstacle extends SimpleObstacle {
 		indices.shrink();
 	}
 	
+	/**
+	 * Returns the radius of a circle about the position of this object that holds its shape
+	 *
+	 * This is the distance to the farthest vertex, which follows any resizing.
+	 *
+	 * @return the radius of a circle about the position that holds the shape
+	 */
+	public float getBoundingRadius() {
+		float radius2 = 0;
+		for(int ii = 0; ii < vertices.length; ii += 2) {
+			radius2 = Math.max(radius2, vertices[ii]*vertices[ii]+vertices[ii+1]*vertices[ii+1]);
+		}
+		return (float)Math.sqrt(radius2);
+	}
+
 	/**
 	 * Resize this polygon (stretching uniformly out from origin)
 	 *
@@ -263,6 +341,9 @@ public class PolygonObstacle extends SimpleObstacle {
 	 * @param height The new height
 	 */
 	protected void resize(float width, float height) {
+		if (template != null) {
+			copyTemplate();
+		}
 		float scalex = width/dimension.x;
 		float scaley = height/dimension.y;
 		
@@ -283,6 +364,25 @@ public class PolygonObstacle extends SimpleObstacle {
 		dimension.set(width,height);
 	}
 
+	/**
+	 * Replaces the shape shared with the template by a private copy
+	 *
+	 * This must be done before the shape is changed, as other polygons share it.
+	 */
+	private void copyTemplate() {
+		vertices = Arrays.copyOf(vertices, vertices.length);
+		shapes = new PolygonShape[shapes.length];
+		for(int ii = 0; ii < shapes.length; ii++) {
+			shapes[ii] = new PolygonShape();
+			shapes[ii].set(vertices,6*ii,6);
+		}
+		scaled = Arrays.copyOf(scaled, scaled.length);
+		if (texture != null) {
+			region = new PolygonRegion(texture,scaled,tridx);
+		}
+		template = null;
+	}
+
 	/**
 	 * Create new fixtures for this body, defining the shape
 	 *
@@ -310,8 +410,9 @@ public class PolygonObstacle extends SimpleObstacle {
 	 */
 	protected void releaseFixtures() {
 		if (geoms[0] != null) {
-			for(Fixture fix : geoms) {
-				body.destroyFixture(fix);
+			for(int ii = 0; ii < geoms.length; ii++) {
+				body.destroyFixture(geoms[ii]);
+				geoms[ii] = null;
 			}
 		}
 	}
@@ -325,8 +426,27 @@ public class PolygonObstacle extends SimpleObstacle {
 	 * @param value  the object texture for drawing purposes.
 	 */
 	public void setTexture(TextureRegion value) {
+		setTexture(value, null);
+	}
+
+	/**
+	 * Sets the object texture for drawing purposes, from the asset directory.
+	 *
+	 * A polygon that shares a template also shares its textured outline with
+	 * every polygon of that template using the same texture key.  A texture
+	 * without a key gets a textured outline of its own.
+	 *
+	 * @param value  the object texture for drawing purposes.
+	 * @param key    the asset key of the texture (or null if it has none)
+	 */
+	public void setTexture(TextureRegion value, String key) {
 		texture = value;
-		region = new PolygonRegion(texture,scaled,tridx);
+		textureKey = key;
+		if (template != null && key != null) {
+			region = template.getRegion(key,texture,drawScale.x,drawScale.y);
+		} else {
+			region = new PolygonRegion(texture,scaled,tridx);
+		}
 	}
 	
     /**
@@ -344,6 +464,15 @@ public class PolygonObstacle extends SimpleObstacle {
      */
     public void setDrawScale(float x, float y) {
     	assert x != 0 && y != 0 : "Scale cannot be 0";
+    	if (template != null) {
+    		drawScale.set(x,y);
+    		scaled = template.getScaled(x,y);
+    		if (texture != null) {
+    			region = textureKey != null ? template.getRegion(textureKey,texture,x,y)
+    			                            : new PolygonRegion(texture,scaled,tridx);
+    		}
+    		return;
+    	}
     	float dx = x/drawScale.x; 
     	float dy = y/drawScale.y;
 		// Reset the drawing shape as well
@@ -364,7 +493,7 @@ public class PolygonObstacle extends SimpleObstacle {
 	 */
 	public void draw(GameCanvas canvas) {
 		if (region != null) {
-			canvas.draw(region,Color.WHITE,0,0,getX()*drawScale.x,getY()*drawScale.y,getAngle(),1,1);
+			canvas.draw(region,Color.WHITE,0,0,getDrawX()*drawScale.x,getDrawY()*drawScale.y,getDrawAngle(),1,1);
 		}
 	}
 
@@ -0,0 +1,239 @@
+/*
+ * PolygonTemplate.java
+ *
+ * Every platform in a room used to copy its outline, split it into triangles,
+ * and allocate a Box2D shape for each triangle, even though a room only uses a
+ * handful of different outlines.  A template holds all of this for one outline,
+ * and is shared by every polygon with that outline.  Box2D copies a shape into
+ * each fixture, so the shapes can be shared by any number of bodies.
+ *
+ * Templates are immutable once made.  A polygon that needs to change its shape
+ * (by resizing) takes a private copy first.  The templates (and their Box2D
+ * shapes) live until disposeAll() is called when the game exits.
+ */
+package edu.cornell.gdiac.tempus.obstacle;
+
+import com.badlogic.gdx.graphics.g2d.*;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.*;
+
+import java.util.Arrays;
+
+/**
+ * The shared shape of every polygon with the same outline.
+ *
+ * This holds the outline, its triangulation, the vertices and Box2D shape of
+ * every triangle, and the outline scaled (and texture mapped) for each draw
+ * scale it is drawn at.  Rooms may be built on several threads, so every method
+ * is synchronized.
+ */
+public class PolygonTemplate {
+	/** Every template made, by the hash of its outline */
+	private static final IntMap<Array<PolygonTemplate>> templates = new IntMap<Array<PolygonTemplate>>();
+
+	/** The outline vertices */
+	private final float[] points;
+	/** The triangle indices into the outline */
+	private final short[] triangles;
+	/** The vertices of each triangle, in order */
+	private final float[] vertices;
+	/** The Box2D shape of each triangle */
+	private final PolygonShape[] shapes;
+
+	/** The draw scales the outline has been scaled to, as x, y pairs */
+	private FloatArray scales;
+	/** The outline scaled by each draw scale */
+	private Array<float[]> scaled;
+	/** The texture key of each region */
+	private Array<String> keys;
+	/** The region made for each texture key at a draw scale */
+	private Array<PolygonRegion> regions;
+
+	/**
+	 * Returns the template for an outline, triangulating it if it is new
+	 *
+	 * @param points	The polygon vertices
+	 *
+	 * @return the template for an outline
+	 */
+	public static PolygonTemplate get(float[] points) {
+		return get(points, null);
+	}
+
+	/**
+	 * Returns the template for an outline with a known triangulation
+	 *
+	 * The triangles must be the ones that PolygonObstacle.triangulate() computes
+	 * for these points.  If they are null, the outline is triangulated when the
+	 * template is first made.
+	 *
+	 * @param points	The polygon vertices
+	 * @param triangles	The triangle indices into the vertices (or null)
+	 *
+	 * @return the template for an outline
+	 */
+	public static synchronized PolygonTemplate get(float[] points, short[] triangles) {
+		int hash = Arrays.hashCode(points);
+		Array<PolygonTemplate> bucket = templates.get(hash);
+		if (bucket == null) {
+			bucket = new Array<PolygonTemplate>(1);
+			templates.put(hash, bucket);
+		}
+		for (int ii = 0; ii < bucket.size; ii++) {
+			PolygonTemplate template = bucket.get(ii);
+			if (Arrays.equals(template.points, points) &&
+				(triangles == null || Arrays.equals(template.triangles, triangles))) {
+				return template;
+			}
+		}
+		PolygonTemplate template = new PolygonTemplate(points, triangles == null ? PolygonObstacle.triangulate(points) : triangles);
+		bucket.add(template);
+		return template;
+	}
+
+	/**
+	 * Creates the template for a triangulated outline
+	 *
+	 * @param points	The polygon vertices
+	 * @param triangles	The triangle indices into the vertices
+	 */
+	private PolygonTemplate(float[] points, short[] triangles) {
+		this.points = Arrays.copyOf(points, points.length);
+		this.triangles = Arrays.copyOf(triangles, triangles.length);
+
+		int tris = triangles.length / 3;
+		vertices = new float[tris*6];
+		shapes = new PolygonShape[tris];
+		for(int ii = 0; ii < tris; ii++) {
+			for(int jj = 0; jj < 3; jj++) {
+				vertices[6*ii+2*jj  ] = points[2*triangles[3*ii+jj]  ];
+				vertices[6*ii+2*jj+1] = points[2*triangles[3*ii+jj]+1];
+			}
+			shapes[ii] = new PolygonShape();
+			shapes[ii].set(vertices,6*ii,6);
+		}
+
+		scales = new FloatArray(2);
+		scaled = new Array<float[]>(1);
+		keys = new Array<String>(2);
+		regions = new Array<PolygonRegion>(2);
+	}
+
+	/**
+	 * Disposes of every template made, and forgets them
+	 *
+	 * This frees the Box2D shapes of the templates, so it must only be called
+	 * once no polygon uses a template (such as when the game exits).
+	 */
+	public static synchronized void disposeAll() {
+		for (Array<PolygonTemplate> bucket : templates.values()) {
+			for (PolygonTemplate template : bucket) {
+				template.dispose();
+			}
+		}
+		templates.clear();
+	}
+
+	/**
+	 * Disposes of the Box2D shapes of this template
+	 */
+	private synchronized void dispose() {
+		for (PolygonShape shape : shapes) {
+			shape.dispose();
+		}
+		keys.clear();
+		regions.clear();
+	}
+
+	/**
+	 * Returns the triangle indices into the outline
+	 *
+	 * This array is shared, and must not be modified.
+	 *
+	 * @return the triangle indices into the outline
+	 */
+	public short[] getTriangles() {
+		return triangles;
+	}
+
+	/**
+	 * Returns the vertices of each triangle, in order
+	 *
+	 * This array is shared, and must not be modified.
+	 *
+	 * @return the vertices of each triangle, in order
+	 */
+	public float[] getVertices() {
+		return vertices;
+	}
+
+	/**
+	 * Returns the Box2D shape of each triangle
+	 *
+	 * These shapes are shared, and must not be modified or disposed.
+	 *
+	 * @return the Box2D shape of each triangle
+	 */
+	public PolygonShape[] getShapes() {
+		return shapes;
+	}
+
+	/**
+	 * Returns the outline scaled by a draw scale
+	 *
+	 * This array is shared, and must not be modified.
+	 *
+	 * @param sx	The x-axis draw scale
+	 * @param sy	The y-axis draw scale
+	 *
+	 * @return the outline scaled by a draw scale
+	 */
+	public synchronized float[] getScaled(float sx, float sy) {
+		for (int ii = 0; ii < scaled.size; ii++) {
+			if (scales.get(2*ii) == sx && scales.get(2*ii+1) == sy) {
+				return scaled.get(ii);
+			}
+		}
+		float[] result = new float[points.length];
+		for(int ii = 0; ii < points.length; ii+= 2) {
+			result[ii  ] = points[ii  ]*sx;
+			result[ii+1] = points[ii+1]*sy;
+		}
+		scales.add(sx, sy);
+		scaled.add(result);
+		return result;
+	}
+
+	/**
+	 * Returns the textured outline for a texture and draw scale
+	 *
+	 * The regions are kept by texture key, so there is at most one for each key
+	 * and draw scale.  If the asset manager has loaded the texture of a key
+	 * again since its region was made, the region is replaced.
+	 *
+	 * @param key		The texture key in the asset directory
+	 * @param texture	The texture to tile the outline with
+	 * @param sx		The x-axis draw scale
+	 * @param sy		The y-axis draw scale
+	 *
+	 * @return the textured outline for a texture and draw scale
+	 */
+	public synchronized PolygonRegion getRegion(String key, TextureRegion texture, float sx, float sy) {
+		float[] outline = getScaled(sx, sy);
+		// WARNING: PolygonRegion constructor by REFERENCE
+		for (int ii = 0; ii < regions.size; ii++) {
+			PolygonRegion region = regions.get(ii);
+			if (keys.get(ii).equals(key) && region.getVertices() == outline) {
+				if (region.getRegion() != texture) {
+					region = new PolygonRegion(texture,outline,triangles);
+					regions.set(ii, region);
+				}
+				return region;
+			}
+		}
+		PolygonRegion region = new PolygonRegion(texture,outline,triangles);
+		keys.add(key);
+		regions.add(region);
+		return region;
+	}
+}
@@ -35,6 +35,8 @@ import edu.cornell.gdiac.tempus.GameCanvas;
 public abstract class SimpleObstacle extends Obstacle {
 	/** The physics body for Box2D. */
 	protected Body body;
+	/** Whether every fixture of the body has the sensor flag of this object */
+	private boolean sensorApplied;
 
 	/** The texture for the shape. */
 	protected TextureRegion texture;
@@ -68,11 +70,23 @@ public abstract class SimpleObstacle extends Obstacle {
 	public void setBodyType(BodyType value) {
 		if (body != null) {
 			body.setType(value);
+			if (snapshot != null) {
+				snapshot.setType(snapshotSlot,value);
+			}
 		} else {
 			super.setBodyType(value);
 		}
 	}
 	
+	/**
+	 * Returns true if the state of the body can be read from the snapshot
+	 *
+	 * @return true if the state of the body can be read from the snapshot
+	 */
+	protected boolean isSnapshotValid() {
+		return body != null && snapshot != null && snapshot.isValid();
+	}
+
 	/**
 	 * Returns the current position for this physics body
 	 *
@@ -83,6 +97,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 * @return the current position for this physics body
 	 */
 	public Vector2 getPosition() {
+		if (isSnapshotValid()) {
+			return snapshotPosition.set(snapshot.getX(snapshotSlot),snapshot.getY(snapshotSlot));
+		}
 		return (body != null ? body.getPosition() : super.getPosition());
 	}
 	
@@ -95,10 +112,13 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void setPosition(Vector2 value) {
 		if (body != null) {
-			body.setTransform(value,body.getAngle());
+			float angle = getAngle();
+			body.setTransform(value,angle);
+			storeTransform(value.x,value.y,angle);
 		} else {
 			super.setPosition(value);
 		}
+		snapPhysicsState();
 	}
 
 	/**
@@ -109,11 +129,14 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void setPosition(float x, float y) {
 		if (body != null) {
+			float angle = getAngle();
 			positionCache.set(x,y);
-			body.setTransform(positionCache,body.getAngle());
+			body.setTransform(positionCache,angle);
+			storeTransform(x,y,angle);
 		} else {
 			super.setPosition(x,y);
 		}
+		snapPhysicsState();
 	}
 
 	/**
@@ -122,6 +145,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 * @return the x-coordinate for this physics body
 	 */
 	public float getX() {
+		if (isSnapshotValid()) {
+			return snapshot.getX(snapshotSlot);
+		}
 		return (body != null ? body.getPosition().x : super.getX());
 	}
 	
@@ -132,11 +158,14 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void setX(float value) {
 		if (body != null) {
-			positionCache.set(value,body.getPosition().y);
-			body.setTransform(positionCache,body.getAngle());
+			float angle = getAngle();
+			positionCache.set(value,getY());
+			body.setTransform(positionCache,angle);
+			storeTransform(positionCache.x,positionCache.y,angle);
 		} else {
 			super.setX(value);
 		}
+		snapPhysicsState();
 	}
 	
 	/**
@@ -145,6 +174,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 * @return the y-coordinate for this physics body
 	 */
 	public float getY() {
+		if (isSnapshotValid()) {
+			return snapshot.getY(snapshotSlot);
+		}
 		return (body != null ? body.getPosition().y : super.getY());
 	}
 	
@@ -155,11 +187,14 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void setY(float value) {
 		if (body != null) {
-			positionCache.set(body.getPosition().x,value);
-			body.setTransform(positionCache,body.getAngle());
+			float angle = getAngle();
+			positionCache.set(getX(),value);
+			body.setTransform(positionCache,angle);
+			storeTransform(positionCache.x,positionCache.y,angle);
 		} else {
 			super.setY(value);
 		}
+		snapPhysicsState();
 	}
 	
 	/**
@@ -170,6 +205,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 * @return the angle of rotation for this body
 	 */
 	public float getAngle() {
+		if (isSnapshotValid()) {
+			return snapshot.getAngle(snapshotSlot);
+		}
 		return (body != null ? body.getAngle() : super.getAngle());
 	}
 	
@@ -180,10 +218,13 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void setAngle(float value) {
 		if (body != null) {
-			body.setTransform(body.getPosition(),value);
+			Vector2 pos = getPosition();
+			body.setTransform(pos,value);
+			storeTransform(pos.x,pos.y,value);
 		} else {
 			super.setAngle(value);
 		}
+		snapPhysicsState();
 	}
 	
 	/**
@@ -196,6 +237,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 * @return the linear velocity for this physics body
 	 */
 	public Vector2 getLinearVelocity() {
+		if (isSnapshotValid()) {
+			return snapshotVelocity.set(snapshot.getVX(snapshotSlot),snapshot.getVY(snapshotSlot));
+		}
 		return (body != null ? body.getLinearVelocity() : super.getLinearVelocity());
 	}
 	
@@ -209,6 +253,7 @@ public abstract class SimpleObstacle extends Obstacle {
 	public void setLinearVelocity(Vector2 value) {
 		if (body != null) {
 			body.setLinearVelocity(value);
+			storeVelocity(value.x,value.y);
 		} else {
 			super.setLinearVelocity(value);
 		}
@@ -220,6 +265,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 * @return the x-velocity for this physics body
 	 */
 	public float getVX() {
+		if (isSnapshotValid()) {
+			return snapshot.getVX(snapshotSlot);
+		}
 		return (body != null ? body.getLinearVelocity().x : super.getVX());
 	}
 	
@@ -230,8 +278,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void setVX(float value) {
 		if (body != null) {
-			velocityCache.set(value,body.getLinearVelocity().y);
+			velocityCache.set(value,getVY());
 			body.setLinearVelocity(velocityCache);
+			storeVelocity(velocityCache.x,velocityCache.y);
 		} else {
 			super.setVX(value);
 		}
@@ -243,6 +292,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 * @return the y-velocity for this physics body
 	 */
 	public float getVY() {
+		if (isSnapshotValid()) {
+			return snapshot.getVY(snapshotSlot);
+		}
 		return (body != null ? body.getLinearVelocity().y : super.getVY());
 	}
 	
@@ -253,8 +305,9 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void setVY(float value) {
 		if (body != null) {
-			velocityCache.set(body.getLinearVelocity().x,value);
+			velocityCache.set(getVX(),value);
 			body.setLinearVelocity(velocityCache);
+			storeVelocity(velocityCache.x,velocityCache.y);
 		} else {
 			super.setVY(value);
 		}
@@ -343,6 +396,10 @@ public abstract class SimpleObstacle extends Obstacle {
 	public void setAwake(boolean value) {
 		if (body != null) {
 			body.setAwake(value);
+			if (!value) {
+				// Box2D clears the velocity of a body put to sleep
+				storeVelocity(0,0);
+			}
 		} else {
 			super.setAwake(value);
 		}
@@ -620,14 +677,22 @@ public abstract class SimpleObstacle extends Obstacle {
 	 * no collision response. This is done by using sensors. A sensor is an entity that 
 	 * detects collision but does not produce a response.
 	 *
+	 * Subclasses may add fixtures of their own with a different flag, so the
+	 * fixtures are all set the first time after the body is made.  After that,
+	 * this does nothing if the flag is unchanged.
+	 *
 	 * @param value  whether this object is a sensor.
 	 */
 	public void setSensor(boolean value) {
+		if (sensorApplied && value == isSensor()) {
+			return;
+		}
 		super.setSensor(value);
 		if (body != null) {
 			for(Fixture f : body.getFixtureList()) {
 				f.setSensor(value);
 			}
+			sensorApplied = true;
 		}
 	}
 	
@@ -776,7 +841,7 @@ public abstract class SimpleObstacle extends Obstacle {
 	 */
 	public void draw(GameCanvas canvas) {
 		if (texture != null) {
-			canvas.draw(texture,Color.WHITE,origin.x,origin.y,getX()*drawScale.x,getY()*drawScale.x,getAngle(),1,1);
+			canvas.draw(texture,Color.WHITE,origin.x,origin.y,getDrawX()*drawScale.x,getDrawY()*drawScale.x,getDrawAngle(),1,1);
 		}
 	}
 	
@@ -827,6 +892,7 @@ public abstract class SimpleObstacle extends Obstacle {
 		bodyinfo.active = true;
 		body = world.createBody(bodyinfo);
 		body.setUserData(this);
+		sensorApplied = false;
 		
 		// Only initialize if a body was created.
 		if (body != null) {
@@ -849,6 +915,8 @@ public abstract class SimpleObstacle extends Obstacle {
 		if (body != null) {
 			// Snapshot the values
 			setBodyState(body);
+			// Forget the fixtures, so that they are not destroyed again when reactivated
+			releaseFixtures();
 			world.destroyBody(body);
 			body = null;
 			bodyinfo.active = false;
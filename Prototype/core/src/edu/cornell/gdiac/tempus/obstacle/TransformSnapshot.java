@@ -0,0 +1,338 @@
+/*
+ * TransformSnapshot.java
+ *
+ * Every read of a body position, angle or velocity is a trip through JNI, and
+ * the same values are read many times a frame by the controllers, the AI, the
+ * collision handlers and the drawing code.  Bodies only move during a world
+ * step, so this class copies the state of every moving body once after the step,
+ * into plain float arrays.  The getters of SimpleObstacle and ComplexObstacle
+ * read from these arrays whenever the snapshot is valid.
+ *
+ * The setters of the obstacles write through to the snapshot, so it stays in
+ * step with the bodies between world steps.  Code that changes a body directly
+ * (instead of through its obstacle) must not do so outside of a step, as those
+ * changes would not be seen until the next capture.
+ */
+package edu.cornell.gdiac.tempus.obstacle;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays copy of the body transforms and velocities of a world.
+ *
+ * Each obstacle added to the snapshot gets a slot, which indexes the arrays.
+ * Static bodies are copied when they are added, and are skipped by capture().
+ */
+public class TransformSnapshot {
+	/** The default number of slots before the arrays must grow */
+	private static final int DEFAULT_CAPACITY = 64;
+	/** The value of nextFree for a slot at the end of the free list */
+	private static final int NO_SLOT = -1;
+
+	/** The obstacle in each slot (or null if the slot is free) */
+	private Obstacle[] owners;
+	/** Whether the body in each slot can move (is not static) */
+	private boolean[] moving;
+	/** The x-coordinate of the body in each slot */
+	private float[] positionsX;
+	/** The y-coordinate of the body in each slot */
+	private float[] positionsY;
+	/** The angle of the body in each slot */
+	private float[] angles;
+	/** The x-velocity of the body in each slot */
+	private float[] velocitiesX;
+	/** The y-velocity of the body in each slot */
+	private float[] velocitiesY;
+	/** The next free slot after each free slot */
+	private int[] nextFree;
+	/** The first free slot (or NO_SLOT if there is none below slotCount) */
+	private int freeSlot;
+	/** The number of slots ever used */
+	private int slotCount;
+
+	/** Whether the arrays match the bodies (false during a world step) */
+	private boolean valid;
+	/** The number of bodies read by the last capture */
+	private int captured;
+
+	/**
+	 * Creates an empty snapshot
+	 */
+	public TransformSnapshot() {
+		owners = new Obstacle[DEFAULT_CAPACITY];
+		moving = new boolean[DEFAULT_CAPACITY];
+		positionsX = new float[DEFAULT_CAPACITY];
+		positionsY = new float[DEFAULT_CAPACITY];
+		angles = new float[DEFAULT_CAPACITY];
+		velocitiesX = new float[DEFAULT_CAPACITY];
+		velocitiesY = new float[DEFAULT_CAPACITY];
+		nextFree = new int[DEFAULT_CAPACITY];
+		freeSlot = NO_SLOT;
+		slotCount = 0;
+		valid = true;
+	}
+
+	/**
+	 * Adds an obstacle to the snapshot, copying the current state of its body.
+	 *
+	 * The obstacle must already have a body.  Adding an obstacle twice keeps its
+	 * slot, but copies its body again.
+	 *
+	 * @param obj The obstacle to add
+	 */
+	public void add(Obstacle obj) {
+		Body body = obj.getBody();
+		if (body == null) {
+			return;
+		}
+		int slot = obj.snapshotSlot;
+		if (obj.snapshot != this || owners[slot] != obj) {
+			if (obj.snapshot != null) {
+				obj.snapshot.remove(obj);
+			}
+			if (freeSlot != NO_SLOT) {
+				slot = freeSlot;
+				freeSlot = nextFree[slot];
+			} else {
+				if (slotCount == owners.length) {
+					resize(2 * owners.length);
+				}
+				slot = slotCount++;
+			}
+			owners[slot] = obj;
+			obj.snapshot = this;
+			obj.snapshotSlot = slot;
+		}
+		moving[slot] = body.getType() != BodyType.StaticBody;
+		read(slot, body);
+	}
+
+	/**
+	 * Removes an obstacle from the snapshot, freeing its slot.
+	 *
+	 * The getters of the obstacle read from its body again.
+	 *
+	 * @param obj The obstacle to remove
+	 */
+	public void remove(Obstacle obj) {
+		if (obj.snapshot == this) {
+			release(obj.snapshotSlot);
+		}
+	}
+
+	/**
+	 * Removes every obstacle from the snapshot
+	 */
+	public void clear() {
+		for (int ii = 0; ii < slotCount; ii++) {
+			if (owners[ii] != null) {
+				owners[ii].snapshot = null;
+				owners[ii] = null;
+			}
+		}
+		freeSlot = NO_SLOT;
+		slotCount = 0;
+		valid = true;
+	}
+
+	/**
+	 * Returns true if the arrays match the bodies
+	 *
+	 * @return true if the arrays match the bodies
+	 */
+	public boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * Marks the snapshot as out of date, so that the getters read the bodies.
+	 *
+	 * This should be called before the world is stepped.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * Copies the state of every moving body into the arrays.
+	 *
+	 * This should be called once the world has been stepped.  An obstacle that
+	 * has lost its body since it was added is removed.
+	 */
+	public void capture() {
+		captured = 0;
+		for (int ii = 0; ii < slotCount; ii++) {
+			Obstacle obj = owners[ii];
+			if (obj == null) {
+				continue;
+			}
+			Body body = obj.getBody();
+			if (body == null) {
+				release(ii);
+			} else if (moving[ii]) {
+				read(ii, body);
+				captured++;
+			}
+		}
+		valid = true;
+	}
+
+	/**
+	 * Returns the number of bodies read by the last capture
+	 *
+	 * @return the number of bodies read by the last capture
+	 */
+	public int getCaptured() {
+		return captured;
+	}
+
+	/// Slot access for the obstacles
+	/**
+	 * Returns the x-coordinate of the body in a slot
+	 *
+	 * @param slot The slot of the obstacle
+	 *
+	 * @return the x-coordinate of the body in a slot
+	 */
+	float getX(int slot) {
+		return positionsX[slot];
+	}
+
+	/**
+	 * Returns the y-coordinate of the body in a slot
+	 *
+	 * @param slot The slot of the obstacle
+	 *
+	 * @return the y-coordinate of the body in a slot
+	 */
+	float getY(int slot) {
+		return positionsY[slot];
+	}
+
+	/**
+	 * Returns the angle of the body in a slot
+	 *
+	 * @param slot The slot of the obstacle
+	 *
+	 * @return the angle of the body in a slot
+	 */
+	float getAngle(int slot) {
+		return angles[slot];
+	}
+
+	/**
+	 * Returns the x-velocity of the body in a slot
+	 *
+	 * @param slot The slot of the obstacle
+	 *
+	 * @return the x-velocity of the body in a slot
+	 */
+	float getVX(int slot) {
+		return velocitiesX[slot];
+	}
+
+	/**
+	 * Returns the y-velocity of the body in a slot
+	 *
+	 * @param slot The slot of the obstacle
+	 *
+	 * @return the y-velocity of the body in a slot
+	 */
+	float getVY(int slot) {
+		return velocitiesY[slot];
+	}
+
+	/**
+	 * Records a new transform set on the body in a slot
+	 *
+	 * @param slot  The slot of the obstacle
+	 * @param x     The new x-coordinate
+	 * @param y     The new y-coordinate
+	 * @param angle The new angle
+	 */
+	void setTransform(int slot, float x, float y, float angle) {
+		positionsX[slot] = x;
+		positionsY[slot] = y;
+		angles[slot] = angle;
+	}
+
+	/**
+	 * Records a new linear velocity set on the body in a slot
+	 *
+	 * Box2D ignores the velocity of a static body, and so does this method.
+	 *
+	 * @param slot The slot of the obstacle
+	 * @param vx   The new x-velocity
+	 * @param vy   The new y-velocity
+	 */
+	void setVelocity(int slot, float vx, float vy) {
+		if (moving[slot]) {
+			velocitiesX[slot] = vx;
+			velocitiesY[slot] = vy;
+		}
+	}
+
+	/**
+	 * Records a new type set on the body in a slot
+	 *
+	 * Box2D clears the velocity of a body that is made static.
+	 *
+	 * @param slot The slot of the obstacle
+	 * @param type The new body type
+	 */
+	void setType(int slot, BodyType type) {
+		moving[slot] = type != BodyType.StaticBody;
+		if (!moving[slot]) {
+			velocitiesX[slot] = 0;
+			velocitiesY[slot] = 0;
+		}
+	}
+
+	/**
+	 * Copies the state of a body into a slot
+	 *
+	 * @param slot The slot of the obstacle
+	 * @param body The body of the obstacle
+	 */
+	private void read(int slot, Body body) {
+		Vector2 pos = body.getPosition();
+		positionsX[slot] = pos.x;
+		positionsY[slot] = pos.y;
+		angles[slot] = body.getAngle();
+		Vector2 vel = body.getLinearVelocity();
+		velocitiesX[slot] = vel.x;
+		velocitiesY[slot] = vel.y;
+	}
+
+	/**
+	 * Frees a slot, detaching its obstacle from the snapshot
+	 *
+	 * @param slot The slot to free
+	 */
+	private void release(int slot) {
+		owners[slot].snapshot = null;
+		owners[slot] = null;
+		nextFree[slot] = freeSlot;
+		freeSlot = slot;
+	}
+
+	/**
+	 * Grows the arrays to a new capacity
+	 *
+	 * @param capacity The new capacity
+	 */
+	private void resize(int capacity) {
+		owners = Arrays.copyOf(owners, capacity);
+		moving = Arrays.copyOf(moving, capacity);
+		positionsX = Arrays.copyOf(positionsX, capacity);
+		positionsY = Arrays.copyOf(positionsY, capacity);
+		angles = Arrays.copyOf(angles, capacity);
+		velocitiesX = Arrays.copyOf(velocitiesX, capacity);
+		velocitiesY = Arrays.copyOf(velocitiesY, capacity);
+		nextFree = Arrays.copyOf(nextFree, capacity);
+	}
+}
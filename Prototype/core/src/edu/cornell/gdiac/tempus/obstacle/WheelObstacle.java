@@ -35,6 +35,15 @@ public class WheelObstacle extends SimpleObstacle {
 	public float getRadius() {
 		return shape.getRadius();
 	}
+
+	/**
+	 * Returns the radius of a circle about the position of this object that holds its shape
+	 *
+	 * @return the radius of a circle about the position that holds the shape
+	 */
+	public float getBoundingRadius() {
+		return getRadius();
+	}
 	
 	/**
 	 * Sets the radius of this circle
@@ -2,9 +2,9 @@ package edu.cornell.gdiac.tempus.tempus;
 
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
-import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.ObjectSet;
 import edu.cornell.gdiac.tempus.InputController;
+import edu.cornell.gdiac.tempus.SceneRegistry.Kind;
 import edu.cornell.gdiac.tempus.obstacle.Obstacle;
 import edu.cornell.gdiac.tempus.obstacle.SimpleObstacle;
 import edu.cornell.gdiac.tempus.tempus.models.*;
@@ -12,57 +12,77 @@ import edu.cornell.gdiac.util.PooledList;
 
 public class CollisionController implements ContactListener {
     private LevelController controller;
-    private ObjectMap<Short, ObjectMap<Short, ContactListener>> listeners;
     private Avatar avatar;
 //    private PooledList<Obstacle> obstacles;
 //    private PooledList<Enemy> enemies;
     private float cur_normal;
-    private CollisionPair prevCollisionPair;
     /**
      * Mark set to handle more sophisticated collision callbacks
      */
     protected ObjectSet<Fixture> sensorFixtures;
 
     /**
-     * CURRENTLY UNUSED
-     * helper class that uses comparable to determine if collision events are happening between the same two bodies
+     * Handles one callback for the contacts between two kinds of object.
+     *
+     * The fixtures and objects are passed in the order of the kinds the handler
+     * was added for, whatever their order in the contact.
      */
-    class CollisionPair implements Comparable {
-
-        private Obstacle A;
-        private Obstacle B;
+    private static abstract class PairHandler {
+        /** Whether the contact normal must be recorded for this handler */
+        public final boolean usesNormal;
 
-        public CollisionPair(Obstacle a, Obstacle b) {
-            A = a;
-            B = b;
+        public PairHandler() {
+            this(false);
         }
 
-        public CollisionPair() {
-            //do nothing
+        public PairHandler(boolean usesNormal) {
+            this.usesNormal = usesNormal;
         }
 
-        public Obstacle getA() {
-            return A;
-        }
+        /**
+         * Handles a contact between two objects
+         *
+         * @param fix1 the fixture of the first kind
+         * @param fix2 the fixture of the second kind
+         * @param obj1 the object of the first kind
+         * @param obj2 the object of the second kind
+         * @param normal the contact normal (zero unless usesNormal is set)
+         */
+        public abstract void handle(Fixture fix1, Fixture fix2, Obstacle obj1, Obstacle obj2, Vector2 normal);
+    }
+
+    /**
+     * Calls a handler with the two objects the other way around
+     */
+    private static class SwappedHandler extends PairHandler {
+        private PairHandler handler;
 
-        public Obstacle getB() {
-            return B;
+        public SwappedHandler(PairHandler handler) {
+            super(handler.usesNormal);
+            this.handler = handler;
         }
 
         @Override
-        public int compareTo(Object o) {
-            CollisionPair comp = (CollisionPair) o;
-            if (comp.getA() == null) {
-                return -1;
-            }
-            if ((comp.getA() == this.getA() && comp.getB() == this.getB()) ||
-                    (comp.getB() == this.getA() && comp.getA() == this.getB())) {
-                return 0;
-            }
-            return -1;
+        public void handle(Fixture fix1, Fixture fix2, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+            handler.handle(fix2, fix1, obj2, obj1, normal);
         }
     }
 
+    /** The number of kinds of object (the size of each dispatch table) */
+    private static final int KINDS = Kind.values().length;
+
+    /** The beginContact handlers, indexed by the kinds of the two objects */
+    private PairHandler[][] beginHandlers;
+    /** The endContact handlers, indexed by the kinds of the two objects */
+    private PairHandler[][] endHandlers;
+    /** The postSolve handlers, indexed by the kinds of the two objects */
+    private PairHandler[][] postSolveHandlers;
+
+    /** The contacts recorded during the last step, handled by processEvents() */
+    private ContactEventQueue events;
+    /** Cache for the normal of the contact being handled */
+    private Vector2 normalCache = new Vector2();
+
     /**
      * Creates instance of the collision handler
      *
@@ -74,69 +94,285 @@ public class CollisionController implements ContactListener {
 //        obstacles = w.getObjects();
 //        enemies = w.getEnemies();
         cur_normal = 0;
-        listeners = new ObjectMap<Short, ObjectMap<Short, ContactListener>>();
         sensorFixtures = new ObjectSet<Fixture>();
-        prevCollisionPair = new CollisionPair();
+        beginHandlers = new PairHandler[KINDS][KINDS];
+        endHandlers = new PairHandler[KINDS][KINDS];
+        postSolveHandlers = new PairHandler[KINDS][KINDS];
+        addBeginHandlers();
+        addEndHandlers();
+        addSolveHandlers();
+        events = new ContactEventQueue();
+    }
+
+    /**
+     * Adds a handler for the contacts between two kinds of object.
+     *
+     * The handler is added for both orders of the kinds, so it does not matter
+     * which object Box2D puts first in the contact.
+     *
+     * @param table the dispatch table to add to
+     * @param kind1 the kind of the first object passed to the handler
+     * @param kind2 the kind of the second object passed to the handler
+     * @param handler the handler to add
+     */
+    private void addHandler(PairHandler[][] table, Kind kind1, Kind kind2, PairHandler handler) {
+        table[kind1.ordinal()][kind2.ordinal()] = handler;
+        if (kind1 != kind2) {
+            table[kind2.ordinal()][kind1.ordinal()] = new SwappedHandler(handler);
+        }
     }
 
     /**
-     * Process all contacts in the game
+     * Records a contact to be handled after the step, if there is a handler for it
+     *
+     * The contact normal is only read (through JNI) for the handlers that use it.
      *
-     * @param contact is a detected contact with a sensor
+     * @param phase the callback (a ContactEventQueue phase)
+     * @param table the dispatch table for the callback
+     * @param contact the contact to record
      */
-    private void processContact(Contact contact) {
+    private void record(int phase, PairHandler[][] table, Contact contact) {
         Fixture fixA = contact.getFixtureA();
         Fixture fixB = contact.getFixtureB();
 
-        Object objA = fixA.getBody().getUserData();
-        Object objB = fixB.getBody().getUserData();
+        Obstacle objA = (Obstacle) fixA.getBody().getUserData();
+        Obstacle objB = (Obstacle) fixB.getBody().getUserData();
 
-        //avatar-projectile
-        if ((objA instanceof Avatar) && (objB instanceof Projectile)) {
-            processAvatarProjectileContact(fixA, fixB);
-        } else if ((objB instanceof Avatar) && (objA instanceof Projectile)) {
-            processAvatarProjectileContact(fixB, fixA);
+        PairHandler handler = table[objA.getKind().ordinal()][objB.getKind().ordinal()];
+        if (handler == null) {
+            return;
         }
-        //avatar-platform
-        else if ((objA instanceof Avatar) && (objB instanceof Platform)) {
-            processAvatarPlatformContact(fixA, fixB);
-        } else if ((objB instanceof Avatar) && (objA instanceof Platform)) {
-            processAvatarPlatformContact(fixB, fixA);
-        }
-        //avatar-spikes
-        else if ((objA instanceof Avatar) && (objB instanceof Spikes)) {
-            processAvatarSpikesContact(fixA, fixB, contact);
-        } else if ((objB instanceof Avatar) && (objA instanceof Spikes)) {
-            processAvatarSpikesContact(fixB, fixA, contact);
+        if (handler.usesNormal) {
+            Vector2 normal = contact.getWorldManifold().getNormal();
+            events.add(phase, fixA, fixB, objA, objB, normal.x, normal.y);
+        } else {
+            events.add(phase, fixA, fixB, objA, objB, 0, 0);
         }
-        //avatar-turret
-        else if ((objA instanceof Avatar) && (objB instanceof Enemy)) {
-            processAvatarEnemyContact(fixA, fixB, contact);
-        } else if ((objB instanceof Avatar) && (objA instanceof Enemy)) {
-            processAvatarEnemyContact(fixB, fixA, contact);
+    }
+
+    /**
+     * Returns the dispatch table for a callback
+     *
+     * @param phase the callback (a ContactEventQueue phase)
+     * @return the dispatch table for a callback
+     */
+    private PairHandler[][] handlersFor(int phase) {
+        switch (phase) {
+            case ContactEventQueue.BEGIN:
+                return beginHandlers;
+            case ContactEventQueue.END:
+                return endHandlers;
+            default:
+                return postSolveHandlers;
         }
-        //avatar-door
-        else if ((objA instanceof Avatar) && (objB instanceof Door)) {
-            processAvatarDoorContact(fixA, fixB);
-        } else if ((objB instanceof Avatar) && (objA instanceof Door)) {
-            processAvatarDoorContact(fixB, fixA);
+    }
+
+    /**
+     * Handles the contacts recorded since the last call, in the order they happened.
+     *
+     * This must be called after the world is stepped, and before any bodies are
+     * destroyed, so that every recorded fixture still belongs to its object.
+     */
+    public void processEvents() {
+        while (!events.isEmpty()) {
+            int slot = events.peek();
+            Obstacle objA = events.getObjectA(slot);
+            Obstacle objB = events.getObjectB(slot);
+            PairHandler handler = handlersFor(events.getPhase(slot))[objA.getKind().ordinal()][objB.getKind().ordinal()];
+            normalCache.set(events.getNormalX(slot), events.getNormalY(slot));
+            try {
+                handler.handle(events.getFixtureA(slot), events.getFixtureB(slot), objA, objB, normalCache);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            events.pop();
         }
-        //avatar-projectile
-        else if ((objA instanceof Projectile) && (objB instanceof Enemy)) {
-            processProjEnemyContact(fixA, fixB);
-        } else if ((objB instanceof Projectile) && (objA instanceof Enemy)) {
-            processProjEnemyContact(fixB, fixA);
+    }
+
+    /**
+     * Returns true if an object is in the era that is currently active
+     *
+     * @param obj the object to check
+     * @return true if an object is in the era that is currently active
+     */
+    private boolean isActive(Obstacle obj) {
+        return obj.getSpace() == 3 || obj.getSpace() == (controller.getShifted() ? 2 : 1);
+    }
+
+    /**
+     * Returns true if two objects share an era
+     *
+     * @param obj1 the first object
+     * @param obj2 the second object
+     * @return true if two objects share an era
+     */
+    private static boolean shareEra(Obstacle obj1, Obstacle obj2) {
+        return obj1.getSpace() == 3 || obj2.getSpace() == 3 || obj1.getSpace() == obj2.getSpace();
+    }
+
+    /**
+     * Adds the handlers for the start of a contact
+     */
+    private void addBeginHandlers() {
+        // Shifting into spikes or enemies of the other era hurts the avatar
+        addHandler(beginHandlers, Kind.AVATAR, Kind.SPIKES, new PairHandler() {
+            @Override
+            public void handle(Fixture av, Fixture spikes, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                if (!isActive(obj2)) {
+                    avatar.setInSpikes(obj2.getSpace());
+                }
+            }
+        });
+        addHandler(beginHandlers, Kind.AVATAR, Kind.ENEMY, new PairHandler() {
+            @Override
+            public void handle(Fixture av, Fixture enemy, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                if (!isActive(obj2)) {
+                    avatar.setInSpikes(obj2.getSpace());
+                }
+                beginWalkContact((Enemy) obj2, av, obj1);
+            }
+        });
+        addHandler(beginHandlers, Kind.AVATAR, Kind.PLATFORM, new PairHandler(true) {
+            @Override
+            public void handle(Fixture av, Fixture platform, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                if (isActive(obj2)) {
+                    beginAvatarPlatformContact(normal, platform, (Platform) obj2);
+                }
+            }
+        });
+        addHandler(beginHandlers, Kind.AVATAR, Kind.PROJECTILE, new PairHandler() {
+            @Override
+            public void handle(Fixture av, Fixture projectile, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                processAvatarProjectileContact(av, projectile);
+            }
+        });
+        // Check for win condition
+        addHandler(beginHandlers, Kind.AVATAR, Kind.DOOR, new PairHandler() {
+            @Override
+            public void handle(Fixture av, Fixture door, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                if (obj2 == controller.getGoalDoor() && ((Door) obj2).getOpen()) {
+                    controller.playDoorEntry();
+                    controller.setComplete(true);
+                    controller.inputReady = false;
+                }
+            }
+        });
+
+        // Bullets are used up by anything in their era except the avatar and other bullets
+        addHandler(beginHandlers, Kind.PROJECTILE, Kind.ENEMY, new PairHandler() {
+            @Override
+            public void handle(Fixture projectile, Fixture enemy, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                if (shareEra(obj1, obj2)) {
+                    processProjEnemyContact(projectile, enemy);
+                }
+            }
+        });
+        PairHandler bulletHit = new PairHandler() {
+            @Override
+            public void handle(Fixture projectile, Fixture other, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                if (shareEra(obj1, obj2)) {
+                    removeBullet(obj1);
+                }
+            }
+        };
+        addHandler(beginHandlers, Kind.PROJECTILE, Kind.PLATFORM, bulletHit);
+        addHandler(beginHandlers, Kind.PROJECTILE, Kind.SPIKES, bulletHit);
+        addHandler(beginHandlers, Kind.PROJECTILE, Kind.DOOR, bulletHit);
+        addHandler(beginHandlers, Kind.PROJECTILE, Kind.OTHER, bulletHit);
+
+        // Walking enemies turn around at the edges of their platform
+        addHandler(beginHandlers, Kind.ENEMY, Kind.PLATFORM, new PairHandler() {
+            @Override
+            public void handle(Fixture enemy, Fixture platform, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                if (isActive(obj2) && shareEra(obj1, obj2)) {
+                    beginWalkContact((Enemy) obj1, platform, obj2);
+                }
+            }
+        });
+        PairHandler enemyTouch = new PairHandler() {
+            @Override
+            public void handle(Fixture enemy, Fixture other, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                if (shareEra(obj1, obj2)) {
+                    beginWalkContact((Enemy) obj1, other, obj2);
+                }
+            }
+        };
+        addHandler(beginHandlers, Kind.ENEMY, Kind.SPIKES, enemyTouch);
+        addHandler(beginHandlers, Kind.ENEMY, Kind.DOOR, enemyTouch);
+        addHandler(beginHandlers, Kind.ENEMY, Kind.ENEMY, enemyTouch);
+        addHandler(beginHandlers, Kind.ENEMY, Kind.OTHER, enemyTouch);
+    }
+
+    /**
+     * Adds the handlers for the end of a contact
+     */
+    private void addEndHandlers() {
+        PairHandler avatarEnd = new PairHandler() {
+            @Override
+            public void handle(Fixture av, Fixture other, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                endAvatarContact(av, other);
+            }
+        };
+        PairHandler enemyEnd = new PairHandler() {
+            @Override
+            public void handle(Fixture enemy, Fixture other, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                endWalkContact((Enemy) obj1, enemy, other);
+            }
+        };
+        for (Kind kind : Kind.values()) {
+            if (kind != Kind.AVATAR && kind != Kind.ENEMY) {
+                addHandler(endHandlers, Kind.AVATAR, kind, avatarEnd);
+            }
+            if (kind != Kind.AVATAR) {
+                addHandler(endHandlers, Kind.ENEMY, kind, enemyEnd);
+            }
         }
+        addHandler(endHandlers, Kind.AVATAR, Kind.ENEMY, new PairHandler() {
+            @Override
+            public void handle(Fixture av, Fixture enemy, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                endAvatarContact(av, enemy);
+                endWalkContact((Enemy) obj2, av, enemy);
+            }
+        });
+    }
+
+    /**
+     * Adds the handlers for a contact that has been solved
+     */
+    private void addSolveHandlers() {
+        addHandler(postSolveHandlers, Kind.AVATAR, Kind.PROJECTILE, new PairHandler() {
+            @Override
+            public void handle(Fixture av, Fixture projectile, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                processAvatarProjectileContact(av, projectile);
+            }
+        });
+        addHandler(postSolveHandlers, Kind.AVATAR, Kind.SPIKES, new PairHandler(true) {
+            @Override
+            public void handle(Fixture av, Fixture spikes, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                processAvatarSpikesContact(av, spikes, normal);
+            }
+        });
+        addHandler(postSolveHandlers, Kind.AVATAR, Kind.ENEMY, new PairHandler(true) {
+            @Override
+            public void handle(Fixture av, Fixture enemy, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                processAvatarEnemyContact(av, enemy, normal);
+            }
+        });
+        addHandler(postSolveHandlers, Kind.PROJECTILE, Kind.ENEMY, new PairHandler() {
+            @Override
+            public void handle(Fixture projectile, Fixture enemy, Obstacle obj1, Obstacle obj2, Vector2 normal) {
+                processProjEnemyContact(projectile, enemy);
+            }
+        });
         //TODO: model classes for platforms, projectiles
-        //TODO: create delegation of all contacts
     }
 
     private void processAvatarPlatformContact(Fixture av, Fixture platform) {
         //TODO: avatar platform contact
     }
 
-    private void processAvatarSpikesContact(Fixture av, Fixture spike, Contact contact) {
-        Float norm_angle = contact.getWorldManifold().getNormal().angle();
+    private void processAvatarSpikesContact(Fixture av, Fixture spike, Vector2 normal) {
+        Float norm_angle = normal.angle();
 
         if (!norm_angle.isNaN()) {
 
@@ -169,9 +405,9 @@ public class CollisionController implements ContactListener {
         avatar.setDashing(false);
     }
 
-    private void processAvatarEnemyContact(Fixture av, Fixture turret, Contact contact) {
+    private void processAvatarEnemyContact(Fixture av, Fixture turret, Vector2 normal) {
             avatar.setDashing(false);
-            Float norm_angle = contact.getWorldManifold().getNormal().angle();
+            Float norm_angle = normal.angle();
 
             if (!norm_angle.isNaN()) {
                         /*if ((norm_angle.intValue()) == 0){
@@ -206,7 +442,7 @@ public class CollisionController implements ContactListener {
                 avatar.setEnemyContact(true);
             }
             avatar.setLinearVelocity(bounceDir);
-            turret.getBody().setLinearVelocity(new Vector2(0, 0));
+            obs.setLinearVelocity(new Vector2(0, 0));
             avatar.setDashing(false);
 
         if (avatar.getShifted() > 0 && (obs).getSpace() != 3 && avatar.isHolding()) {
@@ -324,334 +560,140 @@ public class CollisionController implements ContactListener {
     }
 
     /**
-     * Callback method for the start of a collision
-     * <p>
-     * This method is called when we first get a collision between two objects.  We use
-     * this method to test if it is the "right" kind of collision.  In particular, we
-     * use it to test if we made it to the win door.
+     * Handles the avatar landing on (or bouncing off) a platform of the active era
      *
-     * @param contact The two bodies that collided
+     * @param normal the normal of the contact between the avatar and the platform
+     * @param fix the fixture of the platform
+     * @param platform the platform
      */
-    @Override
-    public void beginContact(Contact contact) {
-
-        Fixture fix1 = contact.getFixtureA();
-        Fixture fix2 = contact.getFixtureB();
-
-        Object fd1 = fix1.getUserData();
-        Object fd2 = fix2.getUserData();
+    private void beginAvatarPlatformContact(Vector2 normal, Fixture fix, Platform platform) {
+        if (avatar.getShifted() > 0 && platform.getSpace() != 3) {
+            Float norm_angle = normal.angle();
 
-        Object objA = fix1.getBody().getUserData();
-        Object objB = fix2.getBody().getUserData();
-
-        if ((objA instanceof Spikes && objB instanceof Avatar) ||
-                (objB instanceof Spikes && objA instanceof Avatar)) {
-            boolean correctWorlds = false;
-            if (objB instanceof Spikes) {
-                if (((Spikes) objB).getSpace() == 3) {
-                    correctWorlds = true;
-                } else if (controller.getShifted()) {
-                    if (((Spikes) objB).getSpace() == 2) {
-                        correctWorlds = true;
-                    }
-                } else {
-                    if (((Spikes) objB).getSpace() == 1) {
-                        correctWorlds = true;
-                    }
-                }
-            } else {
-                if (((Spikes) objA).getSpace() == 3) {
-                    correctWorlds = true;
-                } else if (controller.getShifted()) {
-                    if (((Spikes) objA).getSpace() == 2) {
-                        correctWorlds = true;
-                    }
-                } else {
-                    if (((Spikes) objA).getSpace() == 1) {
-                        correctWorlds = true;
-                    }
-                }
-            }
-            if (!correctWorlds) {
-                if (objB instanceof Spikes) {
-                    avatar.setInSpikes(((Spikes) objB).getSpace());
-                } else {
-                    avatar.setInSpikes(((Spikes) objA).getSpace());
-                }
+            if (!norm_angle.isNaN()) {
+                cur_normal = (float) Math.toRadians(norm_angle + 180);
             }
-        }
-        if ((objA instanceof Enemy && objB instanceof Avatar) ||
-                (objB instanceof Enemy && objA instanceof Avatar)) {
-            boolean correctWorlds = false;
-            if (objB instanceof Enemy) {
-                if (((Enemy) objB).getSpace() == 3) {
-                    correctWorlds = true;
-                } else if (controller.getShifted()) {
-                    if (((Enemy) objB).getSpace() == 2) {
-                        correctWorlds = true;
-                    }
-                } else {
-                    if (((Enemy) objB).getSpace() == 1) {
-                        correctWorlds = true;
-                    }
+            Vector2 bounceDir = new Vector2(5, 5).setAngleRad(cur_normal);
+            if (fix.getBody().getPosition().x > avatar.getX()){
+                if (bounceDir.x > 0){
+                    bounceDir.x = -1 * bounceDir.x;
                 }
             } else {
-                if (((Enemy) objA).getSpace() == 3) {
-                    correctWorlds = true;
-                } else if (controller.getShifted()) {
-                    if (((Enemy) objA).getSpace() == 2) {
-                        correctWorlds = true;
-                    }
-                } else {
-                    if (((Enemy) objA).getSpace() == 1) {
-                        correctWorlds = true;
-                    }
-                }
-            }
-            if (!correctWorlds) {
-                if (objB instanceof Enemy) {
-                    avatar.setInSpikes(((Enemy) objB).getSpace());
-                } else {
-                    avatar.setInSpikes(((Enemy) objA).getSpace());
+                if (bounceDir.x < 0){
+                    bounceDir.x = -1 * bounceDir.x;
                 }
             }
-        }
-
-        if (((objB instanceof Platform)) || ((objA instanceof Platform))) {
-            //if(avatar.getCurrentPlatform() != objB && avatar.getCurrentPlatform() != objA) {
-            boolean correctWorld = false;
-            if (objB instanceof Platform) {
-                if (((Platform) objB).getSpace() == 3) {
-                    correctWorld = true;
-                } else if (controller.getShifted()) {
-                    if (((Platform) objB).getSpace() == 2) {
-                        correctWorld = true;
-                    }
-                } else {
-                    if (((Platform) objB).getSpace() == 1) {
-                        correctWorld = true;
-                    }
+            if (fix.getBody().getPosition().y > avatar.getY()){
+                if (bounceDir.y > 0){
+                    bounceDir.y = -1 * bounceDir.y;
                 }
             } else {
-                if (((Platform) objA).getSpace() == 3) {
-                    correctWorld = true;
-                } else if (controller.getShifted()) {
-                    if (((Platform) objA).getSpace() == 2) {
-                        correctWorld = true;
-                    }
-                } else {
-                    if (((Platform) objA).getSpace() == 1) {
-                        correctWorld = true;
-                    }
+                if (bounceDir.y < 0) {
+                    bounceDir.y = -1 * bounceDir.y;
                 }
             }
-            if (!correctWorld && !(objA instanceof Projectile) && !(objB instanceof Projectile)) {
-                return;
-            }
+            avatar.resetDashNum(1);
+            avatar.setLinearVelocity(bounceDir);
+            avatar.setCurrentPlatform(platform);
+            return;
         }
-        try {
-            Obstacle bd1 = (Obstacle) objA;
-            Obstacle bd2 = (Obstacle) objB;
-
-            // Test bullet collision with world
-            if (bd1.getSpace() != 3 && bd2.getSpace() != 3 && bd1.getSpace() != bd2.getSpace()) {
-                return;
-            }
-            if (bd1.getName().equals("bullet") && bd2 != avatar) {
-                if (bd2.getBody().getUserData() instanceof Enemy) {
-                    processProjEnemyContact(fix1, fix2);
-                } else if (!bd2.getName().equals("bullet")) {
-                    removeBullet(bd1);
-                }
-            } else if ((bd1.getName().equals("bullet") && bd2 == avatar)) {
-                processAvatarProjectileContact(fix2, fix1);
-            }
-            if (bd2.getName().equals("bullet") && bd1 != avatar) {
-                if (bd1.getBody().getUserData() instanceof Enemy) {
-                    processProjEnemyContact(fix2, fix1);
-                } else if (!bd1.getName().equals("bullet")) {
-                    removeBullet(bd2);
-                }
-            } else if (bd2.getName().equals("bullet") && bd1 == avatar) {
-                processAvatarProjectileContact(fix1, fix2);
+        boolean latentCol = false;
+        if (avatar.getStartedDashing() == 1) {
+            if (avatar.getCurrentPlatform() == platform) {
+                latentCol = true;
             }
+        }
+        if (!latentCol) {
+            if (!avatar.isSticking()) {
+                Float norm_angle = normal.angle();
 
-            //handle platform-avatar collisions first (outside of processcontact
-            if (((objA instanceof Avatar) && (objB instanceof Platform)) || ((objB instanceof Avatar) && (objA instanceof Platform))) {
-                //if(avatar.getCurrentPlatform() != objB && avatar.getCurrentPlatform() != objA) {
-                if (objB instanceof Platform) {
-                    if (avatar.getShifted() > 0 && ((SimpleObstacle) objB).getSpace() != 3 ){
-                        Float norm_angle = contact.getWorldManifold().getNormal().angle();
-
-                        if (!norm_angle.isNaN()) {
-                        /*if ((norm_angle.intValue()) == 0){
-                            System.out.println("Fekwbfiewq");
-                            cur_normal = (float) Math.toRadians(90);
-                        } else {*/
-                            cur_normal = (float) Math.toRadians(norm_angle + 180);
-                            //}
-                        }
-                        Vector2 bounceDir = new Vector2(5, 5).setAngleRad(cur_normal);
-                        if (fix2.getBody().getPosition().x > avatar.getX()){
-                            if (bounceDir.x > 0){
-                                bounceDir.x = -1 * bounceDir.x;
-                            }
-                        } else {
-                            if (bounceDir.x < 0){
-                                bounceDir.x = -1 * bounceDir.x;
-                            }
-                        }
-                        if (fix2.getBody().getPosition().y > avatar.getY()){
-                            if (bounceDir.y > 0){
-                                bounceDir.y = -1 * bounceDir.y;
-                            }
-                        } else {
-                            if (bounceDir.y < 0) {
-                                bounceDir.y = -1 * bounceDir.y;
-                            }
-                        }
-                        avatar.resetDashNum(1);
-                        avatar.setLinearVelocity(bounceDir);
-                        avatar.setCurrentPlatform((Platform) objB);
-                        return;
-                    }
-                }
-                if (objA instanceof Platform) {
-                    if (avatar.getShifted() > 0 && ((SimpleObstacle) objA).getSpace() != 3 ){
-                        Float norm_angle = contact.getWorldManifold().getNormal().angle();
-
-                        if (!norm_angle.isNaN()) {
-                        /*if ((norm_angle.intValue()) == 0){
-                            System.out.println("Fekwbfiewq");
-                            cur_normal = (float) Math.toRadians(90);
-                        } else {*/
-                            cur_normal = (float) Math.toRadians(norm_angle + 180);
-                            //}
-                        }
-                        Vector2 bounceDir = new Vector2(5, 5).setAngleRad(cur_normal);
-                        if (fix1.getBody().getPosition().x > avatar.getX()){
-                            if (bounceDir.x > 0){
-                                bounceDir.x = -1 * bounceDir.x;
-                            }
-                        } else {
-                            if (bounceDir.x < 0){
-                                bounceDir.x = -1 * bounceDir.x;
-                            }
-                        }
-                        if (fix1.getBody().getPosition().y > avatar.getY()){
-                            if (bounceDir.y > 0){
-                                bounceDir.y = -1 * bounceDir.y;
-                            }
-                        } else {
-                            if (bounceDir.y < 0) {
-                                bounceDir.y = -1 * bounceDir.y;
-                            }
-                        }
-                        avatar.resetDashNum(1);
-                        avatar.setLinearVelocity(bounceDir);
-                        avatar.setCurrentPlatform((Platform) objA);
-                        return;
-                    }
-                }
-                /*if (avatar.getShifted() > 0 && ((SimpleObstacle) objB).getSpace() != 3 && ((SimpleObstacle) objA).getSpace() != 3){
-                    avatar.setSpliced(true);
-                    if (objB instanceof Platform) {
-                        avatar.setCurrentPlatform((Platform) objB);
-                    } else {
-                        avatar.setCurrentPlatform((Platform) objA);
-                    }
-                    return;
-                }*/
-                boolean latentCol = false;
-                if (avatar.getStartedDashing() == 1) {
-                    if (avatar.getCurrentPlatform() == objA || avatar.getCurrentPlatform() == objB) {
-                        latentCol = true;
-                    }
-                }
-                if (!latentCol) {
-                    if (!avatar.isSticking()) {
-                        Float norm_angle = contact.getWorldManifold().getNormal().angle();
-
-                        if (!norm_angle.isNaN()) {
-                        /*if ((norm_angle.intValue()) == 0){
-                            System.out.println("Fekwbfiewq");
-                            cur_normal = (float) Math.toRadians(90);
-                        } else {*/
-                            cur_normal = (float) Math.toRadians(norm_angle - 90);
-                            //}
-                        }
-
-                    /*if (avatar.getCurrentPlatform() != null && (bd1.getName().equals("wall") || bd2.getName().equals("wall"))) {
-                        if (!avatar.getCurrentPlatform().equals(objA) && !avatar.getCurrentPlatform().equals(objB)) {
-                            avatar.setGrounded(true);
-                            avatar.setSticking(true);
-                            avatar.setNewAngle(cur_normal);
-                            if (objB instanceof Platform) {
-                                avatar.setCurrentPlatform((Platform) objB);
-                            } else {
-                                avatar.setCurrentPlatform((Platform) objA);
-                            }
-                        }
-                    } else {*/
-
-                        //avatar.contactPoint = contact.getWorldManifold().getPoints()[0];
-                        avatar.setGrounded(true);
-                        avatar.setSticking(true);
-                        //System.out.println(cur_normal);
-                        avatar.setNewAngle(cur_normal);
-                        if (objB instanceof Platform) {
-                            avatar.setCurrentPlatform((Platform) objB);
-                        } else {
-                            avatar.setCurrentPlatform((Platform) objA);
-                        }
-                        //}
-                    }
-                    //}
+                if (!norm_angle.isNaN()) {
+                    cur_normal = (float) Math.toRadians(norm_angle - 90);
                 }
 
+                //avatar.contactPoint = contact.getWorldManifold().getPoints()[0];
+                avatar.setGrounded(true);
+                avatar.setSticking(true);
+                avatar.setNewAngle(cur_normal);
+                avatar.setCurrentPlatform(platform);
             }
+        }
+    }
 
-            if (objA instanceof Enemy || objB instanceof Enemy) {
-                Enemy enemy = (objA instanceof Enemy ? (Enemy) objA : (Enemy) objB);
-                if (enemy.getAi() == Enemy.EnemyType.WALK) {
-                    if ((enemy != bd1 && !bd1.getName().equals("bullet")) ||
-                            (enemy != bd2 && !bd2.getName().equals("bullet"))) {
-                        if (enemy.getPlatformFixture() == null) {
-                            enemy.setPlatformFixture(enemy == bd1 ? fix2 : fix1);
-                            enemy.setNextDirection(1);
-                            enemy.setMovement(1);
-                        }
-                        if ((fix1 != enemy.getPlatformFixture() && objA instanceof Platform) ||
-                                (fix2 != enemy.getPlatformFixture() && objB instanceof Platform)) {
-                            enemy.setNextDirection(-1 * enemy.getNextDirection());
-                            enemy.setMovement(0);
-                            enemy.setFaceDirection(-1 * enemy.getFaceDirection());
-                        }
-                    }
-                }
+    /**
+     * Handles a walking enemy touching something other than a bullet
+     *
+     * The first thing a walking enemy touches becomes the platform it walks on.
+     * It turns around when it touches any other platform.
+     *
+     * @param enemy the enemy
+     * @param fix the fixture it touched
+     * @param obj the object it touched
+     */
+    private void beginWalkContact(Enemy enemy, Fixture fix, Obstacle obj) {
+        if (enemy.getAi() == Enemy.EnemyType.WALK) {
+            if (enemy.getPlatformFixture() == null) {
+                enemy.setPlatformFixture(fix);
+                enemy.setNextDirection(1);
+                enemy.setMovement(1);
             }
+            if (fix != enemy.getPlatformFixture() && obj.getKind() == Kind.PLATFORM) {
+                enemy.setNextDirection(-1 * enemy.getNextDirection());
+                enemy.setMovement(0);
+                enemy.setFaceDirection(-1 * enemy.getFaceDirection());
+            }
+        }
+    }
 
+    /**
+     * Handles the avatar leaving something
+     *
+     * @param av the fixture of the avatar
+     * @param fix the fixture it left
+     */
+    private void endAvatarContact(Fixture av, Fixture fix) {
+        if (avatar.getSensorName().equals(av.getUserData())) {
+            sensorFixtures.remove(fix);
+            if (sensorFixtures.size == 0) {
+                avatar.setGrounded(false);
+                avatar.setSticking(false);
+            }
+        }
+    }
 
-            // Check for win condition
-            if ((bd1 == avatar && bd2 == controller.getGoalDoor()) ||
-                    (bd1 == controller.getGoalDoor() && bd2 == avatar)) {
-                Door door = (Door) controller.getGoalDoor();
-                if (door.getOpen()) {
-                    controller.playDoorEntry();
-                    controller.setComplete(true);
-                    controller.inputReady = false;
-                } /*else {
-                    avatar.resetDashNum(1);
-                    avatar.setLinearVelocity(avatar.getLinearVelocity().scl(-1));
-                    if (avatar.getLinearVelocity().len() < 1.0f){
-                        avatar.setLinearVelocity(avatar.getLinearVelocity().nor());
-                    }
-                }*/
+    /**
+     * Handles a walking enemy leaving something
+     *
+     * A walking enemy stops and turns around when it walks off its platform.
+     *
+     * @param enemy the enemy
+     * @param fix1 the fixture of the enemy
+     * @param fix2 the fixture it left
+     */
+    private void endWalkContact(Enemy enemy, Fixture fix1, Fixture fix2) {
+        if (enemy.getAi() == Enemy.EnemyType.WALK) {
+            if (fix1 == enemy.getPlatformFixture() || fix2 == enemy.getPlatformFixture()) {
+                enemy.setMovement(0);
+                enemy.setNextDirection(-1 * enemy.getNextDirection());
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
+    }
 
+    /**
+     * Callback method for the start of a collision
+     * <p>
+     * This method is called when we first get a collision between two objects.  We use
+     * this method to test if it is the "right" kind of collision.  In particular, we
+     * use it to test if we made it to the win door.
+     *
+     * The contact is only recorded here, and is handled in processEvents() by the
+     * handler for the kinds of its two objects.
+     *
+     * @param contact The two bodies that collided
+     */
+    @Override
+    public void beginContact(Contact contact) {
+        record(ContactEventQueue.BEGIN, beginHandlers, contact);
     }
 
 
@@ -661,65 +703,49 @@ public class CollisionController implements ContactListener {
      * This method is called when two objects cease to touch.  The main use of this method
      * is to determine when the characer is NOT on the ground.  This is how we prevent
      * double jumping.
+     *
+     * Box2D also calls this outside of a step, when a body is destroyed or changes
+     * type.  Its fixtures will be gone by the next processEvents(), so that
+     * contact is handled right away.
      */
     @Override
     public void endContact(Contact contact) {
-
-        Fixture fix1 = contact.getFixtureA();
-        Fixture fix2 = contact.getFixtureB();
-
-        Body body1 = fix1.getBody();
-        Body body2 = fix2.getBody();
-
-        Object fd1 = fix1.getUserData();
-        Object fd2 = fix2.getUserData();
-
-        Object bd1 = body1.getUserData();
-        Object bd2 = body2.getUserData();
-
-        if ((avatar.getSensorName().equals(fd2) && avatar != bd1) ||
-                (avatar.getSensorName().equals(fd1) && avatar != bd2)) {
-            sensorFixtures.remove(avatar == bd1 ? fix2 : fix1);
-            if (sensorFixtures.size == 0) {
-                avatar.setGrounded(false);
-                avatar.setSticking(false);
-            }
+        if (controller.getWorld().isLocked()) {
+            record(ContactEventQueue.END, endHandlers, contact);
+            return;
         }
+        Fixture fixA = contact.getFixtureA();
+        Fixture fixB = contact.getFixtureB();
 
-        if (bd1 instanceof Enemy || bd2 instanceof Enemy) {
-            Enemy enemy = (bd1 instanceof Enemy ? (Enemy) bd1 : (Enemy) bd2);
-            if (enemy.getAi() == Enemy.EnemyType.WALK) {
-                if (fix1 == enemy.getPlatformFixture() || fix2 == enemy.getPlatformFixture()) {
-                    enemy.setMovement(0);
-                    enemy.setNextDirection(-1 * enemy.getNextDirection());
-                }
-            }
+        Obstacle objA = (Obstacle) fixA.getBody().getUserData();
+        Obstacle objB = (Obstacle) fixB.getBody().getUserData();
+
+        PairHandler handler = endHandlers[objA.getKind().ordinal()][objB.getKind().ordinal()];
+        if (handler != null) {
+            handler.handle(fixA, fixB, objA, objB, normalCache.setZero());
         }
     }
 
+    /**
+     * Callback method before a contact is solved
+     *
+     * Collision filtering still lets the avatar touch the spikes and enemies of the
+     * other era, so that beginContact can tell when it shifts into them.  Those are
+     * the only contacts the avatar has with the other era, and it must pass through
+     * them.
+     */
     @Override
     public void preSolve(Contact contact, Manifold oldManifold) {
-
+        Object objA = contact.getFixtureA().getBody().getUserData();
+        Object objB = contact.getFixtureB().getBody().getUserData();
+        if ((objA == avatar && !isActive((Obstacle) objB)) || (objB == avatar && !isActive((Obstacle) objA))) {
+            contact.setEnabled(false);
+        }
     }
 
     @Override
     public void postSolve(Contact contact, ContactImpulse impulse) {
-        this.processContact(contact);
-    }
-
-    /**
-     * Returns the collection of listeners
-     *
-     * @param categoryA
-     * @param categoryB
-     * @return
-     */
-    private ContactListener getListener(short categoryA, short categoryB) {
-        ObjectMap<Short, ContactListener> listenerCollection = listeners.get(categoryA);
-        if (listenerCollection == null) {
-            return null;
-        }
-        return listenerCollection.get(categoryB);
+        record(ContactEventQueue.POST_SOLVE, postSolveHandlers, contact);
     }
 
 }
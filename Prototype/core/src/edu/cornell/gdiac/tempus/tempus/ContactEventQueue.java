@@ -0,0 +1,351 @@
+package edu.cornell.gdiac.tempus.tempus;
+
+import com.badlogic.gdx.physics.box2d.Fixture;
+import edu.cornell.gdiac.tempus.obstacle.Obstacle;
+
+import java.util.Arrays;
+
+/**
+ * A ring buffer of the contacts reported by Box2D during a step.
+ *
+ * Box2D calls the contact listener from inside World.step(), where the game
+ * must not change the world.  The CollisionController only records each
+ * contact here, and handles all of them in one batch once the step is over.
+ * The records are kept in parallel arrays that are allocated up front, so
+ * recording a contact does not allocate (the arrays only grow if a frame has
+ * more contacts than ever before).
+ *
+ * A contact that is still touching is reported by postSolve on every substep
+ * of a frame.  Those repeats are merged into one record, which keeps the most
+ * recent normal.  Begin and end records are never merged, as their order
+ * matters.
+ */
+public class ContactEventQueue {
+    /** A record of beginContact */
+    public static final int BEGIN = 0;
+    /** A record of endContact */
+    public static final int END = 1;
+    /** A record of postSolve */
+    public static final int POST_SOLVE = 2;
+
+    /** The default number of records before the buffer must grow */
+    private static final int DEFAULT_CAPACITY = 256;
+
+    /** The callback of each record (BEGIN, END or POST_SOLVE) */
+    private int[] phases;
+    /** The first fixture of each record */
+    private Fixture[] fixturesA;
+    /** The second fixture of each record */
+    private Fixture[] fixturesB;
+    /** The object that owns the first fixture of each record */
+    private Obstacle[] objectsA;
+    /** The object that owns the second fixture of each record */
+    private Obstacle[] objectsB;
+    /** The x-coordinate of the contact normal of each record */
+    private float[] normalsX;
+    /** The y-coordinate of the contact normal of each record */
+    private float[] normalsY;
+
+    /** The slot of the oldest record */
+    private int head;
+    /** The number of records in the buffer */
+    private int size;
+    /** The capacity minus one (the capacity is always a power of two) */
+    private int mask;
+
+    /** The slots of the pending postSolve records plus one, by fixture pair hash (0 is empty) */
+    private int[] merge;
+    /** Whether merge has entries that must be cleared */
+    private boolean merged;
+
+    /**
+     * Creates an empty queue with the default capacity
+     */
+    public ContactEventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty queue
+     *
+     * @param capacity The number of records before the buffer must grow
+     */
+    public ContactEventQueue(int capacity) {
+        allocate(Math.max(2, Integer.highestOneBit(capacity - 1) << 1));
+    }
+
+    /**
+     * Allocates empty arrays for the given capacity
+     *
+     * @param capacity The new capacity (a power of two)
+     */
+    private void allocate(int capacity) {
+        phases = new int[capacity];
+        fixturesA = new Fixture[capacity];
+        fixturesB = new Fixture[capacity];
+        objectsA = new Obstacle[capacity];
+        objectsB = new Obstacle[capacity];
+        normalsX = new float[capacity];
+        normalsY = new float[capacity];
+        merge = new int[2 * capacity];
+        mask = capacity - 1;
+        head = 0;
+    }
+
+    /**
+     * Returns true if there are no records to handle
+     *
+     * @return true if there are no records to handle
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of records to handle
+     *
+     * @return the number of records to handle
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Records a contact callback.
+     *
+     * @param phase   The callback (BEGIN, END or POST_SOLVE)
+     * @param fixA    The first fixture of the contact
+     * @param fixB    The second fixture of the contact
+     * @param objA    The object that owns the first fixture
+     * @param objB    The object that owns the second fixture
+     * @param normalX The x-coordinate of the contact normal (if it is needed)
+     * @param normalY The y-coordinate of the contact normal (if it is needed)
+     */
+    public void add(int phase, Fixture fixA, Fixture fixB, Obstacle objA, Obstacle objB,
+                    float normalX, float normalY) {
+        if (phase == POST_SOLVE) {
+            int slot = findPostSolve(fixA, fixB);
+            if (slot >= 0) {
+                normalsX[slot] = normalX;
+                normalsY[slot] = normalY;
+                return;
+            }
+        }
+        if (size == phases.length) {
+            grow();
+        }
+        int slot = (head + size) & mask;
+        phases[slot] = phase;
+        fixturesA[slot] = fixA;
+        fixturesB[slot] = fixB;
+        objectsA[slot] = objA;
+        objectsB[slot] = objB;
+        normalsX[slot] = normalX;
+        normalsY[slot] = normalY;
+        size++;
+        if (phase == POST_SOLVE) {
+            insertPostSolve(slot);
+        }
+    }
+
+    /**
+     * Returns the slot of the oldest record, to read with the getters.
+     *
+     * The record stays in place until it is removed with pop().
+     *
+     * @return the slot of the oldest record
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Contact queue is empty");
+        }
+        return head;
+    }
+
+    /**
+     * Removes the oldest record
+     */
+    public void pop() {
+        if (size == 0) {
+            throw new IllegalStateException("Contact queue is empty");
+        }
+        fixturesA[head] = null;
+        fixturesB[head] = null;
+        objectsA[head] = null;
+        objectsB[head] = null;
+        head = (head + 1) & mask;
+        size--;
+        if (size == 0 && merged) {
+            Arrays.fill(merge, 0);
+            merged = false;
+        }
+    }
+
+    /**
+     * Removes every record
+     */
+    public void clear() {
+        while (size > 0) {
+            pop();
+        }
+    }
+
+    /**
+     * Returns the callback of a record (BEGIN, END or POST_SOLVE)
+     *
+     * @param slot The slot of the record
+     *
+     * @return the callback of a record
+     */
+    public int getPhase(int slot) {
+        return phases[slot];
+    }
+
+    /**
+     * Returns the first fixture of a record
+     *
+     * @param slot The slot of the record
+     *
+     * @return the first fixture of a record
+     */
+    public Fixture getFixtureA(int slot) {
+        return fixturesA[slot];
+    }
+
+    /**
+     * Returns the second fixture of a record
+     *
+     * @param slot The slot of the record
+     *
+     * @return the second fixture of a record
+     */
+    public Fixture getFixtureB(int slot) {
+        return fixturesB[slot];
+    }
+
+    /**
+     * Returns the object that owns the first fixture of a record
+     *
+     * @param slot The slot of the record
+     *
+     * @return the object that owns the first fixture of a record
+     */
+    public Obstacle getObjectA(int slot) {
+        return objectsA[slot];
+    }
+
+    /**
+     * Returns the object that owns the second fixture of a record
+     *
+     * @param slot The slot of the record
+     *
+     * @return the object that owns the second fixture of a record
+     */
+    public Obstacle getObjectB(int slot) {
+        return objectsB[slot];
+    }
+
+    /**
+     * Returns the x-coordinate of the contact normal of a record
+     *
+     * @param slot The slot of the record
+     *
+     * @return the x-coordinate of the contact normal of a record
+     */
+    public float getNormalX(int slot) {
+        return normalsX[slot];
+    }
+
+    /**
+     * Returns the y-coordinate of the contact normal of a record
+     *
+     * @param slot The slot of the record
+     *
+     * @return the y-coordinate of the contact normal of a record
+     */
+    public float getNormalY(int slot) {
+        return normalsY[slot];
+    }
+
+    /**
+     * Returns the first probe position in merge for a fixture pair
+     *
+     * @param fixA The first fixture
+     * @param fixB The second fixture
+     *
+     * @return the first probe position in merge for a fixture pair
+     */
+    private int hash(Fixture fixA, Fixture fixB) {
+        int h = System.identityHashCode(fixA) * 31 + System.identityHashCode(fixB);
+        return (h ^ (h >>> 16)) & (merge.length - 1);
+    }
+
+    /**
+     * Returns the slot of a pending postSolve record for a fixture pair
+     *
+     * @param fixA The first fixture
+     * @param fixB The second fixture
+     *
+     * @return the slot of the pending record, or -1 if there is none
+     */
+    private int findPostSolve(Fixture fixA, Fixture fixB) {
+        if (!merged) {
+            return -1;
+        }
+        int probe = hash(fixA, fixB);
+        while (merge[probe] != 0) {
+            int slot = merge[probe] - 1;
+            if (((slot - head) & mask) < size && phases[slot] == POST_SOLVE &&
+                    fixturesA[slot] == fixA && fixturesB[slot] == fixB) {
+                return slot;
+            }
+            probe = (probe + 1) & (merge.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a postSolve record to the merge table
+     *
+     * @param slot The slot of the record
+     */
+    private void insertPostSolve(int slot) {
+        int probe = hash(fixturesA[slot], fixturesB[slot]);
+        while (merge[probe] != 0) {
+            probe = (probe + 1) & (merge.length - 1);
+        }
+        merge[probe] = slot + 1;
+        merged = true;
+    }
+
+    /**
+     * Doubles the capacity, keeping the records in order
+     */
+    private void grow() {
+        int[] oldPhases = phases;
+        Fixture[] oldFixturesA = fixturesA;
+        Fixture[] oldFixturesB = fixturesB;
+        Obstacle[] oldObjectsA = objectsA;
+        Obstacle[] oldObjectsB = objectsB;
+        float[] oldNormalsX = normalsX;
+        float[] oldNormalsY = normalsY;
+        int oldHead = head;
+        int oldMask = mask;
+
+        allocate(2 * oldPhases.length);
+        merged = false;
+        for (int ii = 0; ii < size; ii++) {
+            int from = (oldHead + ii) & oldMask;
+            phases[ii] = oldPhases[from];
+            fixturesA[ii] = oldFixturesA[from];
+            fixturesB[ii] = oldFixturesB[from];
+            objectsA[ii] = oldObjectsA[from];
+            objectsB[ii] = oldObjectsB[from];
+            normalsX[ii] = oldNormalsX[from];
+            normalsY[ii] = oldNormalsY[from];
+            if (phases[ii] == POST_SOLVE) {
+                insertPostSolve(ii);
+            }
+        }
+    }
+}
@@ -7,15 +7,16 @@ import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.World;
-import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.ui.Skin;
-import com.badlogic.gdx.scenes.scene2d.ui.Table;
-import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.tempus.obstacle.PolygonTemplate;
 import edu.cornell.gdiac.tempus.tempus.models.*;
 import edu.cornell.gdiac.util.JsonAssetManager;
 
 public class EndGameController extends LevelController{
+    /** The asset group of the end game backgrounds */
+    private static final String ENDGAME_ASSETS = "endgame";
+    /** Whether the end game asset group is held */
+    private boolean holdingAssets;
 
     /**
      * Creates and initialize a new instance of the platformer game
@@ -31,11 +32,35 @@ public class EndGameController extends LevelController{
 
     @Override
     public void reset() {
+        if (!holdingAssets) {
+            JsonAssetManager.getInstance().acquireGroup(ENDGAME_ASSETS);
+            holdingAssets = true;
+        }
         super.reset();
         levelFormat = jsonReader.parse(Gdx.files.internal("jsons/levels/endgame.json"));
 
     }
 
+    /**
+     * Reads the end game room.
+     *
+     * This room is laid out by hand rather than by the room compiler, so it
+     * keeps reading its JSON.
+     */
+    @Override
+    protected void readLevel() {
+        levelFormat = jsonReader.parse(Gdx.files.internal(json_filepath));
+    }
+
+    @Override
+    public void hide() {
+        super.hide();
+        if (holdingAssets) {
+            JsonAssetManager.getInstance().releaseGroup(ENDGAME_ASSETS);
+            holdingAssets = false;
+        }
+    }
+
     @Override
     public void render(float delta) {
         canvas.updateSpriteBatch();
@@ -52,24 +77,21 @@ public class EndGameController extends LevelController{
         }
     }
 
+    /**
+     * Fetches the background textures of the end game room from the asset manager.
+     */
     @Override
-    protected void populateLevel() {
-        // tester stage!
-        skin = new Skin(Gdx.files.internal("jsons/uiskin.json"));
-        stage = new Stage(viewport);
-        stage.setViewport(hudViewport);
-        Gdx.input.setInputProcessor(stage);//BUGGY CHANGE?
-        table = new Table();
-        table.setWidth(stage.getWidth());
-        table.align(Align.center | Align.top);
-        table.setPosition(0, sh);
-
-        //initialize backgrounds
+    protected void loadBackgrounds() {
         pastBackgroundTexture = JsonAssetManager.getInstance().getEntry(levelFormat.get("past_background").asString(),
                 TextureRegion.class);
         presentBackgroundTexture = JsonAssetManager.getInstance().getEntry(levelFormat.get("present_background").asString(),
                 TextureRegion.class);
         bgSprite = new Sprite(presentBackgroundTexture);
+    }
+
+    @Override
+    protected void populateLevel() {
+        loadBackgrounds();
 
 //		win_room = new TextureRegion(new Texture(Gdx.files.local("textures/background/blackscreen.png")));
         createUI();
@@ -78,6 +100,7 @@ public class EndGameController extends LevelController{
         float gravity = levelFormat.getFloat("gravity");
         float[] pSize = levelFormat.get("bounds").asFloatArray();
         world = new World(new Vector2(0, gravity), false);
+        projectilePool = new ProjectilePool();
         bounds = new Rectangle(0, 0, pSize[0], pSize[1]);
         scale.x = canvas.getWidth() / DEFAULT_WIDTH;
         scale.y = canvas.getHeight() / DEFAULT_HEIGHT;
@@ -102,7 +125,7 @@ public class EndGameController extends LevelController{
 
         JsonValue capsule = levelFormat.get("capsules").child();
         while (capsule != null) {
-            Platform obj = new Platform(newPlatCapsule);
+            Platform obj = new Platform(PolygonTemplate.get(newPlatCapsule));
             obj.initialize(capsule);
             obj.setDrawScale(scale);
             addObject(obj);
@@ -111,7 +134,7 @@ public class EndGameController extends LevelController{
 
         JsonValue longcapsule = levelFormat.get("longcapsules").child();
         while (longcapsule != null) {
-            Platform obj = new Platform(newPlatLongcapsule);
+            Platform obj = new Platform(PolygonTemplate.get(newPlatLongcapsule));
             obj.initialize(longcapsule);
             obj.setDrawScale(scale);
             addObject(obj);
@@ -120,7 +143,7 @@ public class EndGameController extends LevelController{
 
         JsonValue pillar = levelFormat.get("pillars").child();
         while (pillar != null) {
-            Platform obj = new Platform(newPlatPillar);
+            Platform obj = new Platform(PolygonTemplate.get(newPlatPillar));
             obj.initialize(pillar);
             obj.setDrawScale(scale);
             addObject(obj);
@@ -129,7 +152,7 @@ public class EndGameController extends LevelController{
 
         JsonValue tall = levelFormat.get("talls").child();
         while (tall != null) {
-            Platform obj = new Platform(newPlatTall);
+            Platform obj = new Platform(PolygonTemplate.get(newPlatTall));
             obj.initialize(tall);
             obj.setDrawScale(scale);
             addObject(obj);
@@ -137,7 +160,7 @@ public class EndGameController extends LevelController{
         }
         JsonValue diamond = levelFormat.get("diamonds").child();
         while (diamond != null) {
-            Platform obj = new Platform(newPlatDiamond);
+            Platform obj = new Platform(PolygonTemplate.get(newPlatDiamond));
             obj.initialize(diamond);
             obj.setDrawScale(scale);
             addObject(obj);
@@ -145,7 +168,7 @@ public class EndGameController extends LevelController{
         }
         JsonValue round = levelFormat.get("rounds").child();
         while (round != null) {
-            Platform obj = new Platform(newPlatRounded);
+            Platform obj = new Platform(PolygonTemplate.get(newPlatRounded));
             obj.initialize(round);
             obj.setDrawScale(scale);
             addObject(obj);
@@ -153,7 +176,7 @@ public class EndGameController extends LevelController{
         }
         JsonValue spikes = levelFormat.get("spikes").child();
         while (spikes != null) {
-            Spikes obj = new Spikes(newSpikes);
+            Spikes obj = new Spikes(PolygonTemplate.get(newSpikes));
             obj.initialize(spikes);
             obj.setDrawScale(scale);
             addObject(obj);
@@ -188,7 +211,7 @@ public class EndGameController extends LevelController{
         }
 
         collisionController = new CollisionController(this);
-        enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory);
+        enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory, projectilePool);
         world.setContactListener(collisionController);
 
     }
@@ -6,21 +6,23 @@ import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.Filter;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
 import edu.cornell.gdiac.tempus.GameCanvas;
+import edu.cornell.gdiac.tempus.SceneRegistry;
+import edu.cornell.gdiac.tempus.ViewCuller;
 import edu.cornell.gdiac.tempus.WorldController;
 import edu.cornell.gdiac.tempus.obstacle.Obstacle;
 import edu.cornell.gdiac.tempus.tempus.models.Avatar;
 import edu.cornell.gdiac.tempus.tempus.models.Enemy;
 import edu.cornell.gdiac.tempus.tempus.models.Platform;
 import edu.cornell.gdiac.tempus.tempus.models.Projectile;
+import edu.cornell.gdiac.util.DenseList;
 import edu.cornell.gdiac.util.JsonAssetManager;
-import edu.cornell.gdiac.util.PooledList;
 import edu.cornell.gdiac.util.SoundController;
 
-import java.util.Random;
-
 import static edu.cornell.gdiac.tempus.tempus.models.EntityType.PRESENT;
 
 public class EnemyController {
@@ -30,13 +32,46 @@ public class EnemyController {
     /** The density for a bullet */
     private static final float HEAVY_DENSITY = 10.0f;
 
-    /** All the objects in the world. */
-    private PooledList<Obstacle> objects  = new PooledList<Obstacle>();
+    /** A platform that a teleporting enemy may move to */
+    private static class TeleportTarget {
+        /** The platform to stand on */
+        public Platform platform;
+        /** The x-coordinate of the middle of the platform */
+        public float anchorX;
+        /** The y-coordinate of the platform */
+        public float anchorY;
+        /** The height of the platform */
+        public float height;
+        /** Whether an enemy of each era (indexed by SceneRegistry era) is on this platform */
+        public boolean[] occupied = new boolean[2];
+
+        /**
+         * Creates a target for the given platform
+         *
+         * Platforms never move, so the anchor is only computed once.
+         *
+         * @param platform the platform to stand on
+         */
+        public TeleportTarget(Platform platform) {
+            this.platform = platform;
+            Vector2 pos = platform.getPosition();
+            anchorX = pos.x + platform.getWidth() / 2;
+            anchorY = pos.y;
+            height = platform.getHeight();
+        }
+    }
+
     /** The enemy being controlled */
-    private PooledList<Enemy> enemies  = new PooledList<Enemy>();
+    private DenseList<Enemy> enemies  = new DenseList<Enemy>();
 
-    private PooledList<Platform> platformsPast = new PooledList<Platform>();
-    private PooledList<Platform> platformsPresent = new PooledList<Platform>();
+    /** The platforms that can be teleported to in each era (indexed by SceneRegistry era) */
+    private Array<TeleportTarget>[] teleportTargets;
+    /** Where the next search for a teleport target starts in each era */
+    private int[] teleportCursors;
+    /** The teleport target for each platform that has one */
+    private ObjectMap<Platform, TeleportTarget> targetOf;
+    /** The line of sight checks against the room geometry */
+    private SightCache sightCache;
 
     /** Target being aimed at */
     private Avatar target;
@@ -54,6 +89,10 @@ public class EnemyController {
 
     /** Cache for internal force calculations */
     private Vector2 forceCache = new Vector2();
+    /** Cache for the collision filter shared by an enemy and its bullet */
+    private Filter filterCache = new Filter();
+    /** The pool that bullets are taken from */
+    private ProjectilePool projectiles;
 
     /** The reader to process JSON files */
     private JsonReader jsonReader;
@@ -79,11 +118,7 @@ public class EnemyController {
                 //e.setRespawnQueued(true);
                 //e.setPosition(e.getStartPosition());
                 if (e.getAi() == Enemy.EnemyType.TELEPORT){
-                    if (e.getSpace() == 2) {
-                        platformsPast.remove(e.getCurrPlatform());
-                    } else if (e.getSpace() ==1){
-                        platformsPresent.remove(e.getCurrPlatform());
-                    }
+                    removePlat(e.getCurrPlatform(), e.getSpace());
                 }
             }
             /*if (e.getResawnQueued()){
@@ -106,27 +141,50 @@ public class EnemyController {
         return result;
     }
 
+    /**
+     * Marks a platform as no longer occupied by a teleporting enemy of the given space
+     *
+     * @param p the platform the enemy was on (may be null)
+     * @param space the space of the enemy
+     */
     public void removePlat(Platform p, int space){
-        if (space == 2) {
-            platformsPast.remove(p);
-        } else if (space ==1){
-            platformsPresent.remove(p);
+        TeleportTarget t = p == null ? null : targetOf.get(p);
+        if (t != null && space != 3) {
+            t.occupied[space == 2 ? SceneRegistry.PAST : SceneRegistry.PRESENT] = false;
         }
     }
 
-    public EnemyController(PooledList<Enemy> enemies, PooledList<Obstacle> objects, Avatar target, World world,
-                           Vector2 scale, WorldController worldController, JsonValue assetDirectory) {
+    @SuppressWarnings("unchecked")
+    public EnemyController(DenseList<Enemy> enemies, DenseList<Obstacle> objects, Avatar target, World world,
+                           Vector2 scale, WorldController worldController, JsonValue assetDirectory,
+                           ProjectilePool projectiles) {
         this.enemies = enemies;
+        teleportTargets = new Array[2];
+        teleportTargets[SceneRegistry.PRESENT] = new Array<TeleportTarget>();
+        teleportTargets[SceneRegistry.PAST] = new Array<TeleportTarget>();
+        teleportCursors = new int[2];
+        targetOf = new ObjectMap<Platform, TeleportTarget>();
         for (Obstacle ob : objects) {
-            this.objects.add(ob);
+            if (ob instanceof Platform && isTeleportTarget((Platform) ob)) {
+                TeleportTarget t = new TeleportTarget((Platform) ob);
+                targetOf.put(t.platform, t);
+                if (ob.getSpace() != 2) {
+                    teleportTargets[SceneRegistry.PRESENT].add(t);
+                }
+                if (ob.getSpace() != 1) {
+                    teleportTargets[SceneRegistry.PAST].add(t);
+                }
+            }
         }
         this.target = target;
         this.world = world;
+        sightCache = new SightCache(objects, enemies, target);
         this.scale = scale;
         this.shifted = false;
         this.worldController = worldController;
         jsonReader = new JsonReader();
         this.assetDirectory = assetDirectory;
+        this.projectiles = projectiles;
         canvas = worldController.getCanvas();
         framesAfterMove = 0;
         playerVisible = false;
@@ -145,6 +203,26 @@ public class EnemyController {
         enemies.clear();
     }
 
+    /**
+     * Puts the controller back to how it was when the room was built.
+     *
+     * Unlike reset(), this keeps the enemies, as the room rewinds them in place.
+     */
+    public void rewind() {
+        playerVisible = false;
+        shifted = false;
+        framesAfterMove = 0;
+        for (int ii = 0; ii < teleportTargets.length; ii++) {
+            Array<TeleportTarget> targets = teleportTargets[ii];
+            for (int jj = 0; jj < targets.size; jj++) {
+                TeleportTarget t = targets.get(jj);
+                t.occupied[SceneRegistry.PRESENT] = false;
+                t.occupied[SceneRegistry.PAST] = false;
+            }
+            teleportCursors[ii] = 0;
+        }
+    }
+
     /**
      * Sets the cooldown for enemies when slowed down
      * @param flag whether the world is slowed down
@@ -222,9 +300,11 @@ public class EnemyController {
     }
 
     /**
-     * Processes actions for the enemy during every update
+     * Processes actions for the enemy during every fixed step
      */
     public void processAction() {
+        // Everything has moved since the last step
+        sightCache.invalidate();
         for (Enemy e: enemies) {
             if (e.isTurret()) {
                 fire(e);
@@ -300,32 +380,53 @@ public class EnemyController {
         e.getBody().applyForce(forceCache, e.getPosition(), true);
     }
 
+    /**
+     * Returns true if an enemy may teleport onto the given platform
+     *
+     * Pillars and long platforms are left out.
+     *
+     * @param p the platform to check
+     *
+     * @return true if an enemy may teleport onto the given platform
+     */
+    private static boolean isTeleportTarget(Platform p) {
+        String name = p.getName();
+        return !name.contains("pillar") && !name.contains("tall") && !name.contains("longcapsule");
+    }
+
     /**
      * Finds an available platform for the enemy to teleport to
      * Will only teleport to a platform where it can shoot the avatar and the avatar is not currently on
      *
+     * The candidates are searched round-robin, starting after the last platform
+     * that was teleported to.  The line of sight is only checked once the enemy
+     * is about to fire (or teleport), and only for platforms it could move to.
+     *
      * @param e enemy that is teleporting
      */
     public void findPlatform(Enemy e) {
-        for (int i = 0; i < objects.size(); i++) {
-            Obstacle ob = objects.get(i);
-            if (ob instanceof Platform &&
-                    ((!shifted && ob.getSpace() == 1) || (shifted && ob.getSpace() == 2) || ob.getSpace() == 3)) {
-                Platform p = (Platform) ob;
-                if (!p.getName().contains("pillar") && !p.getName().contains("tall") && !p.getName().contains("longcapsule")) {
-                    e.setCheckSight(true);
-                    teleportLineOfSight(p, e);
-                    if (e.getTeleportTo() != null && e.canFire()
-                            && e.getTeleportTo().getBody().getUserData() != target.getCurrentPlatform()
-                            && e.getCurrPlatform() != e.getTeleportTo()) {
-                        if (e.getSpace() == 2 && !platformsPast.contains(p) || e.getSpace() == 1 && !platformsPresent.contains(p)){
-                            teleport(e, p);
-                            objects.remove(i);
-                            objects.add(ob);
-                            return;
-                        }
-                    }
+        if (e.isDead() || e.getFramesTillFire() >= 60) {
+            return;
+        }
+        boolean ready = e.getFramesTillFire() <= 0;
+        int era = shifted ? SceneRegistry.PAST : SceneRegistry.PRESENT;
+        int own = e.getSpace() == 2 ? SceneRegistry.PAST : SceneRegistry.PRESENT;
+        Array<TeleportTarget> targets = teleportTargets[era];
+        int start = teleportCursors[era];
+        for (int ii = 0; ii < targets.size; ii++) {
+            int index = (start + ii) % targets.size;
+            TeleportTarget t = targets.get(index);
+            if (t.platform == target.getCurrentPlatform() || t.platform == e.getCurrPlatform() || t.occupied[own]) {
+                continue;
+            }
+            teleportLineOfSight(t, e);
+            if (e.getTeleportTo() != null) {
+                // Until it is ready, the target only shows that the enemy is about to move
+                if (ready && e.canFire()) {
+                    teleport(e, t.platform);
+                    teleportCursors[era] = index + 1;
                 }
+                return;
             }
         }
     }
@@ -340,16 +441,19 @@ public class EnemyController {
         JsonValue disappear = assetDirectory.get("sounds").get("teleport_disappear");
         SoundController.getInstance().play(disappear.get("file").asString(), disappear.get("file").asString(),
                 false, disappear.get("volume").asFloat());
-        Vector2 newPos = p.getPosition();
-        newPos.y += p.getHeight() + (e.getHeight() / 2);
-        newPos.x += p.getWidth() / 2;
-        e.setPosition(newPos);
-        if (e.getSpace() == 2) {
-            platformsPast.remove(e.getCurrPlatform());
-            platformsPast.add(p);
-        } else if (e.getSpace() ==1){
-            platformsPresent.remove(e.getCurrPlatform());
-            platformsPresent.add(p);
+        TeleportTarget t = targetOf.get(p);
+        if (t != null) {
+            e.setPosition(t.anchorX, t.anchorY + t.height + (e.getHeight() / 2));
+        } else {
+            Vector2 newPos = p.getPosition();
+            e.setPosition(newPos.x + p.getWidth() / 2, newPos.y + p.getHeight() + (e.getHeight() / 2));
+        }
+        sightCache.invalidate();
+        if (e.getSpace() != 3) {
+            removePlat(e.getCurrPlatform(), e.getSpace());
+            if (t != null) {
+                t.occupied[e.getSpace() == 2 ? SceneRegistry.PAST : SceneRegistry.PRESENT] = true;
+            }
         }
         e.setCurrPlatform(p);
         e.setTeleportTo(null);
@@ -392,19 +496,22 @@ public class EnemyController {
         TextureRegion presentBullet = JsonAssetManager.getInstance().getEntry("projpresent", TextureRegion.class);
         TextureRegion pastbullet = JsonAssetManager.getInstance().getEntry("projpast", TextureRegion.class);
         float radius = bulletBigTexture.getRegionWidth() / (30.0f);
-        Projectile bullet = new Projectile(enemy.getType(), enemy.getX(), enemy.getY() + offset, radius,
+        Projectile bullet = projectiles.obtain(enemy.getType(), enemy.getX(), enemy.getY() + offset, radius,
                 enemy.getBody().getUserData());
 
-        Filter f = new Filter();
-        Random random = new Random();
-        f.groupIndex = (short) -random.nextInt(Short.MAX_VALUE + 1);
+        // The bullet and its enemy share a group so they never collide.  The bullet
+        // takes the enemy's era bits for now, and is given its own when it is added.
+        Filter filter = enemy.getFilterData();
+        filterCache.categoryBits = filter.categoryBits;
+        filterCache.maskBits = filter.maskBits;
+        filterCache.groupIndex = projectiles.nextGroupIndex();
         for (Fixture fix: enemy.getFixtures()) {
             if (fix.getUserData() == null) {
-                fix.setFilterData(f);
+                fix.setFilterData(filterCache);
             }
         }
 //        enemy.setFilterData(f);
-        bullet.setFilterData(f);
+        bullet.setFilterData(filterCache);
 
         bullet.setName("bullet");
         bullet.setDensity(HEAVY_DENSITY);
@@ -455,14 +562,19 @@ public class EnemyController {
      * @param offset offset from the enemy center to where the bullet shoots from
      */
     public void createLineOfSight(World world, float offset, Enemy e) {
-        e.setCheckSight(true);
         Vector2 shootPos = e.getPosition().add(0f, offset);
+        float sx = shootPos.x;
+        float sy = shootPos.y;
+        Vector2 aim = target.getPosition();
+        float tx = aim.x;
+        float ty = aim.y;
         TextureRegion bulletBigTexture = JsonAssetManager.getInstance().getEntry("bulletbig", TextureRegion.class);
         float radius = bulletBigTexture.getRegionWidth() / scale.x;
-        world.rayCast(e.getSight(), shootPos.cpy().add(0f, -radius), target.getPosition().add(0f, -radius));
-        world.rayCast(e.getSight(), shootPos.cpy().add(0f, radius), target.getPosition().add(0f, radius));
-        world.rayCast(e.getSight(), shootPos.cpy().add(radius, 0f), target.getPosition().add(radius, 0f));
-        world.rayCast(e.getSight(), shootPos.cpy().add(-radius, 0f), target.getPosition().add(-radius, 0f));
+        // A bullet-sized beam: the sight is blocked if any edge of it is
+        e.setCheckSight(sightCache.canSee(e, sx, sy - radius, tx, ty - radius)
+                && sightCache.canSee(e, sx, sy + radius, tx, ty + radius)
+                && sightCache.canSee(e, sx + radius, sy, tx + radius, ty)
+                && sightCache.canSee(e, sx - radius, sy, tx - radius, ty));
 
         if (e.getCheckSight() && playerVisible) {
             e.setIsFiring(true);
@@ -482,15 +594,14 @@ public class EnemyController {
     /**
      * Checks the line of sight at a potential place to teleport to
      *
-     * @param p platform the enemy could potentially teleport to
+     * @param t target the enemy could potentially teleport to
      * @param e enemy that is teleporting
      */
-    public void teleportLineOfSight(Platform p, Enemy e) {
-        e.setTeleportTo(p);
-        Vector2 aim = p.getPosition();
-        aim.y += e.getHeight() / 2 + p.getHeight() / 2 + BULLET_OFFSET;
-        aim.x += p.getWidth() / 2;
-        world.rayCast(e.getSight(), aim, target.getPosition());
+    private void teleportLineOfSight(TeleportTarget t, Enemy e) {
+        e.setTeleportTo(t.platform);
+        Vector2 aim = target.getPosition();
+        e.setCheckSight(sightCache.canSee(e, t.anchorX, t.anchorY + e.getHeight() / 2 + t.height / 2 + BULLET_OFFSET,
+                aim.x, aim.y));
 
         if (e.getCheckSight()) {
             e.setIsFiring(true);
@@ -504,58 +615,80 @@ public class EnemyController {
 
     /**
      * Makes the enemies inactive if they are not in the world
+     *
+     * Enemies are kept apart from the other era by collision filtering, so a
+     * sleeping enemy only has to stop moving and firing.  This only needs to be
+     * called when the scene changes (such as on a time shift).
      */
     public void sleepIfNotInWorld() {
         for (Enemy e: enemies) {
+            boolean asleep = (!shifted && e.getSpace() == 2) || (shifted && e.getSpace() == 1);
             if (!e.isTurret()) {
-                e.setBodyType(BodyDef.BodyType.DynamicBody);
-                //e.setActive(true);
                 if (e.getSpace() == 3) {
                     e.setIsFiring(true);
-                    e.setBodyType(BodyDef.BodyType.DynamicBody);
-                } else if (!shifted && (e.getSpace() == 2)) {
+                } else if (asleep) {
                     e.setIsFiring(false);
-                    e.setBodyType(BodyDef.BodyType.StaticBody);
-                    //e.setActive(false);
-                } else if (shifted && (e.getSpace() == 2)) {
-                    e.setIsFiring(e.getShiftedFiring());
-                } else if (shifted && (e.getSpace() == 1)) {
-                    e.setIsFiring(false);
-                    e.setBodyType(BodyDef.BodyType.StaticBody);
-                    //e.setActive(false);
-                } else if (!shifted && (e.getSpace() == 1)) {
+                } else {
                     e.setIsFiring(e.getShiftedFiring());
                 }
+                // Switching the body type destroys contacts and wakes bodies, so only
+                // touch it if it changes
+                BodyDef.BodyType type = asleep ? BodyDef.BodyType.StaticBody : BodyDef.BodyType.DynamicBody;
+                if (e.getBodyType() != type) {
+                    e.setBodyType(type);
+                }
             }
             e.setSensor(false);
-            if (e.getSpace() == 3) {
-                e.setSensor(false);
-            } else if (!shifted && (e.getSpace() == 2)) {
-                e.setSensor(true);
-            } else if (shifted && (e.getSpace() == 1)) {
-                e.setSensor(true);
-            }
         }
     }
 
-    //Update enemy animation state
+    /**
+     * Advances the removal countdown and the animation of every enemy by one step
+     *
+     * This is called once per fixed step, so dead enemies fade out and the
+     * enemies animate at the same speed at any frame rate.
+     */
     public void animateEnemies() {
         for (Enemy e: enemies) {
-            if (e.getAi() != Enemy.EnemyType.TELEPORT) {
-                e.animate(Enemy.EnemyState.NEUTRAL, true);
-                e.setAnimationState(Enemy.EnemyState.NEUTRAL);
+            if (e.isDead()) {
+                e.decRemovalFrames();
+                if (e.getRemovalFrames() == 0) {
+                    e.markRemoved(true);
+                }
+            } else if (e.getSpace() != 3 && ((shifted && (e.getSpace() == 2)) || (!shifted && (e.getSpace() == 1)))) {
+                if (e.getAi() == Enemy.EnemyType.FLY && !playerVisible) {
+                    e.setFaceDirection((e.getX() - e.getStartPosition().x < 0 ? 1 : -1));
+                } else if (e.getAi() != Enemy.EnemyType.WALK) {
+                    e.setFaceDirection((e.getX() - target.getX()) < 0 ? 1 : -1);
+                }
+                if (e.getAi() == Enemy.EnemyType.TELEPORT && e.getTeleportTo() != null && e.getFramesTillFire() < 60) {
+                    e.animate(Enemy.EnemyState.ATTACKING, false);
+                    e.setAnimationState(Enemy.EnemyState.ATTACKING);
+                } else if (e.getAi() == Enemy.EnemyType.TELEPORT && framesAfterMove > 0 && framesAfterMove < 60) {
+                    e.animate(Enemy.EnemyState.ATTACKING, false);
+                    e.setAnimationState(Enemy.EnemyState.ATTACKING);
+                    framesAfterMove += 1;
+                } else {
+                    e.animate(Enemy.EnemyState.NEUTRAL, true);
+                    e.setAnimationState(Enemy.EnemyState.NEUTRAL);
+                }
             }
         }
     }
 
-    public void drawEnemiesInWorld() {
+    /**
+     * Draws the enemies of the active era that can be seen
+     *
+     * The enemies are only drawn here; their removal countdown and animation
+     * are advanced by animateEnemies().
+     *
+     * @param view The culler holding the current camera view
+     */
+    public void drawEnemiesInWorld(ViewCuller view) {
         for (Enemy e: enemies) {
             if (e.isDead()) {
-                e.decRemovalFrames();
-                if (e.getRemovalFrames() == 0) {
-                    e.markRemoved(true);
-                } else if ((shifted && (e.getSpace() == 2)) || (!shifted && (e.getSpace() == 1))) {
-                    if (e.getRemovalFrames() > 0) {
+                if ((shifted && (e.getSpace() == 2)) || (!shifted && (e.getSpace() == 1))) {
+                    if (e.getRemovalFrames() > 0 && view.isVisible(e)) {
                         if (e.getRemovalFrames() < 30) {
                             e.drawFade(canvas, e.getRemovalFrames(), 1f / 30f);
                         } else if (e.getRemovalFrames() < 45) {
@@ -566,44 +699,34 @@ public class EnemyController {
                     }
                 }
             } else if (e.getSpace() == 3) {
-                e.draw(canvas);
+                if (view.isVisible(e)) {
+                    e.draw(canvas);
+                }
             } else if ((shifted && (e.getSpace() == 2)) || (!shifted && (e.getSpace() == 1))) { // past world
-                if (e.getAi() == Enemy.EnemyType.FLY && !playerVisible) {
-                    e.setFaceDirection((e.getX() - e.getStartPosition().x < 0 ? 1 : -1));
-                } else if (e.getAi() != Enemy.EnemyType.WALK) {
-                    e.setFaceDirection((e.getX() - target.getX()) < 0 ? 1 : -1);
+                if (!view.isVisible(e)) {
+                    continue;
                 }
-                if (e.getAi() == Enemy.EnemyType.TELEPORT) {
-                    if (e.getTeleportTo() != null && e.getFramesTillFire() < 60) {
-                        e.animate(Enemy.EnemyState.ATTACKING, false);
-                        e.setAnimationState(Enemy.EnemyState.ATTACKING);
-                        e.drawFade(canvas, e.getFramesTillFire(), 1f / 60f);
-                    } else if (framesAfterMove > 0 && framesAfterMove < 60) {
-                        e.animate(Enemy.EnemyState.ATTACKING, false);
-                        e.setAnimationState(Enemy.EnemyState.ATTACKING);
-                        e.drawFade(canvas, framesAfterMove, 1f / 60f);
-                        framesAfterMove += 1;
-                    } else {
-                        e.animate(Enemy.EnemyState.NEUTRAL, true);
-                        e.setAnimationState(Enemy.EnemyState.NEUTRAL);
-                        e.draw(canvas, playerVisible);
-                    }
+                if (e.getAi() == Enemy.EnemyType.TELEPORT && e.getTeleportTo() != null && e.getFramesTillFire() < 60) {
+                    e.drawFade(canvas, e.getFramesTillFire(), 1f / 60f);
+                } else if (e.getAi() == Enemy.EnemyType.TELEPORT && framesAfterMove > 0 && framesAfterMove < 60) {
+                    e.drawFade(canvas, framesAfterMove, 1f / 60f);
                 } else {
-                    e.animate(Enemy.EnemyState.NEUTRAL, true);
-                    e.setAnimationState(Enemy.EnemyState.NEUTRAL);
                     e.draw(canvas, playerVisible);
                 }
-//            } else if (!shifted && (e.getSpace() == 1)) { // present world
-//                e.draw(canvas);
             }
         }
     }
 
     /**
      * Draws the debug for enemies in the world
+     *
+     * @param view The culler holding the current camera view
      */
-    public void drawEnemiesDebugInWorld() {
+    public void drawEnemiesDebugInWorld(ViewCuller view) {
         for (Enemy e: enemies) {
+            if (!view.isVisible(e)) {
+                continue;
+            }
             if (e.getSpace() == 3) {
                 e.drawDebug(canvas);
             } else if (shifted && (e.getSpace() == 2)) {
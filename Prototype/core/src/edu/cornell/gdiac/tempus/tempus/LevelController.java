@@ -29,12 +29,15 @@ import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.*;
+import com.badlogic.gdx.utils.async.AsyncResult;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import edu.cornell.gdiac.tempus.*;
 import edu.cornell.gdiac.util.*;
 import edu.cornell.gdiac.tempus.obstacle.*;
 import edu.cornell.gdiac.tempus.tempus.models.*;
 
+import java.util.Iterator;
+
 import static edu.cornell.gdiac.tempus.tempus.models.EntityType.PAST;
 import static edu.cornell.gdiac.tempus.tempus.models.EntityType.PRESENT;
 
@@ -48,32 +51,28 @@ import static edu.cornell.gdiac.tempus.tempus.models.EntityType.PRESENT;
  * multiple instances place nicely with the static assets.
  */
 public class LevelController extends WorldController {
-
-	/** STARTUP INPUT DELAY COUNTER **/
-	protected int BEGIN_COUNT_OG;
-	/** Stage for adding UI components **/
-	protected Skin skin;
-
-	protected Table table;
-	protected Table pauseTable;
-	protected Container pauseButtonContainer;
-	protected Table volumeTable;
-	protected Container volumeContainer;
-
-	protected Table helpInfoTable;
-	protected Container helpContainer;
-	private TextureRegionDrawable overlayBG;
+	/** Draw layer of the door, the platforms and the spikes */
+	protected static final int LAYER_STAGE = 0;
+	/** Draw layer of the avatar */
+	protected static final int LAYER_AVATAR = 1;
+	/** Draw layer of the projectiles */
+	protected static final int LAYER_PROJECTILES = 2;
+	/** Draw layer of the enemies (and their indicators) */
+	protected static final int LAYER_ENEMIES = 3;
+	/** Draw layer of the dash and throw indicators */
+	protected static final int LAYER_INDICATORS = 4;
+	/** Draw layer of the lives and the room title */
+	protected static final int LAYER_HUD = 5;
+	/** Draw layer of the dark overlay */
+	protected static final int LAYER_OVERLAY = 6;
+
+	/** STARTUP INPUT DELAY COUNTER (in steps) **/
+	protected static final int BEGIN_COUNT_OG = 30;
+	/** The HUD and menus, shared by every room **/
+	protected RoomHud hud;
 	protected TextureRegion overlayDark;
 	protected Container<Stack> edgeContainer;
 	protected Stack tableStack;
-
-	protected Table endlevelTable;
-	protected Container endlevelContainer;
-	protected TextureRegionDrawable youWonImg;
-	protected TextureRegionDrawable newRecordImg;
-	protected Table wonLevelBannerTable;
-	protected Label timerLabel;
-	protected Label pauseTimeLabel;
 	/** index of the current level */
 	protected int levelNum;
 	/** index of the current room within the level */
@@ -83,15 +82,13 @@ public class LevelController extends WorldController {
 	/**
 	 * RIPPLE SHADER ** /
 	 * 
-	 * /** vertex shader source code
+	 * /** vertex shader file
 	 */
-	protected String vert;
-	/** fragment shader source code */
-	protected String frag;
-	/** custom shader */
+	protected static final String RIPPLE_VERTEX = ".vertex.glsl";
+	/** fragment shader file */
+	protected static final String RIPPLE_FRAGMENT = ".fragment.glsl";
+	/** custom shader (shared by every room; null until first used) */
 	protected ShaderProgram shaderprog;
-	/** background sprite batch for rendering w shader */
-	SpriteBatch batch;
 	/** background sprite for rendering w shader */
 	Sprite bgSprite;
 	/** Alpha adjustment for end level drawing sequence */
@@ -172,8 +169,12 @@ public class LevelController extends WorldController {
 	protected JsonReader jsonReader;
 	/** The JSON asset directory */
 	protected JsonValue assetDirectory;
-	/** The JSON defining the level model */
+	/** The JSON defining the level model (for controllers that read their JSON themselves) */
 	protected JsonValue levelFormat;
+	/** The records defining this room */
+	protected RoomFile room;
+	/** The moving bodies of this room as they were first populated (null until then) */
+	protected RoomSnapshot snapshot;
 
 	/** Track asset loading from all instances and subclasses */
 	protected AssetState platformAssetState = AssetState.EMPTY;
@@ -184,9 +185,6 @@ public class LevelController extends WorldController {
 	/**The room timer*/
 	protected float roomTimer;
 
-	protected Slider soundEffectsSlider;
-	protected Slider musicSlider;
-
 	/**
 	 * Preloads the assets for this controller.
 	 *
@@ -202,9 +200,13 @@ public class LevelController extends WorldController {
 		platformAssetState = AssetState.LOADING;
 
 		jsonReader = new JsonReader();
-		assetDirectory = jsonReader.parse(Gdx.files.internal("jsons/assets.json"));
-
-		JsonAssetManager.getInstance().loadDirectory(assetDirectory);
+		// Rooms are built as they are entered, long after the directory was loaded
+		JsonAssetManager manager = JsonAssetManager.getInstance();
+		assetDirectory = manager.getDirectory();
+		if (assetDirectory == null) {
+			assetDirectory = jsonReader.parse(Gdx.files.internal("jsons/assets.json"));
+			manager.loadDirectory(assetDirectory);
+		}
 		// super.preLoadContent(manager);
 	}
 
@@ -220,12 +222,14 @@ public class LevelController extends WorldController {
 		if (platformAssetState != AssetState.LOADING) {
 			return;
 		}
-		JsonAssetManager.getInstance().allocateDirectory();
+		if (!JsonAssetManager.getInstance().isAllocated()) {
+			JsonAssetManager.getInstance().allocateDirectory();
+		}
 //		displayFont = JsonAssetManager.getInstance().getEntry("display", BitmapFont.class);
-		displayFont = new BitmapFont(Gdx.files.internal("fonts/carterone.fnt"));
-		displayFont.getData().setScale(0.5f);
+		hud = RoomHud.getInstance();
+		displayFont = hud.getFont();
 		glyphLayout = new GlyphLayout();
-		style = new Label.LabelStyle(displayFont, Color.WHITE);
+		style = hud.getLabelStyle();
 
 		platformAssetState = AssetState.COMPLETE;
 
@@ -242,6 +246,8 @@ public class LevelController extends WorldController {
 	protected static final float BASIC_FRICTION = 0.6f;
 	/** The restitution for all physics objects */
 	protected static final float BASIC_RESTITUTION = 0.1f;
+	/** How fast simulated time passes while time is frozen */
+	protected static final float TIME_FREEZE_SCALE = 0.25f;
 	// /** Offset for bullet when firing */
 	// protected static final float BULLET_OFFSET = 1.5f;
 	/** The volume for sound effects */
@@ -338,9 +344,13 @@ public class LevelController extends WorldController {
 	protected CollisionController collisionController;
 	/** Enemy Controller instance */
 	protected EnemyController enemyController;
+	/** The pool of projectiles for the current world */
+	protected ProjectilePool projectilePool;
 
 	/** FILEPATH TO JSON RESOURCE FOR THE LEVEL **/
 	protected String json_filepath;
+	/** The room read ahead of time on another thread (or null if there is none) */
+	protected AsyncResult<RoomFile> prefetchedRoom;
 
 	protected boolean drawEndGame;
 	protected int flickerCount;
@@ -358,6 +368,12 @@ public class LevelController extends WorldController {
 	protected Vector3 cursor;
 
 	protected OrthographicCamera camera;
+	/** Culls the objects outside of the camera view */
+	protected ViewCuller culler;
+	/** The baked platforms and spikes of each era (present, then past) */
+	protected StaticMesh[] stageMeshes;
+	/** The static revision of the registry when each era was baked (-1 if never) */
+	protected int[] stageRevisions;
 
 	/** is the timeshift ripple active */
 	protected boolean shiftripple;
@@ -367,7 +383,11 @@ public class LevelController extends WorldController {
 	/**
 	 * Creates and initialize a new instance of the platformer game
 	 *
-	 * The game has default gravity and other settings
+	 * The game has default gravity and other settings.  Nothing here needs a GL
+	 * context (the ripple shader is only compiled when first used), so a room
+	 * that is never drawn may use populateWorld() without one.
+	 *
+	 * @param json		The path to the room JSON
 	 */
 	public LevelController(String json) {
 		super(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_GRAVITY);
@@ -382,8 +402,8 @@ public class LevelController extends WorldController {
 		timeFreeze = false;
 		json_filepath = json;
 		numEnemies = 0;
-		begincount = 20;
-		enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory);
+		begincount = BEGIN_COUNT_OG;
+		enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory, projectilePool);
 		isTutorial = false;
 		ripple_intensity = 0.009f;
 		inputReady = false;
@@ -395,16 +415,11 @@ public class LevelController extends WorldController {
 		// ripple shader
 		ticks = 0f;
 		rippleOn = false;
-		vert = Gdx.files.internal(".vertex.glsl").readString();
-		frag = Gdx.files.internal(".fragment.glsl").readString();
-		shaderprog = new ShaderProgram(vert, frag);
-		shaderprog.pedantic = false;
 		m_rippleDistance = 0;
 		m_rippleRange = 0;
 		ticks = 0;
 		time_incr = (float) 0.002;
 		ripple_reset = sw * 0.00025f;
-		batch = new SpriteBatch();
 		mouse_pos = new Vector2(0.5f, 0.5f);
 		delta_x = 1000;
 		delta_y = 1000;
@@ -420,6 +435,20 @@ public class LevelController extends WorldController {
 		OrthographicCamera cam = new OrthographicCamera(sw,sh);
 		hudViewport = new FitViewport(sw, sh, cam);
 		hudViewport.getCamera().position.set(new Vector3(sw/2, sh/2,0));
+		culler = new ViewCuller(scene);
+		stageMeshes = new StaticMesh[] { new StaticMesh(), new StaticMesh() };
+		stageRevisions = new int[] { -1, -1 };
+	}
+
+	/**
+	 * Returns the culler for the objects outside of the camera view
+	 *
+	 * Its culled and drawn counts cover the last frame drawn.
+	 *
+	 * @return the culler for the objects outside of the camera view
+	 */
+	public ViewCuller getCuller() {
+		return culler;
 	}
 
 	/**
@@ -455,10 +484,43 @@ public class LevelController extends WorldController {
 	 */
 	public void resetTimer(){roomTimer = 0;}
 
+	/**
+	 * Hands this room its records, being read on another thread.
+	 *
+	 * The next reset uses them instead of reading the file again.
+	 *
+	 * @param records	The pending read of the room
+	 */
+	public void setPrefetch(AsyncResult<RoomFile> records) {
+		prefetchedRoom = records;
+	}
+
+	/**
+	 * Reads the definition of this room, just before it is populated.
+	 *
+	 * If the room was read ahead, this waits for that read to finish rather
+	 * than reading it again.  Should it have failed, the file is read here.
+	 */
+	protected void readLevel() {
+		if (prefetchedRoom != null) {
+			AsyncResult<RoomFile> records = prefetchedRoom;
+			prefetchedRoom = null;
+			try {
+				room = records.get();
+				return;
+			} catch (GdxRuntimeException e) {
+				Gdx.app.error("LevelController", "Prefetch of " + json_filepath + " failed", e);
+			}
+		}
+		room = RoomFile.load(json_filepath);
+	}
+
 	/**
 	 * Resets the status of the game so that we can play again.
 	 *
-	 * This method disposes of the world and creates a new one.
+	 * The first reset populates the room and takes a snapshot of it.  Every
+	 * later reset restores that snapshot in place (see restoreRoom) instead of
+	 * disposing of the world and building it again.
 	 */
 	public void reset() {
 		// Vector2 gravity = new Vector2(world.getGravity());
@@ -475,40 +537,37 @@ public class LevelController extends WorldController {
 		paused = false;
 		prepause = false;
 
-		enemyController.reset();
-		for (Obstacle obj : objects) {
-			obj.deactivatePhysics(world);
-		}
-		objects.clear();
-		addQueue.clear();
-		world.dispose();
 		shifted = false;
+		scene.setShifted(shifted);
 		ripple_intensity = 0.009f;
 		rippleSpeed = 0.25f;
 		rippleOn = false;
 
 		begincount = BEGIN_COUNT_OG;
-		// world = new World(gravity, false);
-		world.setContactListener(collisionController);
-		// world.setContactListener(this);
 		setComplete(false);
 		setFailure(false);
-		levelFormat = jsonReader.parse(Gdx.files.internal(json_filepath));
-
-		populateLevel();
-		for (Obstacle o: objects) {
-			if (o instanceof Platform) {
-				Platform p = (Platform) o;
-				if (p.getSpace() == 3){
-					p.shift(shifted);
-				}
-			} else if (o instanceof Spikes) {
-				Spikes p = (Spikes) o;
-				if (p.getSpace() == 3){
-					p.shift(shifted);
-				}
+		if (snapshot == null) {
+			enemyController.reset();
+			for (Obstacle obj : objects) {
+				obj.deactivatePhysics(world);
 			}
+			objects.clear();
+			addQueue.clear();
+			scene.clear();
+			transforms.clear();
+			world.dispose();
+			// world = new World(gravity, false);
+			world.setContactListener(collisionController);
+			// world.setContactListener(this);
+			readLevel();
+
+			populateLevel();
+		} else {
+			restoreRoom();
+			loadBackgrounds();
+			createUI();
 		}
+		shiftBothEras();
 		goalDoor.setOpen(false);
 		goalDoor.setAnimationState(Door.DoorState.LOCKED);
 		timeFreeze = false;
@@ -521,6 +580,9 @@ public class LevelController extends WorldController {
 		updateShader();
 		zoom = 3;
 		avatar.setHighestPos(avatar.getY());
+		if (snapshot == null) {
+			snapshot = new RoomSnapshot(objects, enemies);
+		}
 	}
 
 	public void resetGame() {
@@ -535,80 +597,34 @@ public class LevelController extends WorldController {
 		drawEndGame = false;
 		shiftripple = false;
 		drawFadeAlpha = 0;
-		stage.clear();
-		stage.getBatch().setColor(1,1,1,1);
-		stage.getBatch().setBlendFunction(GL20.GL_SRC_ALPHA,GL20.GL_ONE_MINUS_SRC_ALPHA);
 		canvas.getSpriteBatch().setColor(1,1,1,1);
 		canvas.setBlendState(GameCanvas.BlendState.NO_PREMULT);
 		numEnemies = 0;
 		paused = false;
 		prepause = false;
 
-		for (Obstacle obj : objects) {
-			if(obj.getBody().getUserData() instanceof Projectile){
-				obj.deactivatePhysics(world);
-				objects.remove(obj);
-			}
-		}
-
-		enemyController.reset();
+		// Enemies that come back must be filtered for the present
+		shifted = false;
+		scene.setShifted(shifted);
+		restoreRoom();
 
+		loadBackgrounds();
 		createUI();
 		if(isEndRoom){
 			closeWinLevel();
 		}
 
-
-
-		avatar.setEnemyContact(false);
-		avatar.setCatchReady(false);
-		avatar.setPosition(avatarStart);
-		avatar.setLives(3);
-		avatar.getBody().setLinearVelocity(0, 0);
-		avatar.setHolding(false);
-		avatar.setHeldBullet(null);
-		avatar.setAngle(0);
-		avatar.setBodyType(BodyDef.BodyType.DynamicBody);
 		avatar.setAnimationState(Avatar.AvatarState.FALLING);
-		avatar.setInSpikes(0);
 
-
-//		for (Obstacle obj : objects) {
-//			obj.deactivatePhysics(world);
-//		}
-//		objects.clear();
-//		addQueue.clear();
-//		world.dispose();
-
-		shifted = false;
-		for (Obstacle o: objects) {
-			if (o instanceof Platform) {
-				Platform p = (Platform) o;
-				if (p.getSpace() == 3){
-					p.shift(shifted);
-				}
-			} else if (o instanceof Spikes) {
-				Spikes p = (Spikes) o;
-				if (p.getSpace() == 3){
-					p.shift(shifted);
-				}
-			}
-		}
+		shiftBothEras();
 		ripple_intensity = 0.009f;
 		rippleSpeed = 0.25f;
 		rippleOn = false;
 		begincount = BEGIN_COUNT_OG;
 		updateShader();
-		// world = new World(gravity, false);
-		world.setContactListener(collisionController);
-		// world.setContactListener(this);
-
-//		levelFormat = jsonReader.parse(Gdx.files.internal(json_filepath));
 
-		rePopulateLevel();
 		timeFreeze = false;
 		enemyController.setPlayerVisible(false);
-//		populateLevel();
 		goalDoor.setOpen(false);
 		goalDoor.setAnimationState(Door.DoorState.LOCKED);
 		timeFreeze = false;
@@ -621,6 +637,54 @@ public class LevelController extends WorldController {
 		avatar.setHighestPos(avatar.getY());
 	}
 
+	/**
+	 * Puts the room back to how it was when it was first populated.
+	 *
+	 * The projectiles go back to the pool, and the moving bodies and the enemies
+	 * are restored from the snapshot, bringing back any enemy that was killed.
+	 * The avatar, the enemies and the enemy controller rewind their own state.
+	 * The static bodies are never touched, so this is linear in the number of
+	 * moving bodies and allocates nothing.  A killed enemy kept its body, which
+	 * is woken up again.
+	 */
+	protected void restoreRoom() {
+		Iterator<Obstacle> iterator = objects.iterator();
+		while (iterator.hasNext()) {
+			Obstacle obj = iterator.next();
+			if (obj instanceof Projectile) {
+				scene.remove(obj);
+				transforms.remove(obj);
+				releaseObject(obj);
+				iterator.remove();
+			}
+		}
+		for (int ii = 0; ii < addQueue.size(); ii++) {
+			releaseObject(addQueue.get(ii));
+		}
+		addQueue.clear();
+
+		// Keep the enemies in their original order
+		enemies.clear();
+		int firstEnemy = snapshot.size() - snapshot.getEnemyCount();
+		for (int ii = 0; ii < snapshot.size(); ii++) {
+			if (ii >= firstEnemy) {
+				Enemy enemy = (Enemy) snapshot.get(ii);
+				if (enemy.isRemoved()) {
+					addEnemy(enemy);
+				} else {
+					enemies.add(enemy);
+				}
+				enemy.rewind();
+				if (!enemy.isTurret()) {
+					numEnemies++;
+				}
+			}
+			snapshot.restore(ii);
+		}
+		avatar.rewind();
+		enemyController.rewind();
+		scene.markDirty();
+	}
 
 	protected void exitGame() {
 		listener.exitScreen(this, ScreenExitCodes.EXIT_QUIT.ordinal());
@@ -635,581 +699,145 @@ public class LevelController extends WorldController {
 	 * Lays out the game geography.
 	 */
 	protected void populateLevel() {
-		// tester stage!
-		skin = new Skin(Gdx.files.internal("jsons/uiskin.json"));
-		stage = new Stage(viewport);
-		stage.setViewport(hudViewport);
-		Gdx.input.setInputProcessor(stage);//BUGGY CHANGE?
-		table = new Table();
-		table.setWidth(stage.getWidth());
-		table.align(Align.center | Align.top);
-		table.setPosition(0, sh);
-
-
-		//initialize backgrounds
-		pastBackgroundTexture = JsonAssetManager.getInstance().getEntry(levelFormat.get("past_background").asString(),
+		loadBackgrounds();
+
+//		win_room = new TextureRegion(new Texture(Gdx.files.local("textures/background/blackscreen.png")));
+		createUI();
+		populateWorld(canvas.getWidth(), canvas.getHeight());
+	}
+
+	/**
+	 * Fetches the background textures of the room from the asset manager.
+	 *
+	 * The backgrounds are in the asset group of the level, which may have been
+	 * unloaded (and loaded again) since the room was last played.  So they must
+	 * be fetched on every reset, and not only when the room is populated.
+	 */
+	protected void loadBackgrounds() {
+		pastBackgroundTexture = JsonAssetManager.getInstance().getEntry(room.getPastBackground(),
 						TextureRegion.class);
-		presentBackgroundTexture = JsonAssetManager.getInstance().getEntry(levelFormat.get("present_background").asString(),
+		presentBackgroundTexture = JsonAssetManager.getInstance().getEntry(room.getPresentBackground(),
 				TextureRegion.class);
 		bgSprite = new Sprite(presentBackgroundTexture);
 
 		bgSprite.setRegion(presentBackgroundTexture,0,(int) (presentBackgroundTexture.getRegionHeight() * 0.9f),
 				presentBackgroundTexture.getRegionWidth(), presentBackgroundTexture.getRegionHeight()/3);
-
-//		win_room = new TextureRegion(new Texture(Gdx.files.local("textures/background/blackscreen.png")));
-		createUI();
-
-		// Initializes the world
-		float gravity = levelFormat.getFloat("gravity");
-		float[] pSize = levelFormat.get("bounds").asFloatArray();
-		world = new World(new Vector2(0, gravity), false);
-		bounds = new Rectangle(0, 0, pSize[0], pSize[1]);
-		scale.x = canvas.getWidth() / pSize[0];
-		scale.y = canvas.getHeight() / pSize[1];
-		// Add level goal
-		goalDoor = new Door();
-		goalDoor.initialize(levelFormat.get("door"));
-
-		goalDoor.setDrawScale(scale);
-		addObject(goalDoor);
-
-//		earthTile = JsonAssetManager.getInstance().getEntry("earth", TextureRegion.class);
-
-		float[] newPlatCapsule = {0.5f, 1.1f, 0.6f, 1.1f, 2.4f, 1.1f, 2.6f, 1.1f, 2.6f, 0.6f, 2.0f, 0.3f, 1.1f, 0.3f, 0.5f, 0.6f};
-		float[] newPlatDiamond = {0.4f, 1.8f, 0.5f, 1.8f, 2.0f, 1.8f, 2.2f, 1.8f, 1.4f, 0.1f};
-		float[] newPlatRounded = {0.4f, 1.4f, 0.7f, 1.7f, 0.8f, 1.7f, 2.1f, 1.7f, 2.2f, 1.7f, 2.4f, 1.4f, 2.3f, 0.8f, 1.7f, 0.3f, 1.1f, 0.3f};
-		float[] newSpikes = {0.3f, -0.6f, 0.0f, -0.2f, -0.6f, 0.0f, -0.5f, 0.4f, 0.0f, 0.6f, 0.4f, -0.2f, 0.6f, -0.3f};
-		float[] newPlatLongcapsule = {0.5f, 1.1f, 0.6f, 1.1f, 4.7f, 1.1f, 4.9f, 1.1f, 4.9f, 0.6f, 4.3f, 0.3f, 3.4f, 0.3f,
-				2.7f, 0.5f, 2.0f, 0.3f, 1.1f, 0.3f, 0.5f, 0.6f};
-		float[] newPlatTall = {0.4f, 3.9f, 0.5f, 3.9f, 1.6f, 3.9f, 1.7f, 3.9f, 1.1f, 0.5f};
-		float[] newPlatPillar = {1.2f, 4.0f, 1.3f, 4.0f, 2.0f, 4.0f, 2.1f, 4.0f, 2.1f, 1.0f, 1.2f, 1.0f};
-
-
-		JsonValue capsule = levelFormat.get("capsules").child();
-		while (capsule != null) {
-			Platform obj = new Platform(newPlatCapsule);
-			obj.initialize(capsule);
-			obj.setDrawScale(scale);
-			addObject(obj);
-			capsule = capsule.next();
-		}
-
-		JsonValue longcapsule = levelFormat.get("longcapsules").child();
-		while (longcapsule != null) {
-			Platform obj = new Platform(newPlatLongcapsule);
-			obj.initialize(longcapsule);
-			obj.setDrawScale(scale);
-			addObject(obj);
-			longcapsule = longcapsule.next();
-		}
-
-		JsonValue pillar = levelFormat.get("pillars").child();
-		while (pillar != null) {
-			Platform obj = new Platform(newPlatPillar);
-			obj.initialize(pillar);
-			obj.setDrawScale(scale);
-			addObject(obj);
-			pillar = pillar.next();
-		}
-
-		JsonValue tall = levelFormat.get("talls").child();
-		while (tall != null) {
-			Platform obj = new Platform(newPlatTall);
-			obj.initialize(tall);
-			obj.setDrawScale(scale);
-			addObject(obj);
-			tall = tall.next();
-		}
-		JsonValue diamond = levelFormat.get("diamonds").child();
-		while (diamond != null) {
-			Platform obj = new Platform(newPlatDiamond);
-			obj.initialize(diamond);
-			obj.setDrawScale(scale);
-			addObject(obj);
-			diamond = diamond.next();
-		}
-		JsonValue round = levelFormat.get("rounds").child();
-		while (round != null) {
-			Platform obj = new Platform(newPlatRounded);
-			obj.initialize(round);
-			obj.setDrawScale(scale);
-			addObject(obj);
-			round = round.next();
-		}
-		JsonValue spikes = levelFormat.get("spikes").child();
-		while (spikes != null) {
-			Spikes obj = new Spikes(newSpikes);
-			obj.initialize(spikes);
-			obj.setDrawScale(scale);
-			addObject(obj);
-			spikes = spikes.next();
-		}
-		// Create avatar
-		JsonValue json = levelFormat.get("avatar");
-		avatar = new Avatar();
-		avatar.setCanvas(camera);
-		avatar.setDrawScale(scale);
-		//avatar.setScale(scale);
-		avatar.initialize(json);
-		addObject(avatar);
-		float[] pos = json.get("pos").asFloatArray();
-		avatarStart = new Vector2(pos[0], pos[1]);
-
-		JsonValue enemy = levelFormat.get("enemies").child();
-		while (enemy != null) {
-			Enemy obj = new Enemy(avatar, enemy);
-			obj.setDrawScale(scale);
-			addEnemy(obj);
-			numEnemies++;
-			enemy = enemy.next();
-		}
-
-
-		JsonValue turret = levelFormat.get("turrets").child();
-		while (turret != null) {
-			Enemy obj = new Enemy(turret);
-			obj.setDrawScale(scale);
-			addEnemy(obj);
-			turret = turret.next();
-		}
-
-		collisionController = new CollisionController(this);
-		enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory);
-		world.setContactListener(collisionController);
 	}
 
-
 	/**
-	 * Lays out the game geography.
+	 * Creates the physics world and every object in it from the room records.
+	 *
+	 * This is the part of populateLevel() that does not touch the UI or the
+	 * background, and so it does not need a GL context.
+	 *
+	 * @param width		The width of the drawing area in pixels
+	 * @param height	The height of the drawing area in pixels
 	 */
-	private void rePopulateLevel() {
-
-		bgSprite = new Sprite(presentBackgroundTexture);
-		JsonValue enemy = levelFormat.get("enemies").child();
-		while (enemy != null) {
-			Enemy obj = new Enemy(avatar, enemy);
-			obj.setDrawScale(scale);
-			addEnemy(obj);
-			obj.setLinearVelocity(new Vector2(0,0));
-			numEnemies++;
-			enemy = enemy.next();
-		}
+	protected void populateWorld(float width, float height) {
+		// Initializes the world
+		world = new World(new Vector2(0, room.getGravity()), false);
+		projectilePool = new ProjectilePool();
+		bounds = new Rectangle(0, 0, room.getWidth(), room.getHeight());
+		scale.x = width / room.getWidth();
+		scale.y = height / room.getHeight();
 
+//		earthTile = JsonAssetManager.getInstance().getEntry("earth", TextureRegion.class);
 
-		JsonValue turret = levelFormat.get("turrets").child();
-		while (turret != null) {
-			Enemy obj = new Enemy(turret);
-			obj.setDrawScale(scale);
-			addEnemy(obj);
-			turret = turret.next();
+		// The records are in creation order: door, platforms, spikes, avatar, enemies, turrets
+		Array<RoomFile.Entity> entities = room.getEntities();
+		for (int ii = 0; ii < entities.size; ii++) {
+			RoomFile.Entity entity = entities.get(ii);
+			switch (entity.type) {
+			case RoomFile.DOOR:
+				// Add level goal
+				goalDoor = new Door();
+				goalDoor.initialize(entity);
+				goalDoor.setDrawScale(scale);
+				addObject(goalDoor);
+				break;
+			case RoomFile.PLATFORM:
+				Platform platform = new Platform(room.getTemplate(entity.shape));
+				platform.initialize(entity);
+				platform.setDrawScale(scale);
+				addObject(platform);
+				break;
+			case RoomFile.SPIKES:
+				Spikes spikes = new Spikes(room.getTemplate(entity.shape));
+				spikes.initialize(entity);
+				spikes.setDrawScale(scale);
+				addObject(spikes);
+				break;
+			case RoomFile.AVATAR:
+				// Create avatar
+				avatar = new Avatar();
+				avatar.setCanvas(camera);
+				avatar.setDrawScale(scale);
+				//avatar.setScale(scale);
+				avatar.initialize(entity);
+				addObject(avatar);
+				avatarStart = new Vector2(entity.x, entity.y);
+				break;
+			case RoomFile.ENEMY:
+				Enemy enemy = new Enemy(avatar, entity);
+				enemy.setDrawScale(scale);
+				addEnemy(enemy);
+				numEnemies++;
+				break;
+			case RoomFile.TURRET:
+				Enemy turret = new Enemy(entity);
+				turret.setDrawScale(scale);
+				addEnemy(turret);
+				break;
+			}
 		}
 
 		collisionController = new CollisionController(this);
-		enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory);
+		enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory, projectilePool);
 		world.setContactListener(collisionController);
 	}
 
+
 	/**
-	 * Creates all UI features for a room mode.
+	 * Binds this room to the HUD, making it the room acted on by the menus.
 	 *
+	 * The menus are shared by every room and only built once (see RoomHud), so
+	 * this only decides which end of room menu to show and takes the input.
 	 */
 	public void createUI() {
-
-		JsonAssetManager assetManager = JsonAssetManager.getInstance();
-
-		// table container to center main table
-		edgeContainer = new Container<Stack>();
-		edgeContainer.setSize(sw, sh);
-		edgeContainer.setPosition(0, 0);
-		edgeContainer.fillX();
-		edgeContainer.fillY();
-
-		tableStack = new Stack();
-
-		/*
-		 * START PAUSE SCREEN SETUP ---------------------
-		 */
-		TextureRegionDrawable pauseButtonResource = new TextureRegionDrawable(assetManager.getEntry("pause_button", TextureRegion.class));
-		overlayDark = assetManager.getEntry("25_black_overlay", TextureRegion.class);
-		overlayBG = new TextureRegionDrawable( assetManager.getEntry("85_black_overlay", TextureRegion.class));
-
-		TextureRegionDrawable resumeResource = new TextureRegionDrawable(assetManager.getEntry("resume_button", TextureRegion.class));
-		TextureRegionDrawable restartResource = new TextureRegionDrawable(assetManager.getEntry("restart_button", TextureRegion.class));
-		TextureRegionDrawable exitResource = new TextureRegionDrawable(assetManager.getEntry("pause_exit_button", TextureRegion.class));
-		TextureRegionDrawable volumeResource = new TextureRegionDrawable(assetManager.getEntry("settings_button", TextureRegion.class));
-
-		pauseButtonContainer = new Container<>();
-		pauseButtonContainer.setBackground(overlayBG);
-		pauseButtonContainer.setPosition(0, 0);
-		pauseButtonContainer.fillX();
-		pauseButtonContainer.fillY();
-
-		pauseTable = new Table();
-
-		Image timerImg = new Image(assetManager.getEntry("timer", TextureRegion.class));
-		Table pauseTimerTable = new Table();
-		pauseTimeLabel = new Label("0:00", style);
-		pauseTimeLabel.setAlignment(Align.left);
-		pauseTimeLabel.setWrap(true);
-		pauseTimeLabel.setWidth(20);
-		pauseTimerTable.add(timerImg).width(sw/35).height(sh/25).right().top().padRight(8f);
-		pauseTimerTable.add(pauseTimeLabel).width(sw/20).height(sh/25).right().top();
-		pauseTimerTable.align(Align.topRight);
-
-		Table helpTable = new Table();
-		Button helpButton = new Button(new TextureRegionDrawable(assetManager.getEntry("help_icon", TextureRegion.class)));
-		helpTable.add(helpButton).width(sw/25).height(sw/25).top().right().pad(10f);
-		helpTable.align(Align.topLeft);
-		helpButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				showHelpMenu();
-			}
-		});
-
-		helpContainer = new Container<>();
-		helpContainer.setBackground(overlayBG);
-		helpContainer.setPosition(0, 0);
-		helpContainer.fillX();
-		helpContainer.fillY();
-
-		TextureRegionDrawable exitInnerMenuButtonResource = new TextureRegionDrawable(assetManager.getEntry("select_backbutton", TextureRegion.class));
-
-		helpInfoTable = new Table();
-		helpInfoTable.setBackground(new TextureRegionDrawable(assetManager.getEntry("help_info_transparent", TextureRegion.class)));
-		Button exitHelpMenuButton = new Button(exitInnerMenuButtonResource);
-		exitHelpMenuButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				hideHelpMenu();
-			}
-		});
-		helpInfoTable.align(Align.bottomLeft);
-		helpInfoTable.add(exitHelpMenuButton).width(sw/12).height(sw/15).bottom().left();
-		helpContainer.setActor(helpInfoTable);
-		helpContainer.setVisible(false);
-
-
-		pauseTimerTable.row().pad(10f);
-		pauseTimerTable.add(timerImg).width(sw/35).height(sh/25).right().top().padRight(8f);
-		pauseTimerTable.add(pauseTimeLabel).width(sw/20).height(sh/25).right().top();
-		pauseTimerTable.align(Align.topRight);
-
-		Stack pauseStack = new Stack();
-		pauseStack.add(pauseTable);
-		pauseStack.add(pauseTimerTable);
-		pauseStack.add(helpTable);
-
-		pauseButtonContainer.setActor(pauseStack);
-		pauseButtonContainer.setVisible(false);
-
-		Button resumeButton = new Button(resumeResource);
-		resumeButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				unpauseGame();
-			}
-		});
-
-		Button restartButton = new Button(restartResource);
-		restartButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				unpauseGame();
-				resetGame();
-//				reset();
-			}
-		});
-
-		Button exitButton = new Button(exitResource);
-		exitButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				exitLevelSelect();
-			}
-		});
-
-		Button volumeButton = new Button(volumeResource);
-		volumeButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				showVolumeMenu();
-			}
-		});
-
-		pauseTable.add(resumeButton).width(sw / 4 / 1.5f).height(sh / 5.1f / 1.5f).center().expandX().padBottom(sh / 20);
-		pauseTable.row();
-		pauseTable.add(restartButton).width(sw / 4 / 1.5f).height(sh / 5.1f / 1.5f).center().expandX().padBottom(sh / 20);
-		pauseTable.row();
-		pauseTable.add(volumeButton).width(sw / 4 / 1.5f).height(sh / 5.1f / 1.5f).center().expandX().padBottom(sh / 20);
-		pauseTable.row();
-		pauseTable.add(exitButton).width(sw / 4 / 1.5f).height(sh / 5.1f / 1.5f).expandX();
-
-		tableStack.add(table);
-		tableStack.add(pauseButtonContainer);
-		/*
-		 * END PAUSE SCREEN SETUP---------------------
-		 */
-		/*
-		 * START VOLUME SCREEN SETUP ---------------------
-		 */
-		TextureRegionDrawable volumeButtonResource = new TextureRegionDrawable(assetManager.getEntry("settings_button", TextureRegion.class));
-
-		volumeContainer = new Container<>();
-		volumeContainer.setBackground(overlayBG);
-		volumeContainer.setPosition(0, 0);
-		volumeContainer.fillX();
-		volumeContainer.fillY();
-
-		volumeTable = new Table();
-		volumeContainer.setActor(volumeTable);
-		volumeContainer.setVisible(false);
-		float soundVolume = SoundController.getInstance().getVolume();
-		float musicVolume = MusicController.getInstance().getVolume();
-		soundEffectsSlider = new Slider(0.0f, 1.25f, .05f, false, skin);
-		soundEffectsSlider.setValue(soundVolume);
-		musicSlider = new Slider(0.0f, 1.25f, .05f, false, skin);
-		musicSlider.setValue(musicVolume);
-		Button exitVolumeMenuButton = new Button(exitInnerMenuButtonResource);
-		exitVolumeMenuButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				MusicController.getInstance().setVolume(musicSlider.getValue());
-				MusicController.getInstance().update(shifted);
-				SoundController.getInstance().setVolume(soundEffectsSlider.getValue());
-				super.clicked(event, x, y);
-				hideVolumeMenu();
-			}
-		});
-		BitmapFont fontSlider = new BitmapFont(Gdx.files.internal("fonts/carterone.fnt"));
-		Label.LabelStyle carterStyleSlider = new Label.LabelStyle(fontSlider, Color.WHITE);
-		BitmapFont fontTitle = new BitmapFont(Gdx.files.internal("fonts/carterone.fnt"));
-		Label.LabelStyle carterStyleTitle= new Label.LabelStyle(fontTitle, Color.WHITE);
-		Label volumeTitle = new Label("Volume", carterStyleTitle);
-		fontSlider.getData().setScale(.7f);
-		fontTitle.getData().setScale(1.5f);
-		Label soundEffectsLabel = new Label("Sound Effects: ", carterStyleSlider);
-		Label musicLabel = new Label("Music: ", carterStyleSlider);
-		Label soundEffectsPlusLabel = new Label("+", carterStyleSlider);
-		Label soundEffectsMinusLabel = new Label("-", carterStyleSlider);
-		Label musicPlusLabel = new Label("+", carterStyleSlider);
-		Label musicMinusLabel = new Label("-", carterStyleSlider);
-//		volumeTable.debug();
-		volumeTable.add(soundEffectsLabel).colspan(sw/4).left().padBottom(sh / 10).padLeft(sw/8).padTop(sh/4).expandX();
-		volumeTable.add(soundEffectsMinusLabel).colspan(sw/8).padBottom(sh/10).right().padRight(4).padTop(sh/4).expandX();
-		volumeTable.add(soundEffectsSlider).colspan(2 * sw / 4).padBottom(sh / 10).right().fillX().padTop(sh/4).expandX();
-		volumeTable.add(soundEffectsPlusLabel).colspan(sw/8).padBottom(sh / 10).padLeft(4).left().expandX().padTop(sh/4).padLeft(2).padRight(sw/8).row();
-		volumeTable.add(musicLabel).colspan(sw/4).left().padBottom(sh / 10).padLeft(sw/8).expandX();
-		volumeTable.add(musicMinusLabel).colspan(sw/8).padBottom(sh/10).padRight(4).right().expandX();
-		volumeTable.add(musicSlider).left().colspan(2 * sw / 4).fillX().padBottom(sh / 10).expandX();
-		volumeTable.add(musicPlusLabel).colspan(sw/8).padBottom(sh / 10).left().padLeft(4).expandX().padLeft(2).padRight(sw/8).row();
-		volumeTable.add(exitVolumeMenuButton).width(sw / 8 / 1.5f).height(sh / 5.1f / .9f /2).colspan(sw).expand().bottom().left();
-
-		tableStack.add(volumeContainer);
-
-		tableStack.add(helpContainer);
-		/*
-		 * END VOLUME SCREEN SETUP---------------------
-		 */
-		/* START END-GAME SCREEN CREATION */
-		isEndRoom = false;
-		if(GameStateManager.getInstance().lastRoom()){
-			isEndRoom = true;
-			createEndlevelUI(tableStack);
-		}
-		isRoom10 = false;
 		levelNum = GameStateManager.getInstance().getCurrentLevel().getLevelNumber();
 		roomNum = GameStateManager.getInstance().getCurrentLevel().getCurrentRoomNumber();
-		if(levelNum != 3  && levelNum != 0 && roomNum == 10){
-			isRoom10 = true;
-			createRoom10UI(tableStack);
-		}
-
-		edgeContainer.setActor(tableStack);
-		stage.addActor(edgeContainer);
-//		stage.addAction(Actions.sequence(Actions.alpha(1f), Actions.fadeIn(0.5f)));
-
+		isEndRoom = GameStateManager.getInstance().lastRoom();
+		isRoom10 = levelNum != 3  && levelNum != 0 && roomNum == 10;
+
+		RoomHud.Overlay overlay = RoomHud.Overlay.NONE;
+		if (isRoom10) {
+			overlay = RoomHud.Overlay.ROOM_10;
+		} else if (isEndRoom) {
+			overlay = RoomHud.Overlay.END_LEVEL;
+		}
+		hud.bind(this, overlay);
+		stage = hud.getStage();
+		overlayDark = hud.getOverlayDark();
+		edgeContainer = hud.getEdgeContainer();
+		tableStack = hud.getTableStack();
 	}
 
-	public void createEndlevelUI(Stack tableStack){
-		JsonAssetManager assetManager = JsonAssetManager.getInstance();
-
-		endlevelContainer = new Container<>();
-		endlevelContainer.setBackground(overlayBG);
-		endlevelContainer.setPosition(0, 0);
-		endlevelContainer.fillX();
-		endlevelContainer.fillY();
-
-		endlevelTable = new Table();
-		endlevelContainer.setActor(endlevelTable);
-		endlevelContainer.setVisible(false);
-
-		wonLevelBannerTable = new Table();
-
-		Table timerTable = new Table();
-		//back button
-		String winpath = "level_" + GameStateManager.getInstance().getCurrentLevel().getLevelNumber() + "_win";
-		TextureRegionDrawable timerText = new TextureRegionDrawable(assetManager.getEntry(winpath, TextureRegion.class));
-		Image timerTextImg = new Image(timerText);
-		timerTable.setBackground(timerText);
-
-
-		TextureRegionDrawable levelsResource = new TextureRegionDrawable(assetManager.getEntry("win_levels_button", TextureRegion.class));
-		TextureRegionDrawable nextResource = new TextureRegionDrawable(assetManager.getEntry("win_next_button", TextureRegion.class));
-		TextureRegionDrawable replayResource = new TextureRegionDrawable(assetManager.getEntry("win_replay_button", TextureRegion.class));
-
-		youWonImg = new TextureRegionDrawable(assetManager.getEntry("you_win", TextureRegion.class));
-		newRecordImg = new TextureRegionDrawable(assetManager.getEntry("new_record", TextureRegion.class));
-		wonLevelBannerTable.setBackground(youWonImg);
-
-		Button levelButton = new Button(levelsResource);
-		levelButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				GameStateManager.getInstance().stepGame(false);
-				exitLevelSelect();
-			}
-		});
-
-		Button nextButton = new Button(nextResource);
-		nextButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				GameStateManager.getInstance().stepGame(true);
-				exitNextRoom();
-			}
-		});
-
-		Button replayButton = new Button(replayResource);
-		replayButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				GameStateManager.getInstance().stepGame(false);
-				int lv = GameStateManager.getInstance().getCurrentLevelIndex();
-				GameStateManager.getInstance().setCurrentLevel(lv, 0);
-				exitNextRoom();
-////				reset();
-//				unpauseGame();
-//				resetGame();
-			}
-		});
-
-		timerLabel = new Label("0:00", style);
-		timerLabel.setAlignment(Align.left);
-		timerLabel.setWrap(true);
-		timerLabel.setWidth(20);
-
-		float width_mult = 0.4f;
-		float height_mult = 0.8f;
-		endlevelTable.add(wonLevelBannerTable).width(sw/4).height(sh/7).center().expandX().padBottom(sh/30).colspan(2);
-		endlevelTable.row().padBottom(10f);
-		endlevelTable.add(timerTable).width(sw/4).height(sh/18).right();
-		endlevelTable.add(timerLabel).width(sw/20).height(sh/18).left().padLeft(10f);
-		endlevelTable.row().colspan(2);;
-		endlevelTable.add(levelButton).width(sw / 2.66f * width_mult).height(sh / 6.2f * height_mult).center().expandX();
-		endlevelTable.row().colspan(2);;
-		endlevelTable.add(replayButton).width(sw / 2.66f * width_mult).height(sh / 6 * height_mult).center().expandX();
-		endlevelTable.row().colspan(2);;
-		endlevelTable.add(nextButton).width(sw / 2.66f * width_mult).height(sh / 6 * height_mult).expandX();
-		tableStack.add(endlevelContainer);
-	}
-
-	public void createRoom10UI(Stack tableStack){
-		JsonAssetManager assetManager = JsonAssetManager.getInstance();
-
-		endlevelContainer = new Container<>();
-		endlevelContainer.setBackground(overlayBG);
-		endlevelContainer.setPosition(0, 0);
-		endlevelContainer.fillX();
-		endlevelContainer.fillY();
-
-		endlevelTable = new Table();
-		endlevelContainer.setActor(endlevelTable);
-		endlevelContainer.setVisible(false);
-
-		Table overlayPageHeader = new Table();
-		//back button
-		TextureRegionDrawable headerimg = new TextureRegionDrawable(JsonAssetManager.getInstance().getEntry("lv10_unlock_message", TextureRegion.class));
-		Image header = new Image(headerimg);
-		overlayPageHeader.add(header).expand().center();
-		overlayPageHeader.align(Align.center);
-
-		TextureRegionDrawable continuelevel = new TextureRegionDrawable(assetManager.getEntry("lv10_continue_button", TextureRegion.class));
-		TextureRegionDrawable nextlevel = new TextureRegionDrawable(assetManager.getEntry("lv10_next_button", TextureRegion.class));
-
-		Button continueButton = new Button(continuelevel);
-		continueButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				GameStateManager.getInstance().stepGame(true);
-				exitNextRoom();
-
-			}
-		});
-
-		Button nextLevelButton = new Button(nextlevel);
-		nextLevelButton.addListener(new ClickListener() {
-			@Override
-			public void clicked(InputEvent event, float x, float y) {
-				super.clicked(event, x, y);
-				GameStateManager.getInstance().stepGame(false);
-				exitNextLevel();
-			}
-		});
-
-
-
-
-		float width_mult = 0.4f;
-		float height_mult = 0.8f;
-		endlevelTable.add(overlayPageHeader).width(sw/1.5f).height(sh/8.5f).center().colspan(2).padBottom(30);
-		endlevelTable.row();
-		endlevelTable.add(continueButton).width(sw/5).height(sh / 6 * height_mult).center();
-		endlevelTable.add(nextLevelButton).width(sw/5).height(sh / 6 * height_mult).center();
-		endlevelTable.setVisible(false);
-		endlevelContainer.setVisible(false);
-		tableStack.add(endlevelContainer);
-	}
 	public void pauseGame() {
 		paused = true;
 		// table.setVisible(false);
-		pauseTimeLabel.setText(getFormattedTime(roomTimer));
-		pauseButtonContainer.setVisible(true);
-		pauseTable.setVisible(true);
+		hud.showPause(getFormattedTime(roomTimer));
 	}
 	public void showVolumeMenu(){
-		pauseButtonContainer.setVisible(false);
-		pauseTable.setVisible(false);
-		volumeContainer.setVisible(true);
-		volumeTable.setVisible(true);
+		hud.showVolumeMenu();
 	}
 	public void showHelpMenu(){
-		pauseButtonContainer.setVisible(false);
-		pauseTable.setVisible(false);
-		helpContainer.setVisible(true);
-		helpInfoTable.setVisible(true);
+		hud.showHelpMenu();
 	}
 	public void hideHelpMenu(){
-		pauseButtonContainer.setVisible(true);
-		pauseTable.setVisible(true);
-		helpContainer.setVisible(false);
-		helpInfoTable.setVisible(false);
+		hud.hideHelpMenu();
 	}
 	public void hideVolumeMenu(){
-		pauseButtonContainer.setVisible(true);
-		pauseTable.setVisible(true);
-		volumeContainer.setVisible(false);
-		volumeTable.setVisible(false);
+		hud.hideVolumeMenu();
 	}
 	public String getFormattedTime(float time){
 		int minutes = (int) (time / 60);
@@ -1223,47 +851,37 @@ public class LevelController extends WorldController {
 	}
 	public void showWinLevel() {
 		paused = true;
-		stage.getBatch().setColor(1f,1f,1f,1f);
-		stage.getBatch().setBlendFunction(GL20.GL_SRC_ALPHA,GL20.GL_ONE_MINUS_SRC_ALPHA);
-		stage.addAction(Actions.alpha(1));
 		LevelModel curLevel = GameStateManager.getInstance().getCurrentLevel();
+		boolean record = false;
 		if(curLevel.getBestLevelTime() > curLevel.sumTimer(roomNum) + roomTimer){
-			wonLevelBannerTable.setBackground(newRecordImg);
+			record = true;
 			float [] times = curLevel.getBestTime();
 			times[roomNum] = roomTimer;
 			GameStateManager.getInstance().getCurrentLevel().setBestTime(times);
 		}
 
-		timerLabel.setText(getFormattedTime(curLevel.sumTimer(roomNum) + roomTimer));
-		endlevelContainer.setVisible(true);
-		endlevelTable.setVisible(true);
+		hud.showOverlay(getFormattedTime(curLevel.sumTimer(roomNum) + roomTimer), record);
 	}
 	public void showRoom10(){
 		paused = true;
 		resetRipple();
 		updateShader();
-		stage.getBatch().setColor(1f,1f,1f,1f);
-		stage.getBatch().setBlendFunction(GL20.GL_SRC_ALPHA,GL20.GL_ONE_MINUS_SRC_ALPHA);
-		stage.addAction(Actions.alpha(1));
-		endlevelContainer.setVisible(true);
-		endlevelTable.setVisible(true);
+		hud.showOverlay(null, false);
 	}
 	public void closeWinLevel() {
 		paused = false;
 		canvas.getSpriteBatch().setColor(1f,1f,1f,1f);
-		endlevelContainer.setVisible(false);
-		endlevelTable.setVisible(false);
+		hud.hideOverlay();
 	}
 
 	public void unpauseGame() {
 		paused = false;
 		begincount = BEGIN_COUNT_OG;
-		pauseButtonContainer.setVisible(false);
-		pauseTable.setVisible(false);
+		hud.hidePause();
 
 	}
 
-	public PooledList<Obstacle> getObjects() {
+	public DenseList<Obstacle> getObjects() {
 		return objects;
 	}
 
@@ -1282,15 +900,6 @@ public class LevelController extends WorldController {
 	 * @return whether to process the update loop
 	 */
 	public boolean preUpdate(float dt) {
-
-
-		//set values relative to FPS
-		if(BEGIN_COUNT_OG == 0){
-			BEGIN_COUNT_OG = Gdx.graphics.getFramesPerSecond()/2;
-			begincount = BEGIN_COUNT_OG;
-			resetRipple();
-		}
-
 		if (paused || prepause) {
 			return false;
 		}
@@ -1323,12 +932,10 @@ public class LevelController extends WorldController {
 			if (avatar.getLives() > 0 ) {
 				if (shifted) {
 					shifted = false;
-					for (Obstacle o: objects) {
-						if (o instanceof Platform) {
-							Platform p = (Platform) o;
-							if (p.getSpace() == 3){
-								p.shift(shifted);
-							}
+					scene.setShifted(shifted);
+					for (Obstacle o: scene.getKind(SceneRegistry.Kind.PLATFORM)) {
+						if (o.getSpace() == 3){
+							((Platform) o).shift(shifted);
 						}
 					}
 					enemyController.shift();
@@ -1336,7 +943,7 @@ public class LevelController extends WorldController {
 				avatar.setEnemyContact(false);
 				avatar.setCatchReady(false);
 				avatar.setPosition(avatarStart);
-				avatar.getBody().setLinearVelocity(0, 0);
+				avatar.setLinearVelocity(Vector2.Zero);
 				avatar.setHolding(false);
 				avatar.setHeldBullet(null);
 				avatar.setBodyType(BodyDef.BodyType.DynamicBody);
@@ -1356,13 +963,6 @@ public class LevelController extends WorldController {
 			return false;
 		}
 
-		if (begincount > 0) {
-			begincount--;
-			if(begincount == 0){
-				inputReady = true;
-			}
-		}
-
 		if(failed && countdown==0){
 			resetGame();
 //			reset();
@@ -1384,9 +984,7 @@ public class LevelController extends WorldController {
 //			complete = true;
 //		}
 
-		if (countdown > 0) {
-			countdown--;
-		} else if (countdown == 0 && complete) {
+		if (countdown == 0 && complete) {
 				inputReady = false;
 				if(GameStateManager.getInstance().lastRoom()){
 					showWinLevel();
@@ -1409,33 +1007,46 @@ public class LevelController extends WorldController {
 	/**
 	 * Makes the object sleep if it is not in this world
 	 *
+	 * The eras are kept apart by collision filtering (see EraFilter), so a time
+	 * shift only has to change the mask of the avatar.  The bodies are only
+	 * touched when the scene is dirty: after a time shift, or when an object was
+	 * added or restored.
 	 */
 	public void sleepIfNotInWorld() {
+		if (!scene.isDirty()) {
+			return;
+		}
 		enemyController.sleepIfNotInWorld();
+		EraFilter.apply(avatar, shifted);
+		for (Obstacle obj : scene.getDynamic()) {
+			sleepIfNotInWorld(obj);
+		}
+		scene.clean();
+	}
 
-		for (Obstacle obj : objects) {
-
-			if (obj instanceof Enemy && ((Enemy) obj).isTurret()) {
-				if (obj.getSpace() == 3) {
-					obj.setSensor(false);
-				} else if (!shifted && (obj.getSpace() == 2)) {
-					obj.setSensor(true);
-				} else if (shifted && (obj.getSpace() == 1)) {
-					obj.setSensor(true);
-				}
+	/**
+	 * Makes every fixture of a single moving object solid
+	 *
+	 * Projectiles are always sensors and are left alone; the door is always a sensor.
+	 *
+	 * @param obj The object to update
+	 */
+	private void sleepIfNotInWorld(Obstacle obj) {
+		if (obj instanceof Projectile || obj instanceof Door) {
+			return;
+		}
+		obj.setSensor(false);
+	}
 
-			} else if (!(obj instanceof Projectile)) {
-				obj.setSensor(false);
-				if (obj.getSpace() == 3) {
-					obj.setSensor(false);
-				} else if (!shifted && (obj.getSpace() == 2)) {
-					obj.setSensor(true);
-				} else if (shifted && (obj.getSpace() == 1)) {
-					obj.setSensor(true);
-				}
-			}
-			if (obj instanceof Door){
-				obj.setSensor(true);
+	/**
+	 * Swaps the textures of the platforms and spikes that exist in both eras
+	 */
+	private void shiftBothEras() {
+		for (Obstacle o : scene.getEra(SceneRegistry.BOTH)) {
+			if (o instanceof Platform) {
+				((Platform) o).shift(shifted);
+			} else if (o instanceof Spikes) {
+				((Spikes) o).shift(shifted);
 			}
 		}
 	}
@@ -1496,19 +1107,10 @@ public class LevelController extends WorldController {
 
 		MusicController.getInstance().update(shifted);
 
-		if (avatar.getShifted() > 0) {
-			avatar.setShifted(avatar.getShifted() - 1);
-		}
-
-		float delta = 0.0166f;
-		if(Gdx.graphics.getFramesPerSecond() < 40){
-			delta = 0.033f;
-		}
-//		float delta = Math.min(1.0f/Gdx.graphics.getFramesPerSecond(), .017f);
-		// test slow down time
+		// Slow down time by running the accumulator at a quarter speed
 		if (timeFreeze) {
-			world.step(delta / 4, WORLD_VELOC, WORLD_POSIT);
 			enemyController.slowCoolDown(true);
+			stepWorld(dt, TIME_FREEZE_SCALE);
 			for (Obstacle ob : objects){
 				if (ob instanceof Projectile){
 					Projectile p = (Projectile) ob;
@@ -1516,8 +1118,8 @@ public class LevelController extends WorldController {
 				}
 			}
 		} else {
-			world.step(delta, WORLD_VELOC, WORLD_POSIT);
 			enemyController.slowCoolDown(false);
+			stepWorld(dt, 1.0f);
 			for (Obstacle ob : objects){
 				if (ob instanceof Projectile){
 					Projectile p = (Projectile) ob;
@@ -1525,7 +1127,8 @@ public class LevelController extends WorldController {
 				}
 			}
 		}
-		avatar.decImmortality(60f/Gdx.graphics.getFramesPerSecond());
+		// Handle the contacts from the physics steps, now that the world is unlocked
+		collisionController.processEvents();
 		int t = avatar.getStartedDashing();
 		if (t > 0) {
 			t = t - 1;
@@ -1603,7 +1206,7 @@ public class LevelController extends WorldController {
 					avatar.setDashDistance(Math.min(avatar.getDashRange(), mousePos.cpy().sub(avatar.getPosition()).len()));
 					avatar.setDashForceDirection(mousePos.cpy().sub(avatar.getPosition()));
 					//avatar.setStartedDashing(180/Gdx.graphics.getFramesPerSecond());
-					avatar.setDashCounter(Gdx.graphics.getFramesPerSecond()/15);
+					avatar.setDashCounter(4);
 					if (Math.abs(mousePos.cpy().sub(avatar.getPosition()).angleRad() + Math.PI / 2 - avatar.getAngle()) > Math.PI / 2.5f) {
 						avatar.setDimension(avatar.width / 4f, avatar.height / 4f);
 						avatar.setDensity(avatar.getDensity() * 16f);
@@ -1630,20 +1233,9 @@ public class LevelController extends WorldController {
 				avatar.resetDashNum(-1);
 			}
 			shifted = !shifted;
-			for (Obstacle o: objects) {
-				if (o instanceof Platform) {
-					Platform p = (Platform) o;
-					if (p.getSpace() == 3){
-						p.shift(shifted);
-					}
-				} else if (o instanceof Spikes){
-					Spikes s = (Spikes) o;
-					if (s.getSpace() == 3){
-						s.shift(shifted);
-					}
-				}
-			}
-			avatar.setShifted(8 * Gdx.graphics.getFramesPerSecond() / 60);
+			scene.setShifted(shifted);
+			shiftBothEras();
+			avatar.setShifted(8);
 			if (shifted) {
 				JsonValue ripple = assetDirectory.get("sounds").get("ripple_to_past");
 				SoundController.getInstance().play(ripple.get("file").asString(), ripple.get("file").asString(), false, EFFECT_VOLUME * 2);
@@ -1691,6 +1283,59 @@ public class LevelController extends WorldController {
 
 		// prototype: Dash
 
+		// Process actions in object model
+		avatar.setJumping(InputController.getInstance().didPrimary());
+		avatar.setShooting(InputController.getInstance().didSecondary());
+
+		// Sets which direction the avatar is facing (left or right)
+		if (inputReady && input.pressedLeftMouseButton()) {
+			cursor = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
+			cursor = viewport.getCamera().unproject(cursor);
+			cursor.scl(1/scale.x, 1/scale.y,0);
+			Vector2 mousePos = new Vector2(cursor.x , cursor.y );
+			Vector2 avatarPos = avatar.getPosition().cpy();
+			avatar.setMovement(mousePos.x - avatarPos.x);
+		}
+
+		/*
+		 * if (avatar.isJumping()) { JsonValue data =
+		 * assetDirectory.get("sounds").get("jump");
+		 * SoundController.getInstance().play("jump", data.get("file").asString(),
+		 * false, data.get("volume").asFloat()); }
+		 */
+
+		// If we use sound, we must remember this.
+		SoundController.getInstance().update();
+
+		// Print location of the mouse position when 'X' key is pressed
+		// so we can know where to spawn enemies for testing purposes.
+//		printCoordinates();
+	}
+
+	/**
+	 * Advances the game logic by one fixed step.
+	 *
+	 * The counters, animations and forces of the avatar and the enemies live
+	 * here, so that they run at the same speed at any frame rate.  This runs
+	 * just before each physics step, after the input of the frame was read.
+	 */
+	@Override
+	protected void fixedUpdate() {
+		if (begincount > 0) {
+			begincount--;
+			if(begincount == 0){
+				inputReady = true;
+			}
+		}
+		if (countdown > 0) {
+			countdown--;
+		}
+
+		if (avatar.getShifted() > 0) {
+			avatar.setShifted(avatar.getShifted() - 1);
+		}
+		avatar.decImmortality(1);
+		avatar.tick();
 
 		if (rippleOn) {
 
@@ -1704,23 +1349,10 @@ public class LevelController extends WorldController {
 			}
 			m_rippleDistance += rippleSpeed * ticks;
 			m_rippleRange = (1 - m_rippleDistance / maxRippleDistance) * ripple_intensity;
-	}
-
-		// Process actions in object model
-		avatar.setJumping(InputController.getInstance().didPrimary());
-		avatar.setShooting(InputController.getInstance().didSecondary());
-
-		// Sets which direction the avatar is facing (left or right)
-		if (inputReady && input.pressedLeftMouseButton()) {
-			cursor = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
-			cursor = viewport.getCamera().unproject(cursor);
-			cursor.scl(1/scale.x, 1/scale.y,0);
-			Vector2 mousePos = new Vector2(cursor.x , cursor.y );
-			Vector2 avatarPos = avatar.getPosition().cpy();
-			avatar.setMovement(mousePos.x - avatarPos.x);
 		}
 
 		enemyController.processAction();
+		enemyController.animateEnemies();
 
 		avatar.applyForce();
 
@@ -1748,21 +1380,8 @@ public class LevelController extends WorldController {
 			avatar.setAnimationState(Avatar.AvatarState.FALLING);
 		}
 
-		/*
-		 * if (avatar.isJumping()) { JsonValue data =
-		 * assetDirectory.get("sounds").get("jump");
-		 * SoundController.getInstance().play("jump", data.get("file").asString(),
-		 * false, data.get("volume").asFloat()); }
-		 */
-
-		// If we use sound, we must remember this.
-		SoundController.getInstance().update();
-
-		// Print location of the mouse position when 'X' key is pressed
-		// so we can know where to spawn enemies for testing purposes.
-//		printCoordinates();
-
-		if (inputReady && !avatar.isHolding() && !avatar.isDashing() && !avatar.isSticking() && input.pressedXKey()){
+		if (inputReady && !avatar.isHolding() && !avatar.isDashing() && !avatar.isSticking()
+				&& InputController.getInstance().pressedXKey()){
 			avatar.setSlowing(-1);
 			avatar.setVX(avatar.getVX() * 0.9f);
 		} else {
@@ -1777,9 +1396,9 @@ public class LevelController extends WorldController {
 		m_rippleDistance = 0;
 		m_rippleRange = 0;
 		ripple_intensity = 0.009f;
-		rippleSpeed =  60 * (0.25f / Gdx.graphics.getFramesPerSecond());
+		rippleSpeed = 0.25f;
 		maxRippleDistance = 2f;
-		ripple_reset =  ((float) Gdx.graphics.getFramesPerSecond() / 60f) * (((float)sw) * 0.00025f);
+		ripple_reset = sw * 0.00025f;
 	}
 	/**
 	 *
@@ -1809,14 +1428,31 @@ public class LevelController extends WorldController {
 
 		if (avatar.isSticking() && !avatar.getWasSticking()) {
 			avatar.setDashing(false);
-			avatar.getBody().setLinearVelocity(0, 0);
-			avatar.getBody().setAngularVelocity(0);
+			avatar.setLinearVelocity(Vector2.Zero);
+			avatar.setAngularVelocity(0);
 			avatar.setBodyType(BodyDef.BodyType.StaticBody);
 			avatar.setWasSticking(true);
 			avatar.setAngle(avatar.getNewAngle());
 		}
 	}
 
+	/**
+	 * Removes a garbage collected object, returning projectiles to the pool.
+	 *
+	 * The bullet held by the avatar is not recycled, as it is still read when the
+	 * avatar throws it back.
+	 *
+	 * @param obj The object to remove
+	 */
+	@Override
+	protected void releaseObject(Obstacle obj) {
+		if (obj instanceof Projectile && obj != avatar.getHeldBullet()) {
+			projectilePool.free((Projectile) obj);
+		} else {
+			super.releaseObject(obj);
+		}
+	}
+
 	/**
 	 * Add a new bullet to the world and send it in the right direction.
 	 */
@@ -1833,7 +1469,7 @@ public class LevelController extends WorldController {
 		Vector2 projVel = redirection.cpy().scl(20);
 		EntityType projType = avatar.getHeldBullet().getType();
 
-		Projectile bullet = new Projectile(projType, x0, y0, radius, avatar.getBody().getUserData());
+		Projectile bullet = projectilePool.obtain(projType, x0, y0, radius, avatar.getBody().getUserData());
 		bullet.setName("bullet");
 		bullet.setDensity(HEAVY_DENSITY);
 		bullet.setDrawScale(scale);
@@ -1871,22 +1507,75 @@ public class LevelController extends WorldController {
 		}
 	}
 
+	/**
+	 * Returns true if an object is drawn as part of the baked stage mesh
+	 *
+	 * These are the platforms and spikes, which never move once the level has
+	 * been populated.
+	 *
+	 * @param obj The object to check
+	 *
+	 * @return true if an object is drawn as part of the baked stage mesh
+	 */
+	private boolean isBaked(Obstacle obj) {
+		SceneRegistry.Kind kind = obj.getKind();
+		return (kind == SceneRegistry.Kind.PLATFORM || kind == SceneRegistry.Kind.SPIKES) &&
+			   obj.getBodyType() == BodyDef.BodyType.StaticBody;
+	}
+
+	/**
+	 * Returns the baked platforms and spikes of the active era
+	 *
+	 * The mesh of an era is baked the first time the era is drawn after the static
+	 * objects change, with the textures that the objects in both eras have in it.
+	 * A time shift just switches which mesh is drawn.
+	 *
+	 * @return the baked platforms and spikes of the active era
+	 */
+	protected StaticMesh getStageMesh() {
+		int era = scene.isShifted() ? SceneRegistry.PAST : SceneRegistry.PRESENT;
+		StaticMesh mesh = stageMeshes[era];
+		if (stageRevisions[era] != scene.getStaticRevision()) {
+			canvas.beginBake(mesh);
+			for (Obstacle obj : scene.getActive()) {
+				if (isBaked(obj)) {
+					obj.draw(canvas);
+				}
+			}
+			canvas.endBake();
+			stageRevisions[era] = scene.getStaticRevision();
+		}
+		return mesh;
+	}
+
 	/**
 	 * Draws an object if it is in this world
 	 *
+	 * Each kind of object is drawn in its own layer, so that the order survives
+	 * the sorting of a deferred canvas.  The platforms and spikes are drawn all at
+	 * once, from the baked mesh of the era.  Other objects outside of the camera
+	 * view are skipped.
 	 */
 	public void drawObjectInWorld() {
-		for (Obstacle obj : objects) {
-			if (obj.getSpace() == 3) {
-				obj.draw(canvas);
-			} else if (shifted && (obj.getSpace() == 2)) { // past world
-				obj.draw(canvas);
-			} else if (!shifted && (obj.getSpace() == 1)) { // present world
-				obj.draw(canvas);
+		culler.setView(camera, scale);
+		canvas.setLayer(LAYER_STAGE);
+		canvas.draw(getStageMesh());
+		for (Obstacle obj : scene.getActive()) {
+			if (isBaked(obj) || !culler.isVisible(obj)) {
+				continue;
+			}
+			if (obj instanceof Avatar) {
+				canvas.setLayer(LAYER_AVATAR);
+			} else if (obj instanceof Projectile) {
+				canvas.setLayer(LAYER_PROJECTILES);
+			} else {
+				canvas.setLayer(LAYER_STAGE);
 			}
+			obj.draw(canvas);
 		}
 
-		enemyController.drawEnemiesInWorld();
+		canvas.setLayer(LAYER_ENEMIES);
+		enemyController.drawEnemiesInWorld(culler);
 	}
 
 	@Override
@@ -1913,6 +1602,7 @@ public class LevelController extends WorldController {
 
 		if (!avatar.canDash() && !avatar.isSticking() && !avatar.isHolding())
 			return;
+		canvas.setLayer(LAYER_INDICATORS);
 		// Draw dynamic dash indicator
 		cursor = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
 		cursor = viewport.getCamera().unproject(cursor);
@@ -1929,13 +1619,13 @@ public class LevelController extends WorldController {
 		if (!avatar.isHolding()) {
 			if (InputController.getInstance().pressedLeftMouseButton()) {
 				canvas.draw(circle, Color.WHITE, circle.getRegionWidth() / 2, circle.getRegionHeight() / 2,
-						avatar.getX() * scale.x, avatar.getY() * scale.y, redirection.angle() / 57, 0.0095f * scale.x * dist * 1.5f,
+						avatar.getDrawX() * scale.x, avatar.getDrawY() * scale.y, redirection.angle() / 57, 0.0095f * scale.x * dist * 1.5f,
 						0.0095f * scale.y * dist * 1.5f);
-				canvas.draw(arrow, Color.WHITE, 0, arrow.getRegionHeight() / 2, avatar.getX() * scale.x, avatar.getY() * scale.y,
+				canvas.draw(arrow, Color.WHITE, 0, arrow.getRegionHeight() / 2, avatar.getDrawX() * scale.x, avatar.getDrawY() * scale.y,
 						(180 + redirection.angle()) / 57, 0.0075f * scale.x * dist * 1.5f, 0.0075f * scale.y * dist * 1.5f);
 			}
 		} else {
-			canvas.draw(arrow, Color.WHITE, 0, arrow.getRegionHeight() / 2, avatar.getX() * scale.x, avatar.getY() * scale.y,
+			canvas.draw(arrow, Color.WHITE, 0, arrow.getRegionHeight() / 2, avatar.getDrawX() * scale.x, avatar.getDrawY() * scale.y,
 					(180 + redirection.angle()) / 57, 0.0075f * scale.x * avatar.getDashRange()* 1.5f,
 					0.0075f * scale.y * avatar.getDashRange()* 1.5f);
 		}
@@ -1950,10 +1640,10 @@ public class LevelController extends WorldController {
 		float [] longscale = {originalscale[0]*2,originalscale[1]*2};
 		if (avatar.isHolding()) {
 			canvas.draw(projCircle, Color.GOLD, projCircle.getRegionWidth() / 2, projCircle.getRegionHeight() / 2,
-					avatar.getX() * scale.x, avatar.getY() * scale.y, redirection.angle() / 57, 0.0073f * scale.x* 1.5f,
+					avatar.getDrawX() * scale.x, avatar.getDrawY() * scale.y, redirection.angle() / 57, 0.0073f * scale.x* 1.5f,
 					0.0073f * scale.y* 1.5f);
-			canvas.draw(projArrow, Color.GOLD, 0, projArrow.getRegionHeight() / 2, avatar.getX() * scale.x,
-					avatar.getY() * scale.y, (redirection.angle()) / 57, longscale[0], originalscale[1]);
+			canvas.draw(projArrow, Color.GOLD, 0, projArrow.getRegionHeight() / 2, avatar.getDrawX() * scale.x,
+					avatar.getDrawY() * scale.y, (redirection.angle()) / 57, longscale[0], originalscale[1]);
 
 		}
 	}
@@ -1961,6 +1651,7 @@ public class LevelController extends WorldController {
 	public void drawLives(GameCanvas canvas) {
 		TextureRegion life = JsonAssetManager.getInstance().getEntry("life", TextureRegion.class);
 		TextureRegion streak = JsonAssetManager.getInstance().getEntry("streak", TextureRegion.class);
+		canvas.setLayer(LAYER_HUD);
 		canvas.draw(streak, Color.WHITE, 0, 0, -0.2f * scale.x, canvas.getHeight() / 2 + 3.45f * scale.y, 6.5f * scale.x,
 				6.5f * scale.y);
 		int lvNum = GameStateManager.getInstance().getCurrentLevelIndex();
@@ -1977,27 +1668,40 @@ public class LevelController extends WorldController {
 					canvas.getHeight() - life.getRegionHeight() * 0.007f * scale.y, scale.x, scale.y);
 		}
 	}
+	/**
+	 * Returns the ripple shader, getting it from the shader cache on first use
+	 *
+	 * @return the ripple shader
+	 */
+	protected ShaderProgram getShader() {
+		if (shaderprog == null) {
+			shaderprog = ShaderCache.getInstance().get(RIPPLE_VERTEX, RIPPLE_FRAGMENT);
+		}
+		return shaderprog;
+	}
+
 	/**
 	 * Writes to shader uniforms for the ripple effect.
 	 */
 	public void updateShader() {
+		ShaderProgram shader = getShader();
 
 		prev_m_rippleDistance = m_rippleRange;
 		m_rippleRange = (1 - m_rippleDistance / maxRippleDistance) * ripple_intensity;
 
 		// write to shader
-		shaderprog.begin();
-		shaderprog.setUniformf("time", ticks);
+		shader.begin();
+		shader.setUniformf("time", ticks);
 
 
-		shaderprog.setUniformf("mousePos", new Vector2(avatar.getPosition().x * scale.x / sw,
+		shader.setUniformf("mousePos", new Vector2(avatar.getPosition().x * scale.x / sw,
 				 (DEFAULT_HEIGHT - avatar.getPosition().y)*scale.y / sh));
-		shaderprog.setUniformf("deltax", Math.abs(delta_x / 100));
-		shaderprog.setUniformf("deltay", Math.abs(delta_y / 100));
+		shader.setUniformf("deltax", Math.abs(delta_x / 100));
+		shader.setUniformf("deltay", Math.abs(delta_y / 100));
 		// update ripple params
-		shaderprog.setUniformf("u_rippleDistance", m_rippleDistance);
-		shaderprog.setUniformf("u_rippleRange", m_rippleRange);
-		shaderprog.end();
+		shader.setUniformf("u_rippleDistance", m_rippleDistance);
+		shader.setUniformf("u_rippleRange", m_rippleRange);
+		shader.end();
 
 		m_rippleRange = prev_m_rippleDistance;
 	}
@@ -2005,19 +1709,16 @@ public class LevelController extends WorldController {
 	/**
 	 * Draws the debug of an object if it is in this world
 	 *
+	 * This culls with the camera view set by the last drawObjectInWorld().
 	 */
 	public void drawDebugInWorld() {
-		for (Obstacle obj : objects) {
-			if (obj.getSpace() == 3) {
-				obj.drawDebug(canvas);
-			} else if (shifted && (obj.getSpace() == 2)) {
-				obj.drawDebug(canvas);
-			} else if (!shifted && (obj.getSpace() == 1)) {
+		for (Obstacle obj : scene.getActive()) {
+			if (culler.isVisible(obj)) {
 				obj.drawDebug(canvas);
 			}
 		}
 
-		enemyController.drawEnemiesDebugInWorld();
+		enemyController.drawEnemiesDebugInWorld(culler);
 	}
 
 	/**
@@ -2078,7 +1779,7 @@ public class LevelController extends WorldController {
 
 				if (rippleOn) {
 					updateShader();
-					stage.getBatch().setShader(shaderprog);
+					stage.getBatch().setShader(getShader());
 				}
 				if (shifted) {
 					bgSprite.setRegion(pastBackgroundTexture);
@@ -2089,7 +1790,7 @@ public class LevelController extends WorldController {
 				stage.getBatch().end();
 			}
 			else if(isEndGame){
-				stage.getBatch().setShader(shaderprog);
+				stage.getBatch().setShader(getShader());
 				stage.getBatch().setProjectionMatrix(hudViewport.getCamera().combined);
 
 				stage.getBatch().begin();
@@ -2106,6 +1807,8 @@ public class LevelController extends WorldController {
 
 
 
+			// The world and the HUD are sorted by layer and texture
+			canvas.setDeferred(true);
 			canvas.begin();
 
 			 if(isLongRoom){
@@ -2163,16 +1866,16 @@ public class LevelController extends WorldController {
 				if(GameStateManager.getInstance().lastRoom()){
 					if(!isLongRoom){
 						rippleOn = true;
-						rippleSpeed = 60 * (0.1f/(float) Gdx.graphics.getFramesPerSecond());
+						rippleSpeed = 0.1f;
 					}
-					countdown = Gdx.graphics.getFramesPerSecond()*3;
+					countdown = 180;
 					//TODO: ADD END LEVEL STATE
 				}else{
 					if(!isLongRoom){
 						rippleOn = true;
-						rippleSpeed =  Gdx.graphics.getFramesPerSecond() >= 60 ? 0.2f : 0.75f;
+						rippleSpeed = 0.2f;
 					}
-					countdown = Math.max(30,Gdx.graphics.getFramesPerSecond());
+					countdown = 60;
 
 				}
 				if(!isLongRoom){
@@ -2190,22 +1893,25 @@ public class LevelController extends WorldController {
 				countdown = 400;
 				minAlpha = 0f;
 				rippleOn = true;
-				rippleSpeed = 60 * (0.1f/(float) Gdx.graphics.getFramesPerSecond());
+				rippleSpeed = 0.1f;
 //				ripple_reset = ((float)Gdx.graphics.getFramesPerSecond() / 60f)* (sw * 0.0006f);
 				ripple_reset = sw * 0.00025f;
 				ripple_intensity = 0.2f;
 				updateShader();
 
 			}else if (failed) {
+				canvas.setLayer(LAYER_OVERLAY);
 				canvas.draw(overlayDark,Color.WHITE, 0, 0, sw, sh);
 			}
 
 			if(!enemyController.getPlayerVisible()){
 				if (overlayDark != null) {
+					canvas.setLayer(LAYER_OVERLAY);
 					canvas.draw(overlayDark, Color.WHITE, 0, 0, sw, sh);
 				}
 			}
 			canvas.end();
+			canvas.setDeferred(false);
 		}
 //		stage.setViewport(hudViewport);
 		if(isLongRoom){
@@ -2270,7 +1976,7 @@ public class LevelController extends WorldController {
 		return avatar;
 	}
 
-	public PooledList<Enemy> getEnemies() {
+	public DenseList<Enemy> getEnemies() {
 		return enemies;
 	}
 
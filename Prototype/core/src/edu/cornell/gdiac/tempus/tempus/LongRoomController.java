@@ -1,6 +1,5 @@
 package edu.cornell.gdiac.tempus.tempus;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.Sprite;
@@ -9,13 +8,11 @@ import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.physics.box2d.World;
-import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.ui.Skin;
-import com.badlogic.gdx.scenes.scene2d.ui.Table;
-import com.badlogic.gdx.utils.Align;
-import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.tempus.obstacle.PolygonTemplate;
 import edu.cornell.gdiac.tempus.tempus.models.*;
 import edu.cornell.gdiac.util.JsonAssetManager;
+import edu.cornell.gdiac.util.RoomFile;
 
 public class LongRoomController extends LevelController{
 
@@ -42,41 +39,33 @@ public class LongRoomController extends LevelController{
         super.render(delta);
     }
 
+    /**
+     * Fetches the background textures of the room from the asset manager.
+     *
+     * Unlike the other rooms, the background is not cropped.
+     */
     @Override
-    protected void populateLevel() {
-        // tester stage!
-        skin = new Skin(Gdx.files.internal("jsons/uiskin.json"));
-        stage = new Stage(viewport);
-        stage.setViewport(hudViewport);
-        Gdx.input.setInputProcessor(stage);//BUGGY CHANGE?
-        table = new Table();
-        table.setWidth(stage.getWidth());
-        table.align(Align.center | Align.top);
-        table.setPosition(0, sh);
-
-        //initialize backgrounds
-        pastBackgroundTexture = JsonAssetManager.getInstance().getEntry(levelFormat.get("past_background").asString(),
+    protected void loadBackgrounds() {
+        pastBackgroundTexture = JsonAssetManager.getInstance().getEntry(room.getPastBackground(),
                 TextureRegion.class);
-        presentBackgroundTexture = JsonAssetManager.getInstance().getEntry(levelFormat.get("present_background").asString(),
+        presentBackgroundTexture = JsonAssetManager.getInstance().getEntry(room.getPresentBackground(),
                 TextureRegion.class);
         bgSprite = new Sprite(presentBackgroundTexture);
+    }
+
+    @Override
+    protected void populateLevel() {
+        loadBackgrounds();
 
 //		win_room = new TextureRegion(new Texture(Gdx.files.local("textures/background/blackscreen.png")));
         createUI();
 
         // Initializes the world
-        float gravity = levelFormat.getFloat("gravity");
-        float[] pSize = levelFormat.get("bounds").asFloatArray();
-        world = new World(new Vector2(0, gravity), false);
-        bounds = new Rectangle(0, 0, pSize[0], pSize[1]);
+        world = new World(new Vector2(0, room.getGravity()), false);
+        projectilePool = new ProjectilePool();
+        bounds = new Rectangle(0, 0, room.getWidth(), room.getHeight());
         scale.x = canvas.getWidth() / DEFAULT_WIDTH;
         scale.y = canvas.getHeight() / DEFAULT_HEIGHT;
-        // Add level goal
-        goalDoor = new Door();
-        goalDoor.initialize(levelFormat.get("door"));
-
-        goalDoor.setDrawScale(scale);
-        addObject(goalDoor);
 
 //		earthTile = JsonAssetManager.getInstance().getEntry("earth", TextureRegion.class);
 
@@ -88,98 +77,59 @@ public class LongRoomController extends LevelController{
                 2.7f, 0.5f, 2.0f, 0.3f, 1.1f, 0.3f, 0.5f, 0.6f};
         float[] newPlatTall = {0.4f, 3.9f, 0.5f, 3.9f, 1.6f, 3.9f, 1.7f, 3.9f, 1.1f, 0.5f};
         float[] newPlatPillar = {1.2f, 4.0f, 1.3f, 4.0f, 2.0f, 4.0f, 2.1f, 4.0f, 2.1f, 1.0f, 1.2f, 1.0f};
-
-
-        JsonValue capsule = levelFormat.get("capsules").child();
-        while (capsule != null) {
-            Platform obj = new Platform(newPlatCapsule);
-            obj.initialize(capsule);
-            obj.setDrawScale(scale);
-            addObject(obj);
-            capsule = capsule.next();
-        }
-
-        JsonValue longcapsule = levelFormat.get("longcapsules").child();
-        while (longcapsule != null) {
-            Platform obj = new Platform(newPlatLongcapsule);
-            obj.initialize(longcapsule);
-            obj.setDrawScale(scale);
-            addObject(obj);
-            longcapsule = longcapsule.next();
-        }
-
-        JsonValue pillar = levelFormat.get("pillars").child();
-        while (pillar != null) {
-            Platform obj = new Platform(newPlatPillar);
-            obj.initialize(pillar);
-            obj.setDrawScale(scale);
-            addObject(obj);
-            pillar = pillar.next();
-        }
-
-        JsonValue tall = levelFormat.get("talls").child();
-        while (tall != null) {
-            Platform obj = new Platform(newPlatTall);
-            obj.initialize(tall);
-            obj.setDrawScale(scale);
-            addObject(obj);
-            tall = tall.next();
-        }
-        JsonValue diamond = levelFormat.get("diamonds").child();
-        while (diamond != null) {
-            Platform obj = new Platform(newPlatDiamond);
-            obj.initialize(diamond);
-            obj.setDrawScale(scale);
-            addObject(obj);
-            diamond = diamond.next();
-        }
-        JsonValue round = levelFormat.get("rounds").child();
-        while (round != null) {
-            Platform obj = new Platform(newPlatRounded);
-            obj.initialize(round);
-            obj.setDrawScale(scale);
-            addObject(obj);
-            round = round.next();
-        }
-        JsonValue spikes = levelFormat.get("spikes").child();
-        while (spikes != null) {
-            Spikes obj = new Spikes(newSpikes);
-            obj.initialize(spikes);
-            obj.setDrawScale(scale);
-            addObject(obj);
-            spikes = spikes.next();
-        }
-        // Create avatar
-        JsonValue json = levelFormat.get("avatar");
-        avatar = new Avatar();
-        avatar.setCanvas(camera);
-        avatar.setDrawScale(scale);
-        //avatar.setScale(scale);
-        avatar.initialize(json);
-        addObject(avatar);
-        float[] pos = json.get("pos").asFloatArray();
-        avatarStart = new Vector2(pos[0], pos[1]);
-
-        JsonValue enemy = levelFormat.get("enemies").child();
-        while (enemy != null) {
-            Enemy obj = new Enemy(avatar, enemy);
-            obj.setDrawScale(scale);
-            addEnemy(obj);
-            numEnemies++;
-            enemy = enemy.next();
-        }
-
-
-        JsonValue turret = levelFormat.get("turrets").child();
-        while (turret != null) {
-            Enemy obj = new Enemy(turret);
-            obj.setDrawScale(scale);
-            addEnemy(obj);
-            turret = turret.next();
+        // The long room has its own rounded platform, so its outlines are indexed by the room shapes here
+        float[][] outlines = {newPlatCapsule, newPlatLongcapsule, newPlatPillar, newPlatTall,
+                newPlatDiamond, newPlatRounded, newSpikes};
+
+        Array<RoomFile.Entity> entities = room.getEntities();
+        for (int ii = 0; ii < entities.size; ii++) {
+            RoomFile.Entity entity = entities.get(ii);
+            switch (entity.type) {
+            case RoomFile.DOOR:
+                // Add level goal
+                goalDoor = new Door();
+                goalDoor.initialize(entity);
+                goalDoor.setDrawScale(scale);
+                addObject(goalDoor);
+                break;
+            case RoomFile.PLATFORM:
+                Platform platform = new Platform(PolygonTemplate.get(outlines[entity.shape]));
+                platform.initialize(entity);
+                platform.setDrawScale(scale);
+                addObject(platform);
+                break;
+            case RoomFile.SPIKES:
+                Spikes spikes = new Spikes(PolygonTemplate.get(outlines[entity.shape]));
+                spikes.initialize(entity);
+                spikes.setDrawScale(scale);
+                addObject(spikes);
+                break;
+            case RoomFile.AVATAR:
+                // Create avatar
+                avatar = new Avatar();
+                avatar.setCanvas(camera);
+                avatar.setDrawScale(scale);
+                //avatar.setScale(scale);
+                avatar.initialize(entity);
+                addObject(avatar);
+                avatarStart = new Vector2(entity.x, entity.y);
+                break;
+            case RoomFile.ENEMY:
+                Enemy enemy = new Enemy(avatar, entity);
+                enemy.setDrawScale(scale);
+                addEnemy(enemy);
+                numEnemies++;
+                break;
+            case RoomFile.TURRET:
+                Enemy turret = new Enemy(entity);
+                turret.setDrawScale(scale);
+                addEnemy(turret);
+                break;
+            }
         }
 
         collisionController = new CollisionController(this);
-        enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory);
+        enemyController = new EnemyController(enemies, objects, avatar, world, scale, this, assetDirectory, projectilePool);
         world.setContactListener(collisionController);
 
     }
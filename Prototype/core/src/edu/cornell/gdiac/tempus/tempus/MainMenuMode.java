@@ -29,7 +29,7 @@ import edu.cornell.gdiac.tempus.GameCanvas;
 import edu.cornell.gdiac.tempus.MusicController;
 import edu.cornell.gdiac.tempus.WorldController;
 import edu.cornell.gdiac.tempus.tempus.models.ScreenExitCodes;
-import edu.cornell.gdiac.util.GifDecoder;
+import edu.cornell.gdiac.util.GifCache;
 import edu.cornell.gdiac.util.JsonAssetManager;
 import edu.cornell.gdiac.util.ScreenListener;
 
@@ -140,7 +140,7 @@ public class MainMenuMode implements Screen {
 
         mainTable.setWidth(stage.getViewport().getScreenWidth());
 
-        anim = GifDecoder.loadGIFAnimation(Animation.PlayMode.LOOP, Gdx.files.internal("textures/gui/tempus_logo_stationary.gif").read());
+        anim = GifCache.loadAnimation(Animation.PlayMode.LOOP, Gdx.files.internal("textures/gui/tempus_logo_stationary.gif"));
         glow = new TextureRegion(assetManager.getEntry("logo_glow", TextureRegion.class));
         //Create header
 
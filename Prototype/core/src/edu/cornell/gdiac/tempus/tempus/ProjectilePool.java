@@ -0,0 +1,96 @@
+package edu.cornell.gdiac.tempus.tempus;
+
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.tempus.tempus.models.EntityType;
+import edu.cornell.gdiac.tempus.tempus.models.Projectile;
+
+/**
+ * A pool of projectiles that keeps their Box2D bodies between shots.
+ *
+ * Creating (and later destroying) a body and its fixture goes through JNI, and
+ * this used to happen for every shot.  Instead, a projectile that is removed is
+ * only deactivated, and the next shot of the same radius wakes it up again.
+ * Both the enemy shots and the avatar's redirected shots come from this pool.
+ *
+ * The free projectiles belong to a single world.  A new pool must be made
+ * whenever the world is disposed, as their bodies are disposed with it.
+ */
+public class ProjectilePool {
+    /** The projectiles that are ready to be reused */
+    private Array<Projectile> free;
+    /** The last collision group index handed out */
+    private short group;
+
+    /**
+     * Creates a new empty pool
+     */
+    public ProjectilePool() {
+        free = new Array<Projectile>();
+        group = 0;
+    }
+
+    /**
+     * Returns a projectile at the given position, reusing a free one if possible.
+     *
+     * A reused projectile keeps its body, which is reactivated when the projectile
+     * is added back to the world.  The caller must still set the velocity, space,
+     * texture and any other per-shot settings.
+     *
+     * @param type the type of projectile
+     * @param x the initial x position of the projectile
+     * @param y the initial y position of the projectile
+     * @param radius the radius of the projectile
+     * @param sourceData the user data of the body that fired the projectile
+     *
+     * @return a projectile ready to be queued into the world
+     */
+    public Projectile obtain(EntityType type, float x, float y, float radius, Object sourceData) {
+        for (int ii = free.size - 1; ii >= 0; ii--) {
+            Projectile bullet = free.get(ii);
+            if (bullet.getRadius() == radius) {
+                free.removeIndex(ii);
+                bullet.initialize(type, x, y, sourceData);
+                return bullet;
+            }
+        }
+        return new Projectile(type, x, y, radius, sourceData);
+    }
+
+    /**
+     * Returns a projectile to the pool once it has been removed from the world.
+     *
+     * This deactivates the body, so it must not be called during a world step.
+     *
+     * @param bullet the projectile to free
+     */
+    public void free(Projectile bullet) {
+        bullet.reset();
+        free.add(bullet);
+    }
+
+    /**
+     * Returns a negative collision group index for a new shot.
+     *
+     * An enemy and its bullet share the group index, so that the bullet does not
+     * collide with the enemy that fired it.  The indices cycle through every
+     * negative short value, skipping zero (which means no group).
+     *
+     * @return a negative collision group index
+     */
+    public short nextGroupIndex() {
+        group--;
+        if (group >= 0) {
+            group = -1;
+        }
+        return group;
+    }
+
+    /**
+     * Returns the number of projectiles waiting to be reused
+     *
+     * @return the number of projectiles waiting to be reused
+     */
+    public int getFreeCount() {
+        return free.size;
+    }
+}
@@ -0,0 +1,696 @@
+/*
+ * RoomHud.java
+ *
+ * Every room used to load its own skin and fonts, make its own stage, and build
+ * the pause, volume, help and end of level menus again on every reset.  They are
+ * the same in every room, so they are built once here, on a single stage.  The
+ * room being played is bound to the HUD when it becomes the current screen (or
+ * is reset), and the buttons act on whichever room is bound.
+ *
+ * The end of level and room 10 menus are only built the first time a room needs
+ * them.  A room may add its own actors to the table stack (as the tutorial does);
+ * these are removed when the next room is bound.
+ *
+ * Note that this class is a Singleton, like ShaderCache.  Its skin, fonts and
+ * stage live for the whole application, and are freed by dispose() when the
+ * game shuts down.
+ */
+package edu.cornell.gdiac.tempus.tempus;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.badlogic.gdx.scenes.scene2d.ui.*;
+import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.viewport.FitViewport;
+import edu.cornell.gdiac.tempus.MusicController;
+import edu.cornell.gdiac.util.GameStateManager;
+import edu.cornell.gdiac.util.JsonAssetManager;
+import edu.cornell.gdiac.util.SoundController;
+
+/**
+ * The singleton HUD and the menus shown over every room
+ */
+public class RoomHud {
+    /** The menu shown when a room is completed, besides the pause menus */
+    public enum Overlay {
+        /** The room just moves on to the next room */
+        NONE,
+        /** The last room of a level shows the level results */
+        END_LEVEL,
+        /** Room 10 offers to skip to the next level */
+        ROOM_10
+    }
+
+    /** The singleton HUD */
+    private static RoomHud hud;
+
+    /** Width of the HUD */
+    private int sw = 1920/2;
+    /** Height of the HUD */
+    private int sh = 1080/2;
+
+    /** The room acted on by the menus */
+    private LevelController room;
+    /** The overlay added for the bound room */
+    private Overlay overlay;
+    /** The number of children of the table stack that belong to the HUD */
+    private int stackSize;
+
+    /** The skin for the sliders */
+    private Skin skin;
+    /** The font for the timers and tutorial messages */
+    private BitmapFont displayFont;
+    /** The font for the volume menu */
+    private BitmapFont sliderFont;
+    /** The style for the timers and tutorial messages */
+    private Label.LabelStyle style;
+    /** The viewport of the HUD */
+    private FitViewport viewport;
+    /** The stage holding every menu */
+    private Stage stage;
+
+    /** Container filling the screen, holding the table stack */
+    private Container<Stack> edgeContainer;
+    /** The stack of menus */
+    private Stack tableStack;
+    /** The darkening overlay for failure and blindness */
+    private TextureRegion overlayDark;
+    /** The background of the menus */
+    private TextureRegionDrawable overlayBG;
+
+    /** The pause menu */
+    private Container pauseButtonContainer;
+    private Table pauseTable;
+    private Label pauseTimeLabel;
+    /** The volume menu */
+    private Container volumeContainer;
+    private Table volumeTable;
+    private Slider soundEffectsSlider;
+    private Slider musicSlider;
+    /** The help menu */
+    private Container helpContainer;
+    private Table helpInfoTable;
+
+    /** The end of level menu (null until first needed) */
+    private Container endlevelContainer;
+    private Table endlevelTable;
+    private Table wonLevelBannerTable;
+    private Table levelTimerTable;
+    private Label timerLabel;
+    private TextureRegionDrawable youWonImg;
+    private TextureRegionDrawable newRecordImg;
+    /** The room 10 menu (null until first needed) */
+    private Container room10Container;
+    private Table room10Table;
+
+    /**
+     * Returns the singleton HUD
+     *
+     * The HUD is built the first time this is called, so the asset directory
+     * must have been allocated by then.
+     *
+     * @return the singleton HUD
+     */
+    public static RoomHud getInstance() {
+        if (hud == null) {
+            hud = new RoomHud();
+        }
+        return hud;
+    }
+
+    /**
+     * Disposes of the singleton HUD, if it has been built
+     *
+     * This frees the skin, the fonts and the stage (with its sprite batch).  The
+     * HUD is built again the next time getInstance() is called.
+     */
+    public static void dispose() {
+        if (hud != null) {
+            hud.stage.dispose();
+            hud.skin.dispose();
+            hud.displayFont.dispose();
+            hud.sliderFont.dispose();
+            hud = null;
+        }
+    }
+
+    /**
+     * Builds the stage and the menus shared by every room
+     */
+    private RoomHud() {
+        skin = new Skin(Gdx.files.internal("jsons/uiskin.json"));
+        displayFont = new BitmapFont(Gdx.files.internal("fonts/carterone.fnt"));
+        displayFont.getData().setScale(0.5f);
+        style = new Label.LabelStyle(displayFont, Color.WHITE);
+
+        OrthographicCamera camera = new OrthographicCamera(sw, sh);
+        viewport = new FitViewport(sw, sh, camera);
+        viewport.getCamera().position.set(new Vector3(sw/2, sh/2, 0));
+        stage = new Stage(viewport);
+        overlay = Overlay.NONE;
+        createUI();
+    }
+
+    /**
+     * Returns the stage holding every menu
+     *
+     * @return the stage holding every menu
+     */
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * Returns the font for the timers and tutorial messages
+     *
+     * @return the font for the timers and tutorial messages
+     */
+    public BitmapFont getFont() {
+        return displayFont;
+    }
+
+    /**
+     * Returns the style for the timers and tutorial messages
+     *
+     * @return the style for the timers and tutorial messages
+     */
+    public Label.LabelStyle getLabelStyle() {
+        return style;
+    }
+
+    /**
+     * Returns the container filling the screen
+     *
+     * It holds the table stack, unless a room sets another actor (such as a
+     * cut scene) in its place.
+     *
+     * @return the container filling the screen
+     */
+    public Container<Stack> getEdgeContainer() {
+        return edgeContainer;
+    }
+
+    /**
+     * Returns the stack of menus
+     *
+     * @return the stack of menus
+     */
+    public Stack getTableStack() {
+        return tableStack;
+    }
+
+    /**
+     * Returns the darkening overlay for failure and blindness
+     *
+     * @return the darkening overlay for failure and blindness
+     */
+    public TextureRegion getOverlayDark() {
+        return overlayDark;
+    }
+
+    /**
+     * Makes a room the one acted on by the menus.
+     *
+     * The menus are hidden, any actors added by the last room are removed, and
+     * the sliders are set to the current volume.  The stage then takes the input.
+     *
+     * @param room      The room being played
+     * @param overlay   The menu shown when the room is completed
+     */
+    public void bind(LevelController room, Overlay overlay) {
+        this.room = room;
+        stage.clear();
+        stage.getBatch().setColor(1, 1, 1, 1);
+        stage.getBatch().setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        stage.getBatch().setShader(null);
+
+        while (tableStack.getChildren().size > stackSize) {
+            tableStack.removeActor(tableStack.getChildren().peek());
+        }
+        this.overlay = overlay;
+        if (overlay == Overlay.END_LEVEL) {
+            if (endlevelContainer == null) {
+                createEndlevelUI();
+            }
+            String winpath = "level_" + GameStateManager.getInstance().getCurrentLevel().getLevelNumber() + "_win";
+            levelTimerTable.setBackground(new TextureRegionDrawable(JsonAssetManager.getInstance().getEntry(winpath, TextureRegion.class)));
+            wonLevelBannerTable.setBackground(youWonImg);
+            endlevelContainer.setVisible(false);
+            tableStack.add(endlevelContainer);
+        } else if (overlay == Overlay.ROOM_10) {
+            if (room10Container == null) {
+                createRoom10UI();
+            }
+            room10Container.setVisible(false);
+            tableStack.add(room10Container);
+        }
+
+        pauseButtonContainer.setVisible(false);
+        volumeContainer.setVisible(false);
+        helpContainer.setVisible(false);
+        soundEffectsSlider.setValue(SoundController.getInstance().getVolume());
+        musicSlider.setValue(MusicController.getInstance().getVolume());
+
+        edgeContainer.setActor(tableStack);
+        stage.addActor(edgeContainer);
+        Gdx.input.setInputProcessor(stage);
+    }
+
+    /**
+     * Shows the pause menu
+     *
+     * @param time  The formatted time of the room
+     */
+    public void showPause(String time) {
+        pauseTimeLabel.setText(time);
+        pauseButtonContainer.setVisible(true);
+        pauseTable.setVisible(true);
+    }
+
+    /**
+     * Hides the pause menu
+     */
+    public void hidePause() {
+        pauseButtonContainer.setVisible(false);
+        pauseTable.setVisible(false);
+    }
+
+    /**
+     * Shows the volume menu in place of the pause menu
+     */
+    public void showVolumeMenu() {
+        pauseButtonContainer.setVisible(false);
+        pauseTable.setVisible(false);
+        volumeContainer.setVisible(true);
+        volumeTable.setVisible(true);
+    }
+
+    /**
+     * Goes back to the pause menu from the volume menu
+     */
+    public void hideVolumeMenu() {
+        pauseButtonContainer.setVisible(true);
+        pauseTable.setVisible(true);
+        volumeContainer.setVisible(false);
+        volumeTable.setVisible(false);
+    }
+
+    /**
+     * Shows the help menu in place of the pause menu
+     */
+    public void showHelpMenu() {
+        pauseButtonContainer.setVisible(false);
+        pauseTable.setVisible(false);
+        helpContainer.setVisible(true);
+        helpInfoTable.setVisible(true);
+    }
+
+    /**
+     * Goes back to the pause menu from the help menu
+     */
+    public void hideHelpMenu() {
+        pauseButtonContainer.setVisible(true);
+        pauseTable.setVisible(true);
+        helpContainer.setVisible(false);
+        helpInfoTable.setVisible(false);
+    }
+
+    /**
+     * Shows the menu for the end of the room (if the bound room has one)
+     *
+     * @param time      The formatted time of the level (ignored by room 10)
+     * @param record    Whether the time is a new record (ignored by room 10)
+     */
+    public void showOverlay(String time, boolean record) {
+        stage.getBatch().setColor(1f,1f,1f,1f);
+        stage.getBatch().setBlendFunction(GL20.GL_SRC_ALPHA,GL20.GL_ONE_MINUS_SRC_ALPHA);
+        stage.addAction(Actions.alpha(1));
+        if (overlay == Overlay.END_LEVEL) {
+            if (record) {
+                wonLevelBannerTable.setBackground(newRecordImg);
+            }
+            timerLabel.setText(time);
+            endlevelContainer.setVisible(true);
+            endlevelTable.setVisible(true);
+        } else if (overlay == Overlay.ROOM_10) {
+            room10Container.setVisible(true);
+            room10Table.setVisible(true);
+        }
+    }
+
+    /**
+     * Hides the menu for the end of the room
+     */
+    public void hideOverlay() {
+        if (overlay == Overlay.END_LEVEL) {
+            endlevelContainer.setVisible(false);
+            endlevelTable.setVisible(false);
+        } else if (overlay == Overlay.ROOM_10) {
+            room10Container.setVisible(false);
+            room10Table.setVisible(false);
+        }
+    }
+
+    /**
+     * Creates the pause, volume and help menus.
+     */
+    private void createUI() {
+        JsonAssetManager assetManager = JsonAssetManager.getInstance();
+
+        // table container to center main table
+        edgeContainer = new Container<Stack>();
+        edgeContainer.setSize(sw, sh);
+        edgeContainer.setPosition(0, 0);
+        edgeContainer.fillX();
+        edgeContainer.fillY();
+
+        tableStack = new Stack();
+        Table table = new Table();
+        table.setWidth(stage.getWidth());
+        table.align(Align.center | Align.top);
+        table.setPosition(0, sh);
+
+        /*
+         * START PAUSE SCREEN SETUP ---------------------
+         */
+        overlayDark = assetManager.getEntry("25_black_overlay", TextureRegion.class);
+        overlayBG = new TextureRegionDrawable( assetManager.getEntry("85_black_overlay", TextureRegion.class));
+
+        TextureRegionDrawable resumeResource = new TextureRegionDrawable(assetManager.getEntry("resume_button", TextureRegion.class));
+        TextureRegionDrawable restartResource = new TextureRegionDrawable(assetManager.getEntry("restart_button", TextureRegion.class));
+        TextureRegionDrawable exitResource = new TextureRegionDrawable(assetManager.getEntry("pause_exit_button", TextureRegion.class));
+        TextureRegionDrawable volumeResource = new TextureRegionDrawable(assetManager.getEntry("settings_button", TextureRegion.class));
+
+        pauseButtonContainer = new Container<>();
+        pauseButtonContainer.setBackground(overlayBG);
+        pauseButtonContainer.setPosition(0, 0);
+        pauseButtonContainer.fillX();
+        pauseButtonContainer.fillY();
+
+        pauseTable = new Table();
+
+        Image timerImg = new Image(assetManager.getEntry("timer", TextureRegion.class));
+        Table pauseTimerTable = new Table();
+        pauseTimeLabel = new Label("0:00", style);
+        pauseTimeLabel.setAlignment(Align.left);
+        pauseTimeLabel.setWrap(true);
+        pauseTimeLabel.setWidth(20);
+        pauseTimerTable.add(timerImg).width(sw/35).height(sh/25).right().top().padRight(8f);
+        pauseTimerTable.add(pauseTimeLabel).width(sw/20).height(sh/25).right().top();
+        pauseTimerTable.align(Align.topRight);
+
+        Table helpTable = new Table();
+        Button helpButton = new Button(new TextureRegionDrawable(assetManager.getEntry("help_icon", TextureRegion.class)));
+        helpTable.add(helpButton).width(sw/25).height(sw/25).top().right().pad(10f);
+        helpTable.align(Align.topLeft);
+        helpButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                room.showHelpMenu();
+            }
+        });
+
+        helpContainer = new Container<>();
+        helpContainer.setBackground(overlayBG);
+        helpContainer.setPosition(0, 0);
+        helpContainer.fillX();
+        helpContainer.fillY();
+
+        TextureRegionDrawable exitInnerMenuButtonResource = new TextureRegionDrawable(assetManager.getEntry("select_backbutton", TextureRegion.class));
+
+        helpInfoTable = new Table();
+        helpInfoTable.setBackground(new TextureRegionDrawable(assetManager.getEntry("help_info_transparent", TextureRegion.class)));
+        Button exitHelpMenuButton = new Button(exitInnerMenuButtonResource);
+        exitHelpMenuButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                room.hideHelpMenu();
+            }
+        });
+        helpInfoTable.align(Align.bottomLeft);
+        helpInfoTable.add(exitHelpMenuButton).width(sw/12).height(sw/15).bottom().left();
+        helpContainer.setActor(helpInfoTable);
+        helpContainer.setVisible(false);
+
+        pauseTimerTable.row().pad(10f);
+        pauseTimerTable.add(timerImg).width(sw/35).height(sh/25).right().top().padRight(8f);
+        pauseTimerTable.add(pauseTimeLabel).width(sw/20).height(sh/25).right().top();
+        pauseTimerTable.align(Align.topRight);
+
+        Stack pauseStack = new Stack();
+        pauseStack.add(pauseTable);
+        pauseStack.add(pauseTimerTable);
+        pauseStack.add(helpTable);
+
+        pauseButtonContainer.setActor(pauseStack);
+        pauseButtonContainer.setVisible(false);
+
+        Button resumeButton = new Button(resumeResource);
+        resumeButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                room.unpauseGame();
+            }
+        });
+
+        Button restartButton = new Button(restartResource);
+        restartButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                room.unpauseGame();
+                room.resetGame();
+            }
+        });
+
+        Button exitButton = new Button(exitResource);
+        exitButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                room.exitLevelSelect();
+            }
+        });
+
+        Button volumeButton = new Button(volumeResource);
+        volumeButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                room.showVolumeMenu();
+            }
+        });
+
+        pauseTable.add(resumeButton).width(sw / 4 / 1.5f).height(sh / 5.1f / 1.5f).center().expandX().padBottom(sh / 20);
+        pauseTable.row();
+        pauseTable.add(restartButton).width(sw / 4 / 1.5f).height(sh / 5.1f / 1.5f).center().expandX().padBottom(sh / 20);
+        pauseTable.row();
+        pauseTable.add(volumeButton).width(sw / 4 / 1.5f).height(sh / 5.1f / 1.5f).center().expandX().padBottom(sh / 20);
+        pauseTable.row();
+        pauseTable.add(exitButton).width(sw / 4 / 1.5f).height(sh / 5.1f / 1.5f).expandX();
+
+        tableStack.add(table);
+        tableStack.add(pauseButtonContainer);
+        /*
+         * END PAUSE SCREEN SETUP---------------------
+         */
+        /*
+         * START VOLUME SCREEN SETUP ---------------------
+         */
+        volumeContainer = new Container<>();
+        volumeContainer.setBackground(overlayBG);
+        volumeContainer.setPosition(0, 0);
+        volumeContainer.fillX();
+        volumeContainer.fillY();
+
+        volumeTable = new Table();
+        volumeContainer.setActor(volumeTable);
+        volumeContainer.setVisible(false);
+        soundEffectsSlider = new Slider(0.0f, 1.25f, .05f, false, skin);
+        musicSlider = new Slider(0.0f, 1.25f, .05f, false, skin);
+        Button exitVolumeMenuButton = new Button(exitInnerMenuButtonResource);
+        exitVolumeMenuButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                MusicController.getInstance().setVolume(musicSlider.getValue());
+                MusicController.getInstance().update(room.isShifted());
+                SoundController.getInstance().setVolume(soundEffectsSlider.getValue());
+                super.clicked(event, x, y);
+                room.hideVolumeMenu();
+            }
+        });
+        sliderFont = new BitmapFont(Gdx.files.internal("fonts/carterone.fnt"));
+        Label.LabelStyle carterStyleSlider = new Label.LabelStyle(sliderFont, Color.WHITE);
+        sliderFont.getData().setScale(.7f);
+        Label soundEffectsLabel = new Label("Sound Effects: ", carterStyleSlider);
+        Label musicLabel = new Label("Music: ", carterStyleSlider);
+        Label soundEffectsPlusLabel = new Label("+", carterStyleSlider);
+        Label soundEffectsMinusLabel = new Label("-", carterStyleSlider);
+        Label musicPlusLabel = new Label("+", carterStyleSlider);
+        Label musicMinusLabel = new Label("-", carterStyleSlider);
+        volumeTable.add(soundEffectsLabel).colspan(sw/4).left().padBottom(sh / 10).padLeft(sw/8).padTop(sh/4).expandX();
+        volumeTable.add(soundEffectsMinusLabel).colspan(sw/8).padBottom(sh/10).right().padRight(4).padTop(sh/4).expandX();
+        volumeTable.add(soundEffectsSlider).colspan(2 * sw / 4).padBottom(sh / 10).right().fillX().padTop(sh/4).expandX();
+        volumeTable.add(soundEffectsPlusLabel).colspan(sw/8).padBottom(sh / 10).padLeft(4).left().expandX().padTop(sh/4).padLeft(2).padRight(sw/8).row();
+        volumeTable.add(musicLabel).colspan(sw/4).left().padBottom(sh / 10).padLeft(sw/8).expandX();
+        volumeTable.add(musicMinusLabel).colspan(sw/8).padBottom(sh/10).padRight(4).right().expandX();
+        volumeTable.add(musicSlider).left().colspan(2 * sw / 4).fillX().padBottom(sh / 10).expandX();
+        volumeTable.add(musicPlusLabel).colspan(sw/8).padBottom(sh / 10).left().padLeft(4).expandX().padLeft(2).padRight(sw/8).row();
+        volumeTable.add(exitVolumeMenuButton).width(sw / 8 / 1.5f).height(sh / 5.1f / .9f /2).colspan(sw).expand().bottom().left();
+
+        tableStack.add(volumeContainer);
+
+        tableStack.add(helpContainer);
+        /*
+         * END VOLUME SCREEN SETUP---------------------
+         */
+        stackSize = tableStack.getChildren().size;
+        edgeContainer.setActor(tableStack);
+    }
+
+    /**
+     * Creates the menu for the end of a level.
+     *
+     * The level banner is set when a room is bound, as it depends on the level.
+     */
+    private void createEndlevelUI() {
+        JsonAssetManager assetManager = JsonAssetManager.getInstance();
+
+        endlevelContainer = new Container<>();
+        endlevelContainer.setBackground(overlayBG);
+        endlevelContainer.setPosition(0, 0);
+        endlevelContainer.fillX();
+        endlevelContainer.fillY();
+
+        endlevelTable = new Table();
+        endlevelContainer.setActor(endlevelTable);
+        endlevelContainer.setVisible(false);
+
+        wonLevelBannerTable = new Table();
+        levelTimerTable = new Table();
+
+        TextureRegionDrawable levelsResource = new TextureRegionDrawable(assetManager.getEntry("win_levels_button", TextureRegion.class));
+        TextureRegionDrawable nextResource = new TextureRegionDrawable(assetManager.getEntry("win_next_button", TextureRegion.class));
+        TextureRegionDrawable replayResource = new TextureRegionDrawable(assetManager.getEntry("win_replay_button", TextureRegion.class));
+
+        youWonImg = new TextureRegionDrawable(assetManager.getEntry("you_win", TextureRegion.class));
+        newRecordImg = new TextureRegionDrawable(assetManager.getEntry("new_record", TextureRegion.class));
+        wonLevelBannerTable.setBackground(youWonImg);
+
+        Button levelButton = new Button(levelsResource);
+        levelButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                GameStateManager.getInstance().stepGame(false);
+                room.exitLevelSelect();
+            }
+        });
+
+        Button nextButton = new Button(nextResource);
+        nextButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                GameStateManager.getInstance().stepGame(true);
+                room.exitNextRoom();
+            }
+        });
+
+        Button replayButton = new Button(replayResource);
+        replayButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                GameStateManager.getInstance().stepGame(false);
+                int lv = GameStateManager.getInstance().getCurrentLevelIndex();
+                GameStateManager.getInstance().setCurrentLevel(lv, 0);
+                room.exitNextRoom();
+            }
+        });
+
+        timerLabel = new Label("0:00", style);
+        timerLabel.setAlignment(Align.left);
+        timerLabel.setWrap(true);
+        timerLabel.setWidth(20);
+
+        float width_mult = 0.4f;
+        float height_mult = 0.8f;
+        endlevelTable.add(wonLevelBannerTable).width(sw/4).height(sh/7).center().expandX().padBottom(sh/30).colspan(2);
+        endlevelTable.row().padBottom(10f);
+        endlevelTable.add(levelTimerTable).width(sw/4).height(sh/18).right();
+        endlevelTable.add(timerLabel).width(sw/20).height(sh/18).left().padLeft(10f);
+        endlevelTable.row().colspan(2);
+        endlevelTable.add(levelButton).width(sw / 2.66f * width_mult).height(sh / 6.2f * height_mult).center().expandX();
+        endlevelTable.row().colspan(2);
+        endlevelTable.add(replayButton).width(sw / 2.66f * width_mult).height(sh / 6 * height_mult).center().expandX();
+        endlevelTable.row().colspan(2);
+        endlevelTable.add(nextButton).width(sw / 2.66f * width_mult).height(sh / 6 * height_mult).expandX();
+    }
+
+    /**
+     * Creates the menu for room 10, which offers to skip to the next level.
+     */
+    private void createRoom10UI() {
+        JsonAssetManager assetManager = JsonAssetManager.getInstance();
+
+        room10Container = new Container<>();
+        room10Container.setBackground(overlayBG);
+        room10Container.setPosition(0, 0);
+        room10Container.fillX();
+        room10Container.fillY();
+
+        room10Table = new Table();
+        room10Container.setActor(room10Table);
+        room10Container.setVisible(false);
+
+        Table overlayPageHeader = new Table();
+        TextureRegionDrawable headerimg = new TextureRegionDrawable(assetManager.getEntry("lv10_unlock_message", TextureRegion.class));
+        Image header = new Image(headerimg);
+        overlayPageHeader.add(header).expand().center();
+        overlayPageHeader.align(Align.center);
+
+        TextureRegionDrawable continuelevel = new TextureRegionDrawable(assetManager.getEntry("lv10_continue_button", TextureRegion.class));
+        TextureRegionDrawable nextlevel = new TextureRegionDrawable(assetManager.getEntry("lv10_next_button", TextureRegion.class));
+
+        Button continueButton = new Button(continuelevel);
+        continueButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                GameStateManager.getInstance().stepGame(true);
+                room.exitNextRoom();
+            }
+        });
+
+        Button nextLevelButton = new Button(nextlevel);
+        nextLevelButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                super.clicked(event, x, y);
+                GameStateManager.getInstance().stepGame(false);
+                room.exitNextLevel();
+            }
+        });
+
+        float height_mult = 0.8f;
+        room10Table.add(overlayPageHeader).width(sw/1.5f).height(sh/8.5f).center().colspan(2).padBottom(30);
+        room10Table.row();
+        room10Table.add(continueButton).width(sw/5).height(sh / 6 * height_mult).center();
+        room10Table.add(nextLevelButton).width(sw/5).height(sh / 6 * height_mult).center();
+        room10Table.setVisible(false);
+    }
+}
@@ -0,0 +1,143 @@
+package edu.cornell.gdiac.tempus.tempus;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import edu.cornell.gdiac.tempus.obstacle.Obstacle;
+import edu.cornell.gdiac.tempus.tempus.models.Enemy;
+import edu.cornell.gdiac.util.DenseList;
+
+/**
+ * The state of the bodies of a room, as it was when the room was populated.
+ *
+ * Resetting a room used to dispose of the world and build every platform,
+ * enemy and controller again.  Only the bodies that can move (and the enemies,
+ * which may be killed) ever change, so their transforms, velocities, body types
+ * and activity are copied once, after the room is first populated.  Restoring a
+ * body puts it back in place, so a reset only touches the moving bodies.
+ *
+ * Static bodies are not copied, as nothing moves them.  The gameplay state of
+ * the models (such as the AI of an enemy) is not kept here; each model rewinds
+ * its own.
+ */
+public class RoomSnapshot {
+    /** The obstacles that were copied, in their order in the room */
+    private Obstacle[] obstacles;
+    /** The number of obstacles that are enemies (they come after the others) */
+    private int enemyCount;
+    /** The position of each body */
+    private float[] positionsX, positionsY;
+    /** The angle of each body */
+    private float[] angles;
+    /** The linear velocity of each body */
+    private float[] velocitiesX, velocitiesY;
+    /** The angular velocity of each body */
+    private float[] spins;
+    /** The body type of each body */
+    private BodyDef.BodyType[] types;
+    /** Whether each body was active */
+    private boolean[] active;
+    /** Cache for setting velocities */
+    private Vector2 velocityCache = new Vector2();
+
+    /**
+     * Copies the moving bodies and the enemies of a room
+     *
+     * @param objects   The objects of the room (not counting enemies)
+     * @param enemies   The enemies of the room
+     */
+    public RoomSnapshot(DenseList<Obstacle> objects, DenseList<Enemy> enemies) {
+        int count = enemies.size();
+        for (Obstacle obj : objects) {
+            if (obj.getBodyType() != BodyDef.BodyType.StaticBody) {
+                count++;
+            }
+        }
+        obstacles = new Obstacle[count];
+        positionsX = new float[count];
+        positionsY = new float[count];
+        angles = new float[count];
+        velocitiesX = new float[count];
+        velocitiesY = new float[count];
+        spins = new float[count];
+        types = new BodyDef.BodyType[count];
+        active = new boolean[count];
+
+        int slot = 0;
+        for (Obstacle obj : objects) {
+            if (obj.getBodyType() != BodyDef.BodyType.StaticBody) {
+                read(slot++, obj);
+            }
+        }
+        enemyCount = enemies.size();
+        for (Enemy enemy : enemies) {
+            read(slot++, enemy);
+        }
+    }
+
+    /**
+     * Returns the number of obstacles copied
+     *
+     * @return the number of obstacles copied
+     */
+    public int size() {
+        return obstacles.length;
+    }
+
+    /**
+     * Returns the number of enemies copied
+     *
+     * @return the number of enemies copied
+     */
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    /**
+     * Returns a copied obstacle
+     *
+     * The enemies are the last getEnemyCount() obstacles, in their original order.
+     *
+     * @param index The index of the obstacle
+     *
+     * @return a copied obstacle
+     */
+    public Obstacle get(int index) {
+        return obstacles[index];
+    }
+
+    /**
+     * Puts the body of a copied obstacle back to its copied state.
+     *
+     * The obstacle must have a body.  This allocates nothing.
+     *
+     * @param index The index of the obstacle
+     */
+    public void restore(int index) {
+        Obstacle obj = obstacles[index];
+        obj.setBodyType(types[index]);
+        obj.setActive(active[index]);
+        obj.setAngle(angles[index]);
+        obj.setPosition(positionsX[index], positionsY[index]);
+        obj.setLinearVelocity(velocityCache.set(velocitiesX[index], velocitiesY[index]));
+        obj.setAngularVelocity(spins[index]);
+        obj.setAwake(true);
+    }
+
+    /**
+     * Copies the body of an obstacle into a slot
+     *
+     * @param slot  The slot to copy into
+     * @param obj   The obstacle to copy
+     */
+    private void read(int slot, Obstacle obj) {
+        obstacles[slot] = obj;
+        positionsX[slot] = obj.getX();
+        positionsY[slot] = obj.getY();
+        angles[slot] = obj.getAngle();
+        velocitiesX[slot] = obj.getVX();
+        velocitiesY[slot] = obj.getVY();
+        spins[slot] = obj.getAngularVelocity();
+        types[slot] = obj.getBodyType();
+        active[slot] = obj.isActive();
+    }
+}
@@ -0,0 +1,324 @@
+package edu.cornell.gdiac.tempus.tempus;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.Transform;
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.tempus.SceneRegistry;
+import edu.cornell.gdiac.tempus.obstacle.Obstacle;
+import edu.cornell.gdiac.tempus.tempus.models.Avatar;
+import edu.cornell.gdiac.tempus.tempus.models.Enemy;
+import edu.cornell.gdiac.tempus.tempus.models.Platform;
+import edu.cornell.gdiac.tempus.tempus.models.Projectile;
+import edu.cornell.gdiac.tempus.tempus.models.Spikes;
+import edu.cornell.gdiac.util.DenseList;
+
+/**
+ * Answers line of sight queries for the enemies without ray casting in Box2D.
+ *
+ * Every enemy checks its sight to the avatar several times a frame, and each
+ * World.rayCast() is a trip through JNI.  Almost everything that blocks sight
+ * is a static platform, so the shapes of the static bodies are copied into
+ * world coordinates once, when the room is loaded, and kept in one list per
+ * era.  The enemies (which may move) and the avatar are copied again at most
+ * once per frame, after they have moved.
+ *
+ * The rules are the same as for the LineOfSight ray cast callback in Enemy:
+ * sight is blocked by anything between the enemy and the avatar except the
+ * enemy itself, projectiles, and platforms and spikes of the other era.  The
+ * segment tests follow the Box2D polygon and circle ray casts, so a shape that
+ * contains the start of the segment does not block it.
+ */
+public class SightCache {
+    /** A fixture shape (a convex polygon or a circle) in world coordinates */
+    private static class SightShape {
+        /** The obstacle that owns this shape */
+        public Object owner;
+        /** Whether this shape is a circle (otherwise it is a polygon) */
+        public boolean circle;
+        /** The number of polygon vertices */
+        public int count;
+        /** The polygon vertices, as x,y pairs */
+        public float[] verts = new float[16];
+        /** The outward polygon edge normals, as x,y pairs */
+        public float[] normals = new float[16];
+        /** The circle center */
+        public float cx, cy;
+        /** The circle radius */
+        public float radius;
+        /** The bounding box of this shape */
+        public float minX, minY, maxX, maxY;
+
+        /**
+         * Copies a fixture into world coordinates
+         *
+         * @param fix   The fixture to copy
+         * @param xform The transform of its body
+         * @param temp  A vector to use for the vertices
+         *
+         * @return true if the fixture has a shape that can block sight
+         */
+        public boolean set(Fixture fix, Transform xform, Vector2 temp) {
+            owner = fix.getBody().getUserData();
+            Shape shape = fix.getShape();
+            if (shape.getType() == Shape.Type.Circle) {
+                circle = true;
+                temp.set(((CircleShape) shape).getPosition());
+                xform.mul(temp);
+                cx = temp.x;
+                cy = temp.y;
+                radius = shape.getRadius();
+                minX = cx - radius;
+                minY = cy - radius;
+                maxX = cx + radius;
+                maxY = cy + radius;
+                return true;
+            } else if (shape.getType() != Shape.Type.Polygon) {
+                return false;
+            }
+
+            PolygonShape poly = (PolygonShape) shape;
+            circle = false;
+            count = poly.getVertexCount();
+            if (verts.length < 2 * count) {
+                verts = new float[2 * count];
+                normals = new float[2 * count];
+            }
+            minX = minY = Float.MAX_VALUE;
+            maxX = maxY = -Float.MAX_VALUE;
+            for (int ii = 0; ii < count; ii++) {
+                poly.getVertex(ii, temp);
+                xform.mul(temp);
+                verts[2 * ii] = temp.x;
+                verts[2 * ii + 1] = temp.y;
+                minX = Math.min(minX, temp.x);
+                minY = Math.min(minY, temp.y);
+                maxX = Math.max(maxX, temp.x);
+                maxY = Math.max(maxY, temp.y);
+            }
+            for (int ii = 0; ii < count; ii++) {
+                int jj = (ii + 1) % count;
+                float ex = verts[2 * jj] - verts[2 * ii];
+                float ey = verts[2 * jj + 1] - verts[2 * ii + 1];
+                float len = (float) Math.sqrt(ex * ex + ey * ey);
+                normals[2 * ii] = len > 0 ? ey / len : 0;
+                normals[2 * ii + 1] = len > 0 ? -ex / len : 0;
+            }
+            return true;
+        }
+
+        /**
+         * Returns the fraction of the segment where it first enters this shape.
+         *
+         * @return the fraction where the segment enters, or -1 if it does not
+         */
+        public float rayCast(float x0, float y0, float x1, float y1) {
+            if (Math.max(x0, x1) < minX || Math.min(x0, x1) > maxX ||
+                    Math.max(y0, y1) < minY || Math.min(y0, y1) > maxY) {
+                return -1;
+            }
+            float dx = x1 - x0;
+            float dy = y1 - y0;
+            if (circle) {
+                float sx = x0 - cx;
+                float sy = y0 - cy;
+                float b = sx * sx + sy * sy - radius * radius;
+                float c = sx * dx + sy * dy;
+                float rr = dx * dx + dy * dy;
+                float sigma = c * c - rr * b;
+                if (sigma < 0 || rr < 1.0e-10f) {
+                    return -1;
+                }
+                float a = -(c + (float) Math.sqrt(sigma));
+                return (0 <= a && a <= rr) ? a / rr : -1;
+            }
+
+            float lower = 0;
+            float upper = 1;
+            int index = -1;
+            for (int ii = 0; ii < count; ii++) {
+                float nx = normals[2 * ii];
+                float ny = normals[2 * ii + 1];
+                float numerator = nx * (verts[2 * ii] - x0) + ny * (verts[2 * ii + 1] - y0);
+                float denominator = nx * dx + ny * dy;
+                if (denominator == 0) {
+                    if (numerator < 0) {
+                        return -1;
+                    }
+                } else if (denominator < 0 && numerator < lower * denominator) {
+                    lower = numerator / denominator;
+                    index = ii;
+                } else if (denominator > 0 && numerator < upper * denominator) {
+                    upper = numerator / denominator;
+                }
+                if (upper < lower) {
+                    return -1;
+                }
+            }
+            return index >= 0 ? lower : -1;
+        }
+    }
+
+    /** The static shapes that block sight in each era (indexed by SceneRegistry era) */
+    private Array<SightShape>[] occluders;
+    /** The shapes of the enemies, copied from their bodies (reused between frames) */
+    private Array<SightShape> moving;
+    /** The number of entries of moving that are in use */
+    private int movingCount;
+    /** The shapes of the avatar, copied from its body (reused between frames) */
+    private Array<SightShape> avatarShapes;
+    /** The number of entries of avatarShapes that are in use */
+    private int avatarCount;
+    /** Whether the enemies or the avatar may have moved since they were copied */
+    private boolean dirty;
+
+    /** The enemies that block sight */
+    private DenseList<Enemy> enemies;
+    /** The avatar that the enemies look for */
+    private Avatar avatar;
+
+    /** Cache for the vertex transforms */
+    private Vector2 vertexCache = new Vector2();
+
+    /**
+     * Creates the cache for a room, copying the shapes of its static bodies.
+     *
+     * The objects must already have their bodies.
+     *
+     * @param objects The objects in the room (not counting the enemies)
+     * @param enemies The enemies in the room
+     * @param avatar  The avatar that the enemies look for (may be null)
+     */
+    @SuppressWarnings("unchecked")
+    public SightCache(Iterable<Obstacle> objects, DenseList<Enemy> enemies, Avatar avatar) {
+        this.enemies = enemies;
+        this.avatar = avatar;
+        occluders = new Array[2];
+        occluders[SceneRegistry.PRESENT] = new Array<SightShape>();
+        occluders[SceneRegistry.PAST] = new Array<SightShape>();
+        moving = new Array<SightShape>();
+        avatarShapes = new Array<SightShape>();
+        dirty = true;
+
+        for (Obstacle obj : objects) {
+            Body body = obj.getBody();
+            if (body == null || body.getType() != BodyDef.BodyType.StaticBody ||
+                    obj instanceof Enemy || obj instanceof Projectile || obj instanceof Avatar) {
+                continue;
+            }
+            // Platforms and spikes only block sight in their own era
+            boolean eras = obj instanceof Platform || obj instanceof Spikes;
+            for (Fixture fix : body.getFixtureList()) {
+                SightShape shape = new SightShape();
+                if (!shape.set(fix, body.getTransform(), vertexCache)) {
+                    continue;
+                }
+                if (!eras || obj.getSpace() != 2) {
+                    occluders[SceneRegistry.PRESENT].add(shape);
+                }
+                if (!eras || obj.getSpace() != 1) {
+                    occluders[SceneRegistry.PAST].add(shape);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the enemies and the avatar as moved.
+     *
+     * This should be called once the world has been stepped, or after an enemy
+     * is moved by hand.  They are copied again on the next query.
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Returns true if nothing blocks the sight of an enemy along a segment.
+     *
+     * The segment ends at (or inside) the avatar, and anything past the point
+     * where it enters the avatar is ignored.
+     *
+     * @param e  The enemy looking
+     * @param x0 The x-coordinate of the start of the segment
+     * @param y0 The y-coordinate of the start of the segment
+     * @param x1 The x-coordinate of the end of the segment
+     * @param y1 The y-coordinate of the end of the segment
+     *
+     * @return true if nothing blocks the sight of an enemy along a segment
+     */
+    public boolean canSee(Enemy e, float x0, float y0, float x1, float y1) {
+        if (dirty) {
+            refresh();
+        }
+
+        // Nothing behind the avatar matters
+        float limit = 1;
+        for (int ii = 0; ii < avatarCount; ii++) {
+            float hit = avatarShapes.get(ii).rayCast(x0, y0, x1, y1);
+            if (hit >= 0 && hit < limit) {
+                limit = hit;
+            }
+        }
+
+        Array<SightShape> statics = occluders[e.getSpace() == 2 ? SceneRegistry.PAST : SceneRegistry.PRESENT];
+        for (int ii = 0; ii < statics.size; ii++) {
+            float hit = statics.get(ii).rayCast(x0, y0, x1, y1);
+            if (hit >= 0 && hit < limit) {
+                return false;
+            }
+        }
+        for (int ii = 0; ii < movingCount; ii++) {
+            SightShape shape = moving.get(ii);
+            if (shape.owner != e) {
+                float hit = shape.rayCast(x0, y0, x1, y1);
+                if (hit >= 0 && hit < limit) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the shapes of the enemies and the avatar from their bodies
+     */
+    private void refresh() {
+        movingCount = 0;
+        for (int ii = 0; ii < enemies.size(); ii++) {
+            movingCount = copyShapes(enemies.get(ii).getBody(), moving, movingCount);
+        }
+        avatarCount = avatar == null ? 0 : copyShapes(avatar.getBody(), avatarShapes, 0);
+        dirty = false;
+    }
+
+    /**
+     * Copies the shapes of a body into a reusable list
+     *
+     * @param body   The body to copy (may be null)
+     * @param shapes The list to copy into
+     * @param count  The number of entries of the list already in use
+     *
+     * @return the number of entries of the list in use afterwards
+     */
+    private int copyShapes(Body body, Array<SightShape> shapes, int count) {
+        if (body == null) {
+            return count;
+        }
+        Transform xform = body.getTransform();
+        for (Fixture fix : body.getFixtureList()) {
+            if (count == shapes.size) {
+                shapes.add(new SightShape());
+            }
+            if (shapes.get(count).set(fix, xform, vertexCache)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -15,6 +15,7 @@ import edu.cornell.gdiac.tempus.InputController;
 import edu.cornell.gdiac.tempus.obstacle.CapsuleObstacle;
 import edu.cornell.gdiac.util.FilmStrip;
 import edu.cornell.gdiac.util.JsonAssetManager;
+import edu.cornell.gdiac.util.RoomFile;
 
 import static edu.cornell.gdiac.tempus.tempus.models.EntityType.PAST;
 import static edu.cornell.gdiac.tempus.tempus.models.EntityType.PRESENT;
@@ -742,6 +743,17 @@ public class Avatar extends CapsuleObstacle {
         setFixedRotation(true);
 
         // Gameplay attributes
+        endDashVelocity = new Vector2(0f,0f);
+        rewind();
+    }
+
+    /**
+     * Puts the gameplay state of the dude back to how it was created.
+     *
+     * A room calls this when it is reset, along with restoring the body (see
+     * RoomSnapshot).
+     */
+    public void rewind() {
         lives = 3;
         state = AvatarState.STANDING;
         animationState = state;
@@ -750,18 +762,27 @@ public class Avatar extends CapsuleObstacle {
         isJumping = false;
         faceRight = true;
         isDashing = false;
+        hasDashed = false;
         catchReady = false;
         newAngle = 0;
         isSticking = false;
+        wasSticking = false;
         dashDistance = DASH_RANGE;
         startedDashing = 0;
         numDashes = maxDashes;
-        endDashVelocity = new Vector2(0f,0f);
+        endDashVelocity.set(0f,0f);
         enemyContact = false;
         shootCooldown = 0;
         jumpCooldown = 0;
         isHolding = false;
+        heldBullet = null;
+        currentPlat = null;
         wasDamaged = false;
+        hitByProjctile = false;
+        projectileTicks = 0;
+        enemyTicks = 0;
+        immortality = 0;
+        movement = 0;
         shifted = 0;
         spliced = false;
         slowing = 1;
@@ -830,27 +851,34 @@ public class Avatar extends CapsuleObstacle {
      * @param json	the JSON subtree defining the dude
      */
     public void initialize(JsonValue json) {
-        float [] shrink = json.get("shrink").asFloatArray();
-        float [] pos = json.get("pos").asFloatArray();
-        TextureRegion avatarTexture = JsonAssetManager.getInstance().getEntry(json.get("texture").asString(), TextureRegion.class);
-        setDashStartPos(new Vector2 (pos[0],pos[1]));
+        initialize(RoomFile.parseEntity(RoomFile.AVATAR, json));
+    }
+
+    /**
+     * Initializes the avatar via the given room record
+     *
+     * @param entity	the record defining the dude
+     */
+    public void initialize(RoomFile.Entity entity) {
+        TextureRegion avatarTexture = JsonAssetManager.getInstance().getEntry(entity.texture, TextureRegion.class);
+        setDashStartPos(new Vector2 (entity.x,entity.y));
         float dwidth = avatarTexture.getRegionWidth();
 		float dheight = avatarTexture.getRegionHeight();
-		setDimension(dwidth*shrink[0],dheight*shrink[1] * 1.5f);
-		width = dwidth*shrink[0];
-		height = dheight*shrink[1] * 1.5f;
-        setPosition(pos[0],pos[1]);
+		setDimension(dwidth*entity.width,dheight*entity.height * 1.5f);
+		width = dwidth*entity.width;
+		height = dheight*entity.height * 1.5f;
+        setPosition(entity.x,entity.y);
         startPos = getPosition();
         highestPos = getY();
 		setTexture(avatarTexture);
-        setDensity(json.get("density").asFloat());
+        setDensity(entity.density);
         density = getDensity();
-        setBodyType(json.get("bodytype").asString().equals("static") ? BodyDef.BodyType.StaticBody : BodyDef.BodyType.DynamicBody);
+        setBodyType(entity.bodyType);
 
-        avatarStandingTexture = JsonAssetManager.getInstance().getEntry(json.get("avatarstanding").asString(), FilmStrip.class);
-        avatarCrouchingTexture = JsonAssetManager.getInstance().getEntry(json.get("avatarcrouching").asString(), FilmStrip.class);
-        avatarDashingTexture = JsonAssetManager.getInstance().getEntry(json.get("avatardashing").asString(), FilmStrip.class);
-        avatarFallingTexture = JsonAssetManager.getInstance().getEntry(json.get("avatarfalling").asString(), FilmStrip.class);
+        avatarStandingTexture = JsonAssetManager.getInstance().getEntry(entity.filmstrips[0], FilmStrip.class);
+        avatarCrouchingTexture = JsonAssetManager.getInstance().getEntry(entity.filmstrips[1], FilmStrip.class);
+        avatarDashingTexture = JsonAssetManager.getInstance().getEntry(entity.filmstrips[2], FilmStrip.class);
+        avatarFallingTexture = JsonAssetManager.getInstance().getEntry(entity.filmstrips[3], FilmStrip.class);
 
         setFilmStrip(Avatar.AvatarState.STANDING, avatarStandingTexture);
         setFilmStrip(Avatar.AvatarState.CROUCHING, avatarCrouchingTexture);
@@ -861,7 +889,7 @@ public class Avatar extends CapsuleObstacle {
         projPastCaughtTexture = JsonAssetManager.getInstance().getEntry("projpastcaught", TextureRegion.class);
         setCaughtProjTexture(PRESENT, projPresentCaughtTexture);
         setCaughtProjTexture(PAST, projPastCaughtTexture);
-		setName(json.name());
+		setName(entity.name);
     }
 
     /**
@@ -1022,7 +1050,7 @@ public class Avatar extends CapsuleObstacle {
     /**
      * Updates the object's physics state (NOT GAME LOGIC).
      *
-     * We use this method to reset cooldowns.
+     * The cooldowns are reset in tick(), once per step.
      *
      * @param dt Number of seconds since last animation frame
      */
@@ -1065,7 +1093,16 @@ public class Avatar extends CapsuleObstacle {
             setAngle(0);
         }*/
 
+        super.update(dt);
+    }
 
+    /**
+     * Advances the dash and the cooldowns by one fixed step
+     *
+     * The counters here are in steps, so this must be called once per step of
+     * the physics world rather than once per frame.
+     */
+    public void tick() {
         //check if dash must end
         if(isDashing) {
             //setCurrentPlatform(null);
@@ -1111,8 +1148,6 @@ public class Avatar extends CapsuleObstacle {
         } else {
             shootCooldown = Math.max(0, shootCooldown - 1);
         }
-
-        super.update(dt);
     }
 
     /**
@@ -1173,7 +1208,7 @@ public class Avatar extends CapsuleObstacle {
         if (frame_cooldown > 0) {
             frame_cooldown--;
             return;
-        } else frame_cooldown = Gdx.graphics.getFramesPerSecond()/10;
+        } else frame_cooldown = FRAME_RATE;
 
         // Manage current frame to draw
         if (currentStrip.getFrame() < currentStrip.getSize()-1) {
@@ -1217,20 +1252,18 @@ public class Avatar extends CapsuleObstacle {
         // flipping the avatar when they are sticking
         // below a platform looks off
 
-
-        canvas.getSpriteBatch().setProjectionMatrix(camera.combined);
         if(catchReady || isHolding){
             canvas.draw(JsonAssetManager.getInstance().getEntry("catch_indicator", TextureRegion.class),
                     Color.WHITE, origin.x + 84/4f, origin.y + 60/4f,
-                    getX() * drawScale.x, getY() * drawScale.y, 0,
+                    getDrawX() * drawScale.x, getDrawY() * drawScale.y, 0,
                     0.02f * drawScale.x *2, 0.01875f * drawScale.y*2);
         }
 
         float faceDirection = 1.0f;
-        if (getAngle() > -0.3 && getAngle() < 0.3) {
+        if (getDrawAngle() > -0.3 && getDrawAngle() < 0.3) {
             faceDirection = faceRight ? 1.0f : -1.0f;
         }
-        float angle = getAngle();
+        float angle = getDrawAngle();
         if (!isSticking){
             angle = 0;
         }
@@ -1244,18 +1277,18 @@ public class Avatar extends CapsuleObstacle {
             if(isImmortal()) { //If the player is immortal, make the player blink.
                 if (getImmmortality()%20<10) {
                     canvas.draw(currentStrip, (new Color(1, 1, 1, 0.5f)), origin.x + 84f, origin.y + 60f,
-                            getX() * drawScale.x, getY() * drawScale.y, angle,
+                            getDrawX() * drawScale.x, getDrawY() * drawScale.y, angle,
                             0.02f * drawScale.x * minimizeScale * faceDirection * slowing, 0.01875f * minimizeScale * drawScale.y);
                 }
                 else {
                     canvas.draw(currentStrip, (new Color(1, 1, 1, 1f)), origin.x + 84f, origin.y + 60f,
-                            getX() * drawScale.x, getY() * drawScale.y, angle,
+                            getDrawX() * drawScale.x, getDrawY() * drawScale.y, angle,
                             0.02f * drawScale.x * minimizeScale * faceDirection * slowing, 0.01875f * minimizeScale * drawScale.y);
                 }
             }
             else{
                 canvas.draw(currentStrip, shade, origin.x + 84f, origin.y + 60f,
-                        getX() * drawScale.x, getY() * drawScale.y, angle,
+                        getDrawX() * drawScale.x, getDrawY() * drawScale.y, angle,
                         0.02f * drawScale.x * minimizeScale * faceDirection * slowing, 0.01875f * minimizeScale * drawScale.y);
             }
         }
@@ -1268,11 +1301,11 @@ public class Avatar extends CapsuleObstacle {
             switch (projType) {
                 case PRESENT:
                     canvas.draw(projPresentCaughtTexture, Color.WHITE,origin.x + 10,origin.y,
-                            getX()*drawScale.x + 10,getY()*drawScale.y, angle,0.005f * drawScale.x,0.005f * drawScale.y);
+                            getDrawX()*drawScale.x + 10,getDrawY()*drawScale.y, angle,0.005f * drawScale.x,0.005f * drawScale.y);
                     break;
                 case PAST:
                     canvas.draw(projPastCaughtTexture, Color.WHITE,origin.x,origin.y,
-                            getX()*drawScale.x,getY()*drawScale.y, angle,0.005f * drawScale.x,0.005f * drawScale.y);
+                            getDrawX()*drawScale.x,getDrawY()*drawScale.y, angle,0.005f * drawScale.x,0.005f * drawScale.y);
                     break;
                 default:
                     assert false : "Invalid projectile type";
@@ -1,6 +1,5 @@
 package edu.cornell.gdiac.tempus.tempus.models;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
@@ -88,6 +87,15 @@ public class Door extends BoxObstacle {
     }
 
     public void initialize(JsonValue key) {
+        initialize(RoomFile.parseEntity(RoomFile.DOOR, key));
+    }
+
+    /**
+     * Initializes the door via the given room record
+     *
+     * @param entity the record defining the door
+     */
+    public void initialize(RoomFile.Entity entity) {
         lockedTexture = JsonAssetManager.getInstance().getEntry("door_locked", FilmStrip.class);
         setFilmStrip(DoorState.LOCKED, lockedTexture);
         unlockingTexture = JsonAssetManager.getInstance().getEntry("door_unlocking", FilmStrip.class);
@@ -95,21 +103,19 @@ public class Door extends BoxObstacle {
         openTexture = JsonAssetManager.getInstance().getEntry("door_open", FilmStrip.class);
         setFilmStrip(DoorState.OPEN, openTexture);
 
-        TextureRegion goalTile = JsonAssetManager.getInstance().getEntry(key.get("texture").asString(), TextureRegion.class);
+        TextureRegion goalTile = JsonAssetManager.getInstance().getEntry(entity.texture, TextureRegion.class);
         locked_texture = JsonAssetManager.getInstance().getEntry("goal_locked", TextureRegion.class);
-        float[] pos = key.get("pos").asFloatArray();
-        float[] size = key.get("size").asFloatArray();
-        setPosition(pos[0], pos[1]);
-        setDimension(size[0], size[1]);
-        setBodyType(key.get("bodytype").asString().equals("static") ? BodyDef.BodyType.StaticBody : BodyDef.BodyType.DynamicBody);
-        setDensity(key.get("density").asFloat());
-        setFriction(key.get("friction").asFloat());
-        setRestitution(key.get("restitution").asFloat());
+        setPosition(entity.x, entity.y);
+        setDimension(entity.width, entity.height);
+        setBodyType(entity.bodyType);
+        setDensity(entity.density);
+        setFriction(entity.friction);
+        setRestitution(entity.restitution);
         setTexture(goalTile);
-        setSpace(key.get("space").asInt());
+        setSpace(entity.space);
         setName("goal");
         setSensor(true);
-        NEXT_LEVEL = key.get("nextlevel").asInt();
+        NEXT_LEVEL = entity.nextLevel;
     }
 
     public void setAnimationState(DoorState s){ this.animationState = s; }
@@ -168,7 +174,7 @@ public class Door extends BoxObstacle {
             frame_cooldown--;
             return;
         } else
-            frame_cooldown = Gdx.graphics.getFramesPerSecond()/10 ;
+            frame_cooldown = 6;
 
         if (currentStrip.getFrame() < currentStrip.getSize() - 1) {
             currentStrip.setFrame(currentStrip.getFrame() + 1);
@@ -187,7 +193,7 @@ public class Door extends BoxObstacle {
      */
     public void draw(GameCanvas canvas) {
         if (currentStrip != null) {
-            canvas.draw(currentStrip, Color.WHITE, origin.x, origin.y, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 0.015f * drawScale.x, 0.015f * drawScale.y);
+            canvas.draw(currentStrip, Color.WHITE, origin.x, origin.y, getDrawX() * drawScale.x, getDrawY() * drawScale.y, getDrawAngle(), 0.015f * drawScale.x, 0.015f * drawScale.y);
         }
 
 //        TextureRegion locked_door = locked_texture != null ? locked_texture : texture;
@@ -1,6 +1,5 @@
 package edu.cornell.gdiac.tempus.tempus.models;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -12,6 +11,7 @@ import edu.cornell.gdiac.tempus.GameCanvas;
 import edu.cornell.gdiac.tempus.obstacle.CapsuleObstacle;
 import edu.cornell.gdiac.util.FilmStrip;
 import edu.cornell.gdiac.util.JsonAssetManager;
+import edu.cornell.gdiac.util.RoomFile;
 import edu.cornell.gdiac.util.SoundController;
 
 import static edu.cornell.gdiac.tempus.tempus.models.EntityType.PAST;
@@ -184,14 +184,21 @@ public class Enemy extends CapsuleObstacle {
      * @param json The params for the turret
      */
     public Enemy(JsonValue json) {
+        this(RoomFile.parseEntity(RoomFile.TURRET, json));
+    }
+
+    /**
+     * Creates a turret with the provided room record
+     *
+     * @param entity The record for the turret
+     */
+    public Enemy(RoomFile.Entity entity) {
         super(0, 0, 0.5f, 1.0f);
-        float[] pos = json.get("pos").asFloatArray();
-        float[] shrink = json.get("shrink").asFloatArray();
-        TextureRegion texture = JsonAssetManager.getInstance().getEntry(json.get("texture").asString(),
+        TextureRegion texture = JsonAssetManager.getInstance().getEntry(entity.texture,
                 TextureRegion.class);
 
         // example Filmstrip extraction
-        String entitytype = json.get("entitytype").asString();
+        String entitytype = entity.era;
         FilmStrip test = JsonAssetManager.getInstance().getEntry("turret_shooting" + "_" + entitytype, FilmStrip.class);
         setTexture(texture);
 
@@ -202,24 +209,24 @@ public class Enemy extends CapsuleObstacle {
         if (entitytype.equals("present")) {
             minimizeScale = 0.4f;
 //            FRAME_RATE = 10;
-            FRAME_RATE = Gdx.graphics.getFramesPerSecond() < 40 ? 5 : 10;
+            FRAME_RATE = 10;
         } else if (entitytype.equals("past")) {
             minimizeScale = 0.4f;
 //            FRAME_RATE = 10;
-            FRAME_RATE = Gdx.graphics.getFramesPerSecond() < 40 ? 5 : 10;
+            FRAME_RATE = 10;
         }
 
-        setPosition(pos[0], pos[1]);
-        setDimension(texture.getRegionWidth() * shrink[0] * minimizeScale, texture.getRegionHeight() * shrink[1] * minimizeScale);
+        setPosition(entity.x, entity.y);
+        setDimension(texture.getRegionWidth() * entity.width * minimizeScale, texture.getRegionHeight() * entity.height * minimizeScale);
         setType(entitytype.equals("present") ? EntityType.PRESENT : PAST);
         setSpace(getType() == PRESENT ? 1 : 2);
-        setBodyType(json.get("bodytype").asString().equals("static") ? BodyDef.BodyType.StaticBody
-                : BodyDef.BodyType.DynamicBody);
-        setDensity(json.get("density").asFloat());
+        setBodyType(entity.bodyType);
+        setDensity(entity.density);
         isTurret = true;
-        this.cooldown = json.get("cooldown").asInt();
-        float[] dir = json.get("direction").asFloatArray();
-        this.projVel = new Vector2(dir[0], dir[1]);
+        faceDirection = 1f;
+        removalFrames = 60;
+        this.cooldown = entity.cooldown;
+        this.projVel = new Vector2(entity.dirX, entity.dirY);
         isFiring = true;
         shiftedActive = isFiring;
         framesTillFire = this.cooldown;
@@ -236,28 +243,35 @@ public class Enemy extends CapsuleObstacle {
      * @param json   the json storing enemy properties
      */
     public Enemy(final Avatar target, JsonValue json) {
+        this(target, RoomFile.parseEntity(RoomFile.ENEMY, json));
+    }
+
+    /**
+     * Creates a moving enemy
+     *
+     * @param target the target the enemy is aiming for
+     * @param entity the room record storing enemy properties
+     */
+    public Enemy(final Avatar target, RoomFile.Entity entity) {
         super(0, 0, 0.5f, 1.0f);
-        float[] pos = json.get("pos").asFloatArray();
-        float[] shrink = json.get("shrink").asFloatArray();
-//        System.out.println("TEXTURE: " + json.get("texture").asString() + "_type" + (json.get("aitype").asInt()));
+//        System.out.println("TEXTURE: " + entity.texture + "_type" + entity.aiType);
         TextureRegion texture = JsonAssetManager.getInstance()
-                .getEntry(json.get("texture").asString() + "_type" + (json.get("aitype").asInt()), TextureRegion.class);
+                .getEntry(entity.texture + "_type" + entity.aiType, TextureRegion.class);
 
-        String entitytype = json.get("entitytype").asString();
+        String entitytype = entity.era;
 
         setTexture(texture);
 
-        setPosition(pos[0], pos[1]);
+        setPosition(entity.x, entity.y);
         startPosition = getPosition();
-        setDimension(texture.getRegionWidth() * shrink[0], texture.getRegionHeight() * shrink[1]);
-        setType(json.get("entitytype").asString().equals("present") ? EntityType.PRESENT : PAST);
-        setBodyType(json.get("bodytype").asString().equals("static") ? BodyDef.BodyType.StaticBody
-                : BodyDef.BodyType.DynamicBody);
+        setDimension(texture.getRegionWidth() * entity.width, texture.getRegionHeight() * entity.height);
+        setType(entity.era.equals("present") ? EntityType.PRESENT : PAST);
+        setBodyType(entity.bodyType);
         setSpace(getType() == PRESENT ? 1 : 2);
-        setDensity(json.get("density").asFloat());
+        setDensity(entity.density);
         setMass(ENEMY_MASS);
         this.target = target;
-        this.cooldown = json.get("cooldown").asInt();
+        this.cooldown = entity.cooldown;
         // projVel = new Vector2(0,0).sub(getPosition().sub(target.getPosition()));
         shiftedActive = isFiring;
         framesTillFire = this.cooldown;
@@ -284,11 +298,11 @@ public class Enemy extends CapsuleObstacle {
 //        }
         passiveEnemyIndicator = JsonAssetManager.getInstance().getEntry("enemy_passive_yellow", TextureRegion.class);
         activeEnemyIndicator = JsonAssetManager.getInstance().getEntry("enemy_active_yellow", TextureRegion.class);
-        switch (json.get("aitype").asInt()) {
+        switch (entity.aiType) {
         case 1:
             ai = EnemyType.WALK;
             if (entitytype.equals("past")) {
-                FRAME_RATE = Gdx.graphics.getFramesPerSecond() < 40 ? 7.5f : 15;
+                FRAME_RATE = 15;
             }
             neutralTexture = JsonAssetManager.getInstance().getEntry(("enemywalking" + "_" + entitytype), FilmStrip.class);
             attackingTexture = neutralTexture;
@@ -301,7 +315,7 @@ public class Enemy extends CapsuleObstacle {
 
         case 2:
             ai = EnemyType.TELEPORT;
-            FRAME_RATE =Gdx.graphics.getFramesPerSecond() < 40 ? 7.5f : 15;
+            FRAME_RATE = 15;
             neutralTexture = JsonAssetManager.getInstance().getEntry(("enemyteleporting" + "_" + entitytype), FilmStrip.class);
             attackingTexture = JsonAssetManager.getInstance().getEntry(("enemyteleporting_activate" + "_" + entitytype), FilmStrip.class);
             tpEndTexture = JsonAssetManager.getInstance().getEntry(("enemyteleporting_deactivate" + "_" + entitytype), FilmStrip.class);
@@ -326,10 +340,10 @@ public class Enemy extends CapsuleObstacle {
         case 4:
             ai = EnemyType.FLY;
             if (entitytype.equals("present")) {
-                FRAME_RATE = Gdx.graphics.getFramesPerSecond() < 40 ? 5 : 10 ;
+                FRAME_RATE = 10;
                 minimizeScale = 0.5f;
             } else if (entitytype.equals("past")) {
-                FRAME_RATE = Gdx.graphics.getFramesPerSecond() < 40 ? 3.75f : 7.5f;
+                FRAME_RATE = 7.5f;
                 minimizeScale = 0.4f;
                 setDimension(2.5f, 1f);
                 setMass(ENEMY_MASS/2);
@@ -349,6 +363,40 @@ public class Enemy extends CapsuleObstacle {
         setFilmStrip(EnemyState.TPEND, neutralTexture);
     }
 
+    /**
+     * Puts the gameplay state of this enemy back to how it was created.
+     *
+     * A room calls this when it is reset, along with restoring the body (see
+     * RoomSnapshot).  An enemy that was killed comes back to life.
+     */
+    public void rewind() {
+        markRemoved(false);
+        dead = false;
+        animationState = EnemyState.NEUTRAL;
+        framesTillFire = cooldown;
+        limiter = 4;
+        checkSight = false;
+        shiftQueued = false;
+        queueRespawn = false;
+        faceDirection = 1f;
+        removalFrames = 60;
+        if (isTurret) {
+            isFiring = true;
+            shiftedActive = isFiring;
+            return;
+        }
+        movement = 0;
+        nextDirection = 0;
+        teleportTo = null;
+        currPlatform = null;
+        isFiring = ai == EnemyType.TELEPORT;
+        shiftedActive = false;
+        waitToFire = ai == EnemyType.TELEPORT;
+        if (flyingVelocity != null) {
+            flyingVelocity.setZero();
+        }
+    }
+
     public Vector2 getStartPosition() {
         return startPosition;
     }
@@ -770,7 +818,22 @@ public class Enemy extends CapsuleObstacle {
         return ENEMY_CENTER_SENSOR;
     }
 
+    /**
+     * Creates the physics body for this enemy, or wakes up the body of an
+     * enemy that was killed.
+     *
+     * A killed enemy keeps its body (inactive) so that a reset can bring it
+     * back without building the body and fixtures again.
+     *
+     * @param world Box2D world to store body
+     *
+     * @return true if object allocation succeeded
+     */
     public boolean activatePhysics(World world) {
+        if (body != null) {
+            setActive(true);
+            return true;
+        }
         if (!super.activatePhysics(world)) {
             return false;
         }
@@ -931,16 +994,16 @@ public class Enemy extends CapsuleObstacle {
             float offset = type.equals(PAST) ? -3f : 0;
             float fullDist = target.getPosition().dst(getPosition());
             float ratio = dist / fullDist;
-            float newX = ((target.getX() - getX()) * ratio) + (getX() * drawScale.x);
-            float newY = ((target.getY() - getY()) * ratio) + (getY() * drawScale.y);
+            float newX = ((target.getDrawX() - getDrawX()) * ratio) + (getDrawX() * drawScale.x);
+            float newY = ((target.getDrawY() - getDrawY()) * ratio) + (getDrawY() * drawScale.y);
             Vector2 drawLoc = new Vector2(newX, newY);
             float rotation = getPosition().sub(target.getPosition()).nor().angle() / 57 - 1.6f;
             TextureRegion indicator = activeEnemyIndicator;
 
             if ((getAi() == EnemyType.WALK && !isFiring) || !playerVisible) {
-                rotation = getAngle();
+                rotation = getDrawAngle();
                 indicator = passiveEnemyIndicator;
-                drawLoc = new Vector2(getX() * drawScale.x, getY() * drawScale.y);
+                drawLoc = new Vector2(getDrawX() * drawScale.x, getDrawY() * drawScale.y);
                 drawLoc.add(offset, dist);
             }
 
@@ -956,19 +1019,19 @@ public class Enemy extends CapsuleObstacle {
                 faceOffset = 0.5f * getWidth() * faceDirection;
             }
 
-            canvas.draw(currentStrip, Color.WHITE, origin.x, origin.y,  (getX() - faceOffset) * drawScale.x, (getY()- 0.6f * getHeight()) * drawScale.y,
-                    getAngle(), 0.018f * minimizeScale * drawScale.x * faceDirection , 0.0169f * minimizeScale * drawScale.y);
+            canvas.draw(currentStrip, Color.WHITE, origin.x, origin.y,  (getDrawX() - faceOffset) * drawScale.x, (getDrawY()- 0.6f * getHeight()) * drawScale.y,
+                    getDrawAngle(), 0.018f * minimizeScale * drawScale.x * faceDirection , 0.0169f * minimizeScale * drawScale.y);
         } else if (getAi() == EnemyType.TELEPORT){
             float faceOffset = 0.7f* getWidth() * faceDirection;
 
-            canvas.draw(currentStrip, Color.WHITE, origin.x, origin.y,  (getX() - faceOffset) * drawScale.x, (getY()- 0.2f * getHeight()) * drawScale.y,
-                    getAngle(), 0.024f * minimizeScale * drawScale.x * faceDirection , 0.0225f * minimizeScale * drawScale.y);
+            canvas.draw(currentStrip, Color.WHITE, origin.x, origin.y,  (getDrawX() - faceOffset) * drawScale.x, (getDrawY()- 0.2f * getHeight()) * drawScale.y,
+                    getDrawAngle(), 0.024f * minimizeScale * drawScale.x * faceDirection , 0.0225f * minimizeScale * drawScale.y);
         }
         else {
             // Draw enemy filmstrip
             if (currentStrip != null) {
-                canvas.draw(currentStrip, Color.WHITE, origin.x, origin.y, getX() * drawScale.x, getY() * drawScale.y,
-                        getAngle(), 0.024f * minimizeScale * drawScale.x * faceDirection, 0.0225f * minimizeScale * drawScale.y);
+                canvas.draw(currentStrip, Color.WHITE, origin.x, origin.y, getDrawX() * drawScale.x, getDrawY() * drawScale.y,
+                        getDrawAngle(), 0.024f * minimizeScale * drawScale.x * faceDirection, 0.0225f * minimizeScale * drawScale.y);
             }
         }
 
@@ -2,10 +2,16 @@ package edu.cornell.gdiac.tempus.tempus.models;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import edu.cornell.gdiac.tempus.GameCanvas;
 import edu.cornell.gdiac.tempus.MusicController;
 import edu.cornell.gdiac.tempus.tempus.LevelController;
+import edu.cornell.gdiac.tempus.tempus.LongRoomController;
+import edu.cornell.gdiac.util.RoomFile;
 import edu.cornell.gdiac.util.ScreenListener;
 
 import java.util.Arrays;
@@ -13,6 +19,9 @@ import java.util.logging.Level;
 
 public class LevelModel {
 
+    /** The thread that reads the next room while the current one is played (shared by all levels) */
+    private static AsyncExecutor prefetcher;
+
     /** GDXRoot screen listener instance */
     protected ScreenListener listener;
     /** GameCanvas instance */
@@ -25,10 +34,14 @@ public class LevelModel {
     protected boolean level_finished;
     /** index of current room */
     protected int current_room_idx;
-    /** pointer to current room */
-    protected LevelController current_room;
-    /** list of rooms */
+    /** paths to the room JSONs */
+    protected String[] room_paths;
+    /** list of rooms (each is null until the room is first entered) */
     protected LevelController[] rooms;
+    /** rooms being read ahead of time, by room index */
+    protected IntMap<AsyncResult<RoomFile>> prefetches;
+    /** the asset group held while this level is played (or null if none) */
+    protected String asset_group;
 
     protected JsonReader jsonReader;
 
@@ -43,23 +56,24 @@ public class LevelModel {
     /** the current time on the level*/
     protected float [] curTime;
 
-    public LevelModel(int lv, boolean unlocked, boolean finished, int resume, LevelController[] rms){
+    public LevelModel(int lv, boolean unlocked, boolean finished, int resume, String[] paths){
         level_number = lv;
         level_unlocked = unlocked;
         level_finished = finished;
         if(finished){
-            highest_room_unlocked = rms.length-1;
+            highest_room_unlocked = paths.length-1;
         }else{
             highest_room_unlocked = resume;
         }
         current_room_idx = resume;
-        rooms = rms;
-        current_room = rooms[current_room_idx];
+        room_paths = paths;
+        rooms = new LevelController[paths.length];
+        prefetches = new IntMap<AsyncResult<RoomFile>>();
         listener = null;
         canvas = null;
         //Initializes bestTime for this level.
-        bestTime = new float [rms.length];
-        curTime = new float[rms.length];
+        bestTime = new float [paths.length];
+        curTime = new float[paths.length];
         Arrays.fill(bestTime, Float.MAX_VALUE);
         Arrays.fill(curTime, 0);
         bestLevelTime = 0;
@@ -72,10 +86,11 @@ public class LevelModel {
      * @param room_idx the index of the room to be updated
      */
     public void updateBestTime(int room_idx){
-        float time = rooms[room_idx].getTimer();
+        LevelController room = getRoom(room_idx);
+        float time = room.getTimer();
         if (time<bestTime[room_idx]){bestTime[room_idx]=time;}
         curTime[room_idx] = time;
-        rooms[room_idx].resetTimer();
+        room.resetTimer();
     }
 
     /**
@@ -121,11 +136,6 @@ public class LevelModel {
     public int getRoomCount(){
         return rooms.length;
     }
-    public void preloadLevel(){
-        for(LevelController rc: rooms ) {
-            rc.preLoadContent();
-        }
-    }
 
     public void setCanvas(GameCanvas canvas){
         this.canvas = canvas;
@@ -135,13 +145,80 @@ public class LevelModel {
         this.listener = listener;
     }
 
-    /** Handles preloading of all room controller content*/
+    /**
+     * Readies the level once the assets have loaded.
+     *
+     * Rooms are no longer built here; each is built the first time it is
+     * entered (see getRoom).  Only the room the player resumes in is read ahead.
+     */
     public void createLevel(){
-        for(LevelController rc: rooms ) {
+        prefetchRoom(current_room_idx);
+    }
+
+    /**
+     * Creates the controller for a room.
+     *
+     * The first room of a level is the long room.
+     *
+     * @param idx the index of the room
+     * @return a new controller for the room
+     */
+    protected LevelController createRoom(int idx){
+        if(idx == 0){
+            LevelController rc = new LongRoomController(room_paths[idx]);
+            rc.setLongRoom(true);
+            return rc;
+        }
+        return new LevelController(room_paths[idx]);
+    }
+
+    /**
+     * Returns the controller for a room, building it if it was never entered.
+     *
+     * If the room was read ahead, the room is handed that read.
+     *
+     * @param idx the index of the room
+     * @return the controller for the room
+     */
+    protected LevelController getRoom(int idx){
+        if(rooms[idx] == null){
+            LevelController rc = createRoom(idx);
+            rc.preLoadContent();
             rc.loadContent();
             rc.setScreenListener(listener);
             rc.setCanvas(canvas);
+            rooms[idx] = rc;
+        }
+        AsyncResult<RoomFile> records = prefetches.remove(idx);
+        if(records != null){
+            rooms[idx].setPrefetch(records);
         }
+        return rooms[idx];
+    }
+
+    /**
+     * Starts reading a room on the prefetch thread.
+     *
+     * The read is kept until the room is entered.  Nothing is done if the
+     * index is past the last room, or the room is already being read.  A room
+     * that was built is never read again, as a reset restores it in place.
+     *
+     * @param idx the index of the room
+     */
+    protected void prefetchRoom(int idx){
+        if(idx < 0 || idx >= room_paths.length || rooms[idx] != null || prefetches.containsKey(idx)){
+            return;
+        }
+        if(prefetcher == null){
+            prefetcher = new AsyncExecutor(1, "RoomPrefetch");
+        }
+        final String path = room_paths[idx];
+        prefetches.put(idx, prefetcher.submit(new AsyncTask<RoomFile>() {
+            @Override
+            public RoomFile call() {
+                return RoomFile.load(path);
+            }
+        }));
     }
 
     /** Transitions to the next room
@@ -154,25 +231,28 @@ public class LevelModel {
             current_room_idx = 0;
             return true;
         }
-        current_room = rooms[current_room_idx];
+        prefetchRoom(current_room_idx + 1);
         return false;
     }
 
     public void resetLevel(){
         for(LevelController rc: rooms){
-            rc.reset();
+            if(rc != null){
+                rc.reset();
+            }
         }
     }
     public void endLevel(){
         for(LevelController rc: rooms){
-            rc.dispose();
+            if(rc != null){
+                rc.dispose();
+            }
         }
     }
 
     public void unlockLevel(){
         level_unlocked = true;
         current_room_idx = 0;
-        current_room = rooms[0];
     }
 
     public void lockLevel(){
@@ -182,15 +262,15 @@ public class LevelModel {
     public void finishLevel(){
         level_finished = true;
         current_room_idx = 0;
-        current_room = rooms[current_room_idx];
     }
 
     public void setCurrentRoom(int idx){
         current_room_idx = idx;
-        current_room = rooms[current_room_idx];
+        prefetchRoom(current_room_idx);
+        prefetchRoom(current_room_idx + 1);
     }
     public LevelController getCurrentRoom(){
-        return current_room;
+        return getRoom(current_room_idx);
     }
 
     public int getLevelNumber(){
@@ -209,6 +289,22 @@ public class LevelModel {
         return level_finished;
     }
 
+    /**
+     * Returns the asset group held while this level is played
+     * @return the asset group of this level (or null if it has none)
+     */
+    public String getAssetGroup(){
+        return asset_group;
+    }
+
+    /**
+     * Sets the asset group held while this level is played
+     * @param group the asset group of this level (or null if it has none)
+     */
+    public void setAssetGroup(String group){
+        asset_group = group;
+    }
+
     public void playMusic(){
         String past = "past2";
         String present = "present2";
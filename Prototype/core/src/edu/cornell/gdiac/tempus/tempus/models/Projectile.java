@@ -2,10 +2,16 @@ package edu.cornell.gdiac.tempus.tempus.models;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Pool;
 import edu.cornell.gdiac.tempus.GameCanvas;
 import edu.cornell.gdiac.tempus.obstacle.WheelObstacle;
 
-public class Projectile extends WheelObstacle {
+public class Projectile extends WheelObstacle implements Pool.Poolable {
+
+    /** The filter data for a projectile with no collision group */
+    private static final Filter DEFAULT_FILTER = new Filter();
 
     /** The type of this projectile */
     private EntityType type;
@@ -26,6 +32,56 @@ public class Projectile extends WheelObstacle {
         slowed = false;
     }
 
+    /**
+     * Reinitializes a recycled projectile for a new shot.
+     *
+     * @param type the type of projectile
+     * @param x the initial x position of the projectile
+     * @param y the initial y position of the projectile
+     * @param sourceData the user data of the body that fired the projectile
+     */
+    public void initialize(EntityType type, float x, float y, Object sourceData) {
+        this.type = type;
+        this.sourceData = sourceData;
+        rotation = 0;
+        slowed = false;
+        setPosition(x, y);
+    }
+
+    /**
+     * Resets this projectile so that it can be reused.
+     *
+     * The body (if any) is kept but deactivated, so it takes no part in the
+     * simulation until the projectile is activated again.
+     */
+    @Override
+    public void reset() {
+        sourceData = null;
+        slowed = false;
+        rotation = 0;
+        markRemoved(false);
+        setLinearVelocity(Vector2.Zero);
+        setFilterData(DEFAULT_FILTER);
+        setActive(false);
+    }
+
+    /**
+     * Creates the physics body for this projectile, or wakes up the body of a
+     * recycled projectile.
+     *
+     * @param world Box2D world to store body
+     *
+     * @return true if object allocation succeeded
+     */
+    @Override
+    public boolean activatePhysics(World world) {
+        if (body != null) {
+            setActive(true);
+            return true;
+        }
+        return super.activatePhysics(world);
+    }
+
     public Object getSourceData() {
         return sourceData;
     }
@@ -52,9 +108,9 @@ public class Projectile extends WheelObstacle {
         }
         if (texture != null) {
             if (getLinearVelocity().x >= 0) {
-                canvas.draw(texture, Color.WHITE, origin.x, origin.y, getX() * drawScale.x, getY() * drawScale.y, -1 * rotation, 0.005f * drawScale.x, 0.005f * drawScale.y);
+                canvas.draw(texture, Color.WHITE, origin.x, origin.y, getDrawX() * drawScale.x, getDrawY() * drawScale.y, -1 * rotation, 0.005f * drawScale.x, 0.005f * drawScale.y);
             } else {
-                canvas.draw(texture, Color.WHITE, origin.x, origin.y, getX() * drawScale.x, getY() * drawScale.y, rotation, 0.005f * drawScale.x, 0.005f * drawScale.y);
+                canvas.draw(texture, Color.WHITE, origin.x, origin.y, getDrawX() * drawScale.x, getDrawY() * drawScale.y, rotation, 0.005f * drawScale.x, 0.005f * drawScale.y);
             }
         }
         if (!slowed) {
@@ -11,6 +11,7 @@ import java.lang.reflect.*;
 import edu.cornell.gdiac.tempus.GameCanvas;
 import edu.cornell.gdiac.tempus.obstacle.BoxObstacle;
 import edu.cornell.gdiac.tempus.obstacle.PolygonObstacle;
+import edu.cornell.gdiac.tempus.obstacle.PolygonTemplate;
 import edu.cornell.gdiac.util.*;
 
 /**
@@ -33,6 +34,29 @@ public class Spikes extends PolygonObstacle {
         key = null;
     }
 
+    /**
+     * Create a new SpikesModel from an outline that is already triangulated
+     *
+     * @param points    The outline of the spikes
+     * @param triangles The triangulation of the outline
+     */
+    public Spikes(float[] points, short[] triangles) {
+        super(points, triangles, 0, 0);
+        region = null;
+        key = null;
+    }
+
+    /**
+     * Create a new SpikesModel that shares the shape of a template
+     *
+     * @param template  The shape of the spikes
+     */
+    public Spikes(PolygonTemplate template) {
+        super(template, 0, 0);
+        region = null;
+        key = null;
+    }
+
     /**
      * Initializes the spikes via the given JSON value
      *
@@ -42,37 +66,42 @@ public class Spikes extends PolygonObstacle {
      * @param json the JSON subtree defining the dude
      */
     public void initialize(JsonValue json) {
+        initialize(RoomFile.parseEntity(RoomFile.SPIKES, json));
+    }
+
+    /**
+     * Initializes the spikes via the given room record
+     *
+     * @param entity the record defining the spikes
+     */
+    public void initialize(RoomFile.Entity entity) {
         setName("spike");
-        float[] pos =json.get("pos").asFloatArray();
-        setPosition(pos[0],pos[1]);
-        setBodyType(json.get("bodytype").asString().equals("static") ? BodyDef.BodyType.StaticBody : BodyDef.BodyType.DynamicBody);
-        setDensity(json.get("density").asFloat());
-        setFriction(json.get("friction").asFloat());
-        setRestitution(json.get("restitution").asFloat());
-        setSpace(json.get("space").asInt());
-        key = json.get("texture").asString();
-        TextureRegion texture = JsonAssetManager.getInstance().getEntry(key, TextureRegion.class);
-        if (getSpace() == 2) {
-            texture = JsonAssetManager.getInstance().getEntry(key + "_past", TextureRegion.class);
-        }
-        setTexture(texture);
-        setAngle(-1 * (float) Math.toRadians(json.get("angle").asFloat()));
+        setPosition(entity.x,entity.y);
+        setBodyType(entity.bodyType);
+        setDensity(entity.density);
+        setFriction(entity.friction);
+        setRestitution(entity.restitution);
+        setSpace(entity.space);
+        key = entity.texture;
+        String textureKey = getSpace() == 2 ? key + "_past" : key;
+        setTexture(JsonAssetManager.getInstance().getEntry(textureKey, TextureRegion.class), textureKey);
+        setAngle(-1 * (float) Math.toRadians(entity.angle));
         getFilterData().groupIndex = -1;
     }
 
     public void draw(GameCanvas canvas) {
         if (region != null) {
-            canvas.draw(texture,Color.WHITE, texture.getRegionWidth()/2, texture.getRegionHeight()/2, getX() * drawScale.x,getY() * drawScale.y, getAngle(), 0.01f * drawScale.x, 0.01f * drawScale.y);
+            canvas.draw(texture,Color.WHITE, texture.getRegionWidth()/2, texture.getRegionHeight()/2, getDrawX() * drawScale.x,getDrawY() * drawScale.y, getDrawAngle(), 0.01f * drawScale.x, 0.01f * drawScale.y);
         }
     }
 
     public void shift(boolean shifted) {
         if (shifted){
             TextureRegion texture = JsonAssetManager.getInstance().getEntry(key + "_past", TextureRegion.class);
-            setTexture(texture);
+            setTexture(texture, key + "_past");
         } else {
             TextureRegion texture = JsonAssetManager.getInstance().getEntry(key, TextureRegion.class);
-            setTexture(texture);
+            setTexture(texture, key);
         }
     }
 }
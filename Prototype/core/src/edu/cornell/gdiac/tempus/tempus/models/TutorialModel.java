@@ -29,10 +29,10 @@ public class TutorialModel extends LevelModel {
 
 
     public TutorialModel(int lv, boolean unlocked, boolean finished, int resume,
-                         LevelController[] rms, HashMap<Integer, String[]> cards,
+                         String[] paths, HashMap<Integer, String[]> cards,
                          TextureRegionDrawable[] bgs, TextureRegionDrawable[] dls, float [] mapping,
                          float [] stopArray, float [] startArray) {
-        super(lv, unlocked, finished, resume, rms);
+        super(lv, unlocked, finished, resume, paths);
         this.tutorialCards = cards;
         this.bgs = bgs;
         this.dls = dls;
@@ -43,18 +43,13 @@ public class TutorialModel extends LevelModel {
     }
 
     @Override
-    public void createLevel() {
-        for(int i = 0; i<rooms.length; i++) {
-            TutorialController rc = (TutorialController) rooms[i];
-            rc.loadContent();
-            rc.setCard(tutorialCards.get(i));
-            rc.setScreenListener(listener);
-            rc.setCanvas(canvas);
-            if(i < cutsceneStopArray.length && cutsceneStopArray[i] != -1){
-                rc.setCutScene(bgs, dls, map, (int) cutsceneStopArray[i], (int) cutsceneStartArray[i]);
-            }
+    protected LevelController createRoom(int idx) {
+        TutorialController rc = new TutorialController(room_paths[idx]);
+        rc.setCard(tutorialCards.get(idx));
+        if(idx < cutsceneStopArray.length && cutsceneStopArray[idx] != -1){
+            rc.setCutScene(bgs, dls, map, (int) cutsceneStopArray[idx], (int) cutsceneStartArray[idx]);
         }
-
+        return rc;
     }
 
 
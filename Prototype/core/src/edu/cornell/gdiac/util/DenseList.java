@@ -0,0 +1,321 @@
+/*
+ * DenseList.java
+ *
+ * PooledList gives us O(1) deletion, but every other operation pays for the
+ * links.  Indexed access walks the list, and iteration chases pointers to nodes
+ * scattered over the heap.  The lists of a room are walked many times a frame
+ * and only change when an object is created or garbage collected, so this class
+ * keeps the elements packed in one array instead.
+ *
+ * Deletion is still O(1), because the last element is moved into the hole.  This
+ * means that the order of the elements changes when one is removed.  The list
+ * also records the position of each element, and updates it when the element
+ * moves, so an element can be found (and removed) in O(1) without a search.
+ * The SceneRegistry removes every expired projectile from several lists this way.
+ *
+ * Iterators are pooled like the entries of PooledList, so a for-each loop does
+ * not allocate.  Unlike PooledList, every loop gets its own iterator, so the
+ * same list may be walked inside a walk over it.
+ */
+package edu.cornell.gdiac.util;
+
+import java.util.*;
+import com.badlogic.gdx.utils.*;
+
+/**
+ * An array-backed list with O(1) deletion.
+ *
+ * Elements are removed by moving the last element into their place.  Use the
+ * remove() method of the iterator to delete elements while walking the list;
+ * the element moved into the hole is visited next.
+ *
+ * Elements are found by equals(), so an element may only be in the list once,
+ * and may not be null.
+ */
+public class DenseList<E> implements Iterable<E> {
+	/** The default capacity of a new list */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * An iterator over the elements, reused through a pool
+	 */
+	private class ElementIterator implements Iterator<E> {
+		/** The index of the next element */
+		private int cursor;
+		/** The index of the element last returned (or -1 if it cannot be removed) */
+		private int last;
+		/** Whether this iterator has been handed out and not yet returned */
+		private boolean active;
+
+		/**
+		 * Returns true if there are more elements to visit
+		 *
+		 * The iterator goes back to the pool the first time this returns false.
+		 * It keeps returning false after that, until it is handed out again.
+		 *
+		 * @return true if there are more elements to visit
+		 */
+		public boolean hasNext() {
+			if (!active) {
+				return false;
+			}
+			if (cursor < size) {
+				return true;
+			}
+			active = false;
+			iterators.free(this);
+			return false;
+		}
+
+		/**
+		 * Returns the next element
+		 *
+		 * @return the next element
+		 */
+		public E next() {
+			if (cursor >= size) {
+				throw new NoSuchElementException();
+			}
+			last = cursor++;
+			return items[last];
+		}
+
+		/**
+		 * Removes the element last returned by next()
+		 *
+		 * The last element of the list takes its place, and is returned by the
+		 * next call to next().
+		 */
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			removeIndex(last);
+			cursor = last;
+			last = -1;
+		}
+
+		/**
+		 * Starts this iterator at the beginning of the list.
+		 *
+		 * This is not done when the iterator goes back to the pool, so that an
+		 * iterator that has finished stays finished.
+		 */
+		public void start() {
+			cursor = 0;
+			last = -1;
+			active = true;
+		}
+	}
+
+	/**
+	 * Allocator for ElementIterator objects
+	 */
+	private class IteratorPool extends Pool<ElementIterator> {
+		/**
+		 * Return a new iterator object
+		 *
+		 * @return a new iterator object
+		 */
+		protected ElementIterator newObject() {
+			return new ElementIterator();
+		}
+	}
+
+	/** The elements, packed at the front of the array */
+	private E[] items;
+	/** The number of elements in the list */
+	private int size;
+	/** The position of each element in the list */
+	private ObjectIntMap<E> positions;
+
+	/** Memory pool for reusing iterators */
+	private Pool<ElementIterator> iterators;
+
+	/**
+	 * Creates a new empty DenseList
+	 */
+	public DenseList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new empty DenseList
+	 *
+	 * @param capacity The number of elements before the arrays must grow
+	 */
+	@SuppressWarnings("unchecked")
+	public DenseList(int capacity) {
+		capacity = Math.max(1, capacity);
+		items = (E[])new Object[capacity];
+		size = 0;
+		positions = new ObjectIntMap<E>(capacity);
+		iterators = new IteratorPool();
+	}
+
+	/**
+	 * Returns the number of elements in this list.
+	 *
+	 * @return the number of elements in this list
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if this list has no elements.
+	 *
+	 * @return true if this list has no elements
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds an element to the end of the list
+	 *
+	 * @param e  the element to add
+	 *
+	 * @throws IllegalArgumentException if the element is null or already in the list
+	 */
+	public void add(E e) {
+		if (e == null || positions.containsKey(e)) {
+			throw new IllegalArgumentException("Element is null or already in the list");
+		}
+		if (size == items.length) {
+			items = Arrays.copyOf(items, 2 * items.length);
+		}
+		positions.put(e, size);
+		items[size++] = e;
+	}
+
+	/**
+	 * Returns the element at the specified position
+	 *
+	 * @param index the position to access
+	 *
+	 * @return the element at the specified position
+	 */
+	public E get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return items[index];
+	}
+
+	/**
+	 * Replaces the element at the specified position
+	 *
+	 * @param index the position to replace the element
+	 * @param element the element to replace with
+	 *
+	 * @throws IllegalArgumentException if the element is null or elsewhere in the list
+	 *
+	 * @return the original element
+	 */
+	public E set(int index, E element) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (element == null || positions.get(element, index) != index) {
+			throw new IllegalArgumentException("Element is null or already in the list");
+		}
+		E value = items[index];
+		positions.remove(value, -1);
+		positions.put(element, index);
+		items[index] = element;
+		return value;
+	}
+
+	/**
+	 * Returns the position of an element
+	 *
+	 * This method is O(1).
+	 *
+	 * @param o the element to search for
+	 *
+	 * @return the position of the element, or -1 if it is not in the list
+	 */
+	@SuppressWarnings("unchecked")
+	public int indexOf(Object o) {
+		return o == null ? -1 : positions.get((E)o, -1);
+	}
+
+	/**
+	 * Returns true if the list contains an element
+	 *
+	 * This method is O(1).
+	 *
+	 * @param o the element to search for
+	 *
+	 * @return true if the list contains an element
+	 */
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/**
+	 * Removes the element at the specified position
+	 *
+	 * This method supports O(1) deletion.  The last element moves into its place.
+	 *
+	 * @param index the position to remove
+	 *
+	 * @return the element removed
+	 */
+	public E removeIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		E value = items[index];
+		positions.remove(value, -1);
+		size--;
+		if (index < size) {
+			items[index] = items[size];
+			positions.put(items[index], index);
+		}
+		items[size] = null;
+		return value;
+	}
+
+	/**
+	 * Removes an element
+	 *
+	 * This method supports O(1) deletion.  The last element moves into its place.
+	 *
+	 * @param o the element to remove
+	 *
+	 * @return true if the element was in the list
+	 */
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index < 0) {
+			return false;
+		}
+		removeIndex(index);
+		return true;
+	}
+
+	/**
+	 * Removes every element
+	 */
+	public void clear() {
+		Arrays.fill(items, 0, size, null);
+		positions.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns an iterator over the elements, in their current order
+	 *
+	 * The iterator comes from a pool, and goes back to it once hasNext() returns
+	 * false.  An iterator that is abandoned early is simply garbage collected.
+	 *
+	 * @return an iterator over the elements
+	 */
+	public Iterator<E> iterator() {
+		ElementIterator iterator = iterators.obtain();
+		iterator.start();
+		return iterator;
+	}
+}
@@ -44,6 +44,12 @@ public class FilmStrip extends TextureRegion {
 	/** The height of a single frame; computed from row count */
 	private int rheight;
 	
+	/** The x-coordinate of the first frame in the texture */
+	private int originX;
+	
+	/** The y-coordinate of the first frame in the texture */
+	private int originY;
+	
 	/** The number of frames in this filmstrip */
 	private int size;
 	
@@ -86,6 +92,33 @@ public class FilmStrip extends TextureRegion {
 		setFrame(0);
 	}
 	
+	/**
+	 * Creates a new filmstrip from part of a texture (such as an atlas region).
+	 * 
+	 * The frames are laid out inside the region exactly as they would be in a
+	 * texture of the same size.  The value size must be less than or equal to
+	 * rows*cols, or this constructor will raise an error.
+	 * 
+	 * @param region The texture region to use
+	 * @param rows The number of rows in the filmstrip
+	 * @param cols The number of columns in the filmstrip
+	 * @param size The number of frames in the filmstrip
+	 */
+	public FilmStrip(TextureRegion region, int rows, int cols, int size) {
+		super(region);
+		if (size > rows*cols) {
+			Gdx.app.error("FilmStrip", "Invalid strip size", new IllegalArgumentException());
+			return;
+		}
+		this.cols = cols;
+		this.size = size;
+		originX = region.getRegionX();
+		originY = region.getRegionY();
+		rwidth  = region.getRegionWidth()/cols;
+		rheight = region.getRegionHeight()/rows;
+		setFrame(0);
+	}
+	
 	/**
 	 * Returns the number of frames in this filmstrip.
 	 * 
@@ -119,7 +152,7 @@ public class FilmStrip extends TextureRegion {
 		this.frame = frame;
 		int x = (frame % cols)*rwidth;
 		int y = (frame / cols)*rheight;
-		setRegion(x,y,rwidth,rheight);
+		setRegion(originX+x,originY+y,rwidth,rheight);
 	}
 
 }
\ No newline at end of file
@@ -11,13 +11,12 @@ import com.badlogic.gdx.utils.*;
 import edu.cornell.gdiac.tempus.GameCanvas;
 import edu.cornell.gdiac.tempus.MusicController;
 import edu.cornell.gdiac.tempus.tempus.EndGameController;
-import edu.cornell.gdiac.tempus.tempus.LongRoomController;
 import edu.cornell.gdiac.tempus.tempus.LevelController;
-import edu.cornell.gdiac.tempus.tempus.TutorialController;
 import edu.cornell.gdiac.tempus.tempus.models.LevelModel;
 import edu.cornell.gdiac.tempus.tempus.models.TutorialModel;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -131,6 +130,8 @@ public class GameStateManager {
     private int current_level_idx;
     /** index of last level **/
     private int last_level_idx;
+    /** asset group held for the current level (or null if none is held) **/
+    private String held_group;
 
     public GameStateManager() {
         listener = null;
@@ -278,23 +279,24 @@ public class GameStateManager {
         levelDirectories[0] = jsonReader.parse(Gdx.files.internal(level_paths[0]));
 
         levels[0] = loadTutorial(levelDirectories[0]);
-        levels[0].preloadLevel();
+        levels[0].setAssetGroup(levelDirectories[0].getString("asset_group", null));
         JsonValue gameTime = gameDirectory.get("gameTimes");
         for (int i = 1; i < num_levels; i++) {
             // System.out.println("GDX ERROR "+ (i+1) +": " + Gdx.gl.glGetError());
 
             levelDirectories[i] = jsonReader.parse(Gdx.files.internal(level_paths[i]));
             levels[i] = loadLevel(levelDirectories[i], unfinishedLevel, unfinishedRoom[i]);
+            levels[i].setAssetGroup(levelDirectories[i].getString("asset_group", null));
             if (levels[i].getLevelNumber() == unfinishedLevel) {
                 highestUnlockedLevel = levels[i];
             }
             levels[i].setBestTime(gameTime.get(i).asFloatArray());
-            levels[i].preloadLevel();
         }
         // System.out.println("GDX ERROR end:" + Gdx.gl.glGetError());
 //        for (int j = 0; j < num_levels; j++) {
 //            System.out.println(Arrays.toString(gameTime.get(j).asFloatArray()));
 //        }
+        // The rooms are built as they are entered, so the end game loads the asset directory
         endgameController = new EndGameController("jsons/levels/endgame.json");
         endgameController.preLoadContent();
         endgameController.setEndGame(true);
@@ -305,7 +307,9 @@ public class GameStateManager {
     }
 
     /**
-     * Fully creates all levels during the loading period.
+     * Readies all levels once the loading period is over.
+     *
+     * No room is built here; a room is built when it is first entered.
      */
     public void readyLevels() {
         for (LevelModel level : levels) {
@@ -330,17 +334,7 @@ public class GameStateManager {
         int room_count = levelJson.getInt("room_count");
         String[] room_paths = levelJson.get("rooms").asStringArray();
 
-        LevelController[] rooms = new LevelController[room_count];
-
-        for (int i = 0; i < room_count; i++) {
-            if(i==0){
-                rooms[i] = new LongRoomController(room_paths[i]);
-                rooms[i].setLongRoom(true);
-            }else{
-                rooms[i] = new LevelController(room_paths[i]);
-            }
-        }
-
+        String[] rooms = Arrays.copyOf(room_paths, room_count);
 
         if (lv == unfinishedLevel) {
         return new LevelModel(lv, true, false, unfinishedRoom, rooms);
@@ -385,12 +379,11 @@ public class GameStateManager {
             ctDialogues[i] = new TextureRegionDrawable(new TextureRegion(new Texture(Gdx.files.internal(dl_paths[i]))));
         }
 
-        LevelController[] rooms = new LevelController[room_count];
+        String[] rooms = Arrays.copyOf(room_paths, room_count);
         HashMap<Integer, String[]> cards = new HashMap<>();
 
         for (int i = 0; i < room_count; i++) {
             cards.put(i, jsonCards.get("c" + (i + 1)).asStringArray());
-            rooms[i] = new TutorialController(room_paths[i]);
         }
 
         return new TutorialModel(lv, true, true, 0, rooms, cards, ctBackgrounds, ctDialogues, map,stoparray, startarray);
@@ -431,6 +424,7 @@ public class GameStateManager {
                     // endGameState(); //TODO: end game state accouncement/screen
                 } else if (finished) {
                     current_level_idx++;
+                    acquireLevelAssets();
                     levels[current_level_idx].setCurrentRoom(0);
                     levels[current_level_idx].playMusic();
                     if (!levels[current_level_idx].isUnlocked()) {
@@ -479,11 +473,44 @@ public class GameStateManager {
      */
     public void setCurrentLevel(int idx, int roomidx) {
         current_level_idx = idx;
+        acquireLevelAssets();
         levels[current_level_idx].setCurrentRoom(roomidx);
         //System.out.println("idx " + idx);
         //System.out.println("roomidx " + roomidx);
     }
 
+    /**
+     * Holds the asset group of the current level, releasing the group held before.
+     *
+     * The group is acquired before the old one is released, so a group shared by
+     * both levels is never unloaded in between.
+     */
+    private void acquireLevelAssets() {
+        String group = levels[current_level_idx].getAssetGroup();
+        if (group == null ? held_group == null : group.equals(held_group)) {
+            return;
+        }
+        if (group != null) {
+            JsonAssetManager.getInstance().acquireGroup(group);
+        }
+        releaseLevelAssets();
+        held_group = group;
+    }
+
+    /**
+     * Releases the asset group of the current level, if it is held.
+     *
+     * This should be called when play leaves the levels for the menus, so that
+     * the group may be unloaded if memory is short.  Setting a level holds the
+     * group again.
+     */
+    public void releaseLevelAssets() {
+        if (held_group != null) {
+            JsonAssetManager.getInstance().releaseGroup(held_group);
+            held_group = null;
+        }
+    }
+
     /**
      *
      * @param idx
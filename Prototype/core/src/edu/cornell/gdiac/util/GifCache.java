@@ -0,0 +1,310 @@
+/*
+ * GifCache.java
+ *
+ * Decoding an animated GIF means decompressing every frame, laying each one
+ * over the frame before it, and copying them all into a spritesheet.  For the
+ * logo on the main menu this took well over a second, every time the game
+ * started.
+ *
+ * This cache keeps the finished spritesheet (as raw RGBA) and the frame timings
+ * on disk, named after a hash of the GIF.  Once a GIF has been decoded, it is
+ * loaded by mapping the cache file and copying it into a pixmap.  Editing the
+ * GIF changes its hash, so a stale spritesheet is never used.
+ *
+ * On a miss, the frames are still decompressed one after another (each frame
+ * may draw on the one before it), but they are copied into the spritesheet in
+ * parallel.  A cache that cannot be written (or read) is not an error; the GIF
+ * is simply decoded again next time.
+ */
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.async.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A disk cache of the spritesheets of GIF animations.
+ *
+ * The cache lives in the external storage, next to the saved game.
+ */
+public class GifCache {
+    /** The directory of the cache files (in external storage) */
+    public static final String CACHE_DIRECTORY = "tempus/cache/";
+    /** The extension of the cache files */
+    private static final String CACHE_EXTENSION = ".gifcache";
+    /** The first int of every cache file ("GIFC") */
+    private static final int MAGIC = 0x47494643;
+    /** The version of the cache file layout */
+    private static final int VERSION = 1;
+    /** The size of the header before the frame timings (in bytes) */
+    private static final int HEADER_SIZE = 24;
+
+    /** A decoded animation: its spritesheet and frame timings */
+    private static class Spritesheet {
+        /** The width of each frame */
+        public int width;
+        /** The height of each frame */
+        public int height;
+        /** The number of frames in each column of the sheet */
+        public int rows;
+        /** The number of columns of the sheet */
+        public int columns;
+        /** The delay of each frame (in milliseconds) */
+        public int[] delays;
+        /** The pixels of the sheet */
+        public Pixmap pixmap;
+    }
+
+    /**
+     * Returns the animation of a GIF, decoding it only if it is not cached
+     *
+     * The frames are laid out exactly as GifDecoder.getAnimation() lays them out,
+     * and every frame lasts as long as the first one.
+     *
+     * @param playMode	The play mode of the animation
+     * @param file		The GIF file
+     *
+     * @return the animation of a GIF
+     */
+    public static Animation<TextureRegion> loadAnimation(Animation.PlayMode playMode, FileHandle file) {
+        long start = System.nanoTime();
+        byte[] bytes = file.readBytes();
+        FileHandle cache = Gdx.files.external(CACHE_DIRECTORY + hash(bytes) + CACHE_EXTENSION);
+
+        Spritesheet sheet = null;
+        if (cache.exists()) {
+            sheet = read(cache);
+        }
+        boolean hit = sheet != null;
+        if (!hit) {
+            sheet = decode(bytes);
+            write(cache, sheet);
+        }
+        Gdx.app.log("GifCache", (hit ? "Loaded " : "Decoded ") + file.path() + " in " +
+                (System.nanoTime() - start) / 1000000f + " ms");
+
+        Texture texture = new Texture(sheet.pixmap);
+        sheet.pixmap.dispose();
+        Array<TextureRegion> frames = new Array<TextureRegion>(sheet.delays.length);
+        for (int ii = 0; ii < sheet.delays.length; ii++) {
+            frames.add(new TextureRegion(texture, (ii / sheet.rows) * sheet.width,
+                    (ii % sheet.rows) * sheet.height, sheet.width, sheet.height));
+        }
+        return new Animation<TextureRegion>(sheet.delays[0] / 1000f, frames, playMode);
+    }
+
+    /**
+     * Returns the hash of a file as a hex string
+     *
+     * @param bytes	The contents of the file
+     *
+     * @return the hash of a file as a hex string
+     */
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            StringBuilder result = new StringBuilder(2 * digest.length);
+            for (byte b : digest) {
+                result.append(Character.forDigit((b >> 4) & 0xf, 16));
+                result.append(Character.forDigit(b & 0xf, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+
+    /**
+     * Decodes a GIF into a spritesheet, copying the frames in parallel
+     *
+     * @param bytes	The contents of the GIF
+     *
+     * @return the spritesheet of a GIF
+     */
+    private static Spritesheet decode(byte[] bytes) {
+        final GifDecoder decoder = new GifDecoder();
+        if (decoder.read(new ByteArrayInputStream(bytes)) != GifDecoder.STATUS_OK || decoder.getFrameCount() == 0) {
+            throw new GdxRuntimeException("Could not decode GIF");
+        }
+
+        final Spritesheet sheet = new Spritesheet();
+        int frames = decoder.getFrameCount();
+        sheet.width = decoder.getWidth();
+        sheet.height = decoder.getHeight();
+        sheet.columns = (int) Math.sqrt((double) frames);
+        sheet.rows = sheet.columns;
+        while (sheet.rows * sheet.columns < frames) {
+            sheet.rows++;
+        }
+        sheet.delays = new int[frames];
+        sheet.pixmap = new Pixmap(sheet.width * sheet.columns, sheet.height * sheet.rows, Pixmap.Format.RGBA8888);
+
+        AsyncExecutor workers = new AsyncExecutor(Math.min(frames, Runtime.getRuntime().availableProcessors()), "GifCache");
+        Array<AsyncResult<Void>> copies = new Array<AsyncResult<Void>>(frames);
+        for (int ii = 0; ii < frames; ii++) {
+            sheet.delays[ii] = decoder.getDelay(ii);
+            final int[] data = decoder.getFrameData(ii);
+            final ByteBuffer pixels = sheet.pixmap.getPixels().duplicate();
+            final int x = (ii / sheet.rows) * sheet.width;
+            final int y = (ii % sheet.rows) * sheet.height;
+            copies.add(workers.submit(new AsyncTask<Void>() {
+                @Override
+                public Void call() {
+                    copyFrame(data, pixels, x, y, sheet);
+                    return null;
+                }
+            }));
+        }
+        for (AsyncResult<Void> copy : copies) {
+            copy.get();
+        }
+        workers.dispose();
+        return sheet;
+    }
+
+    /**
+     * Copies the pixels of a frame into the spritesheet
+     *
+     * @param data		The pixels of the frame (ARGB)
+     * @param pixels	The pixels of the sheet (RGBA)
+     * @param x			The left of the frame in the sheet
+     * @param y			The top of the frame in the sheet
+     * @param sheet		The spritesheet
+     */
+    private static void copyFrame(int[] data, ByteBuffer pixels, int x, int y, Spritesheet sheet) {
+        int stride = sheet.width * sheet.columns;
+        for (int jj = 0; jj < sheet.height; jj++) {
+            int offset = 4 * ((y + jj) * stride + x);
+            int source = jj * sheet.width;
+            for (int ii = 0; ii < sheet.width; ii++) {
+                pixels.putInt(offset, GifDecoder.toRGBA(data[source + ii]));
+                offset += 4;
+            }
+        }
+    }
+
+    /**
+     * Reads a spritesheet from a cache file, returning null if the file is bad
+     *
+     * The file is mapped, so the pixels are copied straight into the pixmap.
+     *
+     * @param cache	The cache file
+     *
+     * @return the spritesheet in a cache file (or null if the file is bad)
+     */
+    private static Spritesheet read(FileHandle cache) {
+        try {
+            ByteBuffer buffer = map(cache);
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("bad header");
+            }
+            Spritesheet sheet = new Spritesheet();
+            sheet.width = buffer.getInt();
+            sheet.height = buffer.getInt();
+            sheet.rows = buffer.getInt();
+            sheet.columns = buffer.getInt();
+            long size = 4L * sheet.width * sheet.columns * sheet.height * sheet.rows;
+            int frames = sheet.rows * sheet.columns;
+            if (frames <= 0 || buffer.remaining() < 4) {
+                throw new IOException("bad header");
+            }
+            sheet.delays = new int[buffer.getInt()];
+            if (sheet.delays.length == 0 || sheet.delays.length > frames ||
+                    buffer.remaining() != 4L * sheet.delays.length + size) {
+                throw new IOException("bad size");
+            }
+            for (int ii = 0; ii < sheet.delays.length; ii++) {
+                sheet.delays[ii] = buffer.getInt();
+            }
+            sheet.pixmap = new Pixmap(sheet.width * sheet.columns, sheet.height * sheet.rows, Pixmap.Format.RGBA8888);
+            ByteBuffer pixels = sheet.pixmap.getPixels();
+            pixels.position(0);
+            pixels.put(buffer);
+            pixels.position(0);
+            return sheet;
+        } catch (IOException e) {
+            Gdx.app.error("GifCache", "Ignoring " + cache.path() + ": " + e.getMessage());
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("GifCache", "Ignoring " + cache.path() + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Maps a cache file into memory (read only)
+     *
+     * FileHandle.map() opens the path as given, which is not where an external
+     * file lives, so the file is mapped here instead.
+     *
+     * @param cache	The cache file
+     *
+     * @return the mapped contents of the file
+     */
+    private static ByteBuffer map(FileHandle cache) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(cache.file(), "r");
+        try {
+            FileChannel channel = file.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Writes a spritesheet to a cache file
+     *
+     * The file is written under a temporary name first, so that a partly written
+     * file is never read.  Failing to write the cache is logged, and ignored.
+     *
+     * @param cache	The cache file
+     * @param sheet	The spritesheet to write
+     */
+    private static void write(FileHandle cache, Spritesheet sheet) {
+        FileHandle temp = cache.sibling(cache.name() + ".tmp");
+        try {
+            temp.parent().mkdirs();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 4 + 4 * sheet.delays.length);
+            header.putInt(MAGIC).putInt(VERSION);
+            header.putInt(sheet.width).putInt(sheet.height).putInt(sheet.rows).putInt(sheet.columns);
+            header.putInt(sheet.delays.length);
+            for (int delay : sheet.delays) {
+                header.putInt(delay);
+            }
+            header.flip();
+
+            ByteBuffer pixels = sheet.pixmap.getPixels().duplicate();
+            pixels.clear();
+            FileOutputStream stream = new FileOutputStream(temp.file());
+            try {
+                FileChannel channel = stream.getChannel();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (pixels.hasRemaining()) {
+                    channel.write(pixels);
+                }
+            } finally {
+                stream.close();
+            }
+            temp.moveTo(cache);
+        } catch (IOException e) {
+            Gdx.app.error("GifCache", "Could not write " + cache.path() + ": " + e.getMessage());
+            temp.delete();
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("GifCache", "Could not write " + cache.path() + ": " + e.getMessage());
+            temp.delete();
+        }
+    }
+}
@@ -45,8 +45,8 @@ public class GifDecoder {
     protected int lctSize; // local color table size
     protected int ix, iy, iw, ih; // current image rectangle
     protected int lrx, lry, lrw, lrh;
-    protected DixieMap image; // current frame
-    protected DixieMap lastPixmap; // previous frame
+    protected int[] image; // current frame (ARGB)
+    protected int[] lastImage; // previous frame (ARGB)
     protected byte[] block = new byte[256]; // current data block
     protected int blockSize = 0; // block size last graphic control extension info
     protected int dispose = 0; // 0=no action; 1=leave in place; 2=restore to bg; 3=restore to prev
@@ -63,54 +63,38 @@ public class GifDecoder {
     protected int frameCount;
 
     private static class DixieMap extends Pixmap {
-        DixieMap(int w, int h, Pixmap.Format f) {
-            super(w, h, f);
-        }
-
         DixieMap(int[] data, int w, int h, Pixmap.Format f) {
             super(w, h, f);
 
-            int x, y;
-
-            for (y = 0; y < h; y++) {
-                for (x = 0; x < w; x++) {
-                    int pxl_ARGB8888 = data[x + y * w];
-                    int pxl_RGBA8888 =
-                            ((pxl_ARGB8888 >> 24) & 0x000000ff) | ((pxl_ARGB8888 << 8) & 0xffffff00);
-                    // convert ARGB8888 > RGBA8888
-                    drawPixel(x, y, pxl_RGBA8888);
-                }
-            }
-        }
-
-        void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+            // write the buffer directly (drawPixel is a native call per pixel)
             java.nio.ByteBuffer bb = getPixels();
-
-            int k, l;
-
-            for (k = y; k < y + height; k++) {
-                int _offset = offset;
-                for (l = x; l < x + width; l++) {
-                    int pxl = bb.getInt(4 * (l + k * width));
-
-                    // convert RGBA8888 > ARGB8888
-                    pixels[_offset++] = ((pxl >> 8) & 0x00ffffff) | ((pxl << 24) & 0xff000000);
-                }
-                offset += stride;
+            for (int i = 0; i < w * h; i++) {
+                bb.putInt(4 * i, toRGBA(data[i]));
             }
         }
     }
 
     private static class GifFrame {
-        public GifFrame(DixieMap im, int del) {
-            image = im;
+        public GifFrame(int[] data, int del) {
+            this.data = data;
             delay = del;
         }
 
-        public DixieMap image;
+        public int[] data; // pixels (ARGB)
+        public DixieMap image; // made on first use
         public int delay;
     }
 
+    /**
+     * Converts an ARGB8888 pixel to RGBA8888.
+     *
+     * @param argb pixel in ARGB8888
+     * @return pixel in RGBA8888
+     */
+    public static int toRGBA(int argb) {
+        return (argb << 8) | (argb >>> 24);
+    }
+
     /**
      * Gets display duration for specified frame.
      *
@@ -134,6 +118,24 @@ public class GifDecoder {
         return frameCount;
     }
 
+    /**
+     * Gets the width of every frame.
+     *
+     * @return frame width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of every frame.
+     *
+     * @return frame height
+     */
+    public int getHeight() {
+        return height;
+    }
+
     /**
      * Gets the first (or only) image read.
      *
@@ -164,13 +166,13 @@ public class GifDecoder {
                 // use image before last
                 int n = frameCount - 2;
                 if (n > 0) {
-                    lastPixmap = getFrame(n - 1);
+                    lastImage = getFrameData(n - 1);
                 } else {
-                    lastPixmap = null;
+                    lastImage = null;
                 }
             }
-            if (lastPixmap != null) {
-                lastPixmap.getPixels(dest, 0, width, 0, 0, width, height);
+            if (lastImage != null) {
+                System.arraycopy(lastImage, 0, dest, 0, dest.length);
                 // copy pixels
                 if (lastDispose == 2) {
                     // fill last image rect area with background color
@@ -236,20 +238,39 @@ public class GifDecoder {
                 }
             }
         }
-        image = new DixieMap(dest, width, height, Pixmap.Format.RGBA8888);
-        //Pixmap.createPixmap(dest, width, height, Config.ARGB_4444);
+        image = dest;
     }
 
     /**
      * Gets the image contents of frame n.
      *
+     * The pixmap is made the first time the frame is asked for.
+     *
      * @return BufferedPixmap representation of frame, or null if n is invalid.
      */
     public DixieMap getFrame(int n) {
         if (frameCount <= 0)
             return null;
         n = n % frameCount;
-        return ((GifFrame) frames.elementAt(n)).image;
+        GifFrame frame = frames.elementAt(n);
+        if (frame.image == null) {
+            frame.image = new DixieMap(frame.data, width, height, Pixmap.Format.RGBA8888);
+        }
+        return frame.image;
+    }
+
+    /**
+     * Gets the pixels of frame n, without making a pixmap.
+     *
+     * The array is shared, and must not be modified.
+     *
+     * @return pixels of frame in ARGB8888 (width * height), or null if n is invalid.
+     */
+    public int[] getFrameData(int n) {
+        if (frameCount <= 0)
+            return null;
+        n = n % frameCount;
+        return frames.elementAt(n).data;
     }
 
     /**
@@ -603,8 +624,6 @@ public class GifDecoder {
             return;
         }
         frameCount++;
-        // create new image to receive frame data
-        image = new DixieMap(width, height, Pixmap.Format.RGBA8888);
         setPixels(); // transfer pixel data to image
         frames.addElement(new GifFrame(image, delay)); // add image to frame
         // list
@@ -663,7 +682,7 @@ public class GifDecoder {
         lry = iy;
         lrw = iw;
         lrh = ih;
-        lastPixmap = image;
+        lastImage = image;
         lastBgColor = bgColor;
         dispose = 0;
         transparency = false;
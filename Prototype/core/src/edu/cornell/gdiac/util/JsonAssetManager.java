@@ -11,11 +11,28 @@
  * you want an asset directory that provides support for other assets, you will
  * need to extend this class.
  *
+ * If the textures have been packed into atlases (see the AtlasPacker in the
+ * headless project), the atlas index lists which texture files are in which
+ * atlas.  Those files are not loaded on their own; their directory keys refer
+ * to regions of the atlases instead.
+ *
+ * Textures and filmstrips that are only needed by one level or screen (such as
+ * the level backgrounds) may name an asset group in their directory entry.  A
+ * group is not loaded with the directory, but when it is first acquired, and
+ * it may be unloaded once it has been released by every holder.  Released groups
+ * are kept loaded, least recently released first out, up to a memory budget.
+ *
+ * Texture files are decoded on a pool of worker threads (see ParallelTextureLoader)
+ * as soon as they are queued.  Only their upload happens on the render thread,
+ * and update(millis) stops early once a frame has uploaded its upload budget.
+ *
  * Author: Walker M. White
  * Version: 3/2/2016
  */
 package edu.cornell.gdiac.util;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.*;
 import com.badlogic.gdx.assets.*;
 import com.badlogic.gdx.audio.*;
@@ -40,9 +57,35 @@ import edu.cornell.gdiac.tempus.MusicController;
  * this design.
  */
 public class JsonAssetManager extends AssetManager {
+    /** The atlas index written by the texture packer */
+    public static final String ATLAS_INDEX = "atlases/index.json";
+    /** The default memory budget for the released asset groups (in bytes) */
+    public static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+    /** The default number of bytes to upload in one call to update(millis) */
+    public static final long DEFAULT_UPLOAD_BUDGET = 8L * 1024 * 1024;
+
+    /** A set of directory entries that are loaded and unloaded together */
+    private static class AssetGroup {
+        /** The texture entries of this group */
+        public Array<JsonValue> textures = new Array<JsonValue>();
+        /** The filmstrip entries of this group */
+        public Array<JsonValue> filmstrips = new Array<JsonValue>();
+        /** The number of holders of this group */
+        public int refs;
+        /** Whether the files of this group are loaded */
+        public boolean loaded;
+        /** The estimated memory of the loaded files (in bytes) */
+        public long bytes;
+    }
 
     /** The asset directory of this asset manager */
     private JsonValue directory;
+    /** Whether the assets of the directory have been allocated */
+    private boolean allocated;
+    /** The atlas holding each packed texture file */
+    ObjectMap<String,String> packed;
+    /** Whether to use the atlases in the atlas index (if there is one) */
+    private boolean useAtlases;
     /** The allocated texture regions (for easy clean-up) */
     ObjectMap<String,TextureRegion> regions;
     /** The allocated textures (for easy clean-up) */
@@ -55,6 +98,18 @@ public class JsonAssetManager extends AssetManager {
     ObjectMap<String,FilmStrip> filmstrips;
     /** The allocated musics (for easy clean-up) */
     ObjectMap<String,Music> music;
+    /** The asset groups of the directory, by name */
+    private ObjectMap<String,AssetGroup> groups;
+    /** The loaded groups with no holders, least recently released first */
+    private Array<AssetGroup> released;
+    /** The most memory kept by the released groups (in bytes) */
+    private long budget;
+    /** The loader decoding the texture files on the worker pool */
+    private ParallelTextureLoader textureLoader;
+    /** The most bytes to upload in one call to update(millis) */
+    private long uploadBudget;
+    /** When the directory started loading (in nanoseconds, or 0 if it is loaded) */
+    private long loadStart;
 
 
     /** The singleton asset manager (for easy access) */
@@ -103,14 +158,67 @@ public class JsonAssetManager extends AssetManager {
         setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
         setLoader(BitmapFont.class, ".ttf", new FreetypeFontLoader(resolver));
 
+        // Decode the textures on the worker pool
+        textureLoader = new ParallelTextureLoader(resolver);
+        setLoader(Texture.class, textureLoader);
+
         // To keep track of the directory
         directory = null;
+        packed = new ObjectMap<String,String>();
+        useAtlases = true;
         regions = new ObjectMap<String,TextureRegion>();
         textures = new ObjectMap<String,Texture>();
         fonts = new ObjectMap<String,BitmapFont>();
         sounds = new ObjectMap<String,Sound>();
         filmstrips = new ObjectMap<String,FilmStrip>();
         music = new ObjectMap<String, Music>();
+        groups = new ObjectMap<String,AssetGroup>();
+        released = new Array<AssetGroup>();
+        budget = DEFAULT_BUDGET;
+        uploadBudget = DEFAULT_UPLOAD_BUDGET;
+    }
+
+    /**
+     * Returns the asset directory of this asset manager
+     *
+     * @return the asset directory of this asset manager (or null if none is loaded)
+     */
+    public JsonValue getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns true if the assets of the current directory have been allocated
+     *
+     * Every controller shares the one directory, so only the first one to load
+     * its content needs to allocate it.
+     *
+     * @return true if the assets of the current directory have been allocated
+     */
+    public boolean isAllocated() {
+        return allocated;
+    }
+
+    /**
+     * Returns true if textures are taken from the atlases in the atlas index
+     *
+     * @return true if textures are taken from the atlases in the atlas index
+     */
+    public boolean isUsingAtlases() {
+        return useAtlases;
+    }
+
+    /**
+     * Sets whether textures are taken from the atlases in the atlas index
+     *
+     * If this is false, every texture is loaded from its own file even if it has
+     * been packed.  This must be set before a directory is loaded.
+     *
+     * @param value whether to use the atlases in the atlas index
+     */
+    public void setUsingAtlases(boolean value) {
+        assert directory == null : "Directory has already been loaded; must unload first";
+        useAtlases = value;
     }
 
     /**
@@ -124,6 +232,10 @@ public class JsonAssetManager extends AssetManager {
     public void loadDirectory(JsonValue json) {
         assert directory == null : "Directory has already been loaded; must unload first";
         directory = json;
+        allocated = false;
+        loadStart = System.nanoTime();
+        indexGroups();
+        loadAtlases();
         loadTextures();
         loadFilmstrips();
         loadSounds();
@@ -131,6 +243,26 @@ public class JsonAssetManager extends AssetManager {
         loadMusic();
     }
 
+    /**
+     * Loads only the textures, filmstrips and sounds defined by the given directory
+     *
+     * The physics models need these to size themselves, but fonts and music are
+     * skipped.  This allows a headless application (which has neither a font
+     * rasterizer nor our audio engine) to build a level.
+     *
+     * @param json	the parsed asset directory
+     */
+    public void loadModelDirectory(JsonValue json) {
+        assert directory == null : "Directory has already been loaded; must unload first";
+        directory = json;
+        loadStart = System.nanoTime();
+        indexGroups();
+        loadAtlases();
+        loadTextures();
+        loadFilmstrips();
+        loadSounds();
+    }
+
     /**
      * Returns the JSON key for a given asset type
      *
@@ -155,14 +287,45 @@ public class JsonAssetManager extends AssetManager {
         return null;
     }
 
+    /**
+     * Loads all atlases in the atlas index (if there is one)
+     *
+     * This records the atlas of each packed file, so that the file is not also
+     * loaded on its own.
+     */
+    private void loadAtlases() {
+        packed.clear();
+        FileHandle index = Gdx.files.internal(ATLAS_INDEX);
+        if (!useAtlases || !index.exists()) {
+            return;
+        }
+        JsonValue json = new JsonReader().parse(index).child();
+        while (json != null) {
+            String atlas = json.getString("file");
+            if (!contains(atlas)) {
+                FileHandle file = Gdx.files.internal(atlas);
+                TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(file, file.parent(), false);
+                for (TextureAtlas.TextureAtlasData.Page page : data.getPages()) {
+                    textureLoader.prefetch(page.textureFile.path().replace('\\','/'));
+                }
+            }
+            load(atlas,TextureAtlas.class);
+            for (String file : json.get("textures").asStringArray()) {
+                packed.put(file,atlas);
+            }
+            json = json.next;
+        }
+    }
+
     /**
      * Loads all textures in the asset directory
      */
     private void loadTextures() {
         JsonValue json = directory.getChild(getClassIdentifier(Texture.class));
         while (json != null) {
-            String file= json.getString("file");
-            load(file,Texture.class);
+            if (getGroup(json) == null) {
+                loadTexture(json);
+            }
             json = json.next;
         }
     }
@@ -172,12 +335,28 @@ public class JsonAssetManager extends AssetManager {
     private void loadFilmstrips(){
         JsonValue json = directory.getChild(getClassIdentifier(FilmStrip.class));
         while (json != null) {
-            String file= json.getString("file");
             //We load filmstrips as textures.
-            load(file,Texture.class);
+            if (getGroup(json) == null) {
+                loadTexture(json);
+            }
             json = json.next;
         }
     }
+
+    /**
+     * Loads the texture file of a texture or filmstrip entry (unless it was packed)
+     *
+     * @param json 	the directory entry for the asset
+     */
+    private void loadTexture(JsonValue json) {
+        String file = json.getString("file");
+        if (!packed.containsKey(file)) {
+            if (!contains(file)) {
+                textureLoader.prefetch(file);
+            }
+            load(file,Texture.class);
+        }
+    }
     /**
      * Loads all fonts in the asset directory
      */
@@ -224,12 +403,28 @@ public class JsonAssetManager extends AssetManager {
      * The asset loader is now free to load another directory.
      */
     public void unloadDirectory() {
+        unloadGroups();
         unloadTextures();
         unloadFilmstrips();
+        unloadAtlases();
         unloadSounds();
         unloadFonts();
         unloadMusic();
         directory = null;
+        allocated = false;
+    }
+
+    /**
+     * Unloads all atlases in the atlas index
+     */
+    private void unloadAtlases() {
+        ObjectSet<String> atlases = new ObjectSet<String>();
+        for (String atlas : packed.values()) {
+            if (atlases.add(atlas) && isLoaded(atlas)) {
+                unload(atlas);
+            }
+        }
+        packed.clear();
     }
 
     /**
@@ -240,7 +435,7 @@ public class JsonAssetManager extends AssetManager {
             JsonValue json = directory.getChild(getClassIdentifier(Texture.class));
             while (json != null) {
                 String file = json.getString("file");
-                if (isLoaded(file)) {
+                if (getGroup(json) == null && isLoaded(file)) {
                     unload(file);
                     if (textures.containsKey(file)) {
                         textures.remove(file);
@@ -261,7 +456,7 @@ public class JsonAssetManager extends AssetManager {
             JsonValue json = directory.getChild(getClassIdentifier(FilmStrip.class));
             while (json != null) {
                 String file = json.getString("file");
-                if (isLoaded(file)) {
+                if (getGroup(json) == null && isLoaded(file)) {
                     unload(file);
                     if (filmstrips.containsKey(file)) {
                         filmstrips.remove(file);
@@ -330,6 +525,349 @@ public class JsonAssetManager extends AssetManager {
         }
     }
 
+    /**
+     * Returns the number of bytes to upload in one call to update(millis)
+     *
+     * @return the number of bytes to upload in one call to update(millis)
+     */
+    public long getUploadBudget() {
+        return uploadBudget;
+    }
+
+    /**
+     * Sets the number of bytes to upload in one call to update(millis)
+     *
+     * At least one texture is uploaded per call, however large it is.
+     *
+     * @param bytes the number of bytes to upload in one call to update(millis)
+     */
+    public void setUploadBudget(long bytes) {
+        uploadBudget = bytes;
+    }
+
+    /**
+     * Updates the loading for at most the given time, or the upload budget
+     *
+     * This stops as soon as the textures uploaded reach the upload budget, so
+     * that a frame of the loading screen is not held up by the uploads.
+     *
+     * @param millis the most time to spend loading (in milliseconds)
+     *
+     * @return true if all loading is finished
+     */
+    @Override
+    public boolean update(int millis) {
+        long endTime = TimeUtils.millis() + millis;
+        long endBytes = textureLoader.getUploadBytes() + uploadBudget;
+        while (true) {
+            boolean done = update();
+            if (done || TimeUtils.millis() > endTime || textureLoader.getUploadBytes() >= endBytes) {
+                return done;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Updates the loading, logging the loading times once the directory is loaded
+     *
+     * @return true if all loading is finished
+     */
+    @Override
+    public synchronized boolean update() {
+        boolean done = super.update();
+        if (done && loadStart != 0) {
+            textureLoader.report((System.nanoTime() - loadStart) / 1000000f);
+            loadStart = 0;
+        }
+        return done;
+    }
+
+    /**
+     * Disposes of all assets and the texture decoding workers
+     */
+    @Override
+    public synchronized void dispose() {
+        super.dispose();
+        textureLoader.dispose();
+    }
+
+    /**
+     * Returns the memory budget for the released asset groups (in bytes)
+     *
+     * @return the memory budget for the released asset groups (in bytes)
+     */
+    public long getMemoryBudget() {
+        return budget;
+    }
+
+    /**
+     * Sets the memory budget for the released asset groups (in bytes)
+     *
+     * A group released by every holder stays loaded, in case it is acquired again,
+     * until the released groups need more than this budget.  The least recently
+     * released groups are unloaded first.  Groups that are held are never
+     * unloaded, whatever their size.
+     *
+     * @param bytes the memory budget for the released asset groups (in bytes)
+     */
+    public void setMemoryBudget(long bytes) {
+        budget = bytes;
+        trimGroups();
+    }
+
+    /**
+     * Returns the estimated memory of the loaded asset groups (in bytes)
+     *
+     * This is the size of their textures once decoded, whether they are held or not.
+     *
+     * @return the estimated memory of the loaded asset groups (in bytes)
+     */
+    public long getGroupMemory() {
+        long total = 0;
+        for (AssetGroup group : groups.values()) {
+            total += group.loaded ? group.bytes : 0;
+        }
+        return total;
+    }
+
+    /**
+     * Returns true if the files of an asset group are loaded
+     *
+     * @param name	the group name
+     *
+     * @return true if the files of an asset group are loaded
+     */
+    public boolean isGroupLoaded(String name) {
+        AssetGroup group = groups.get(name);
+        return group != null && group.loaded;
+    }
+
+    /**
+     * Acquires an asset group, loading it if necessary
+     *
+     * Until the group is released, its directory keys can be used with getEntry().
+     * If the group is not loaded, its files are loaded and allocated immediately
+     * (along with anything else queued), so this should be called between
+     * screens, not every frame.
+     *
+     * @param name	the group name
+     */
+    public void acquireGroup(String name) {
+        AssetGroup group = groups.get(name);
+        if (group == null) {
+            Gdx.app.error("JsonAssetManager", "Unknown asset group "+name);
+            return;
+        }
+        group.refs++;
+        released.removeValue(group, true);
+        if (group.loaded) {
+            return;
+        }
+
+        for (JsonValue json : group.textures) {
+            loadTexture(json);
+        }
+        for (JsonValue json : group.filmstrips) {
+            loadTexture(json);
+        }
+        finishLoading();
+
+        ObjectSet<String> files = new ObjectSet<String>();
+        group.bytes = 0;
+        for (JsonValue json : group.textures) {
+            allocateTextureRegion(json);
+            group.bytes += files.add(json.getString("file")) ? getTextureBytes(json) : 0;
+        }
+        for (JsonValue json : group.filmstrips) {
+            allocateFilmStrip(json);
+            group.bytes += files.add(json.getString("file")) ? getTextureBytes(json) : 0;
+        }
+        group.loaded = true;
+    }
+
+    /**
+     * Releases an asset group acquired earlier
+     *
+     * Once every holder has released the group, it may be unloaded to keep the
+     * released groups within the memory budget.  Its directory keys should not
+     * be used until it is acquired again.
+     *
+     * @param name	the group name
+     */
+    public void releaseGroup(String name) {
+        AssetGroup group = groups.get(name);
+        if (group == null || group.refs == 0) {
+            Gdx.app.error("JsonAssetManager", "Asset group "+name+" is not held");
+            return;
+        }
+        group.refs--;
+        if (group.refs == 0 && group.loaded) {
+            released.add(group);
+            trimGroups();
+        }
+    }
+
+    /**
+     * Returns the asset group of a directory entry (or null if it has none)
+     *
+     * @param json 	the directory entry for the asset
+     *
+     * @return the asset group of a directory entry (or null if it has none)
+     */
+    private static String getGroup(JsonValue json) {
+        return json.getString("group", null);
+    }
+
+    /**
+     * Returns true if the file of a directory entry is loaded with the directory or its group
+     *
+     * @param json 	the directory entry for the asset
+     *
+     * @return true if the file of a directory entry is loaded with the directory or its group
+     */
+    private boolean isAvailable(JsonValue json) {
+        String name = getGroup(json);
+        return name == null || isGroupLoaded(name);
+    }
+
+    /**
+     * Collects the texture and filmstrip entries of the directory into their groups
+     *
+     * The groups are only collected once per directory, as loadDirectory() may be
+     * called again before the directory is unloaded.
+     */
+    private void indexGroups() {
+        if (groups.size > 0) {
+            return;
+        }
+        JsonValue json = directory.getChild(getClassIdentifier(Texture.class));
+        while (json != null) {
+            if (getGroup(json) != null) {
+                findGroup(getGroup(json)).textures.add(json);
+            }
+            json = json.next;
+        }
+        json = directory.getChild(getClassIdentifier(FilmStrip.class));
+        while (json != null) {
+            if (getGroup(json) != null) {
+                findGroup(getGroup(json)).filmstrips.add(json);
+            }
+            json = json.next;
+        }
+    }
+
+    /**
+     * Returns the asset group with the given name, creating it if necessary
+     *
+     * @param name	the group name
+     *
+     * @return the asset group with the given name
+     */
+    private AssetGroup findGroup(String name) {
+        AssetGroup group = groups.get(name);
+        if (group == null) {
+            group = new AssetGroup();
+            groups.put(name, group);
+        }
+        return group;
+    }
+
+    /**
+     * Returns the estimated memory of the texture of a directory entry (in bytes)
+     *
+     * Packed files are part of an atlas, which is not counted.
+     *
+     * @param json 	the directory entry for the asset
+     *
+     * @return the estimated memory of the texture of a directory entry (in bytes)
+     */
+    private long getTextureBytes(JsonValue json) {
+        String file = json.getString("file");
+        if (packed.containsKey(file)) {
+            return 0;
+        }
+        Texture texture = get(file, Texture.class);
+        int pixel;
+        switch (texture.getTextureData().getFormat()) {
+            case Alpha:
+            case Intensity:
+                pixel = 1;
+                break;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                pixel = 2;
+                break;
+            case RGB888:
+                pixel = 3;
+                break;
+            default:
+                pixel = 4;
+        }
+        return (long) texture.getWidth() * texture.getHeight() * pixel;
+    }
+
+    /**
+     * Unloads the least recently released groups until the rest fit the budget
+     */
+    private void trimGroups() {
+        long total = 0;
+        for (AssetGroup group : released) {
+            total += group.bytes;
+        }
+        while (total > budget && released.size > 0) {
+            AssetGroup group = released.removeIndex(0);
+            total -= group.bytes;
+            unloadGroup(group);
+        }
+    }
+
+    /**
+     * Unloads the files of a group, and removes its directory keys
+     *
+     * @param group	the group to unload
+     */
+    private void unloadGroup(AssetGroup group) {
+        for (JsonValue json : group.textures) {
+            regions.remove(json.name());
+            unloadTexture(json);
+        }
+        for (JsonValue json : group.filmstrips) {
+            filmstrips.remove(json.name());
+            unloadTexture(json);
+        }
+        group.loaded = false;
+        group.bytes = 0;
+    }
+
+    /**
+     * Unloads the texture file of a texture or filmstrip entry (unless it was packed)
+     *
+     * This balances a single call to loadTexture().
+     *
+     * @param json 	the directory entry for the asset
+     */
+    private void unloadTexture(JsonValue json) {
+        String file = json.getString("file");
+        if (!packed.containsKey(file) && isLoaded(file)) {
+            unload(file);
+        }
+    }
+
+    /**
+     * Unloads every loaded group, held or not, and forgets the groups
+     */
+    private void unloadGroups() {
+        for (AssetGroup group : groups.values()) {
+            if (group.loaded) {
+                unloadGroup(group);
+            }
+        }
+        groups.clear();
+        released.clear();
+    }
+
     /**
      * Allocates assets defined in the current directory
      *
@@ -339,7 +877,9 @@ public class JsonAssetManager extends AssetManager {
     public void allocateDirectory() {
         JsonValue json = directory.getChild(getClassIdentifier(TextureRegion.class));
         while (json != null) {
-            allocateTextureRegion(json);
+            if (isAvailable(json)) {
+                allocateTextureRegion(json);
+            }
             json = json.next;
         }
         json = directory.getChild(getClassIdentifier(BitmapFont.class));
@@ -359,7 +899,37 @@ public class JsonAssetManager extends AssetManager {
         }
         json = directory.getChild(getClassIdentifier(FilmStrip.class));
         while (json!= null){
-            allocateFilmStrip(json);
+            if (isAvailable(json)) {
+                allocateFilmStrip(json);
+            }
+            json = json.next;
+        }
+        allocated = true;
+    }
+
+    /**
+     * Allocates the assets loaded by loadModelDirectory()
+     *
+     * Sounds are allocated with the SoundController as usual.
+     */
+    public void allocateModelDirectory() {
+        JsonValue json = directory.getChild(getClassIdentifier(TextureRegion.class));
+        while (json != null) {
+            if (isAvailable(json)) {
+                allocateTextureRegion(json);
+            }
+            json = json.next;
+        }
+        json = directory.getChild(getClassIdentifier(Sound.class));
+        while (json != null) {
+            allocateSound(json);
+            json = json.next;
+        }
+        json = directory.getChild(getClassIdentifier(FilmStrip.class));
+        while (json!= null){
+            if (isAvailable(json)) {
+                allocateFilmStrip(json);
+            }
             json = json.next;
         }
     }
@@ -371,7 +941,7 @@ public class JsonAssetManager extends AssetManager {
      */
     private TextureRegion allocateTextureRegion(JsonValue json) {
         String filename = json.getString("file");
-        TextureRegion region = new TextureRegion(get(filename, Texture.class));
+        TextureRegion region = getRegion(filename);
         region.getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
         if (json.getBoolean("wrap")) {
             region.getTexture().setWrap(Texture.TextureWrap.Repeat, Texture.TextureWrap.Repeat);
@@ -398,12 +968,34 @@ public class JsonAssetManager extends AssetManager {
 
     private FilmStrip allocateFilmStrip(JsonValue json){
         String filename = json.getString ("file");
-        FilmStrip filmstrip = new FilmStrip(get(filename, Texture.class),json.getInt("rows"),json.getInt("cols"),json.getInt("size"));
+        FilmStrip filmstrip = new FilmStrip(getRegion(filename),json.getInt("rows"),json.getInt("cols"),json.getInt("size"));
         filmstrip.getTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
         filmstrips.put(json.name(),filmstrip);
         return filmstrip;
     }
 
+    /**
+     * Returns a new region covering the image of a texture file
+     *
+     * If the file was packed, this is its region of the atlas.  Otherwise, it
+     * is the whole texture loaded from the file.
+     *
+     * @param filename 	the texture file
+     *
+     * @return a new region covering the image of a texture file
+     */
+    private TextureRegion getRegion(String filename) {
+        String atlas = packed.get(filename);
+        if (atlas != null) {
+            TextureRegion region = get(atlas, TextureAtlas.class).findRegion(filename);
+            if (region == null) {
+                throw new GdxRuntimeException("Atlas "+atlas+" is missing "+filename);
+            }
+            return new TextureRegion(region);
+        }
+        return new TextureRegion(get(filename, Texture.class));
+    }
+
     /**
      * Allocates a font and binds it to the directory key
      *
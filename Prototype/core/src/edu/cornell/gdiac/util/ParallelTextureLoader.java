@@ -0,0 +1,245 @@
+/*
+ * ParallelTextureLoader.java
+ *
+ * The default texture loader reads and decodes one image at a time on the
+ * single thread of the asset manager, and the render thread waits for it
+ * before it can upload the texture.  Decoding a PNG takes far longer than
+ * uploading it, so loading was bound by one core.
+ *
+ * This loader decodes the images on a pool of worker threads (one per core).
+ * A file is handed to the pool as soon as it is queued with the asset manager,
+ * so by the time the manager gets to it the pixmap is usually ready.  Only the
+ * upload happens on the render thread.  At most a few decoded pixmaps are kept
+ * waiting for their upload, so that memory does not grow with the directory.
+ *
+ * The time spent reading, decoding and uploading is kept, so that the loading
+ * time can be broken down.
+ */
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.*;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.*;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.utils.*;
+import com.badlogic.gdx.utils.async.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A texture loader that decodes images on a pool of worker threads.
+ *
+ * Files must be announced with prefetch() when they are queued for the decode
+ * to start early.  A file that was not announced is decoded when the asset
+ * manager gets to it, like the default loader.
+ */
+public class ParallelTextureLoader extends AsynchronousAssetLoader<Texture, TextureLoader.TextureParameter> implements Disposable {
+    /** The number of decoded pixmaps that may wait for their upload, per worker */
+    private static final int DECODES_PER_WORKER = 2;
+
+    /** The worker pool */
+    private AsyncExecutor workers;
+    /** The number of workers */
+    private int workerCount;
+    /** The files announced but not yet handed to the pool, in order */
+    private Queue<String> waiting;
+    /** The decodes handed to the pool, by file name */
+    private ObjectMap<String,AsyncResult<Pixmap>> decodes;
+    /** The texture data of the file being loaded (the manager loads one at a time) */
+    private TextureData data;
+
+    /** The number of files decoded */
+    private int decoded;
+    /** The time spent reading files (in nanoseconds, summed over the workers) */
+    private AtomicLong readTime;
+    /** The time spent decoding images (in nanoseconds, summed over the workers) */
+    private AtomicLong decodeTime;
+    /** The time spent uploading textures (in nanoseconds) */
+    private long uploadTime;
+    /** The number of bytes uploaded */
+    private long uploadBytes;
+
+    /**
+     * Creates a texture loader with one worker per core
+     *
+     * @param resolver	The resolver for the file names
+     */
+    public ParallelTextureLoader(FileHandleResolver resolver) {
+        this(resolver, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a texture loader with the given number of workers
+     *
+     * @param resolver	The resolver for the file names
+     * @param workers	The number of worker threads
+     */
+    public ParallelTextureLoader(FileHandleResolver resolver, int workers) {
+        super(resolver);
+        workerCount = Math.max(1, workers);
+        this.workers = new AsyncExecutor(workerCount, "TextureDecoder");
+        waiting = new Queue<String>();
+        decodes = new ObjectMap<String,AsyncResult<Pixmap>>();
+        readTime = new AtomicLong();
+        decodeTime = new AtomicLong();
+    }
+
+    /**
+     * Announces a file that has been queued with the asset manager
+     *
+     * The file is decoded on the pool as soon as there is room for it.  It must
+     * be loaded by the asset manager afterwards, or its pixmap is kept until
+     * this loader is disposed.
+     *
+     * @param fileName	The name of the file
+     */
+    public synchronized void prefetch(String fileName) {
+        if (decodes.containsKey(fileName) || waiting.indexOf(fileName, false) != -1) {
+            return;
+        }
+        waiting.addLast(fileName);
+        pump();
+    }
+
+    /**
+     * Hands waiting files to the pool while there is room for them
+     */
+    private void pump() {
+        while (waiting.size > 0 && decodes.size < workerCount*DECODES_PER_WORKER) {
+            String fileName = waiting.removeFirst();
+            final FileHandle file = resolve(fileName);
+            decodes.put(fileName, workers.submit(new AsyncTask<Pixmap>() {
+                @Override
+                public Pixmap call() {
+                    return decode(file);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Returns the pixmap of a file, taking it from the pool if it was announced
+     *
+     * @param fileName	The name of the file
+     * @param file		The resolved file
+     *
+     * @return the pixmap of a file
+     */
+    private Pixmap take(String fileName, FileHandle file) {
+        AsyncResult<Pixmap> decode;
+        synchronized (this) {
+            decode = decodes.remove(fileName);
+            if (decode == null) {
+                waiting.removeValue(fileName, false);
+            }
+            pump();
+        }
+        return decode == null ? decode(file) : decode.get();
+    }
+
+    /**
+     * Reads and decodes an image file, adding to the times
+     *
+     * @param file	The image file
+     *
+     * @return the decoded pixmap
+     */
+    private Pixmap decode(FileHandle file) {
+        long start = System.nanoTime();
+        byte[] bytes = file.readBytes();
+        long read = System.nanoTime();
+        Pixmap pixmap = new Pixmap(bytes, 0, bytes.length);
+        long end = System.nanoTime();
+        readTime.addAndGet(read-start);
+        decodeTime.addAndGet(end-read);
+        return pixmap;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        Pixmap.Format format = parameter == null ? null : parameter.format;
+        boolean genMipMaps = parameter != null && parameter.genMipMaps;
+        if (parameter != null && parameter.textureData != null) {
+            data = parameter.textureData;
+        } else if (file.extension().equals("png") || file.extension().equals("jpg") || file.extension().equals("bmp")) {
+            data = new PixmapTextureData(take(fileName, file), format, genMipMaps, true);
+            decoded++;
+        } else {
+            data = TextureData.Factory.loadFromFile(file, format, genMipMaps);
+        }
+        if (!data.isPrepared()) {
+            data.prepare();
+        }
+    }
+
+    @Override
+    public Texture loadSync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        long start = System.nanoTime();
+        Texture texture = parameter == null ? null : parameter.texture;
+        if (texture != null) {
+            texture.load(data);
+        } else {
+            texture = new Texture(data);
+        }
+        if (parameter != null) {
+            texture.setFilter(parameter.minFilter, parameter.magFilter);
+            texture.setWrap(parameter.wrapU, parameter.wrapV);
+        }
+        uploadTime += System.nanoTime()-start;
+        uploadBytes += 4L*data.getWidth()*data.getHeight();
+        data = null;
+        return texture;
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        return null;
+    }
+
+    /**
+     * Returns the number of bytes uploaded so far
+     *
+     * Every texel is counted as four bytes, whatever its format.
+     *
+     * @return the number of bytes uploaded so far
+     */
+    public long getUploadBytes() {
+        return uploadBytes;
+    }
+
+    /**
+     * Logs the time spent reading, decoding and uploading since the last report
+     *
+     * The read and decode times are summed over the workers, so they may be
+     * more than the time it took to load.
+     *
+     * @param wall	The time it took to load (in milliseconds)
+     */
+    public void report(float wall) {
+        Gdx.app.log("ParallelTextureLoader", "Loaded " + decoded + " images in " + wall +
+                " ms on " + workerCount + " workers (read " + readTime.getAndSet(0) / 1000000f +
+                " ms, decode " + decodeTime.getAndSet(0) / 1000000f + " ms, upload " +
+                uploadTime / 1000000f + " ms)");
+        decoded = 0;
+        uploadTime = 0;
+    }
+
+    /**
+     * Disposes of the worker pool and every pixmap still waiting for its upload
+     */
+    public synchronized void dispose() {
+        waiting.clear();
+        for (AsyncResult<Pixmap> decode : decodes.values()) {
+            try {
+                decode.get().dispose();
+            } catch (GdxRuntimeException e) {
+                // The file could not be decoded; there is nothing to free
+            }
+        }
+        decodes.clear();
+        workers.dispose();
+    }
+}
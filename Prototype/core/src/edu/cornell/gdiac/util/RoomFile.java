@@ -0,0 +1,751 @@
+/*
+ * RoomFile.java
+ *
+ * A room, as read from its JSON or from its compiled form.  Reading a room JSON
+ * builds a DOM of every key and value, which the room then walks to find the
+ * platforms, spikes and enemies, and every platform was triangulated anew each
+ * time the room was reset.  A compiled room is a compact binary file with one
+ * typed record per entity and the platform outlines already triangulated.  It
+ * is read straight out of a ByteBuffer.
+ *
+ * Rooms are compiled by the RoomCompiler in the headless project, which also
+ * validates them.  The compiled file of jsons/rooms/1-5.json is rooms/1-5.room.
+ * If there is no compiled file (or it is from an older version of this class,
+ * or was compiled from a JSON that has since been edited), the JSON is read
+ * instead.  Delete the rooms directory to go back to the JSONs.
+ *
+ * Both forms give the same records, in the order the room creates them: the
+ * door, the platforms (capsules, long capsules, pillars, talls, diamonds and
+ * rounds), the spikes, the avatar, the enemies and the turrets.
+ */
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import edu.cornell.gdiac.tempus.obstacle.PolygonObstacle;
+import edu.cornell.gdiac.tempus.obstacle.PolygonTemplate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * The typed records of a room, read from a compiled room or its JSON.
+ */
+public class RoomFile {
+	/** The first bytes of a compiled room ("TMPR") */
+	public static final int MAGIC = 0x544D5052;
+	/** The version of the compiled format (change it when the format changes) */
+	public static final int VERSION = 2;
+	/** The directory of the compiled rooms (relative to the assets directory) */
+	public static final String DIRECTORY = "rooms/";
+	/** The extension of a compiled room */
+	public static final String EXTENSION = ".room";
+
+	/** The goal door of the room */
+	public static final int DOOR = 0;
+	/** The avatar */
+	public static final int AVATAR = 1;
+	/** A platform (see the shapes below) */
+	public static final int PLATFORM = 2;
+	/** A spike */
+	public static final int SPIKES = 3;
+	/** A moving enemy */
+	public static final int ENEMY = 4;
+	/** A turret */
+	public static final int TURRET = 5;
+
+	/** The platform and spike shapes, in the order they are created */
+	public static final int CAPSULE = 0;
+	public static final int LONGCAPSULE = 1;
+	public static final int PILLAR = 2;
+	public static final int TALL = 3;
+	public static final int DIAMOND = 4;
+	public static final int ROUND = 5;
+	public static final int SPIKE = 6;
+	/** The number of shapes */
+	public static final int SHAPE_COUNT = 7;
+
+	/** The JSON list of each shape */
+	private static final String[] SHAPE_LISTS = {
+		"capsules", "longcapsules", "pillars", "talls", "diamonds", "rounds", "spikes"
+	};
+	/** The outline of each shape, in physics units */
+	private static final float[][] OUTLINES = {
+		{0.5f, 1.1f, 0.6f, 1.1f, 2.4f, 1.1f, 2.6f, 1.1f, 2.6f, 0.6f, 2.0f, 0.3f, 1.1f, 0.3f, 0.5f, 0.6f},
+		{0.5f, 1.1f, 0.6f, 1.1f, 4.7f, 1.1f, 4.9f, 1.1f, 4.9f, 0.6f, 4.3f, 0.3f, 3.4f, 0.3f,
+				2.7f, 0.5f, 2.0f, 0.3f, 1.1f, 0.3f, 0.5f, 0.6f},
+		{1.2f, 4.0f, 1.3f, 4.0f, 2.0f, 4.0f, 2.1f, 4.0f, 2.1f, 1.0f, 1.2f, 1.0f},
+		{0.4f, 3.9f, 0.5f, 3.9f, 1.6f, 3.9f, 1.7f, 3.9f, 1.1f, 0.5f},
+		{0.4f, 1.8f, 0.5f, 1.8f, 2.0f, 1.8f, 2.2f, 1.8f, 1.4f, 0.1f},
+		{0.4f, 1.4f, 0.7f, 1.7f, 0.8f, 1.7f, 2.1f, 1.7f, 2.2f, 1.7f, 2.4f, 1.4f, 2.3f, 0.8f, 1.7f, 0.3f, 1.1f, 0.3f},
+		{0.3f, -0.6f, 0.0f, -0.2f, -0.6f, 0.0f, -0.5f, 0.4f, 0.0f, 0.6f, 0.4f, -0.2f, 0.6f, -0.3f},
+	};
+	/** The triangulation of each outline (computed on first use) */
+	private static short[][] triangulation;
+
+	/** The character set of the strings in a compiled room */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * An entity of the room.
+	 *
+	 * Only the fields for the type of the entity are set.
+	 */
+	public static class Entity {
+		/** The type of entity (DOOR, AVATAR, PLATFORM, SPIKES, ENEMY or TURRET) */
+		public int type;
+		/** The shape of a platform or spike */
+		public int shape;
+		/** The name of the entity in the room */
+		public String name;
+		/** The texture key */
+		public String texture;
+		/** The era of an enemy or turret ("present" or "past") */
+		public String era;
+		/** The position of the entity */
+		public float x, y;
+		/** The size of the door, or the shrink factors of the avatar and enemies */
+		public float width, height;
+		/** The body type */
+		public BodyDef.BodyType bodyType;
+		/** The physics attributes */
+		public float density, friction, restitution;
+		/** The angle of a spike, in degrees */
+		public float angle;
+		/** The space (era) of a platform, spike or door */
+		public int space;
+		/** The level the door leads to */
+		public int nextLevel;
+		/** The firing cooldown of an enemy or turret */
+		public int cooldown;
+		/** The AI type of an enemy */
+		public int aiType;
+		/** The firing direction of a turret */
+		public float dirX, dirY;
+		/** The standing, crouching, dashing and falling filmstrips of the avatar */
+		public String[] filmstrips;
+	}
+
+	/** The texture key of the present background */
+	private String presentBackground;
+	/** The texture key of the past background */
+	private String pastBackground;
+	/** The gravity of the room */
+	private float gravity;
+	/** The size of the room, in physics units */
+	private float width, height;
+	/** The outline of each shape */
+	private float[][] outlines;
+	/** The triangulation of each shape */
+	private short[][] triangles;
+	/** The template of each shape (looked up on first use) */
+	private PolygonTemplate[] templates;
+	/** The entities, in the order they are created */
+	private Array<Entity> entities;
+	/** The length of the JSON this room was read from (-1 if unknown) */
+	private int sourceLength;
+	/** The CRC-32 of the JSON this room was read from */
+	private int sourceChecksum;
+
+	/**
+	 * Creates an empty room
+	 */
+	private RoomFile() {
+		outlines = OUTLINES;
+		triangles = getTriangulation();
+		templates = new PolygonTemplate[SHAPE_COUNT];
+		entities = new Array<Entity>();
+		sourceLength = -1;
+	}
+
+	/**
+	 * Returns the path to the compiled form of a room JSON
+	 *
+	 * @param path	The path to the room JSON
+	 *
+	 * @return the path to the compiled form of a room JSON
+	 */
+	public static String getCompiledPath(String path) {
+		String name = path.substring(path.lastIndexOf('/') + 1);
+		int dot = name.lastIndexOf('.');
+		return DIRECTORY + (dot < 0 ? name : name.substring(0, dot)) + EXTENSION;
+	}
+
+	/**
+	 * Returns the room for a room JSON, preferring its compiled form
+	 *
+	 * This may be called from any thread.
+	 *
+	 * @param path	The path to the room JSON
+	 *
+	 * @return the room for a room JSON
+	 */
+	public static RoomFile load(String path) {
+		byte[] source = Gdx.files.internal(path).readBytes();
+		FileHandle compiled = Gdx.files.internal(getCompiledPath(path));
+		if (compiled.exists()) {
+			try {
+				RoomFile room = read(ByteBuffer.wrap(compiled.readBytes()));
+				if (room.isCompiledFrom(source)) {
+					return room;
+				}
+				Gdx.app.error("RoomFile", "Reading " + path + " instead: compiled room is out of date");
+			} catch (GdxRuntimeException e) {
+				Gdx.app.error("RoomFile", "Reading " + path + " instead: " + e.getMessage());
+			}
+		}
+		return parse(source, path);
+	}
+
+	/**
+	 * Returns the CRC-32 of the contents of a room JSON
+	 *
+	 * @param source	The contents of the room JSON
+	 *
+	 * @return the CRC-32 of the contents of a room JSON
+	 */
+	private static int checksum(byte[] source) {
+		CRC32 crc = new CRC32();
+		crc.update(source, 0, source.length);
+		return (int)crc.getValue();
+	}
+
+	/**
+	 * Returns true if this room was read from (or compiled from) the given JSON
+	 *
+	 * @param source	The contents of the room JSON
+	 *
+	 * @return true if this room was read from the given JSON
+	 */
+	public boolean isCompiledFrom(byte[] source) {
+		return sourceLength == source.length && sourceChecksum == checksum(source);
+	}
+
+	/**
+	 * Returns the triangulation of the shape outlines
+	 *
+	 * @return the triangulation of the shape outlines
+	 */
+	private static synchronized short[][] getTriangulation() {
+		if (triangulation == null) {
+			triangulation = new short[SHAPE_COUNT][];
+			for (int ii = 0; ii < SHAPE_COUNT; ii++) {
+				triangulation[ii] = PolygonObstacle.triangulate(OUTLINES[ii]);
+			}
+		}
+		return triangulation;
+	}
+
+	// READING JSON
+
+	/**
+	 * Returns the room defined by the contents of a room JSON, validating it
+	 *
+	 * The room remembers the length and CRC-32 of the JSON, so that its compiled
+	 * form can be checked against the JSON later.
+	 *
+	 * @param source	The contents of the room JSON
+	 * @param path		The path to the room JSON (for error messages)
+	 *
+	 * @throws GdxRuntimeException if a required value is missing or invalid
+	 *
+	 * @return the room defined by the contents of a room JSON
+	 */
+	public static RoomFile parse(byte[] source, String path) {
+		RoomFile room = parse(new JsonReader().parse(new String(source, UTF8)), path);
+		room.sourceLength = source.length;
+		room.sourceChecksum = checksum(source);
+		return room;
+	}
+
+	/**
+	 * Returns the room defined by a room JSON, validating it
+	 *
+	 * A list of shapes, enemies or turrets that is missing is empty.
+	 *
+	 * @param json	The parsed room JSON
+	 * @param path	The path to the room JSON (for error messages)
+	 *
+	 * @throws GdxRuntimeException if a required value is missing or invalid
+	 *
+	 * @return the room defined by a room JSON
+	 */
+	public static RoomFile parse(JsonValue json, String path) {
+		RoomFile room = new RoomFile();
+		room.presentBackground = require(json, "present_background", path).asString();
+		room.pastBackground = require(json, "past_background", path).asString();
+		room.gravity = require(json, "gravity", path).asFloat();
+		float[] bounds = getPair(json, "bounds", path);
+		room.width = bounds[0];
+		room.height = bounds[1];
+
+		room.entities.add(parseEntity(DOOR, require(json, "door", path)));
+		for (int ii = 0; ii < SHAPE_COUNT; ii++) {
+			JsonValue list = json.get(SHAPE_LISTS[ii]);
+			for (JsonValue child = list == null ? null : list.child; child != null; child = child.next) {
+				Entity entity = parseEntity(ii == SPIKE ? SPIKES : PLATFORM, child);
+				entity.shape = ii;
+				room.entities.add(entity);
+			}
+		}
+		room.entities.add(parseEntity(AVATAR, require(json, "avatar", path)));
+		JsonValue list = json.get("enemies");
+		for (JsonValue child = list == null ? null : list.child; child != null; child = child.next) {
+			room.entities.add(parseEntity(ENEMY, child));
+		}
+		list = json.get("turrets");
+		for (JsonValue child = list == null ? null : list.child; child != null; child = child.next) {
+			room.entities.add(parseEntity(TURRET, child));
+		}
+		return room;
+	}
+
+	/**
+	 * Returns the entity defined by a JSON subtree, validating it
+	 *
+	 * The models use this to initialize themselves from a JSON.
+	 *
+	 * @param type	The type of entity
+	 * @param json	The JSON subtree defining the entity
+	 *
+	 * @throws GdxRuntimeException if a required value is missing or invalid
+	 *
+	 * @return the entity defined by a JSON subtree
+	 */
+	public static Entity parseEntity(int type, JsonValue json) {
+		String where = json.name();
+		Entity entity = new Entity();
+		entity.type = type;
+		entity.name = json.name();
+		entity.texture = require(json, "texture", where).asString();
+		float[] pos = getPair(json, "pos", where);
+		entity.x = pos[0];
+		entity.y = pos[1];
+		String body = require(json, "bodytype", where).asString();
+		if (!body.equals("static") && !body.equals("dynamic")) {
+			throw new GdxRuntimeException(where + ": unknown body type \"" + body + "\"");
+		}
+		entity.bodyType = body.equals("static") ? BodyDef.BodyType.StaticBody : BodyDef.BodyType.DynamicBody;
+		entity.density = require(json, "density", where).asFloat();
+
+		switch (type) {
+		case DOOR:
+			float[] size = getPair(json, "size", where);
+			entity.width = size[0];
+			entity.height = size[1];
+			entity.friction = require(json, "friction", where).asFloat();
+			entity.restitution = require(json, "restitution", where).asFloat();
+			entity.space = require(json, "space", where).asInt();
+			entity.nextLevel = require(json, "nextlevel", where).asInt();
+			break;
+		case PLATFORM:
+		case SPIKES:
+			if (type == PLATFORM) {
+				entity.name = require(json, "name", where).asString();
+			} else {
+				entity.angle = require(json, "angle", where).asFloat();
+			}
+			entity.friction = require(json, "friction", where).asFloat();
+			entity.restitution = require(json, "restitution", where).asFloat();
+			entity.space = require(json, "space", where).asInt();
+			break;
+		case AVATAR:
+			float[] shrink = getPair(json, "shrink", where);
+			entity.width = shrink[0];
+			entity.height = shrink[1];
+			entity.filmstrips = new String[] {
+				require(json, "avatarstanding", where).asString(),
+				require(json, "avatarcrouching", where).asString(),
+				require(json, "avatardashing", where).asString(),
+				require(json, "avatarfalling", where).asString()
+			};
+			break;
+		case ENEMY:
+		case TURRET:
+			shrink = getPair(json, "shrink", where);
+			entity.width = shrink[0];
+			entity.height = shrink[1];
+			entity.era = require(json, "entitytype", where).asString();
+			if (!entity.era.equals("present") && !entity.era.equals("past")) {
+				throw new GdxRuntimeException(where + ": unknown entity type \"" + entity.era + "\"");
+			}
+			entity.cooldown = require(json, "cooldown", where).asInt();
+			if (type == ENEMY) {
+				entity.aiType = require(json, "aitype", where).asInt();
+			} else {
+				float[] dir = getPair(json, "direction", where);
+				entity.dirX = dir[0];
+				entity.dirY = dir[1];
+			}
+			break;
+		default:
+			throw new GdxRuntimeException(where + ": unknown entity type " + type);
+		}
+		return entity;
+	}
+
+	/**
+	 * Returns a required child of a JSON value
+	 *
+	 * @param json	The JSON value
+	 * @param name	The name of the child
+	 * @param where	The name of the JSON value (for error messages)
+	 *
+	 * @throws GdxRuntimeException if the child is missing
+	 *
+	 * @return a required child of a JSON value
+	 */
+	private static JsonValue require(JsonValue json, String name, String where) {
+		JsonValue child = json.get(name);
+		if (child == null) {
+			throw new GdxRuntimeException(where + ": missing \"" + name + "\"");
+		}
+		return child;
+	}
+
+	/**
+	 * Returns a required child of a JSON value that is a pair of numbers
+	 *
+	 * @param json	The JSON value
+	 * @param name	The name of the child
+	 * @param where	The name of the JSON value (for error messages)
+	 *
+	 * @throws GdxRuntimeException if the child is missing or not a pair
+	 *
+	 * @return a required child of a JSON value that is a pair of numbers
+	 */
+	private static float[] getPair(JsonValue json, String name, String where) {
+		JsonValue child = require(json, name, where);
+		if (!child.isArray() || child.size != 2) {
+			throw new GdxRuntimeException(where + ": \"" + name + "\" is not a pair of numbers");
+		}
+		return child.asFloatArray();
+	}
+
+	// COMPILED FORM
+
+	/**
+	 * Returns the room in a compiled room
+	 *
+	 * Compiled rooms are big-endian.  The header is the magic number, the
+	 * version, and the length and CRC-32 of the JSON the room was compiled from.
+	 * It is followed by the string table, the room attributes, the shapes
+	 * (outline and triangles) and the entity records.  Strings are referred to
+	 * by their index in the table (-1 for none).
+	 *
+	 * @param buffer	The bytes of the compiled room
+	 *
+	 * @throws GdxRuntimeException if the bytes are not a compiled room of this version
+	 *
+	 * @return the room in a compiled room
+	 */
+	public static RoomFile read(ByteBuffer buffer) {
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new GdxRuntimeException("not a compiled room");
+			}
+			int version = buffer.getShort();
+			if (version != VERSION) {
+				throw new GdxRuntimeException("compiled room is version " + version + ", not " + VERSION);
+			}
+			int sourceLength = buffer.getInt();
+			int sourceChecksum = buffer.getInt();
+
+			String[] strings = new String[buffer.getShort()];
+			for (int ii = 0; ii < strings.length; ii++) {
+				byte[] bytes = new byte[buffer.getShort()];
+				buffer.get(bytes);
+				strings[ii] = new String(bytes, UTF8);
+			}
+
+			RoomFile room = new RoomFile();
+			room.sourceLength = sourceLength;
+			room.sourceChecksum = sourceChecksum;
+			room.presentBackground = strings[buffer.getShort()];
+			room.pastBackground = strings[buffer.getShort()];
+			room.gravity = buffer.getFloat();
+			room.width = buffer.getFloat();
+			room.height = buffer.getFloat();
+
+			int shapes = buffer.get();
+			room.outlines = new float[shapes][];
+			room.triangles = new short[shapes][];
+			room.templates = new PolygonTemplate[shapes];
+			for (int ii = 0; ii < shapes; ii++) {
+				room.outlines[ii] = new float[buffer.getShort()];
+				for (int jj = 0; jj < room.outlines[ii].length; jj++) {
+					room.outlines[ii][jj] = buffer.getFloat();
+				}
+				room.triangles[ii] = new short[buffer.getShort()];
+				for (int jj = 0; jj < room.triangles[ii].length; jj++) {
+					room.triangles[ii][jj] = buffer.getShort();
+				}
+			}
+
+			int count = buffer.getShort();
+			room.entities.ensureCapacity(count);
+			for (int ii = 0; ii < count; ii++) {
+				Entity entity = new Entity();
+				entity.type = buffer.get();
+				entity.shape = buffer.get();
+				entity.name = getString(strings, buffer.getShort());
+				entity.texture = getString(strings, buffer.getShort());
+				entity.era = getString(strings, buffer.getShort());
+				entity.x = buffer.getFloat();
+				entity.y = buffer.getFloat();
+				entity.width = buffer.getFloat();
+				entity.height = buffer.getFloat();
+				entity.bodyType = buffer.get() == 0 ? BodyDef.BodyType.StaticBody : BodyDef.BodyType.DynamicBody;
+				entity.density = buffer.getFloat();
+				entity.friction = buffer.getFloat();
+				entity.restitution = buffer.getFloat();
+				entity.angle = buffer.getFloat();
+				entity.space = buffer.get();
+				entity.nextLevel = buffer.getShort();
+				entity.cooldown = buffer.getShort();
+				entity.aiType = buffer.get();
+				entity.dirX = buffer.getFloat();
+				entity.dirY = buffer.getFloat();
+				int strips = buffer.get();
+				if (strips > 0) {
+					entity.filmstrips = new String[strips];
+					for (int jj = 0; jj < strips; jj++) {
+						entity.filmstrips[jj] = strings[buffer.getShort()];
+					}
+				}
+				room.entities.add(entity);
+			}
+			return room;
+		} catch (BufferUnderflowException e) {
+			throw new GdxRuntimeException("compiled room is truncated", e);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new GdxRuntimeException("compiled room is corrupt", e);
+		}
+	}
+
+	/**
+	 * Returns a string of the string table
+	 *
+	 * @param strings	The string table
+	 * @param index		The index of the string (-1 for none)
+	 *
+	 * @return a string of the string table (or null for none)
+	 */
+	private static String getString(String[] strings, int index) {
+		return index < 0 ? null : strings[index];
+	}
+
+	/**
+	 * Writes the compiled form of this room (see read)
+	 *
+	 * @param output	The stream to write to
+	 *
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void write(OutputStream output) throws IOException {
+		ObjectIntMap<String> index = new ObjectIntMap<String>();
+		Array<String> strings = new Array<String>();
+		addString(presentBackground, index, strings);
+		addString(pastBackground, index, strings);
+		for (int ii = 0; ii < entities.size; ii++) {
+			Entity entity = entities.get(ii);
+			addString(entity.name, index, strings);
+			addString(entity.texture, index, strings);
+			addString(entity.era, index, strings);
+			if (entity.filmstrips != null) {
+				for (String strip : entity.filmstrips) {
+					addString(strip, index, strings);
+				}
+			}
+		}
+
+		DataOutputStream out = new DataOutputStream(output);
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeInt(sourceLength);
+		out.writeInt(sourceChecksum);
+		out.writeShort(strings.size);
+		for (String string : strings) {
+			byte[] bytes = string.getBytes(UTF8);
+			out.writeShort(bytes.length);
+			out.write(bytes);
+		}
+		out.writeShort(getIndex(presentBackground, index));
+		out.writeShort(getIndex(pastBackground, index));
+		out.writeFloat(gravity);
+		out.writeFloat(width);
+		out.writeFloat(height);
+
+		out.writeByte(outlines.length);
+		for (int ii = 0; ii < outlines.length; ii++) {
+			out.writeShort(outlines[ii].length);
+			for (float value : outlines[ii]) {
+				out.writeFloat(value);
+			}
+			out.writeShort(triangles[ii].length);
+			for (short value : triangles[ii]) {
+				out.writeShort(value);
+			}
+		}
+
+		out.writeShort(entities.size);
+		for (int ii = 0; ii < entities.size; ii++) {
+			Entity entity = entities.get(ii);
+			out.writeByte(entity.type);
+			out.writeByte(entity.shape);
+			out.writeShort(getIndex(entity.name, index));
+			out.writeShort(getIndex(entity.texture, index));
+			out.writeShort(getIndex(entity.era, index));
+			out.writeFloat(entity.x);
+			out.writeFloat(entity.y);
+			out.writeFloat(entity.width);
+			out.writeFloat(entity.height);
+			out.writeByte(entity.bodyType == BodyDef.BodyType.StaticBody ? 0 : 1);
+			out.writeFloat(entity.density);
+			out.writeFloat(entity.friction);
+			out.writeFloat(entity.restitution);
+			out.writeFloat(entity.angle);
+			out.writeByte(entity.space);
+			out.writeShort(entity.nextLevel);
+			out.writeShort(entity.cooldown);
+			out.writeByte(entity.aiType);
+			out.writeFloat(entity.dirX);
+			out.writeFloat(entity.dirY);
+			if (entity.filmstrips == null) {
+				out.writeByte(0);
+			} else {
+				out.writeByte(entity.filmstrips.length);
+				for (String strip : entity.filmstrips) {
+					out.writeShort(getIndex(strip, index));
+				}
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Adds a string to the string table, if it is not there already
+	 *
+	 * @param string	The string (or null)
+	 * @param index		The index of each string in the table
+	 * @param strings	The string table
+	 */
+	private static void addString(String string, ObjectIntMap<String> index, Array<String> strings) {
+		if (string != null && !index.containsKey(string)) {
+			index.put(string, strings.size);
+			strings.add(string);
+		}
+	}
+
+	/**
+	 * Returns the index of a string in the string table (-1 for null)
+	 *
+	 * @param string	The string (or null)
+	 * @param index		The index of each string in the table
+	 *
+	 * @return the index of a string in the string table
+	 */
+	private static int getIndex(String string, ObjectIntMap<String> index) {
+		return string == null ? -1 : index.get(string, -1);
+	}
+
+	// ACCESSORS
+
+	/**
+	 * Returns the texture key of the present background
+	 *
+	 * @return the texture key of the present background
+	 */
+	public String getPresentBackground() {
+		return presentBackground;
+	}
+
+	/**
+	 * Returns the texture key of the past background
+	 *
+	 * @return the texture key of the past background
+	 */
+	public String getPastBackground() {
+		return pastBackground;
+	}
+
+	/**
+	 * Returns the gravity of the room
+	 *
+	 * @return the gravity of the room
+	 */
+	public float getGravity() {
+		return gravity;
+	}
+
+	/**
+	 * Returns the width of the room, in physics units
+	 *
+	 * @return the width of the room, in physics units
+	 */
+	public float getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the room, in physics units
+	 *
+	 * @return the height of the room, in physics units
+	 */
+	public float getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the shared template of a shape
+	 *
+	 * The template is looked up the first time each shape is asked for.  Every
+	 * room with the same outline gets the same template.
+	 *
+	 * @param shape	The shape (CAPSULE through SPIKE)
+	 *
+	 * @return the shared template of a shape
+	 */
+	public PolygonTemplate getTemplate(int shape) {
+		if (templates[shape] == null) {
+			templates[shape] = PolygonTemplate.get(outlines[shape], triangles[shape]);
+		}
+		return templates[shape];
+	}
+
+	/**
+	 * Returns the entities of the room, in the order they are created
+	 *
+	 * @return the entities of the room, in the order they are created
+	 */
+	public Array<Entity> getEntities() {
+		return entities;
+	}
+
+	/**
+	 * Returns the first entity of the given type (or null if there is none)
+	 *
+	 * @param type	The type of entity
+	 *
+	 * @return the first entity of the given type (or null if there is none)
+	 */
+	public Entity getEntity(int type) {
+		for (int ii = 0; ii < entities.size; ii++) {
+			if (entities.get(ii).type == type) {
+				return entities.get(ii);
+			}
+		}
+		return null;
+	}
+}
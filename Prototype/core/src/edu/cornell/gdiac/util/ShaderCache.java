@@ -0,0 +1,145 @@
+/*
+ * ShaderCache.java
+ *
+ * Every room used to compile its own copy of the ripple shader when it was
+ * constructed, so the same program was compiled and kept alive once per room.
+ * This cache compiles each distinct program once, the first time it is asked
+ * for, and hands the same program to everyone after that.
+ *
+ * Programs are keyed by their sources, not by their file names, so two files
+ * with the same contents share a program.  The time spent compiling is kept
+ * (and logged) so that the cost of the shaders is visible.
+ *
+ * Note that this class is a Singleton, like SoundController.  The programs
+ * must only be used on the GL thread.
+ */
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.utils.*;
+
+/**
+ * A singleton cache of compiled shader programs
+ */
+public class ShaderCache implements Disposable {
+	/** The singleton cache */
+	private static ShaderCache cache;
+
+	/** The sources read so far, by file name */
+	private ObjectMap<String,String> sources;
+	/** The compiled programs, by their vertex and fragment sources */
+	private ObjectMap<String,ShaderProgram> programs;
+	/** The number of programs compiled */
+	private int compiled;
+	/** The total time spent compiling (in nanoseconds) */
+	private long compileTime;
+
+	/**
+	 * Returns a reference to the singleton shader cache
+	 *
+	 * If there is no cache, this method will initialize one immediately.
+	 *
+	 * @return a reference to the singleton shader cache
+	 */
+	public static ShaderCache getInstance() {
+		if (cache == null) {
+			cache = new ShaderCache();
+		}
+		return cache;
+	}
+
+	/**
+	 * Creates an empty shader cache.
+	 *
+	 * This constructor is hidden, as the cache is a singleton.
+	 */
+	private ShaderCache() {
+		sources = new ObjectMap<String,String>();
+		programs = new ObjectMap<String,ShaderProgram>();
+		compiled = 0;
+		compileTime = 0;
+	}
+
+	/**
+	 * Returns the program for the given shader files, compiling it if necessary.
+	 *
+	 * Each file is only read once.  The program is compiled the first time a
+	 * pair of sources is asked for; every later call returns the same program.
+	 * A program that fails to compile is still cached (its log is reported).
+	 *
+	 * @param vertexFile	The internal path to the vertex shader
+	 * @param fragmentFile	The internal path to the fragment shader
+	 *
+	 * @return the program for the given shader files
+	 */
+	public ShaderProgram get(String vertexFile, String fragmentFile) {
+		String vert = getSource(vertexFile);
+		String frag = getSource(fragmentFile);
+		String key = vert + '\0' + frag;
+		ShaderProgram program = programs.get(key);
+		if (program == null) {
+			ShaderProgram.pedantic = false;
+			long start = System.nanoTime();
+			program = new ShaderProgram(vert, frag);
+			long time = System.nanoTime() - start;
+			compiled++;
+			compileTime += time;
+			programs.put(key, program);
+			Gdx.app.log("ShaderCache", "Compiled " + vertexFile + " and " + fragmentFile +
+						" in " + (time / 1000000f) + " ms (" + compiled + " programs, " +
+						getCompileTime() + " ms total)");
+			if (!program.isCompiled()) {
+				Gdx.app.error("ShaderCache", program.getLog());
+			}
+		}
+		return program;
+	}
+
+	/**
+	 * Returns the number of programs compiled so far
+	 *
+	 * @return the number of programs compiled so far
+	 */
+	public int getCompiled() {
+		return compiled;
+	}
+
+	/**
+	 * Returns the total time spent compiling programs (in milliseconds)
+	 *
+	 * @return the total time spent compiling programs (in milliseconds)
+	 */
+	public float getCompileTime() {
+		return compileTime / 1000000f;
+	}
+
+	/**
+	 * Disposes of every program in the cache.
+	 *
+	 * Anyone still holding a program must get it again after this.
+	 */
+	public void dispose() {
+		for (ShaderProgram program : programs.values()) {
+			program.dispose();
+		}
+		programs.clear();
+		sources.clear();
+	}
+
+	/**
+	 * Returns the contents of an internal shader file, reading it if necessary
+	 *
+	 * @param file	The internal path to the shader
+	 *
+	 * @return the contents of an internal shader file
+	 */
+	private String getSource(String file) {
+		String source = sources.get(file);
+		if (source == null) {
+			source = Gdx.files.internal(file).readString();
+			sources.put(file, source);
+		}
+		return source;
+	}
+}
@@ -0,0 +1,353 @@
+/*
+ * AtlasPacker.java
+ *
+ * Packs the loose textures and filmstrips of the asset directory into a few
+ * texture atlases, one per usage group (gameplay, HUD and menus).  Every time
+ * the sprite batch draws from a different texture it has to flush, and a room
+ * draws platforms, enemies, projectiles and indicators that each come from their
+ * own file.  With the textures of a group on one page, most of a frame is drawn
+ * in a single batch.
+ *
+ * The output is a standard LibGDX .atlas file (and its pages) for each group,
+ * plus an index in atlases/index.json that JsonAssetManager reads to know which
+ * files were packed.  The region for a file is named by its path in the asset
+ * directory.  Delete the atlases directory to go back to the loose textures.
+ *
+ * Textures that repeat (wrap), JPEG backgrounds and images too large for a
+ * page are left loose.  Each region is padded, and its border pixels
+ * are copied into the padding, so that linear filtering never bleeds in pixels
+ * from a neighbouring region.
+ *
+ * It must be run from the assets directory (the gradle task does this for you).
+ */
+package edu.cornell.gdiac.tempus.headless;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import edu.cornell.gdiac.util.JsonAssetManager;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Comparator;
+
+/**
+ * Command line tool that packs the asset directory into texture atlases.
+ */
+public class AtlasPacker {
+	/**
+	 * The usage groups, in order of precedence.
+	 *
+	 * The first entry of each row is the name of the atlas.  The rest are path
+	 * prefixes; a file goes into the first group with a matching prefix, and
+	 * files that match no group are left loose.  If a group needs more than one
+	 * page, the first page is filled with the earlier prefixes (and the smaller
+	 * images) first, so that the platforms of a room share a page.
+	 */
+	private static final String[][] GROUPS = {
+		{ "gameplay", "textures/platform/", "textures/enemy/", "textures/general/", "textures/endgame/end_platform",
+			"textures/dude", "textures/barrier", "filmstrips/" },
+		{ "hud", "textures/indicators/", "textures/gui/roommode/", "textures/gui/pause", "textures/gui/win_",
+			"textures/gui/settings_button" },
+		{ "menus", "textures/gui/" },
+	};
+
+	/** The directory for the atlases (relative to the assets directory) */
+	private static final String OUTPUT = "atlases";
+	/** The largest page of an atlas, in pixels on a side */
+	private static final int MAX_PAGE = 4096;
+	/** The smallest page of an atlas, in pixels on a side */
+	private static final int MIN_PAGE = 256;
+	/** The largest image that is packed, in pixels on a side */
+	private static final int MAX_REGION = 2048;
+	/** The pixels of padding around each region (filled from its border) */
+	private static final int PADDING = 2;
+
+	/** An image to place in an atlas */
+	private static class Entry {
+		/** The path of the image file, which is also the name of its region */
+		public String file;
+		/** The width of the image */
+		public int width;
+		/** The height of the image */
+		public int height;
+		/** The position of the image in its page */
+		public int x, y;
+		/** The index of the prefix that matched the file (lower goes first) */
+		public int priority;
+	}
+
+	/** Orders the entries by priority, then by increasing area */
+	private static final Comparator<Entry> FIRST_CHOICE = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry a, Entry b) {
+			if (a.priority != b.priority) {
+				return a.priority - b.priority;
+			}
+			return a.width * a.height - b.width * b.height;
+		}
+	};
+
+	/** Orders the entries by decreasing height, then by decreasing width */
+	private static final Comparator<Entry> TALLEST_FIRST = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry a, Entry b) {
+			if (a.height != b.height) {
+				return b.height - a.height;
+			}
+			return b.width - a.width;
+		}
+	};
+
+	/**
+	 * Classic main method that all Java programmers know.
+	 *
+	 * @param arg Command line arguments
+	 */
+	public static void main (String[] arg) throws IOException {
+		GdxNativesLoader.load();
+		Files files = new HeadlessFiles();
+		FileHandle output = files.local(OUTPUT);
+		JsonValue assets = new JsonReader().parse(files.internal(HeadlessAssets.ASSET_FILE));
+		String[] kinds = { "textures", "filmstrips" };
+
+		// A file that repeats anywhere must stay loose everywhere
+		ObjectSet<String> seen = new ObjectSet<String>();
+		for (String kind : kinds) {
+			for (JsonValue json = assets.getChild(kind); json != null; json = json.next) {
+				if (json.getBoolean("wrap", false)) {
+					seen.add(json.getString("file"));
+				}
+			}
+		}
+
+		// Sort the image files into their groups
+		ObjectMap<String,Array<Entry>> groups = new ObjectMap<String,Array<Entry>>();
+		for (String[] group : GROUPS) {
+			groups.put(group[0], new Array<Entry>());
+		}
+		for (String kind : kinds) {
+			for (JsonValue json = assets.getChild(kind); json != null; json = json.next) {
+				String file = json.getString("file");
+				if (!seen.add(file) || !file.endsWith(".png")) {
+					continue;
+				}
+				Entry entry = new Entry();
+				entry.file = file;
+				String group = findGroup(entry);
+				FileHandle handle = files.internal(file);
+				if (group == null || !handle.exists()) {
+					continue;
+				}
+				Pixmap image = new Pixmap(handle);
+				entry.width = image.getWidth();
+				entry.height = image.getHeight();
+				image.dispose();
+				if (entry.width <= MAX_REGION && entry.height <= MAX_REGION) {
+					groups.get(group).add(entry);
+				}
+			}
+		}
+
+		if (output.exists()) {
+			output.deleteDirectory();
+		}
+		output.mkdirs();
+		Writer index = files.local(JsonAssetManager.ATLAS_INDEX).writer(false, "UTF-8");
+		JsonWriter writer = new JsonWriter(index);
+		writer.setOutputType(JsonWriter.OutputType.json);
+		writer.object();
+		for (String[] group : GROUPS) {
+			Array<Entry> entries = groups.get(group[0]);
+			if (entries.size == 0) {
+				continue;
+			}
+			FileHandle atlas = output.child(group[0] + ".atlas");
+			int pages = packAtlas(files, atlas, entries);
+			writer.object(group[0]);
+			writer.set("file", atlas.path());
+			writer.array("textures");
+			for (Entry entry : entries) {
+				writer.value(entry.file);
+			}
+			writer.pop();
+			writer.pop();
+			System.out.println(group[0] + ": " + entries.size + " images on " + pages + " page(s)");
+		}
+		writer.pop();
+		writer.close();
+	}
+
+	/**
+	 * Returns the group of an entry, or null if it is not packed
+	 *
+	 * This also sets the priority of the entry within its group.
+	 *
+	 * @param entry The entry for an image file
+	 *
+	 * @return the group of an entry, or null if it is not packed
+	 */
+	private static String findGroup(Entry entry) {
+		for (String[] group : GROUPS) {
+			for (int ii = 1; ii < group.length; ii++) {
+				if (entry.file.startsWith(group[ii])) {
+					entry.priority = ii;
+					return group[0];
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Packs the entries of a group into pages, writing the atlas and its images.
+	 *
+	 * @param files   The file module to read the images with
+	 * @param atlas   The atlas file to write (the pages are written beside it)
+	 * @param entries The entries of the group, which are reordered
+	 *
+	 * @return the number of pages written
+	 */
+	private static int packAtlas(Files files, FileHandle atlas, Array<Entry> entries) {
+		Array<Entry> remaining = new Array<Entry>(entries);
+		Array<Entry> chosen = new Array<Entry>();
+		Array<Entry> placed = new Array<Entry>();
+		StringBuilder text = new StringBuilder();
+		String base = atlas.nameWithoutExtension();
+		int pages = 0;
+		while (remaining.size > 0) {
+			// Use the smallest page that holds everything left, or a full page
+			int width = MAX_PAGE;
+			int height = MAX_PAGE;
+			boolean fits = false;
+			remaining.sort(TALLEST_FIRST);
+			for (int area = MIN_PAGE * MIN_PAGE; !fits && area <= MAX_PAGE * MAX_PAGE; area *= 2) {
+				for (int w = MIN_PAGE; !fits && w <= MAX_PAGE; w *= 2) {
+					int h = area / w;
+					if (h >= MIN_PAGE && h <= MAX_PAGE && placeShelves(remaining, placed, w, h)) {
+						width = w;
+						height = h;
+						fits = true;
+					}
+				}
+			}
+			if (!fits) {
+				// Take the entries in order of choice, skipping any that do not fit
+				remaining.sort(FIRST_CHOICE);
+				chosen.clear();
+				for (Entry entry : remaining) {
+					chosen.add(entry);
+					chosen.sort(TALLEST_FIRST);
+					if (!placeShelves(chosen, placed, MAX_PAGE, MAX_PAGE)) {
+						chosen.removeValue(entry, true);
+					}
+				}
+				width = height = MAX_PAGE;
+				placeShelves(chosen, placed, width, height);
+			}
+
+			pages++;
+			String name = pages == 1 ? base + ".png" : base + pages + ".png";
+			writePage(files, atlas.sibling(name), placed, width, height);
+			text.append('\n').append(name).append('\n');
+			text.append("size: ").append(width).append(',').append(height).append('\n');
+			text.append("format: RGBA8888\n");
+			text.append("filter: Linear,Linear\n");
+			text.append("repeat: none\n");
+			for (Entry entry : placed) {
+				text.append(entry.file).append('\n');
+				text.append("  rotate: false\n");
+				text.append("  xy: ").append(entry.x).append(", ").append(entry.y).append('\n');
+				text.append("  size: ").append(entry.width).append(", ").append(entry.height).append('\n');
+				text.append("  orig: ").append(entry.width).append(", ").append(entry.height).append('\n');
+				text.append("  offset: 0, 0\n");
+				text.append("  index: -1\n");
+				remaining.removeValue(entry, true);
+			}
+		}
+		atlas.writeString(text.toString(), false, "UTF-8");
+		return pages;
+	}
+
+	/**
+	 * Places entries in rows (shelves) on a page of the given size.
+	 *
+	 * The entries must be sorted tallest first.
+	 *
+	 * @param entries The entries to place
+	 * @param placed  The list to store the entries that were placed
+	 * @param width   The width of the page
+	 * @param height  The height of the page
+	 *
+	 * @return true if every entry was placed
+	 */
+	private static boolean placeShelves(Array<Entry> entries, Array<Entry> placed, int width, int height) {
+		placed.clear();
+		int x = 0;
+		int y = 0;
+		int shelf = 0;
+		for (Entry entry : entries) {
+			int w = entry.width + 2 * PADDING;
+			int h = entry.height + 2 * PADDING;
+			if (x + w > width) {
+				x = 0;
+				y += shelf;
+				shelf = 0;
+			}
+			if (w > width || y + h > height) {
+				return false;
+			}
+			entry.x = x + PADDING;
+			entry.y = y + PADDING;
+			x += w;
+			shelf = Math.max(shelf, h);
+			placed.add(entry);
+		}
+		return true;
+	}
+
+	/**
+	 * Draws the placed entries onto a page and writes it as a PNG.
+	 *
+	 * @param files   The file module to read the images with
+	 * @param file    The page file to write
+	 * @param placed  The entries on this page
+	 * @param width   The width of the page
+	 * @param height  The height of the page
+	 */
+	private static void writePage(Files files, FileHandle file, Array<Entry> placed, int width, int height) {
+		Pixmap page = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+		page.setBlending(Pixmap.Blending.None);
+		page.setFilter(Pixmap.Filter.NearestNeighbour);
+		for (Entry entry : placed) {
+			Pixmap image = new Pixmap(files.internal(entry.file));
+			int x = entry.x;
+			int y = entry.y;
+			int w = entry.width;
+			int h = entry.height;
+			page.drawPixmap(image, x, y);
+
+			// Copy the border into the padding
+			page.drawPixmap(image, 0, 0, 1, h, x - PADDING, y, PADDING, h);
+			page.drawPixmap(image, w - 1, 0, 1, h, x + w, y, PADDING, h);
+			page.drawPixmap(image, 0, 0, w, 1, x, y - PADDING, w, PADDING);
+			page.drawPixmap(image, 0, h - 1, w, 1, x, y + h, w, PADDING);
+			page.drawPixmap(image, 0, 0, 1, 1, x - PADDING, y - PADDING, PADDING, PADDING);
+			page.drawPixmap(image, w - 1, 0, 1, 1, x + w, y - PADDING, PADDING, PADDING);
+			page.drawPixmap(image, 0, h - 1, 1, 1, x - PADDING, y + h, PADDING, PADDING);
+			page.drawPixmap(image, w - 1, h - 1, 1, 1, x + w, y + h, PADDING, PADDING);
+			image.dispose();
+		}
+		PixmapIO.writePNG(file, page);
+		page.dispose();
+	}
+}
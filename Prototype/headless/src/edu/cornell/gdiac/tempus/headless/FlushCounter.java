@@ -0,0 +1,164 @@
+/*
+ * FlushCounter.java
+ *
+ * Counts the sprite batch flushes needed to draw a room, with and without the
+ * texture atlases, and with the atlases and a deferred canvas.  The batch flushes
+ * whenever it is handed a different texture from the last one, so this is a
+ * direct measure of how well the atlases and the sorted draw queue group the
+ * textures of a room.  No GL is needed: the stub GL accepts the batch shader and
+ * ignores the draw calls, but the batch still counts them.
+ *
+ * Each room is stepped like the soak test, and its world (the objects and the
+ * enemies, in draw order) is drawn once per frame.  Run the AtlasPacker first,
+ * or the first two counts will be the same.
+ *
+ * Usage: FlushCounter [frames] [room.json ...]
+ *
+ * It must be run from the assets directory (the gradle task does this for you).
+ */
+package edu.cornell.gdiac.tempus.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.tempus.GameCanvas;
+import edu.cornell.gdiac.util.JsonAssetManager;
+
+/**
+ * Application that reports the batch flushes per frame of a list of rooms.
+ */
+public class FlushCounter extends ApplicationAdapter {
+	/** The reference room, if none are given */
+	private static final String DEFAULT_ROOM = "jsons/rooms/1-5.json";
+	/** The default number of frames to draw each room */
+	private static final int DEFAULT_FRAMES = 300;
+
+	/** The flushes of a room over a run */
+	private static class FlushResult {
+		/** The total number of flushes */
+		public long total;
+		/** The most flushes in a single frame */
+		public int most;
+		/** The number of frames drawn */
+		public int frames;
+
+		/** Returns the average flushes per frame */
+		public double perFrame() {
+			return frames == 0 ? 0 : (double) total / frames;
+		}
+	}
+
+	/** The rooms to draw */
+	private Array<String> rooms;
+	/** The number of frames to draw each room */
+	private int frames;
+
+	/**
+	 * Classic main method that all Java programmers know.
+	 *
+	 * @param arg Command line arguments
+	 */
+	public static void main (String[] arg) {
+		int frames = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_FRAMES;
+		Array<String> rooms = new Array<String>();
+		for (int ii = 1; ii < arg.length; ii++) {
+			rooms.add(arg[ii]);
+		}
+		if (rooms.size == 0) {
+			rooms.add(DEFAULT_ROOM);
+		}
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.renderInterval = -1; // All of the work is done in create()
+		new HeadlessApplication(new FlushCounter(rooms, frames), config);
+	}
+
+	/**
+	 * Creates a counter for the given rooms
+	 *
+	 * @param rooms		The paths of the room JSONs
+	 * @param frames	The number of frames to draw each room
+	 */
+	public FlushCounter(Array<String> rooms, int frames) {
+		this.rooms = rooms;
+		this.frames = frames;
+	}
+
+	/**
+	 * Draws every room with the loose textures, then with the atlases, then with
+	 * the atlases on a deferred canvas.
+	 *
+	 * All of the work happens here, on the application thread; the render loop
+	 * is never used.
+	 */
+	@Override
+	public void create() {
+		FlushResult[] loose = countAll(false, false);
+		FlushResult[] packed = countAll(true, false);
+		FlushResult[] sorted = countAll(true, true);
+		for (int ii = 0; ii < rooms.size; ii++) {
+			Gdx.app.log("Flushes", String.format("%-28s loose %6.2f/frame (max %3d)   atlas %6.2f/frame (max %3d)   sorted %6.2f/frame (max %3d)",
+					rooms.get(ii), loose[ii].perFrame(), loose[ii].most, packed[ii].perFrame(), packed[ii].most,
+					sorted[ii].perFrame(), sorted[ii].most));
+		}
+		Gdx.app.exit();
+	}
+
+	/**
+	 * Loads the assets and counts the flushes of every room.
+	 *
+	 * @param atlases	Whether to use the texture atlases
+	 * @param deferred	Whether to queue and sort the draws of each frame
+	 *
+	 * @return the flushes of each room
+	 */
+	private FlushResult[] countAll(boolean atlases, boolean deferred) {
+		JsonAssetManager.clearInstance();
+		JsonAssetManager.getInstance().setUsingAtlases(atlases);
+		JsonValue assets = HeadlessAssets.load();
+		GameCanvas canvas = new GameCanvas();
+		canvas.setDeferred(deferred);
+		FlushResult[] results = new FlushResult[rooms.size];
+		for (int ii = 0; ii < rooms.size; ii++) {
+			results[ii] = count(rooms.get(ii), assets, canvas);
+		}
+		canvas.dispose();
+		JsonAssetManager.getInstance().unloadDirectory();
+		return results;
+	}
+
+	/**
+	 * Builds a room, then steps and draws it, counting the flushes.
+	 *
+	 * @param room		The path to the room JSON
+	 * @param assets	The parsed asset directory
+	 * @param canvas	The canvas to draw to
+	 *
+	 * @return the flushes of the room
+	 */
+	private FlushResult count(String room, JsonValue assets, GameCanvas canvas) {
+		FlushResult result = new FlushResult();
+		RoomSimulation sim = new RoomSimulation(room);
+		try {
+			sim.setCanvas(canvas);
+			sim.build(assets);
+			for (int ii = 0; ii < frames; ii++) {
+				sim.stepFrame();
+				canvas.clear();
+				canvas.begin();
+				sim.drawObjectInWorld();
+				canvas.end();
+				int flushes = canvas.getFlushCount();
+				result.total += flushes;
+				result.most = Math.max(result.most, flushes);
+				result.frames++;
+			}
+		} finally {
+			sim.dispose();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * HeadlessAssets.java
+ *
+ * Loads the model assets without a window.  Both the simulation runner and
+ * the benchmarks need the same textures, filmstrips and sounds that a room
+ * reads when it is built, but neither has a GL context or an audio device.
+ *
+ * This must be called after a headless application has been created (so that
+ * Gdx.files and Gdx.app exist), with the assets directory as the working
+ * directory.
+ */
+package edu.cornell.gdiac.tempus.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.util.JsonAssetManager;
+import edu.cornell.gdiac.util.SoundController;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * Static helpers for loading the game assets in a headless application.
+ */
+public class HeadlessAssets {
+	/** The asset directory shared with the game */
+	public static final String ASSET_FILE = "jsons/assets.json";
+
+	/**
+	 * Loads and allocates the model assets, returning the parsed directory.
+	 *
+	 * This installs a stub GL and disables sound, so that rooms may afterwards
+	 * be built on any thread.
+	 *
+	 * @return the parsed asset directory
+	 */
+	public static JsonValue load() {
+		// Textures need a GL to upload to, even if we never draw them
+		Gdx.gl = Gdx.gl20 = createStubGL();
+
+		JsonValue assets = new JsonReader().parse(Gdx.files.internal(ASSET_FILE));
+		JsonAssetManager manager = JsonAssetManager.getInstance();
+		manager.loadModelDirectory(assets);
+		manager.finishLoading();
+		manager.allocateModelDirectory();
+		SoundController.getInstance().setFrameLimit(0);
+		return assets;
+	}
+
+	/**
+	 * Returns a GL20 that ignores every call.
+	 *
+	 * The headless backend has no GL at all, but the asset manager still creates
+	 * Texture objects.  Every method returns zero, false or null, except that
+	 * shaders and programs are created, compiled and linked successfully.  This
+	 * allows a sprite batch to be created (and its flushes counted) as well.
+	 *
+	 * @return a GL20 that ignores every call
+	 */
+	public static GL20 createStubGL() {
+		return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						String name = method.getName();
+						if (name.equals("glCreateShader") || name.equals("glCreateProgram")) {
+							return 1;
+						} else if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+							((IntBuffer) args[2]).put(0, 1);
+							return null;
+						}
+						Class<?> type = method.getReturnType();
+						if (type == int.class) {
+							return 0;
+						} else if (type == boolean.class) {
+							return false;
+						} else if (type == float.class) {
+							return 0.0f;
+						} else if (type == String.class) {
+							return "";
+						}
+						return null;
+					}
+				});
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * HeadlessLauncher.java
+ *
+ * Launches the room simulation on the LibGDX headless backend.  There is no
+ * window and no GL context, so this can run on a build server.  It must be run
+ * from the assets directory (the gradle run task does this for you).
+ *
+ * Usage: HeadlessLauncher [frames] [threads] [room.json ...]
+ *
+ * With no rooms given, every room of every level in jsons/game.json is run.
+ */
+package edu.cornell.gdiac.tempus.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * The main class of the headless room simulation.
+ */
+public class HeadlessLauncher {
+	/** The game file listing the level JSONs */
+	private static final String GAME_FILE = "jsons/game.json";
+	/** The default number of frames to step each room */
+	private static final int DEFAULT_FRAMES = 600;
+
+	/**
+	 * Classic main method that all Java programmers know.
+	 *
+	 * @param arg Command line arguments
+	 */
+	public static void main (String[] arg) {
+		int frames  = arg.length > 0 ? Integer.parseInt(arg[0]) : DEFAULT_FRAMES;
+		int threads = arg.length > 1 ? Integer.parseInt(arg[1]) : Runtime.getRuntime().availableProcessors();
+		Array<String> rooms = new Array<String>();
+		for (int ii = 2; ii < arg.length; ii++) {
+			rooms.add(arg[ii]);
+		}
+		if (rooms.size == 0) {
+			rooms = allRooms();
+		}
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.renderInterval = -1; // All of the work is done in create()
+		new HeadlessApplication(new SimulationRunner(rooms, frames, threads), config);
+	}
+
+	/**
+	 * Returns the rooms of every level in the game file, in play order.
+	 *
+	 * The application is not running yet, so the files are read directly.
+	 *
+	 * @return the rooms of every level in the game file
+	 */
+	private static Array<String> allRooms() {
+		Files files = new HeadlessFiles();
+		JsonReader reader = new JsonReader();
+		JsonValue game = reader.parse(files.internal(GAME_FILE));
+		Array<String> rooms = new Array<String>();
+		for (String level : game.get("level_jsons").asStringArray()) {
+			JsonValue json = reader.parse(files.internal(level));
+			rooms.addAll(json.get("rooms").asStringArray());
+		}
+		return rooms;
+	}
+}
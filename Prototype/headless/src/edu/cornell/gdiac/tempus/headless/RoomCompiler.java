@@ -0,0 +1,160 @@
+/*
+ * RoomCompiler.java
+ *
+ * Compiles the room JSONs into the binary rooms that RoomFile reads.  A room
+ * JSON is parsed into a DOM every time the room is entered, and any mistake in
+ * it (a missing key, a texture that is not in the asset directory) is only
+ * found when that room is played.  This checks every room up front, and writes
+ * rooms/<name>.room for each one that is valid.  The compiled room records the
+ * length and CRC-32 of its JSON, so a room edited after it was compiled is read
+ * from its JSON until it is compiled again.
+ *
+ * A room is checked for every value its models read, and every texture and
+ * filmstrip it names must be in assets.json.  Rooms with errors are reported
+ * and not written, and the tool then exits with an error so that a build
+ * server notices.
+ *
+ * It must be run from the assets directory (the gradle task does this for you).
+ */
+package edu.cornell.gdiac.tempus.headless;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.SerializationException;
+import edu.cornell.gdiac.util.RoomFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Command line tool that validates the room JSONs and compiles them.
+ */
+public class RoomCompiler {
+	/** The directory of the room JSONs (relative to the assets directory) */
+	private static final String ROOMS = "jsons/rooms";
+
+	/**
+	 * Classic main method that all Java programmers know.
+	 *
+	 * Any arguments are the room JSONs to compile.  With no arguments, every
+	 * JSON in the rooms directory is compiled.
+	 *
+	 * @param arg Command line arguments
+	 */
+	public static void main (String[] arg) throws IOException {
+		GdxNativesLoader.load();
+		Files files = new HeadlessFiles();
+		JsonValue assets = new JsonReader().parse(files.internal(HeadlessAssets.ASSET_FILE));
+		ObjectSet<String> textures = getKeys(assets, "textures");
+		ObjectSet<String> filmstrips = getKeys(assets, "filmstrips");
+
+		String[] paths = arg;
+		if (paths.length == 0) {
+			FileHandle[] list = files.internal(ROOMS).list(".json");
+			paths = new String[list.length];
+			for (int ii = 0; ii < list.length; ii++) {
+				paths[ii] = list[ii].path();
+			}
+			Arrays.sort(paths);
+		}
+
+		FileHandle output = files.local(RoomFile.DIRECTORY);
+		output.mkdirs();
+		int failed = 0;
+		for (String path : paths) {
+			RoomFile room;
+			try {
+				room = RoomFile.parse(files.internal(path).readBytes(), path);
+			} catch (SerializationException e) {
+				System.err.println(path + ": " + e.getMessage());
+				failed++;
+				continue;
+			} catch (GdxRuntimeException e) {
+				System.err.println(path + ": " + e.getMessage());
+				failed++;
+				continue;
+			}
+
+			Array<String> errors = new Array<String>();
+			checkKey(room.getPresentBackground(), textures, "present_background", errors);
+			checkKey(room.getPastBackground(), textures, "past_background", errors);
+			for (RoomFile.Entity entity : room.getEntities()) {
+				switch (entity.type) {
+				case RoomFile.SPIKES:
+					checkKey(entity.texture, textures, entity.name, errors);
+					checkKey(entity.texture + "_past", textures, entity.name, errors);
+					break;
+				case RoomFile.ENEMY:
+					checkKey(entity.texture + "_type" + entity.aiType, textures, entity.name, errors);
+					break;
+				case RoomFile.AVATAR:
+					checkKey(entity.texture, textures, entity.name, errors);
+					for (String strip : entity.filmstrips) {
+						checkKey(strip, filmstrips, entity.name, errors);
+					}
+					break;
+				default:
+					checkKey(entity.texture, textures, entity.name, errors);
+					break;
+				}
+			}
+			if (errors.size > 0) {
+				for (String error : errors) {
+					System.err.println(path + ": " + error);
+				}
+				failed++;
+				continue;
+			}
+
+			OutputStream stream = files.local(RoomFile.getCompiledPath(path)).write(false);
+			try {
+				room.write(stream);
+			} finally {
+				stream.close();
+			}
+		}
+
+		System.out.println("Compiled " + (paths.length - failed) + " of " + paths.length + " rooms into " + output.path());
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Returns the keys of a section of the asset directory
+	 *
+	 * @param assets	The parsed asset directory
+	 * @param section	The name of the section
+	 *
+	 * @return the keys of a section of the asset directory
+	 */
+	private static ObjectSet<String> getKeys(JsonValue assets, String section) {
+		ObjectSet<String> keys = new ObjectSet<String>();
+		for (JsonValue json = assets.getChild(section); json != null; json = json.next) {
+			keys.add(json.name());
+		}
+		return keys;
+	}
+
+	/**
+	 * Adds an error if a key is not in the asset directory
+	 *
+	 * @param key		The key named by the room
+	 * @param keys		The keys of the asset directory section
+	 * @param where		The name of the entity naming the key (for error messages)
+	 * @param errors	The list to add the error to
+	 */
+	private static void checkKey(String key, ObjectSet<String> keys, String where, Array<String> errors) {
+		if (!keys.contains(key)) {
+			errors.add(where + ": \"" + key + "\" is not in " + HeadlessAssets.ASSET_FILE);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * RoomSimulation.java
+ *
+ * A room with nothing but its physics.  This builds the same world, avatar,
+ * enemies and collision handling as a LevelController, but skips the stage,
+ * the ripple shader and everything else that needs a GL context.  It is
+ * stepped at a fixed rate with no player input, which is enough to find rooms
+ * that crash or run slowly.
+ *
+ * Each simulation owns its own Box2D world and must only be touched by the
+ * thread that built it.
+ */
+package edu.cornell.gdiac.tempus.headless;
+
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.tempus.tempus.CollisionController;
+import edu.cornell.gdiac.tempus.tempus.LevelController;
+import edu.cornell.gdiac.util.RoomFile;
+
+/**
+ * A headless room that can be stepped without a window.
+ */
+public class RoomSimulation extends LevelController {
+	/** Width of the virtual screen used to compute the draw scale */
+	private static final float VIRTUAL_WIDTH = 1920/2;
+	/** Height of the virtual screen used to compute the draw scale */
+	private static final float VIRTUAL_HEIGHT = 1080/2;
+
+	/** The number of physics steps taken so far */
+	private long steps;
+
+	/**
+	 * Creates a new headless room for the given JSON
+	 *
+	 * @param json	The path to the room JSON (relative to the assets directory)
+	 */
+	public RoomSimulation(String json) {
+		super(json);
+		steps = 0;
+	}
+
+	/**
+	 * Builds the physics world for this room.
+	 *
+	 * The asset directory must already have been allocated with the model assets.
+	 *
+	 * @param assets	The parsed asset directory
+	 */
+	public void build(JsonValue assets) {
+		build(assets, RoomFile.load(json_filepath));
+	}
+
+	/**
+	 * Builds the physics world from an already parsed room JSON.
+	 *
+	 * This allows a caller to modify the room (such as adding platforms) before
+	 * it is built.  The asset directory must already have been allocated.
+	 *
+	 * @param assets	The parsed asset directory
+	 * @param level		The parsed room JSON
+	 */
+	public void build(JsonValue assets, JsonValue level) {
+		build(assets, RoomFile.parse(level, json_filepath));
+	}
+
+	/**
+	 * Builds the physics world from an already read room.
+	 *
+	 * The asset directory must already have been allocated.
+	 *
+	 * @param assets	The parsed asset directory
+	 * @param level		The room records
+	 */
+	public void build(JsonValue assets, RoomFile level) {
+		assetDirectory = assets;
+		room = level;
+		populateWorld(VIRTUAL_WIDTH, VIRTUAL_HEIGHT);
+
+		// There is no stage to center the camera, so do it here (for culling)
+		camera.position.set(camera.viewportWidth / 2, camera.viewportHeight / 2, 0);
+		camera.update();
+	}
+
+	/**
+	 * Advances the room by a single frame of WORLD_STEP seconds.
+	 *
+	 * This follows the physics half of LevelController.update() and postUpdate(),
+	 * without input, sound, music or camera work.
+	 *
+	 * @return the number of physics steps taken this frame
+	 */
+	public int stepFrame() {
+		enemyController.slowCoolDown(false);
+		int taken = stepWorld(WORLD_STEP, 1.0f);
+		collisionController.processEvents();
+		sleepIfNotInWorld();
+		postUpdate(WORLD_STEP);
+		steps += taken;
+		return taken;
+	}
+
+	/**
+	 * Advances the enemies and the avatar forces by one fixed step.
+	 *
+	 * This is the physics half of LevelController.fixedUpdate(); there are no
+	 * timers, animations or ripple to advance without a player.
+	 */
+	@Override
+	protected void fixedUpdate() {
+		enemyController.processAction();
+		avatar.applyForce();
+	}
+
+	/**
+	 * Returns the number of physics steps taken so far
+	 *
+	 * @return the number of physics steps taken so far
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Returns the number of objects (not counting enemies) in the room
+	 *
+	 * @return the number of objects in the room
+	 */
+	public int getObjectCount() {
+		return objects.size();
+	}
+
+	/**
+	 * Returns the number of enemies in the room
+	 *
+	 * @return the number of enemies in the room
+	 */
+	public int getEnemyCount() {
+		return enemies.size();
+	}
+
+	/**
+	 * Returns the collision controller for this room
+	 *
+	 * @return the collision controller for this room
+	 */
+	public CollisionController getCollisionController() {
+		return collisionController;
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * SimulationRunner.java
+ *
+ * Runs many headless rooms at once and reports how fast each one steps.  The
+ * rooms are independent, so each is built and stepped entirely on one worker
+ * thread with its own Box2D world.  The only shared state is the asset
+ * directory, which is loaded once up front and only read afterwards.
+ *
+ * Sound is disabled (the frame limit is set to zero) so that rooms on
+ * different threads do not race on the SoundController.
+ */
+package edu.cornell.gdiac.tempus.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.util.JsonAssetManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Application that soak-tests a list of rooms on a pool of worker threads.
+ */
+public class SimulationRunner extends ApplicationAdapter {
+	/** The result of simulating a single room */
+	private static class RoomResult {
+		/** The path to the room JSON */
+		public String room;
+		/** The number of physics steps taken */
+		public long steps;
+		/** The time spent stepping (not building) in nanoseconds */
+		public long nanos;
+		/** The number of objects left when the run finished */
+		public int objects;
+		/** The number of enemies left when the run finished */
+		public int enemies;
+		/** The exception that ended the run, if any */
+		public Throwable error;
+
+		/** Returns the steps per second for this run */
+		public double stepsPerSecond() {
+			return nanos == 0 ? 0 : steps * 1e9 / nanos;
+		}
+	}
+
+	/** The rooms to simulate */
+	private Array<String> rooms;
+	/** The number of frames to step each room */
+	private int frames;
+	/** The number of worker threads */
+	private int threads;
+	/** Whether any room failed */
+	private boolean failed;
+
+	/**
+	 * Creates a runner for the given rooms
+	 *
+	 * @param rooms		The paths of the room JSONs
+	 * @param frames	The number of frames to step each room
+	 * @param threads	The number of worker threads
+	 */
+	public SimulationRunner(Array<String> rooms, int frames, int threads) {
+		this.rooms = rooms;
+		this.frames = frames;
+		this.threads = threads;
+		failed = false;
+	}
+
+	/**
+	 * Loads the assets, runs every room and prints the report.
+	 *
+	 * All of the work happens here, on the application thread; the render loop
+	 * is never used.
+	 */
+	@Override
+	public void create() {
+		long start = System.nanoTime();
+		final JsonValue assets = HeadlessAssets.load();
+		Gdx.app.log("Simulation", String.format("Loaded assets in %.1f ms", (System.nanoTime() - start) / 1e6));
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<RoomResult>> futures = new ArrayList<Future<RoomResult>>();
+		start = System.nanoTime();
+		for (final String room : rooms) {
+			futures.add(pool.submit(new Callable<RoomResult>() {
+				@Override
+				public RoomResult call() {
+					return simulate(room, assets);
+				}
+			}));
+		}
+
+		long total = 0;
+		for (Future<RoomResult> future : futures) {
+			RoomResult result;
+			try {
+				result = future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+				failed = true;
+				continue;
+			}
+			if (result.error != null) {
+				failed = true;
+				Gdx.app.error("Simulation", result.room + " FAILED after " + result.steps + " steps", result.error);
+			} else {
+				Gdx.app.log("Simulation", String.format("%-28s %7d steps %10.0f steps/sec %4d objects %3d enemies",
+						result.room, result.steps, result.stepsPerSecond(), result.objects, result.enemies));
+			}
+			total += result.steps;
+		}
+		pool.shutdown();
+
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		Gdx.app.log("Simulation", String.format("%d rooms, %d threads: %d steps in %.2f s (%.0f steps/sec)",
+				rooms.size, threads, total, elapsed, total / elapsed));
+		JsonAssetManager.getInstance().unloadDirectory();
+		if (failed) {
+			// Let a build server see that something went wrong
+			System.exit(1);
+		}
+		Gdx.app.exit();
+	}
+
+	/**
+	 * Builds and steps a single room.  This is run on a worker thread.
+	 *
+	 * @param room		The path to the room JSON
+	 * @param assets	The parsed asset directory
+	 *
+	 * @return the result of the run
+	 */
+	private RoomResult simulate(String room, JsonValue assets) {
+		RoomResult result = new RoomResult();
+		result.room = room;
+		RoomSimulation sim = null;
+		try {
+			sim = new RoomSimulation(room);
+			sim.build(assets);
+			long start = System.nanoTime();
+			for (int ii = 0; ii < frames; ii++) {
+				sim.stepFrame();
+			}
+			result.nanos = System.nanoTime() - start;
+			result.steps = sim.getSteps();
+			result.objects = sim.getObjectCount();
+			result.enemies = sim.getEnemyCount();
+		} catch (Throwable e) {
+			result.error = e;
+			if (sim != null) {
+				result.steps = sim.getSteps();
+			}
+		} finally {
+			if (sim != null) {
+				sim.dispose();
+			}
+		}
+		return result;
+	}
+}